@@ -0,0 +1,96 @@
+package yarin.yal.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import yarin.yal.graph.DinicMaxFlow;
+import yarin.yal.graph.Network;
+import yarin.yal.graph.NetworkEdmondKarp;
+import yarin.yal.graph.PushRelabelMaxFlow;
+import yarin.yal.graph.SparseDinicMaxFlow;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the max flow implementations on the same networks. Network construction is included
+ * in the measurement since all implementations are single use. The subclasses set up the networks.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public abstract class AbstractMaxFlowBenchmark {
+
+    protected Workloads.FlowInstance network;
+
+    @Benchmark
+    public int network() {
+        Workloads.FlowInstance g = network;
+        Network net = new Network(g.nodes);
+        for (int i = 0; i < g.getEdgeCount(); i++) {
+            net.addEdge(g.src[i], g.dest[i], g.capacity[i]);
+        }
+        net.addSourceEdge(g.source, Integer.MAX_VALUE / 2);
+        net.addSinkEdge(g.sink, Integer.MAX_VALUE / 2);
+        return net.flow();
+    }
+
+    @Benchmark
+    public int edmondKarp() {
+        Workloads.FlowInstance g = network;
+        NetworkEdmondKarp net = new NetworkEdmondKarp(g.nodes);
+        for (int i = 0; i < g.getEdgeCount(); i++) {
+            net.addEdge(g.src[i], g.dest[i], g.capacity[i]);
+        }
+        return net.findMaxFlow(g.source, g.sink);
+    }
+
+    @Benchmark
+    public int dinic() {
+        Workloads.FlowInstance g = network;
+        DinicMaxFlow net = new DinicMaxFlow(g.nodes);
+        for (int i = 0; i < g.getEdgeCount(); i++) {
+            net.addEdge(g.src[i], g.dest[i], g.capacity[i]);
+        }
+        return net.maxFlow(g.source, g.sink);
+    }
+
+    @Benchmark
+    public int pushRelabel() {
+        Workloads.FlowInstance g = network;
+        PushRelabelMaxFlow net = new PushRelabelMaxFlow(g.nodes);
+        for (int i = 0; i < g.getEdgeCount(); i++) {
+            net.addEdge(g.src[i], g.dest[i], g.capacity[i]);
+        }
+        return net.maxFlow(g.source, g.sink);
+    }
+
+    @Benchmark
+    public int pushRelabelParallel() {
+        Workloads.FlowInstance g = network;
+        PushRelabelMaxFlow net = new PushRelabelMaxFlow(g.nodes);
+        for (int i = 0; i < g.getEdgeCount(); i++) {
+            net.addEdge(g.src[i], g.dest[i], g.capacity[i]);
+        }
+        return net.maxFlowParallel(g.source, g.sink, ForkJoinPool.commonPool());
+    }
+
+    @Benchmark
+    public long sparseDinic() {
+        Workloads.FlowInstance g = network;
+        SparseDinicMaxFlow net = new SparseDinicMaxFlow(g.nodes, g.getEdgeCount());
+        for (int i = 0; i < g.getEdgeCount(); i++) {
+            net.addEdge(g.src[i], g.dest[i], g.capacity[i]);
+        }
+        return net.maxFlow(g.source, g.sink);
+    }
+}
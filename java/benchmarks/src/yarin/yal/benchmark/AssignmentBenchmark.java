@@ -0,0 +1,66 @@
+package yarin.yal.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import yarin.yal.graph.AssignmentProblem;
+import yarin.yal.graph.CostNetwork;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Dense n x n assignment problems with random costs, solved with the Hungarian algorithm and
+ * as a min cost flow on the complete bipartite graph.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AssignmentBenchmark {
+
+    @Param({"100", "400"})
+    public int n;
+
+    private long[][] cost;
+
+    @Setup
+    public void setup() {
+        Random r = Workloads.random();
+        cost = new long[n][n];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                cost[i][j] = r.nextInt(1000000);
+            }
+        }
+    }
+
+    @Benchmark
+    public long hungarian() {
+        return new AssignmentProblem(cost).getCost();
+    }
+
+    @Benchmark
+    public long minCostFlow() {
+        CostNetwork net = new CostNetwork();
+        int source = 2 * n, sink = 2 * n + 1;
+        for (int i = 0; i < n; i++) {
+            net.addEdge(source, i, 1, 0);
+            net.addEdge(n + i, sink, 1, 0);
+            for (int j = 0; j < n; j++) {
+                net.addEdge(i, n + j, 1, cost[i][j]);
+            }
+        }
+        return net.maxFlowMinCostDijkstra(source, sink)[1];
+    }
+}
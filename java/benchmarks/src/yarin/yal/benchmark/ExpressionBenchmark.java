@@ -0,0 +1,86 @@
+package yarin.yal.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import yarin.yal.ExpressionEvaluator;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Evaluates a formula in two variables for 100000 rows: compiled once and evaluated row by row,
+ * evaluated over the columns in batch, and the same formula written in Java. The parse benchmark
+ * compiles and evaluates a constant formula once per row, as Evaluate does.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ExpressionBenchmark {
+
+    private static final int ROWS = 100000;
+    private static final String FORMULA = "x * x + 2 * x * y - y / (1 + x * x) + 3.5 * (x - y) ^ 2";
+
+    private ExpressionEvaluator.Expression expression;
+    private double[] x, y, result;
+
+    @Setup
+    public void setup() {
+        Random r = Workloads.random();
+        x = new double[ROWS];
+        y = new double[ROWS];
+        result = new double[ROWS];
+        for (int i = 0; i < ROWS; i++) {
+            x[i] = r.nextDouble();
+            y[i] = r.nextDouble();
+        }
+        expression = new ExpressionEvaluator().compile(FORMULA, "x", "y");
+    }
+
+    @Benchmark
+    public double parse() {
+        double sum = 0;
+        String constant = FORMULA.replace("x", "0.25").replace("y", "0.5");
+        for (int i = 0; i < ROWS; i++) {
+            sum += ExpressionEvaluator.Evaluate(constant);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public double compiled() {
+        double sum = 0;
+        double[] values = new double[2];
+        for (int i = 0; i < ROWS; i++) {
+            values[0] = x[i];
+            values[1] = y[i];
+            sum += expression.evaluate(values);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public double[] batch() {
+        expression.evaluate(new double[][] { x, y }, result);
+        return result;
+    }
+
+    @Benchmark
+    public double[] java() {
+        for (int i = 0; i < ROWS; i++) {
+            double a = x[i], b = y[i];
+            result[i] = a * a + 2 * a * b - b / (1 + a * a) + 3.5 * Math.pow(a - b, 2);
+        }
+        return result;
+    }
+}
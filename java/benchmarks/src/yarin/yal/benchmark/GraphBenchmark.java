@@ -0,0 +1,94 @@
+package yarin.yal.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import yarin.yal.graph.CsrGraph;
+import yarin.yal.graph.DirectedGraph;
+import yarin.yal.graph.StronglyConnectedComponents;
+import yarin.yal.graph.TopologicalOrdering;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Strongly connected components and topological ordering on the object graph and on the CSR graph.
+ * The chain workload forms one large component with a deep DFS.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GraphBenchmark {
+
+    @Param({"random", "chain"})
+    public String kind;
+
+    @Param({"100000", "1000000"})
+    public int nodes;
+
+    private DirectedGraph dg;
+    private CsrGraph csr;
+    private int[][] edges;
+
+    @Setup
+    public void setup() {
+        edges = Workloads.directedGraph(kind, nodes, nodes * 3, 1);
+        dg = new DirectedGraph(nodes);
+        for (int i = 0; i < edges[0].length; i++) {
+            dg.addEdge(edges[0][i], edges[1][i]);
+        }
+        csr = CsrGraph.fromEdges(nodes, edges[0], edges[1], (int[]) null, true);
+    }
+
+    @Benchmark
+    public Object sccIterativeObjectGraph() {
+        return new StronglyConnectedComponents().findComponentsIterative(dg);
+    }
+
+    @Benchmark
+    public int[] sccCsr() {
+        return new StronglyConnectedComponents().findComponents(csr);
+    }
+
+    @Benchmark
+    public int[] sccTarjanCsr() {
+        return new StronglyConnectedComponents().findComponentIds(csr);
+    }
+
+    @Benchmark
+    public int[] sccParallelCsr() {
+        return new StronglyConnectedComponents().findComponentsParallel(csr, ForkJoinPool.commonPool());
+    }
+
+    @Benchmark
+    public CsrGraph sccCondensedCsr() {
+        StronglyConnectedComponents algo = new StronglyConnectedComponents();
+        return algo.createCondensedGraph(csr, algo.findComponentIds(csr));
+    }
+
+    @Benchmark
+    public Object topologicalOrderingObjectGraph() {
+        return new TopologicalOrdering().findOrdering(dg);
+    }
+
+    @Benchmark
+    public int[] topologicalOrderingCsr() {
+        return new TopologicalOrdering().findOrdering(csr);
+    }
+
+    @Benchmark
+    public CsrGraph buildCsr() {
+        return CsrGraph.fromEdges(nodes, edges[0], edges[1], (int[]) null, true);
+    }
+}
@@ -0,0 +1,47 @@
+package yarin.yal.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import yarin.yal.gametheory.impartial.GameEvaluator;
+import yarin.yal.gametheory.impartial.LongGameEvaluator;
+import yarin.yal.gametheory.impartial.OctalGame;
+import yarin.yal.gametheory.impartial.examples.TrebleCross;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The nim value of an empty Treblecross strip of 1000 cells, from scratch: with the recursive evaluator
+ * over IGameState objects, with the iterative evaluator over encoded states, and as the octal game 0.007.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GrundyBenchmark {
+
+    private static final int SIZE = 1000;
+
+    @Benchmark
+    public int recursive() {
+        return new GameEvaluator().evaluateFiniteGame(new TrebleCross(SIZE, 0));
+    }
+
+    @Benchmark
+    public int iterative() {
+        return new LongGameEvaluator(TrebleCross.GAME, 1 << 14).evaluate(TrebleCross.encode(SIZE, 0));
+    }
+
+    @Benchmark
+    public int octal() {
+        return new OctalGame(TrebleCross.OCTAL_CODE).getValue(new TrebleCross(SIZE, 0).getHeapSize());
+    }
+}
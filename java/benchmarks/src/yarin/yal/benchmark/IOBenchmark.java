@@ -0,0 +1,92 @@
+package yarin.yal.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import yarin.yal.FastKattio;
+import yarin.yal.Kattio;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares parsing and printing integers with Kattio and FastKattio.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class IOBenchmark {
+
+    @Param({"1000000"})
+    public int count;
+
+    private byte[] input;
+    private int[] values;
+
+    @Setup
+    public void setup() {
+        values = Workloads.randomInts(count, Integer.MAX_VALUE);
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            sb.append(values[i] - (i % 2 == 0 ? 0 : Integer.MAX_VALUE / 2)).append(i % 10 == 9 ? '\n' : ' ');
+        }
+        input = sb.toString().getBytes(StandardCharsets.US_ASCII);
+    }
+
+    @Benchmark
+    public long kattioRead() {
+        Kattio io = new Kattio(new ByteArrayInputStream(input), new ByteArrayOutputStream());
+        long sum = 0;
+        for (int i = 0; i < count; i++) {
+            sum += io.getInt();
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long fastKattioRead() {
+        FastKattio io = new FastKattio(new ByteArrayInputStream(input), new ByteArrayOutputStream());
+        int[] dst = new int[count];
+        io.readInts(dst);
+        long sum = 0;
+        for (int v : dst) {
+            sum += v;
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public int kattioWrite() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(input.length);
+        Kattio io = new Kattio(new ByteArrayInputStream(new byte[0]), out);
+        for (int v : values) {
+            io.println(v);
+        }
+        io.flush();
+        return out.size();
+    }
+
+    @Benchmark
+    public int fastKattioWrite() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(input.length);
+        FastKattio io = new FastKattio(new ByteArrayInputStream(new byte[0]), out);
+        for (int v : values) {
+            io.println(v);
+        }
+        io.flush();
+        return out.size();
+    }
+}
@@ -0,0 +1,97 @@
+package yarin.yal.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import yarin.yal.Interval;
+import yarin.yal.IntervalSet;
+import yarin.yal.LongIntervalSet;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Building an interval set from random intervals and looking up the interval containing random points.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class IntervalSetBenchmark {
+
+    @Param({"100000"})
+    public int size;
+
+    private static final int QUERIES = 1000000;
+
+    private long[] starts, ends, points, sortedPoints;
+    private IntervalSet<Long> intervalSet;
+    private LongIntervalSet longIntervalSet;
+
+    @Setup
+    public void setup() {
+        int range = size * 100;
+        int[] s = Workloads.randomInts(size, range), lengths = Workloads.randomInts(size, 50), q = Workloads.randomInts(QUERIES, range);
+        starts = new long[size];
+        ends = new long[size];
+        intervalSet = new IntervalSet<>();
+        for (int i = 0; i < size; i++) {
+            starts[i] = s[i];
+            ends[i] = s[i] + lengths[i] + 1;
+            intervalSet.add(new Interval<>(starts[i], ends[i]));
+        }
+        longIntervalSet = LongIntervalSet.of(starts, ends);
+        points = new long[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            points[i] = q[i];
+        }
+        sortedPoints = points.clone();
+        Arrays.sort(sortedPoints);
+    }
+
+    @Benchmark
+    public void intervalSetBuild(Blackhole bh) {
+        IntervalSet<Long> set = new IntervalSet<>();
+        for (int i = 0; i < size; i++) {
+            set.add(new Interval<>(starts[i], ends[i]));
+        }
+        bh.consume(set);
+    }
+
+    @Benchmark
+    public void longIntervalSetBuild(Blackhole bh) {
+        bh.consume(LongIntervalSet.of(starts, ends));
+    }
+
+    @Benchmark
+    public void intervalSetStabbing(Blackhole bh) {
+        for (long p : points) {
+            bh.consume(intervalSet.findOverlappingInterval(new Interval<>(p, p + 1)));
+        }
+    }
+
+    @Benchmark
+    public void longIntervalSetStabbing(Blackhole bh) {
+        for (long p : points) {
+            bh.consume(longIntervalSet.findContaining(p));
+        }
+    }
+
+    @Benchmark
+    public void longIntervalSetSortedBatchStabbing(Blackhole bh) {
+        int[] result = new int[QUERIES];
+        longIntervalSet.findContaining(sortedPoints, result);
+        bh.consume(result);
+    }
+}
@@ -0,0 +1,78 @@
+package yarin.yal.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import yarin.yal.graph.HopcroftKarp;
+import yarin.yal.graph.SparseDinicMaxFlow;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Maximum matching in a random bipartite graph with the given number of nodes on each side and
+ * four edges per node. The warm start begins from the matching of the graph without its last 1% of edges.
+ * The unit capacity max flow is the baseline.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MatchingBenchmark {
+
+    @Param({"10000", "1000000"})
+    public int nodes;
+
+    private int[] left, right, previous;
+
+    @Setup
+    public void setup() {
+        Random r = Workloads.random();
+        int m = 4 * nodes;
+        left = new int[m];
+        right = new int[m];
+        for (int i = 0; i < m; i++) {
+            left[i] = r.nextInt(nodes);
+            right[i] = r.nextInt(nodes);
+        }
+        int k = m - m / 100;
+        HopcroftKarp hk = new HopcroftKarp(nodes, nodes, Arrays.copyOf(left, k), Arrays.copyOf(right, k));
+        hk.findMaximumMatching();
+        previous = hk.getMatchLeft();
+    }
+
+    @Benchmark
+    public int hopcroftKarp() {
+        return new HopcroftKarp(nodes, nodes, left, right).findMaximumMatching();
+    }
+
+    @Benchmark
+    public int hopcroftKarpWarmStart() {
+        return new HopcroftKarp(nodes, nodes, left, right).findMaximumMatching(previous);
+    }
+
+    @Benchmark
+    public long sparseDinic() {
+        SparseDinicMaxFlow net = new SparseDinicMaxFlow(2 * nodes + 2, left.length + 2 * nodes);
+        int source = 2 * nodes, sink = 2 * nodes + 1;
+        for (int i = 0; i < nodes; i++) {
+            net.addEdge(source, i, 1);
+            net.addEdge(nodes + i, sink, 1);
+        }
+        for (int i = 0; i < left.length; i++) {
+            net.addEdge(left[i], nodes + right[i], 1);
+        }
+        return net.maxFlow(source, sink);
+    }
+}
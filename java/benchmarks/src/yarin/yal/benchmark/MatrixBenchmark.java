@@ -0,0 +1,119 @@
+package yarin.yal.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import yarin.yal.mathlib.LUDecomposition;
+import yarin.yal.mathlib.Matrix;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Dense n x n matrix operations. The naive multiplication is the previous triple loop over double[][],
+ * and the equations are ten systems with the same left hand side.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MatrixBenchmark {
+
+    @Param({"100", "500"})
+    public int n;
+
+    private static final int SYSTEMS = 10;
+
+    private Matrix a, b;
+    private double[][] a2, b2;
+    private Matrix[] augmented;
+    private double[][] rhs;
+
+    @Setup
+    public void setup() {
+        Random r = Workloads.random();
+        a = new Matrix(n, n);
+        b = new Matrix(n, n);
+        a2 = new double[n][n];
+        b2 = new double[n][n];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                a2[i][j] = r.nextDouble();
+                b2[i][j] = r.nextDouble();
+                a.set(i, j, a2[i][j]);
+                b.set(i, j, b2[i][j]);
+            }
+        }
+        augmented = new Matrix[SYSTEMS];
+        rhs = new double[SYSTEMS][n];
+        for (int s = 0; s < SYSTEMS; s++) {
+            Matrix column = new Matrix(n, 1);
+            for (int i = 0; i < n; i++) {
+                rhs[s][i] = r.nextDouble();
+                column.set(i, 0, rhs[s][i]);
+            }
+            augmented[s] = a.getAugmentedMatrix(column);
+        }
+    }
+
+    @Benchmark
+    public double[][] mulNaive() {
+        double[][] c = new double[n][n];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                double sum = 0.0;
+                for (int k = 0; k < n; k++)
+                    sum += a2[i][k] * b2[k][j];
+                c[i][j] = sum;
+            }
+        }
+        return c;
+    }
+
+    @Benchmark
+    public Matrix mulBlocked() {
+        return Matrix.mul(a, b);
+    }
+
+    @Benchmark
+    public Matrix mulParallel() {
+        return Matrix.mul(a, b, ForkJoinPool.commonPool());
+    }
+
+    @Benchmark
+    public Matrix add() {
+        return Matrix.add(a, b);
+    }
+
+    @Benchmark
+    public void solveGauss(Blackhole bh) {
+        for (Matrix m : augmented) {
+            bh.consume(m.solveLinearEquation());
+        }
+    }
+
+    @Benchmark
+    public void solveLU(Blackhole bh) {
+        LUDecomposition lu = new LUDecomposition(a);
+        for (double[] y : rhs) {
+            bh.consume(lu.solve(y));
+        }
+    }
+
+    @Benchmark
+    public Matrix inverse() {
+        return a.getInverse();
+    }
+}
@@ -0,0 +1,81 @@
+package yarin.yal.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import yarin.yal.mathlib.MatrixInt;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Raises a random n x n matrix to the power 10^18 modulo a prime. The naive version squares with a
+ * triple loop that reduces after every multiply-add and allocates a new matrix per step.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MatrixIntBenchmark {
+
+    @Param({"50", "200"})
+    public int n;
+
+    @Param({"1000003", "1000000007"})
+    public int mod;
+
+    private static final long EXPONENT = 1000000000000000000L;
+
+    private MatrixInt matrix;
+
+    @Setup
+    public void setup() {
+        Random r = Workloads.random();
+        matrix = new MatrixInt(n, n, mod);
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                matrix.set(i, j, r.nextInt(mod));
+            }
+        }
+    }
+
+    @Benchmark
+    public MatrixInt powNaive() {
+        MatrixInt result = MatrixInt.createIdentity(n, mod), base = matrix;
+        for (long e = EXPONENT; e > 0; e >>= 1) {
+            if ((e & 1) != 0) {
+                result = naiveMul(result, base);
+            }
+            base = naiveMul(base, base);
+        }
+        return result;
+    }
+
+    private MatrixInt naiveMul(MatrixInt a, MatrixInt b) {
+        MatrixInt c = new MatrixInt(n, n, mod);
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                long sum = 0;
+                for (int k = 0; k < n; k++)
+                    sum = (sum + (long) a.get(i, k) * b.get(k, j)) % mod;
+                c.set(i, j, (int) sum);
+            }
+        }
+        return c;
+    }
+
+    @Benchmark
+    public MatrixInt pow() {
+        return matrix.pow(EXPONENT);
+    }
+}
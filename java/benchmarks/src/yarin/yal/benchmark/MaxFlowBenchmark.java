@@ -0,0 +1,21 @@
+package yarin.yal.benchmark;
+
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+
+/**
+ * The max flow implementations on generated networks of different sizes.
+ */
+public class MaxFlowBenchmark extends AbstractMaxFlowBenchmark {
+
+    @Param({"random", "layered"})
+    public String kind;
+
+    @Param({"200", "1000"})
+    public int nodes;
+
+    @Setup
+    public void setup() {
+        network = Workloads.flowNetwork(kind, nodes, nodes * 8);
+    }
+}
@@ -0,0 +1,14 @@
+package yarin.yal.benchmark;
+
+import org.openjdk.jmh.annotations.Setup;
+
+/**
+ * The max flow implementations on the network in the test data, which has a fixed size.
+ */
+public class MaxFlowFileBenchmark extends AbstractMaxFlowBenchmark {
+
+    @Setup
+    public void setup() {
+        network = Workloads.loadNetwork("yarin/yal/graph/network1.in");
+    }
+}
@@ -0,0 +1,84 @@
+package yarin.yal.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import yarin.yal.graph.CostNetwork;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Min cost max flow, either on all cases in the test data or on a generated network.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MinCostFlowBenchmark {
+
+    @Param({"testdata", "random", "layered", "assignment"})
+    public String kind;
+
+    private List<Workloads.FlowInstance> networks;
+
+    @Setup
+    public void setup() {
+        if (kind.equals("testdata")) {
+            networks = Workloads.loadCostNetworks("yarin/yal/graph/mincostmaxflow.in");
+        } else {
+            int nodes = kind.equals("assignment") ? 1002 : 200;
+            networks = Collections.singletonList(Workloads.flowNetwork(kind, nodes, nodes * 8));
+        }
+    }
+
+    @Benchmark
+    public long bellmanFord() {
+        long sum = 0;
+        for (Workloads.FlowInstance g : networks) {
+            CostNetwork net = new CostNetwork();
+            for (int i = 0; i < g.getEdgeCount(); i++) {
+                net.addEdge(g.src[i], g.dest[i], g.capacity[i], g.cost[i]);
+            }
+            sum += net.maxFlowMinCost(g.source, g.sink)[1];
+        }
+        return sum;
+    }
+
+    private static CostNetwork build(Workloads.FlowInstance g) {
+        CostNetwork net = new CostNetwork();
+        for (int i = 0; i < g.getEdgeCount(); i++) {
+            net.addEdge(g.src[i], g.dest[i], g.capacity[i], g.cost[i]);
+        }
+        return net;
+    }
+
+    @Benchmark
+    public long dijkstra() {
+        long sum = 0;
+        for (Workloads.FlowInstance g : networks) {
+            sum += build(g).maxFlowMinCostDijkstra(g.source, g.sink)[1];
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long costScaling() {
+        long sum = 0;
+        for (Workloads.FlowInstance g : networks) {
+            sum += build(g).maxFlowMinCostCostScaling(g.source, g.sink)[1];
+        }
+        return sum;
+    }
+}
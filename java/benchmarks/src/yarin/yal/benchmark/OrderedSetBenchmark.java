@@ -0,0 +1,106 @@
+package yarin.yal.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import yarin.yal.LongOrderStatisticSet;
+import yarin.yal.RedBlackBST;
+import yarin.yal.TreeSet;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Inserting keys followed by rank and select queries in the ordered set implementations.
+ * The sorted insertion order is the worst case for unbalanced trees and stresses rebalancing.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OrderedSetBenchmark {
+
+    @Param({"random", "sorted"})
+    public String order;
+
+    @Param({"100000", "1000000"})
+    public int size;
+
+    private int[] keys, queries;
+
+    @Setup
+    public void setup() {
+        keys = order.equals("sorted") ? Workloads.sortedInts(size) : Workloads.permutation(size);
+        queries = Workloads.randomInts(100000, size);
+    }
+
+    @Benchmark
+    public void treeSet(Blackhole bh) {
+        TreeSet<Integer> set = new TreeSet<>();
+        for (int key : keys) {
+            set.add(key);
+        }
+        for (int q : queries) {
+            bh.consume(set.getItem(q));
+            bh.consume(set.getIndex(q));
+        }
+    }
+
+    @Benchmark
+    public void redBlackBST(Blackhole bh) {
+        RedBlackBST<Integer, Integer> set = new RedBlackBST<>();
+        for (int key : keys) {
+            set.put(key, key);
+        }
+        for (int q : queries) {
+            bh.consume(set.select(q));
+            bh.consume(set.rank(q));
+        }
+    }
+
+    @Benchmark
+    public void javaTreeSet(Blackhole bh) {
+        java.util.TreeSet<Integer> set = new java.util.TreeSet<>();
+        for (int key : keys) {
+            set.add(key);
+        }
+        for (int q : queries) {
+            bh.consume(set.ceiling(q));
+        }
+    }
+
+    @Benchmark
+    public void longOrderStatisticSet(Blackhole bh) {
+        LongOrderStatisticSet set = new LongOrderStatisticSet(size);
+        for (int key : keys) {
+            set.add(key);
+        }
+        for (int q : queries) {
+            bh.consume(set.select(q));
+            bh.consume(set.rank(q));
+        }
+    }
+
+    @Benchmark
+    public void longOrderStatisticSetBulk(Blackhole bh) {
+        long[] sorted = new long[size];
+        for (int i = 0; i < size; i++) {
+            sorted[i] = i;
+        }
+        LongOrderStatisticSet set = LongOrderStatisticSet.fromSorted(sorted);
+        for (int q : queries) {
+            bh.consume(set.select(q));
+            bh.consume(set.rank(q));
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package yarin.yal.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import yarin.yal.PersistentRedBlackBST;
+import yarin.yal.RedBlackBST;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Updates to a tree where every update must leave the previous version readable, e.g. for readers
+ * working on a snapshot. The baseline copies the mutable tree before each update.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PersistentTreeBenchmark {
+
+    @Param({"10000", "100000"})
+    public int size;
+
+    private static final int UPDATES = 1000;
+
+    private int[] updates, queries;
+    private RedBlackBST<Integer, Integer> tree;
+    private PersistentRedBlackBST<Integer, Integer> persistentTree;
+
+    @Setup
+    public void setup() {
+        int[] keys = Workloads.permutation(size);
+        updates = Workloads.randomInts(UPDATES, 2 * size);
+        queries = Workloads.randomInts(UPDATES, size);
+        tree = new RedBlackBST<>();
+        persistentTree = PersistentRedBlackBST.empty();
+        for (int key : keys) {
+            tree.put(key, key);
+            persistentTree = persistentTree.put(key, key);
+        }
+    }
+
+    @Benchmark
+    public void copyOnWrite(Blackhole bh) {
+        RedBlackBST<Integer, Integer> current = tree;
+        for (int i = 0; i < UPDATES; i++) {
+            RedBlackBST<Integer, Integer> next = current.copy();
+            if ((i & 1) == 0) {
+                next.put(updates[i], i);
+            } else if (next.contains(queries[i])) {
+                next.delete(queries[i]);
+            }
+            bh.consume(current.select(queries[i] % current.size()));
+            current = next;
+        }
+    }
+
+    @Benchmark
+    public void persistent(Blackhole bh) {
+        PersistentRedBlackBST<Integer, Integer> current = persistentTree;
+        for (int i = 0; i < UPDATES; i++) {
+            PersistentRedBlackBST<Integer, Integer> next = (i & 1) == 0
+                    ? current.put(updates[i], i)
+                    : current.delete(queries[i]);
+            bh.consume(current.select(queries[i] % current.size()));
+            current = next;
+        }
+    }
+}
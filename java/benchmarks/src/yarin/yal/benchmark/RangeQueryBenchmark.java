@@ -0,0 +1,142 @@
+package yarin.yal.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import yarin.yal.AggregationTree;
+import yarin.yal.AggregationTreeLong;
+import yarin.yal.FenwickTree;
+import yarin.yal.LazySegmentTreeLong;
+import yarin.yal.SegmentTree;
+import yarin.yal.SegmentTreeLong;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mixed point updates and range queries over an array of random values.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RangeQueryBenchmark {
+
+    private static final int OPERATIONS = 200000;
+
+    @Param({"1024", "1048576"})
+    public int size;
+
+    private List<Integer> values;
+    private long[] longValues;
+    private int[] ops;
+
+    @Setup
+    public void setup() {
+        values = new ArrayList<>(size);
+        for (int v : Workloads.randomInts(size, 1000000)) {
+            values.add(v);
+        }
+        longValues = new long[size];
+        for (int i = 0; i < size; i++) {
+            longValues[i] = values.get(i);
+        }
+        // Triples of (left, right, value); even operations are updates, odd are queries
+        int[] r = Workloads.randomInts(OPERATIONS * 3, size);
+        ops = new int[OPERATIONS * 3];
+        for (int i = 0; i < OPERATIONS; i++) {
+            int a = r[3 * i], b = r[3 * i + 1];
+            ops[3 * i] = Math.min(a, b);
+            ops[3 * i + 1] = Math.max(a, b) + 1;
+            ops[3 * i + 2] = r[3 * i + 2];
+        }
+    }
+
+    @Benchmark
+    public void segmentTreeMin(Blackhole bh) {
+        SegmentTree<Integer> tree = new SegmentTree<>(values, Comparator.<Integer>naturalOrder());
+        for (int i = 0; i < OPERATIONS; i++) {
+            if (i % 2 == 0) {
+                tree.set(ops[3 * i], ops[3 * i + 2]);
+            } else {
+                bh.consume(tree.query(ops[3 * i], ops[3 * i + 1]));
+            }
+        }
+    }
+
+    @Benchmark
+    public void aggregationTreeSum(Blackhole bh) {
+        AggregationTree<Integer> tree = new AggregationTree<>(values, 0, (a, b) -> a + b);
+        for (int i = 0; i < OPERATIONS; i++) {
+            if (i % 2 == 0) {
+                tree.set(ops[3 * i], ops[3 * i + 2]);
+            } else {
+                bh.consume(tree.query(ops[3 * i], ops[3 * i + 1]));
+            }
+        }
+    }
+
+    @Benchmark
+    public void fenwickTreeSum(Blackhole bh) {
+        FenwickTree tree = new FenwickTree(32 - Integer.numberOfLeadingZeros(size - 1));
+        for (int i = 0; i < size; i++) {
+            tree.insert(i, values.get(i));
+        }
+        for (int i = 0; i < OPERATIONS; i++) {
+            if (i % 2 == 0) {
+                tree.insert(ops[3 * i], ops[3 * i + 2]);
+            } else {
+                bh.consume(tree.queryRange(ops[3 * i], ops[3 * i + 1]));
+            }
+        }
+    }
+
+    @Benchmark
+    public void segmentTreeLongMin(Blackhole bh) {
+        SegmentTreeLong tree = new SegmentTreeLong(longValues, false);
+        for (int i = 0; i < OPERATIONS; i++) {
+            if (i % 2 == 0) {
+                tree.set(ops[3 * i], ops[3 * i + 2]);
+            } else {
+                bh.consume(tree.query(ops[3 * i], ops[3 * i + 1]));
+            }
+        }
+    }
+
+    @Benchmark
+    public void aggregationTreeLongSum(Blackhole bh) {
+        AggregationTreeLong tree = new AggregationTreeLong(longValues, AggregationTreeLong.SUM);
+        for (int i = 0; i < OPERATIONS; i++) {
+            if (i % 2 == 0) {
+                tree.set(ops[3 * i], ops[3 * i + 2]);
+            } else {
+                bh.consume(tree.query(ops[3 * i], ops[3 * i + 1]));
+            }
+        }
+    }
+
+    @Benchmark
+    public void lazySegmentTreeRangeAddSum(Blackhole bh) {
+        LazySegmentTreeLong tree = new LazySegmentTreeLong(longValues);
+        for (int i = 0; i < OPERATIONS; i++) {
+            if (i % 2 == 0) {
+                tree.add(ops[3 * i], ops[3 * i + 1], ops[3 * i + 2]);
+            } else {
+                bh.consume(tree.sum(ops[3 * i], ops[3 * i + 1]));
+            }
+        }
+    }
+}
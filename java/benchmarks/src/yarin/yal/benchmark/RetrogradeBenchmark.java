@@ -0,0 +1,94 @@
+package yarin.yal.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import yarin.yal.gametheory.GameEvaluator;
+import yarin.yal.gametheory.Result;
+import yarin.yal.gametheory.RetrogradeSolver;
+import yarin.yal.graph.DirectedGraph;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Solves every state of a game with 2^18 states and up to four moves from each state to pseudo random
+ * states, which has cycles and draws. GameEvaluator gets the game as a prebuilt DirectedGraph, while
+ * RetrogradeSolver generates the moves and builds the predecessor lists itself.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RetrogradeBenchmark {
+
+    private static final int STATES = 1 << 18;
+
+    private DirectedGraph graph;
+    private ForkJoinPool pool;
+
+    private static int hash(int s, int j) {
+        long h = (s * 0x9E3779B97F4A7C15L + j) * 0xBF58476D1CE4E5B9L;
+        return (int) ((h ^ (h >>> 31)) >>> 33);
+    }
+
+    private static int moves(int s, int[] moves) {
+        int count = hash(s, 7) % 5;
+        for (int j = 0; j < count; j++) {
+            moves[j] = hash(s, j) % STATES;
+        }
+        return count;
+    }
+
+    @Setup
+    public void setup() {
+        graph = new DirectedGraph(STATES);
+        int[] moves = new int[4];
+        for (int s = 0; s < STATES; s++) {
+            int count = moves(s, moves);
+            for (int j = 0; j < count; j++) {
+                graph.addEdge(s, moves[j]);
+            }
+        }
+        pool = new ForkJoinPool();
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public int gameEvaluator() {
+        GameEvaluator ge = new GameEvaluator(graph);
+        int wins = 0;
+        for (int s = 0; s < STATES; s++) {
+            if (ge.evaluate(s) == Result.Win) wins++;
+        }
+        return wins;
+    }
+
+    @Benchmark
+    public long retrograde() {
+        RetrogradeSolver solver = new RetrogradeSolver(STATES, 4, RetrogradeBenchmark::moves);
+        solver.solve();
+        return solver.getCount(Result.Win);
+    }
+
+    @Benchmark
+    public long retrogradeParallel() {
+        RetrogradeSolver solver = new RetrogradeSolver(STATES, 4, RetrogradeBenchmark::moves);
+        solver.solve(pool);
+        return solver.getCount(Result.Win);
+    }
+}
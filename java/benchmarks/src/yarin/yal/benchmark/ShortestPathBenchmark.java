@@ -0,0 +1,106 @@
+package yarin.yal.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import yarin.yal.DijkstraHelper;
+import yarin.yal.DijkstraHelperInt;
+import yarin.yal.DijkstraHelperLong;
+import yarin.yal.DijkstraHelperRadix;
+import yarin.yal.graph.BellmanFord;
+import yarin.yal.graph.CsrGraph;
+import yarin.yal.graph.DirectedGraph;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single source shortest paths with the different Dijkstra helpers. The primitive helpers are reused
+ * between invocations, as they would be when answering many queries.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ShortestPathBenchmark {
+
+    @Param({"random", "grid"})
+    public String kind;
+
+    @Param({"10000", "1000000"})
+    public int nodes;
+
+    @Param({"1000"})
+    public int maxWeight;
+
+    private DirectedGraph dg;
+    private CsrGraph csr;
+    private DijkstraHelperInt dhInt;
+    private DijkstraHelperLong dhLong;
+    private DijkstraHelperRadix dhRadix;
+
+    @Setup
+    public void setup() {
+        int[][] edges = Workloads.directedGraph(kind, nodes, nodes * 4, maxWeight);
+        dg = new DirectedGraph(nodes);
+        for (int i = 0; i < edges[0].length; i++) {
+            dg.addEdge(edges[0][i], edges[1][i], edges[2][i]);
+        }
+        csr = CsrGraph.fromEdges(nodes, edges[0], edges[1], edges[2], true);
+        dhInt = new DijkstraHelperInt(nodes, Integer.MAX_VALUE);
+        dhLong = new DijkstraHelperLong(nodes, Long.MAX_VALUE);
+        dhRadix = new DijkstraHelperRadix(nodes, Long.MAX_VALUE);
+    }
+
+    @Benchmark
+    public int treeSetHelper() {
+        DijkstraHelper<Integer> dh = new DijkstraHelper<>(nodes, Integer.MAX_VALUE);
+        dh.add(0, 0);
+        int cur = dh.getNext(), last = 0;
+        while (cur >= 0) {
+            int curDist = dh.getDistance(cur);
+            for (DirectedGraph.Edge edge : dg.getNode(cur).getOutgoingEdges()) {
+                dh.add(edge.getDest().getIndex(), curDist + ((DirectedGraph.WeightedEdge) edge).getWeight());
+            }
+            last = curDist;
+            cur = dh.getNext();
+        }
+        return last;
+    }
+
+    @Benchmark
+    public int intHelperObjectGraph() {
+        dhInt.run(dg, 0);
+        return dhInt.getDistance(nodes - 1);
+    }
+
+    @Benchmark
+    public long longHelperCsr() {
+        dhLong.run(csr, 0);
+        return dhLong.getDistance(nodes - 1);
+    }
+
+    @Benchmark
+    public long radixHelperCsr() {
+        dhRadix.run(csr, 0);
+        return dhRadix.getDistance(nodes - 1);
+    }
+
+    @Benchmark
+    public int bellmanFordCsr() {
+        if (nodes > 10000) {
+            // O(VE) is too slow to be interesting on the large graphs
+            return 0;
+        }
+        return new BellmanFord().shortestPaths(csr, 0)[nodes - 1];
+    }
+}
@@ -0,0 +1,81 @@
+package yarin.yal.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import yarin.yal.DynamicRangeMinimumQuery;
+import yarin.yal.SlidingWindowMinimum;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sliding window minimum over a stream of one million random values, with a single window of width 1000
+ * and with four windows of widths 10, 100, 1000 and 10000, either as one queue per window or in one pass.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SlidingWindowBenchmark {
+
+    private static final int SAMPLES = 1000000;
+    private static final int[] WIDTHS = {10, 100, 1000, 10000};
+
+    private int[] values;
+    private long[] longValues;
+    private long[][] result;
+
+    @Setup
+    public void setup() {
+        values = Workloads.randomInts(SAMPLES, 1000000);
+        longValues = new long[SAMPLES];
+        for (int i = 0; i < SAMPLES; i++) {
+            longValues[i] = values[i];
+        }
+        result = new long[WIDTHS.length][SAMPLES];
+    }
+
+    @Benchmark
+    public long queue() {
+        DynamicRangeMinimumQuery mq = new DynamicRangeMinimumQuery();
+        long sum = 0;
+        for (int i = 0; i < SAMPLES; i++) {
+            mq.enqueue(values[i]);
+            if (i >= 1000) mq.dequeue();
+            sum += mq.currentMin();
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long queuePerWindow() {
+        DynamicRangeMinimumQuery[] mq = new DynamicRangeMinimumQuery[WIDTHS.length];
+        for (int w = 0; w < WIDTHS.length; w++) {
+            mq[w] = new DynamicRangeMinimumQuery();
+        }
+        long sum = 0;
+        for (int i = 0; i < SAMPLES; i++) {
+            for (int w = 0; w < WIDTHS.length; w++) {
+                mq[w].enqueue(values[i]);
+                if (i >= WIDTHS[w]) mq[w].dequeue();
+                sum += mq[w].currentMin();
+            }
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long[][] multiWindow() {
+        new SlidingWindowMinimum(WIDTHS, false).addAll(longValues, result, 0);
+        return result;
+    }
+}
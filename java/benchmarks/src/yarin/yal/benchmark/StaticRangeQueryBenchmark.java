@@ -0,0 +1,91 @@
+package yarin.yal.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import yarin.yal.BlockRangeMinimumQuery;
+import yarin.yal.SegmentTreeLong;
+import yarin.yal.SparseTableRangeMinimumQuery;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One million random range minimum queries over a fixed array of 4M random values, including the time
+ * to build each structure.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StaticRangeQueryBenchmark {
+
+    private static final int SIZE = 1 << 22;
+    private static final int QUERIES = 1000000;
+
+    private int[] values;
+    private long[] longValues;
+    private int[] starts, ends, result;
+    private ForkJoinPool pool;
+
+    @Setup
+    public void setup() {
+        values = Workloads.randomInts(SIZE, 1000000000);
+        longValues = new long[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            longValues[i] = values[i];
+        }
+        int[] r = Workloads.randomInts(2 * QUERIES, SIZE);
+        starts = new int[QUERIES];
+        ends = new int[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            starts[i] = Math.min(r[2 * i], r[2 * i + 1]);
+            ends[i] = Math.max(r[2 * i], r[2 * i + 1]) + 1;
+        }
+        result = new int[QUERIES];
+        pool = new ForkJoinPool();
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public long segmentTree() {
+        SegmentTreeLong tree = new SegmentTreeLong(longValues, false);
+        long sum = 0;
+        for (int i = 0; i < QUERIES; i++) {
+            sum += longValues[tree.query(starts[i], ends[i])];
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public int[] sparseTable() {
+        new SparseTableRangeMinimumQuery(values).query(starts, ends, result);
+        return result;
+    }
+
+    @Benchmark
+    public int[] block() {
+        new BlockRangeMinimumQuery(values).query(starts, ends, result);
+        return result;
+    }
+
+    @Benchmark
+    public int[] blockParallel() {
+        new BlockRangeMinimumQuery(values, false, pool).query(starts, ends, result, pool);
+        return result;
+    }
+}
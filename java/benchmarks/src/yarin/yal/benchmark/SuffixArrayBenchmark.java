@@ -0,0 +1,89 @@
+package yarin.yal.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import yarin.yal.SuffixArray;
+import yarin.yal.SuffixArrayBuilder;
+import yarin.yal.SuffixArrayBuilderInt;
+import yarin.yal.SuffixArraySAIS;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the O(n) DC3 and SA-IS suffix arrays with the prefix doubling builders.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SuffixArrayBenchmark {
+
+    @Param({"random", "binary", "periodic"})
+    public String kind;
+
+    @Param({"10000", "200000"})
+    public int length;
+
+    private String text;
+    private int[] ints;
+
+    @Setup
+    public void setup() {
+        text = Workloads.string(kind, length);
+        ints = new int[length];
+        for (int i = 0; i < length; i++) {
+            ints[i] = text.charAt(i);
+        }
+    }
+
+    @Benchmark
+    public int[] suffixArray() {
+        return new SuffixArray(text).buildSuffixArray();
+    }
+
+    @Benchmark
+    public int[] suffixArrayWithLcp() {
+        SuffixArray sa = new SuffixArray(text);
+        sa.buildSuffixArray();
+        return sa.buildLongestCommonPrefix();
+    }
+
+    @Benchmark
+    public int[] suffixArrayBuilder() {
+        return new SuffixArrayBuilder(text).buildSuffixArray();
+    }
+
+    @Benchmark
+    public int[] suffixArrayBuilderInt() {
+        return new SuffixArrayBuilderInt(ints).buildSuffixArray();
+    }
+
+    @Benchmark
+    public int[] sais() {
+        return new SuffixArraySAIS(text).buildSuffixArray();
+    }
+
+    @Benchmark
+    public int[] saisWithLcp() {
+        SuffixArraySAIS sa = new SuffixArraySAIS(text);
+        sa.buildSuffixArray();
+        return sa.buildLongestCommonPrefix();
+    }
+
+    @Benchmark
+    public int[] parallelPrefixDoubling() {
+        return new SuffixArraySAIS(text).buildSuffixArrayParallel(ForkJoinPool.commonPool());
+    }
+}
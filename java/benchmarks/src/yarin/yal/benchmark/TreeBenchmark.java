@@ -0,0 +1,90 @@
+package yarin.yal.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import yarin.yal.graph.HeavyLightDecomposition;
+import yarin.yal.graph.LowestCommonAncestor;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lowest common ancestor and path queries on random trees. In the deep trees each node hangs
+ * below one of the few most recent nodes, giving depth of order n.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TreeBenchmark {
+
+    @Param({"random", "deep"})
+    public String kind;
+
+    @Param({"1000000"})
+    public int nodes;
+
+    private static final int QUERIES = 1000000;
+
+    private int[] parent, us, vs;
+    private long[] values;
+    private LowestCommonAncestor lca;
+    private HeavyLightDecomposition hld;
+
+    @Setup
+    public void setup() {
+        Random r = Workloads.random();
+        parent = new int[nodes];
+        parent[0] = -1;
+        for (int i = 1; i < nodes; i++) {
+            parent[i] = kind.equals("deep") ? Math.max(0, i - 1 - r.nextInt(3)) : r.nextInt(i);
+        }
+        us = Workloads.randomInts(QUERIES, nodes);
+        vs = new int[QUERIES];
+        values = new long[nodes];
+        for (int i = 0; i < QUERIES; i++) {
+            vs[i] = r.nextInt(nodes);
+        }
+        for (int i = 0; i < nodes; i++) {
+            values[i] = r.nextInt(1000);
+        }
+        lca = new LowestCommonAncestor(parent);
+        hld = new HeavyLightDecomposition(parent, values);
+    }
+
+    @Benchmark
+    public Object lcaBuild() {
+        return new LowestCommonAncestor(parent);
+    }
+
+    @Benchmark
+    public void lcaSparseTable(Blackhole bh) {
+        for (int i = 0; i < QUERIES; i++) {
+            bh.consume(lca.lca(us[i], vs[i]));
+        }
+    }
+
+    @Benchmark
+    public int[] lcaOffline() {
+        return LowestCommonAncestor.lca(parent, us, vs);
+    }
+
+    @Benchmark
+    public void hldPathSum(Blackhole bh) {
+        for (int i = 0; i < QUERIES; i++) {
+            bh.consume(hld.pathSum(us[i], vs[i]));
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package yarin.yal.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import yarin.yal.IncrementalTwoSAT;
+import yarin.yal.TwoSAT;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A sequence of closely related 2-SAT instances: a random satisfiable instance that is solved,
+ * then repeatedly extended with a few clauses and solved again under an assumption
+ * (TwoSAT has no assumptions, so it solves without them).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TwoSATBenchmark {
+
+    @Param({"100000"})
+    public int variables;
+
+    private static final int ROUNDS = 20, CLAUSES_PER_ROUND = 5;
+
+    private int[] a, b, assumptions;
+    private int initialClauses;
+
+    @Setup
+    public void setup() {
+        // Plant a solution so that every instance is satisfiable
+        Random r = Workloads.random();
+        boolean[] planted = new boolean[variables];
+        for (int v = 0; v < variables; v++) {
+            planted[v] = r.nextBoolean();
+        }
+        initialClauses = variables * 3 / 2;
+        int total = initialClauses + ROUNDS * CLAUSES_PER_ROUND;
+        a = new int[total];
+        b = new int[total];
+        for (int i = 0; i < total; i++) {
+            a[i] = r.nextInt(2 * variables);
+            b[i] = r.nextInt(2 * variables);
+            if (planted[a[i] >> 1] != ((a[i] & 1) == 0) && planted[b[i] >> 1] != ((b[i] & 1) == 0)) {
+                a[i] ^= 1;
+            }
+        }
+        assumptions = new int[ROUNDS];
+        for (int i = 0; i < ROUNDS; i++) {
+            int v = r.nextInt(variables);
+            assumptions[i] = IncrementalTwoSAT.literal(v, !planted[v]);
+        }
+    }
+
+    @Benchmark
+    public void twoSATFromScratch(Blackhole bh) {
+        TwoSAT sat = new TwoSAT(variables);
+        int k = 0;
+        for (; k < initialClauses; k++) {
+            sat.addClause(a[k] >> 1, (a[k] & 1) == 1, b[k] >> 1, (b[k] & 1) == 1);
+        }
+        bh.consume(sat.solve());
+        for (int round = 0; round < ROUNDS; round++) {
+            for (int j = 0; j < CLAUSES_PER_ROUND; j++, k++) {
+                sat.addClause(a[k] >> 1, (a[k] & 1) == 1, b[k] >> 1, (b[k] & 1) == 1);
+            }
+            bh.consume(sat.solve());
+        }
+    }
+
+    @Benchmark
+    public void incrementalTwoSAT(Blackhole bh) {
+        IncrementalTwoSAT sat = new IncrementalTwoSAT(variables);
+        int k = 0;
+        for (; k < initialClauses; k++) {
+            sat.addClause(a[k], b[k]);
+        }
+        bh.consume(sat.solve());
+        for (int round = 0; round < ROUNDS; round++) {
+            for (int j = 0; j < CLAUSES_PER_ROUND; j++, k++) {
+                sat.addClause(a[k], b[k]);
+            }
+            bh.consume(sat.solve(assumptions[round]));
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package yarin.yal.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import yarin.yal.ConcurrentUnionFind;
+import yarin.yal.UnionFind;
+import yarin.yal.graph.ConnectedComponents;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Union-find over a list of edges followed by a find on every element.
+ * The chain workload unions consecutive elements, which builds deep trees without union by size.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UnionFindBenchmark {
+
+    @Param({"random", "chain"})
+    public String kind;
+
+    @Param({"100000", "10000000"})
+    public int size;
+
+    private int[] a, b;
+
+    @Setup
+    public void setup() {
+        if (kind.equals("chain")) {
+            a = new int[size - 1];
+            b = new int[size - 1];
+            for (int i = 0; i + 1 < size; i++) {
+                a[i] = i;
+                b[i] = i + 1;
+            }
+        } else {
+            a = Workloads.randomInts(size, size);
+            b = Workloads.permutation(size);
+        }
+    }
+
+    @Benchmark
+    public int unionFind() {
+        UnionFind uf = new UnionFind(size);
+        for (int i = 0; i < a.length; i++) {
+            uf.unionSet(a[i], b[i]);
+        }
+        int sum = 0;
+        for (int i = 0; i < size; i++) {
+            sum += uf.findSet(i);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public int concurrentUnionFind() {
+        ConcurrentUnionFind uf = new ConcurrentUnionFind(size);
+        for (int i = 0; i < a.length; i++) {
+            uf.unionSet(a[i], b[i]);
+        }
+        int sum = 0;
+        for (int i = 0; i < size; i++) {
+            sum += uf.findSet(i);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public int[] parallelComponents() {
+        return ConnectedComponents.findComponents(size, a, b, ForkJoinPool.commonPool());
+    }
+}
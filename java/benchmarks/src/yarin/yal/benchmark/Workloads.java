@@ -0,0 +1,276 @@
+package yarin.yal.benchmark;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.Scanner;
+
+/**
+ * Input generators and loaders shared by the benchmarks.
+ * All random inputs are generated from a fixed seed so runs are comparable.
+ */
+public final class Workloads {
+    public static final long SEED = 4711;
+
+    private Workloads() { }
+
+    public static Random random() {
+        return new Random(SEED);
+    }
+
+    /**
+     * A random string over the first alphabetSize lowercase letters.
+     */
+    public static String randomString(int length, int alphabetSize) {
+        Random rnd = random();
+        char[] s = new char[length];
+        for (int i = 0; i < length; i++) {
+            s[i] = (char) ('a' + rnd.nextInt(alphabetSize));
+        }
+        return new String(s);
+    }
+
+    /**
+     * A string with a short period, which is the worst case for comparison based suffix sorting.
+     */
+    public static String periodicString(int length, int period) {
+        char[] s = new char[length];
+        for (int i = 0; i < length; i++) {
+            s[i] = (char) ('a' + (i % period) % 26);
+        }
+        return new String(s);
+    }
+
+    public static String string(String kind, int length) {
+        switch (kind) {
+            case "random":
+                return randomString(length, 26);
+            case "binary":
+                return randomString(length, 2);
+            case "periodic":
+                return periodicString(length, 3);
+            case "unary":
+                return periodicString(length, 1);
+            default:
+                throw new IllegalArgumentException(kind);
+        }
+    }
+
+    public static int[] randomInts(int n, int bound) {
+        Random rnd = random();
+        int[] a = new int[n];
+        for (int i = 0; i < n; i++) {
+            a[i] = rnd.nextInt(bound);
+        }
+        return a;
+    }
+
+    public static int[] sortedInts(int n) {
+        int[] a = new int[n];
+        for (int i = 0; i < n; i++) {
+            a[i] = i;
+        }
+        return a;
+    }
+
+    public static int[] permutation(int n) {
+        Random rnd = random();
+        int[] a = sortedInts(n);
+        for (int i = n - 1; i > 0; i--) {
+            int j = rnd.nextInt(i + 1), t = a[i];
+            a[i] = a[j];
+            a[j] = t;
+        }
+        return a;
+    }
+
+    /**
+     * A flow network given as edge arrays; edge i goes from src[i] to dest[i].
+     */
+    public static final class FlowInstance {
+        public final int nodes, source, sink;
+        public final int[] src, dest, capacity, cost;
+
+        public FlowInstance(int nodes, int source, int sink, int[] src, int[] dest, int[] capacity, int[] cost) {
+            this.nodes = nodes;
+            this.source = source;
+            this.sink = sink;
+            this.src = src;
+            this.dest = dest;
+            this.capacity = capacity;
+            this.cost = cost;
+        }
+
+        public int getEdgeCount() {
+            return src.length;
+        }
+    }
+
+    /**
+     * Creates a flow network.
+     *
+     * @param kind "random" for uniformly random edges, "layered" for a dense layered graph with many
+     *             augmenting paths of equal length (hard for augmenting path algorithms),
+     *             or "assignment" for a bipartite graph with unit capacities between two halves of the nodes
+     */
+    public static FlowInstance flowNetwork(String kind, int nodes, int edges) {
+        Random rnd = random();
+        switch (kind) {
+            case "random": {
+                int[] src = new int[edges], dest = new int[edges], cap = new int[edges], cost = new int[edges];
+                for (int i = 0; i < edges; i++) {
+                    src[i] = rnd.nextInt(nodes);
+                    dest[i] = (src[i] + 1 + rnd.nextInt(nodes - 1)) % nodes;
+                    cap[i] = 1 + rnd.nextInt(1000);
+                    cost[i] = rnd.nextInt(100);
+                }
+                return new FlowInstance(nodes, 0, nodes - 1, src, dest, cap, cost);
+            }
+            case "layered": {
+                int layers = Math.max(2, (int) Math.sqrt(nodes));
+                int width = Math.max(1, (nodes - 2) / layers);
+                List<int[]> list = new ArrayList<>();
+                for (int i = 0; i < width; i++) {
+                    list.add(new int[]{0, 1 + i});
+                    list.add(new int[]{1 + (layers - 1) * width + i, nodes - 1});
+                }
+                for (int l = 0; l + 1 < layers && list.size() < edges; l++) {
+                    for (int i = 0; i < width; i++) {
+                        for (int j = 0; j < width && list.size() < edges; j++) {
+                            list.add(new int[]{1 + l * width + i, 1 + (l + 1) * width + j});
+                        }
+                    }
+                }
+                int m = list.size();
+                int[] src = new int[m], dest = new int[m], cap = new int[m], cost = new int[m];
+                for (int i = 0; i < m; i++) {
+                    src[i] = list.get(i)[0];
+                    dest[i] = list.get(i)[1];
+                    cap[i] = 1 + rnd.nextInt(10);
+                    cost[i] = rnd.nextInt(100);
+                }
+                return new FlowInstance(nodes, 0, nodes - 1, src, dest, cap, cost);
+            }
+            case "assignment": {
+                int half = (nodes - 2) / 2, m = 2 * half + edges;
+                int[] src = new int[m], dest = new int[m], cap = new int[m], cost = new int[m];
+                for (int i = 0; i < half; i++) {
+                    src[i] = 0;
+                    dest[i] = 1 + i;
+                    src[half + i] = 1 + half + i;
+                    dest[half + i] = nodes - 1;
+                }
+                for (int i = 2 * half; i < m; i++) {
+                    src[i] = 1 + rnd.nextInt(half);
+                    dest[i] = 1 + half + rnd.nextInt(half);
+                    cost[i] = rnd.nextInt(1000);
+                }
+                Arrays.fill(cap, 1);
+                return new FlowInstance(nodes, 0, nodes - 1, src, dest, cap, cost);
+            }
+            default:
+                throw new IllegalArgumentException(kind);
+        }
+    }
+
+    /**
+     * Reads a network in the format "n m source sink" followed by m lines "src dest capacity".
+     */
+    public static FlowInstance loadNetwork(String resource) {
+        Scanner scanner = new Scanner(open(resource));
+        int n = scanner.nextInt(), m = scanner.nextInt(), source = scanner.nextInt(), sink = scanner.nextInt();
+        int[] src = new int[m], dest = new int[m], cap = new int[m];
+        for (int i = 0; i < m; i++) {
+            src[i] = scanner.nextInt();
+            dest[i] = scanner.nextInt();
+            cap[i] = scanner.nextInt();
+        }
+        return new FlowInstance(n, source, sink, src, dest, cap, new int[m]);
+    }
+
+    /**
+     * Reads all cases in the min cost flow test data, each in the format "n m source sink" followed by
+     * m lines "src dest capacity cost". The file ends with a case with n = 0.
+     */
+    public static List<FlowInstance> loadCostNetworks(String resource) {
+        Scanner scanner = new Scanner(open(resource));
+        List<FlowInstance> result = new ArrayList<>();
+        while (true) {
+            int n = scanner.nextInt(), m = scanner.nextInt(), source = scanner.nextInt(), sink = scanner.nextInt();
+            if (n == 0) {
+                break;
+            }
+            int[] src = new int[m], dest = new int[m], cap = new int[m], cost = new int[m];
+            for (int i = 0; i < m; i++) {
+                src[i] = scanner.nextInt();
+                dest[i] = scanner.nextInt();
+                cap[i] = scanner.nextInt();
+                cost[i] = scanner.nextInt();
+            }
+            result.add(new FlowInstance(n, source, sink, src, dest, cap, cost));
+        }
+        return result;
+    }
+
+    /**
+     * Random directed graph as edge arrays {src, dest, weight}.
+     *
+     * @param kind "random" for uniformly random edges, "chain" for a cycle through all nodes with random extra
+     *             edges (deep DFS, one large strong component), "grid" for a square grid with edges between
+     *             all neighbours (long shortest paths); the number of edges is ignored for grids
+     */
+    public static int[][] directedGraph(String kind, int nodes, int edges, int maxWeight) {
+        Random rnd = random();
+        if (kind.equals("grid")) {
+            int side = (int) Math.sqrt(nodes);
+            edges = 4 * side * (side - 1);
+        }
+        int[] src = new int[edges], dest = new int[edges], weight = new int[edges];
+        switch (kind) {
+            case "random":
+                for (int i = 0; i < edges; i++) {
+                    src[i] = rnd.nextInt(nodes);
+                    dest[i] = rnd.nextInt(nodes);
+                }
+                break;
+            case "chain":
+                for (int i = 0; i < edges; i++) {
+                    src[i] = i < nodes ? i : rnd.nextInt(nodes);
+                    dest[i] = i < nodes ? (i + 1) % nodes : rnd.nextInt(nodes);
+                }
+                break;
+            case "grid": {
+                int side = (int) Math.sqrt(nodes), m = 0;
+                for (int r = 0; r < side; r++) {
+                    for (int c = 0; c + 1 < side; c++) {
+                        src[m] = r * side + c;
+                        dest[m++] = r * side + c + 1;
+                        src[m] = r * side + c + 1;
+                        dest[m++] = r * side + c;
+                        src[m] = c * side + r;
+                        dest[m++] = (c + 1) * side + r;
+                        src[m] = (c + 1) * side + r;
+                        dest[m++] = c * side + r;
+                    }
+                }
+                break;
+            }
+            default:
+                throw new IllegalArgumentException(kind);
+        }
+        for (int i = 0; i < edges; i++) {
+            weight[i] = rnd.nextInt(maxWeight + 1);
+        }
+        return new int[][]{src, dest, weight};
+    }
+
+    public static InputStream open(String resource) {
+        InputStream stream = Workloads.class.getClassLoader().getResourceAsStream(resource);
+        if (stream == null) {
+            throw new IllegalArgumentException("Missing resource " + resource);
+        }
+        return stream;
+    }
+}
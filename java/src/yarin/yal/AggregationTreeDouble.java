@@ -0,0 +1,88 @@
+package yarin.yal;
+
+import java.util.Arrays;
+
+/**
+ * Same as {@link AggregationTree} but with primitive double values stored in a flat array.
+ * The tree is laid out bottom-up with the leaves at [size, 2*size), and both updates and
+ * queries are iterative.
+ *
+ * The aggregation function is a {@link Monoid}, which doesn't have to be commutative.
+ */
+public class AggregationTreeDouble {
+    public interface Monoid {
+        double identity();
+
+        double combine(double first, double second);
+    }
+
+    public static final Monoid SUM = new Monoid() {
+        public double identity() { return 0; }
+        public double combine(double first, double second) { return first + second; }
+    };
+
+    public static final Monoid MIN = new Monoid() {
+        public double identity() { return Double.POSITIVE_INFINITY; }
+        public double combine(double first, double second) { return Math.min(first, second); }
+    };
+
+    public static final Monoid MAX = new Monoid() {
+        public double identity() { return Double.NEGATIVE_INFINITY; }
+        public double combine(double first, double second) { return Math.max(first, second); }
+    };
+
+    private final Monoid monoid;
+    private final double identity;
+    private final double[] tree;
+    private final int n, size;
+
+    public AggregationTreeDouble(int n, double defaultValue, Monoid monoid) {
+        this(filled(n, defaultValue), monoid);
+    }
+
+    public AggregationTreeDouble(double[] data, Monoid monoid) {
+        this.monoid = monoid;
+        this.identity = monoid.identity();
+        n = data.length;
+        size = Integer.highestOneBit(Math.max(1, n - 1)) << 1;
+        tree = new double[2 * size];
+        Arrays.fill(tree, identity);
+        System.arraycopy(data, 0, tree, size, n);
+        for (int i = size - 1; i > 0; i--) {
+            tree[i] = monoid.combine(tree[2 * i], tree[2 * i + 1]);
+        }
+    }
+
+    private static double[] filled(int n, double value) {
+        double[] data = new double[n];
+        Arrays.fill(data, value);
+        return data;
+    }
+
+    /**
+     * @return the aggregate of the values in the range [start, end)
+     */
+    public double query(int start, int end) {
+        if (start < 0 || end > n || start >= end) {
+            throw new IllegalArgumentException();
+        }
+        double left = identity, right = identity;
+        for (int l = start + size, r = end + size; l < r; l >>= 1, r >>= 1) {
+            if ((l & 1) == 1) left = monoid.combine(left, tree[l++]);
+            if ((r & 1) == 1) right = monoid.combine(tree[--r], right);
+        }
+        return monoid.combine(left, right);
+    }
+
+    public double get(int index) {
+        return tree[size + index];
+    }
+
+    public void set(int index, double value) {
+        int i = size + index;
+        tree[i] = value;
+        for (i >>= 1; i > 0; i >>= 1) {
+            tree[i] = monoid.combine(tree[2 * i], tree[2 * i + 1]);
+        }
+    }
+}
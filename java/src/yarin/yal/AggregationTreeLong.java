@@ -0,0 +1,88 @@
+package yarin.yal;
+
+import java.util.Arrays;
+
+/**
+ * Same as {@link AggregationTree} but with primitive long values stored in a flat array.
+ * The tree is laid out bottom-up with the leaves at [size, 2*size), and both updates and
+ * queries are iterative.
+ *
+ * The aggregation function is a {@link Monoid}, which doesn't have to be commutative.
+ */
+public class AggregationTreeLong {
+    public interface Monoid {
+        long identity();
+
+        long combine(long first, long second);
+    }
+
+    public static final Monoid SUM = new Monoid() {
+        public long identity() { return 0; }
+        public long combine(long first, long second) { return first + second; }
+    };
+
+    public static final Monoid MIN = new Monoid() {
+        public long identity() { return Long.MAX_VALUE; }
+        public long combine(long first, long second) { return Math.min(first, second); }
+    };
+
+    public static final Monoid MAX = new Monoid() {
+        public long identity() { return Long.MIN_VALUE; }
+        public long combine(long first, long second) { return Math.max(first, second); }
+    };
+
+    private final Monoid monoid;
+    private final long identity;
+    private final long[] tree;
+    private final int n, size;
+
+    public AggregationTreeLong(int n, long defaultValue, Monoid monoid) {
+        this(filled(n, defaultValue), monoid);
+    }
+
+    public AggregationTreeLong(long[] data, Monoid monoid) {
+        this.monoid = monoid;
+        this.identity = monoid.identity();
+        n = data.length;
+        size = Integer.highestOneBit(Math.max(1, n - 1)) << 1;
+        tree = new long[2 * size];
+        Arrays.fill(tree, identity);
+        System.arraycopy(data, 0, tree, size, n);
+        for (int i = size - 1; i > 0; i--) {
+            tree[i] = monoid.combine(tree[2 * i], tree[2 * i + 1]);
+        }
+    }
+
+    private static long[] filled(int n, long value) {
+        long[] data = new long[n];
+        Arrays.fill(data, value);
+        return data;
+    }
+
+    /**
+     * @return the aggregate of the values in the range [start, end)
+     */
+    public long query(int start, int end) {
+        if (start < 0 || end > n || start >= end) {
+            throw new IllegalArgumentException();
+        }
+        long left = identity, right = identity;
+        for (int l = start + size, r = end + size; l < r; l >>= 1, r >>= 1) {
+            if ((l & 1) == 1) left = monoid.combine(left, tree[l++]);
+            if ((r & 1) == 1) right = monoid.combine(tree[--r], right);
+        }
+        return monoid.combine(left, right);
+    }
+
+    public long get(int index) {
+        return tree[size + index];
+    }
+
+    public void set(int index, long value) {
+        int i = size + index;
+        tree[i] = value;
+        for (i >>= 1; i > 0; i >>= 1) {
+            tree[i] = monoid.combine(tree[2 * i], tree[2 * i + 1]);
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package yarin.yal;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Answers minimum (or maximum) queries over arbitrary ranges of a fixed array in O(1) time, after O(n)
+ * preprocessing, using about n + (n / 32) log(n / 32) ints besides the array itself.
+ *
+ * The array is split into blocks of 32 elements. For each element, a bit mask holds the positions in its
+ * block that are the minimum of the range from themselves up to the element, i.e. the monotonic stack of
+ * the block after that element. The minimum of a range within a block is then the lowest bit of the mask of
+ * the range end at or above the range start. Ranges over several blocks are answered with two such lookups
+ * and a {@link SparseTableRangeMinimumQuery} over the block minima for the blocks in between.
+ *
+ * The array isn't copied, and must not be changed while the queries are in use.
+ */
+public class BlockRangeMinimumQuery {
+    private static final int BLOCK_BITS = 5, BLOCK = 1 << BLOCK_BITS;
+    private static final int BUILD_CHUNK = 1 << 16;
+
+    private final int[] data;
+    private final int[] masks;
+    private final SparseTableRangeMinimumQuery blocks;
+    private final int n;
+    private final boolean maximum;
+
+    public BlockRangeMinimumQuery(int[] data) {
+        this(data, false, null);
+    }
+
+    /**
+     * @param maximum if true, queries return the maximum value instead of the minimum
+     * @param pool the pool to build the masks in, or null to build them in the calling thread
+     */
+    public BlockRangeMinimumQuery(int[] data, boolean maximum, ForkJoinPool pool) {
+        this.data = data;
+        this.maximum = maximum;
+        n = data.length;
+        masks = new int[n];
+        int blockCount = (n + BLOCK - 1) >> BLOCK_BITS;
+        int[] blockMin = new int[blockCount];
+        BuildTask task = new BuildTask(blockMin, 0, blockCount);
+        if (pool == null) {
+            task.build();
+        } else {
+            pool.invoke(task);
+        }
+        blocks = new SparseTableRangeMinimumQuery(blockMin, maximum);
+    }
+
+    private class BuildTask extends RecursiveAction {
+        private final int[] blockMin;
+        private final int from, to;
+
+        BuildTask(int[] blockMin, int from, int to) {
+            this.blockMin = blockMin;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if ((long) (to - from) * BLOCK > BUILD_CHUNK) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new BuildTask(blockMin, from, mid), new BuildTask(blockMin, mid, to));
+            } else {
+                build();
+            }
+        }
+
+        // Builds the masks and finds the minimum of blocks from..to
+        void build() {
+            for (int b = from; b < to; b++) {
+                int offset = b << BLOCK_BITS, end = Math.min(n, offset + BLOCK);
+                int stack = 0;
+                for (int i = offset; i < end; i++) {
+                    int v = data[i];
+                    while (stack != 0) {
+                        int top = data[offset + 31 - Integer.numberOfLeadingZeros(stack)];
+                        if (maximum ? top >= v : top <= v) break;
+                        stack ^= Integer.highestOneBit(stack);
+                    }
+                    stack |= 1 << (i - offset);
+                    masks[i] = stack;
+                }
+                blockMin[b] = data[offset + Integer.numberOfTrailingZeros(stack)];
+            }
+        }
+    }
+
+    public int size() {
+        return n;
+    }
+
+    // The index of the minimum in [start, last], which must be in the same block
+    private int inBlock(int start, int last) {
+        return (last & -BLOCK) + Integer.numberOfTrailingZeros(masks[last] & (-1 << (start & (BLOCK - 1))));
+    }
+
+    /**
+     * @return the minimum (or maximum) value in the range [start, end)
+     */
+    public int query(int start, int end) {
+        if (start < 0 || end > n || start >= end) {
+            throw new IllegalArgumentException("Invalid range [" + start + ", " + end + ")");
+        }
+        int last = end - 1;
+        int first = start >> BLOCK_BITS, second = last >> BLOCK_BITS;
+        if (first == second) {
+            return data[inBlock(start, last)];
+        }
+        int a = data[inBlock(start, start | (BLOCK - 1))], b = data[inBlock(last & -BLOCK, last)];
+        int v = maximum ? Math.max(a, b) : Math.min(a, b);
+        if (second - first > 1) {
+            int c = blocks.query(first + 1, second);
+            v = maximum ? Math.max(v, c) : Math.min(v, c);
+        }
+        return v;
+    }
+
+    /**
+     * Answers a batch of queries.
+     * @param result the minimum (or maximum) value in the range [starts[i], ends[i]) is stored at result[i]
+     */
+    public void query(int[] starts, int[] ends, int[] result) {
+        SparseTableRangeMinimumQuery.checkBatch(starts, ends, result);
+        query(starts, ends, result, 0, starts.length);
+    }
+
+    /**
+     * Answers a batch of queries, in parallel if there are many.
+     * @param result the minimum (or maximum) value in the range [starts[i], ends[i]) is stored at result[i]
+     */
+    public void query(int[] starts, int[] ends, int[] result, ForkJoinPool pool) {
+        SparseTableRangeMinimumQuery.checkBatch(starts, ends, result);
+        pool.invoke(new QueryTask(starts, ends, result, 0, starts.length));
+    }
+
+    private void query(int[] starts, int[] ends, int[] result, int from, int to) {
+        for (int i = from; i < to; i++) {
+            result[i] = query(starts[i], ends[i]);
+        }
+    }
+
+    private class QueryTask extends RecursiveAction {
+        private final int[] starts, ends, result;
+        private final int from, to;
+
+        QueryTask(int[] starts, int[] ends, int[] result, int from, int to) {
+            this.starts = starts;
+            this.ends = ends;
+            this.result = result;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > SparseTableRangeMinimumQuery.BATCH_CHUNK) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new QueryTask(starts, ends, result, from, mid), new QueryTask(starts, ends, result, mid, to));
+            } else {
+                query(starts, ends, result, from, to);
+            }
+        }
+    }
+}
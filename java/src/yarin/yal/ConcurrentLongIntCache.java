@@ -0,0 +1,101 @@
+package yarin.yal;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A fixed size cache from long keys to non-negative int values, safe for many threads calling
+ * {@link #get(long)} and {@link #put(long, int)} concurrently, without locks.
+ *
+ * The entries are kept with open addressing in a flat array, probing at most 8 entries from the hashed
+ * position, and a put that finds all of them taken evicts one. A put of a key that is already present
+ * overwrites its value. Entries never become empty again, so a get can stop at the first empty entry.
+ * Each entry is a key and a word holding the value and a version, which is odd while the entry is being
+ * written. A get only returns a value if the version is even and unchanged after reading the key, so it
+ * never pairs a key with the value of another key; a put that finds the entry being written by another
+ * thread is dropped, which is fine for a cache.
+ */
+public class ConcurrentLongIntCache {
+    private static final int PROBES = 8;
+
+    private final AtomicLongArray entries; // (version << 32 | value) at 2i, key at 2i + 1
+    private final int mask;
+
+    /**
+     * @param capacity the number of entries, rounded up to a power of two
+     */
+    public ConcurrentLongIntCache(int capacity) {
+        if (capacity <= 0 || capacity > 1 << 29) {
+            throw new IllegalArgumentException("Invalid capacity " + capacity);
+        }
+        int size = Integer.highestOneBit(Math.max(PROBES, capacity) - 1) << 1;
+        entries = new AtomicLongArray(2 * size);
+        mask = size - 1;
+    }
+
+    public int capacity() {
+        return mask + 1;
+    }
+
+    private static long mix(long key) {
+        key = (key ^ (key >>> 33)) * 0xFF51AFD7ED558CCDL;
+        key = (key ^ (key >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        return key ^ (key >>> 33);
+    }
+
+    /**
+     * @return the value of the key, or -1 if it isn't in the cache
+     */
+    public int get(long key) {
+        int i = (int) mix(key);
+        for (int probe = 0; probe < PROBES; probe++, i++) {
+            int e = 2 * (i & mask);
+            long word = entries.get(e);
+            if (word >>> 32 == 0) break;
+            if ((word >>> 32 & 1) == 0 && entries.get(e + 1) == key && entries.get(e) == word) {
+                return (int) word;
+            }
+        }
+        return -1;
+    }
+
+    public void put(long key, int value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Values must be non-negative");
+        }
+        long h = mix(key);
+        int i = (int) h, target = -1;
+        for (int probe = 0; probe < PROBES; probe++, i++) {
+            int e = 2 * (i & mask);
+            long word = entries.get(e);
+            if (word >>> 32 == 0) {
+                target = e;
+                break;
+            }
+            if ((word >>> 32 & 1) == 0 && entries.get(e + 1) == key) {
+                if ((int) word == value) return;
+                target = e;
+                break;
+            }
+        }
+        if (target < 0) {
+            // Evict one of the entries, chosen by bits of the hash not used for the position
+            target = 2 * ((int) h + (int) (h >>> 61) & mask);
+        }
+        long word = entries.get(target), version = word >>> 32;
+        if ((version & 1) != 0 || !entries.compareAndSet(target, word, (version + 1) << 32 | (word & 0xFFFFFFFFL))) {
+            return;
+        }
+        long next = (version + 2) & 0xFFFFFFFFL;
+        entries.set(target + 1, key);
+        entries.set(target, (next == 0 ? 2 : next) << 32 | value);
+    }
+
+    /**
+     * Removes all entries. Not safe to call concurrently with puts.
+     */
+    public void clear() {
+        for (int i = 0; i < entries.length(); i += 2) {
+            entries.set(i, 0);
+        }
+    }
+}
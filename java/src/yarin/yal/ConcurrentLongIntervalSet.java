@@ -0,0 +1,59 @@
+package yarin.yal;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Holds the current version of a {@link LongIntervalSet} for many concurrent readers and writers.
+ * Readers take a {@link #snapshot()} without locking and query it as long as they want. Writers build
+ * the next version from a batch of intervals and publish it with a compare-and-set, retrying the
+ * O(n) union if another writer published first.
+ */
+public class ConcurrentLongIntervalSet {
+    private final AtomicReference<LongIntervalSet> current;
+
+    public ConcurrentLongIntervalSet() {
+        this(LongIntervalSet.empty());
+    }
+
+    public ConcurrentLongIntervalSet(LongIntervalSet initial) {
+        current = new AtomicReference<LongIntervalSet>(initial);
+    }
+
+    /**
+     * @return the current version, which never changes
+     */
+    public LongIntervalSet snapshot() {
+        return current.get();
+    }
+
+    /**
+     * Adds the intervals [starts[i], ends[i]) as one atomic update.
+     * @return the version containing the intervals
+     */
+    public LongIntervalSet addAll(long[] starts, long[] ends) {
+        return addAll(LongIntervalSet.of(starts, ends));
+    }
+
+    /**
+     * Adds all intervals of batch as one atomic update.
+     * @return the version containing the intervals
+     */
+    public LongIntervalSet addAll(LongIntervalSet batch) {
+        while (true) {
+            LongIntervalSet previous = current.get();
+            LongIntervalSet next = previous.union(batch);
+            if (next == previous || current.compareAndSet(previous, next)) return next;
+        }
+    }
+
+    /**
+     * Replaces the current version, e.g. with one built from scratch.
+     */
+    public void set(LongIntervalSet intervals) {
+        current.set(intervals);
+    }
+
+    public boolean contains(long point) {
+        return current.get().contains(point);
+    }
+}
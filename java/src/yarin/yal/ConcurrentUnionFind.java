@@ -0,0 +1,86 @@
+package yarin.yal;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Same as {@link UnionFind} but safe for many threads calling {@link #unionSet(int, int)} and
+ * {@link #findSet(int)} concurrently, without locks.
+ *
+ * Roots are linked with a CAS on the parent array, and finds do path halving with CAS so that a
+ * failed update only means the path wasn't shortened. Union by size can't be maintained without locks,
+ * so a root is instead always linked below the root with the higher fixed pseudo-random priority;
+ * this never creates cycles and gives trees of expected logarithmic depth.
+ */
+public class ConcurrentUnionFind {
+    private final AtomicIntegerArray p;
+
+    public ConcurrentUnionFind(int n) {
+        p = new AtomicIntegerArray(n);
+        for (int i = 0; i < n; i++) {
+            p.set(i, i);
+        }
+    }
+
+    public int size() {
+        return p.length();
+    }
+
+    public int findSet(int e) {
+        while (true) {
+            int parent = p.get(e);
+            if (parent == e) return e;
+            int grandParent = p.get(parent);
+            if (parent != grandParent) {
+                // Path halving; if this fails, another thread has already changed the parent of e
+                p.compareAndSet(e, parent, grandParent);
+            }
+            e = grandParent;
+        }
+    }
+
+    /**
+     * @return true if a and b were in different sets
+     */
+    public boolean unionSet(int a, int b) {
+        while (true) {
+            a = findSet(a);
+            b = findSet(b);
+            if (a == b) return false;
+            if (higherPriority(a, b)) {
+                int c = a;
+                a = b;
+                b = c;
+            }
+            // a has the lower priority and becomes a child of b; fails if a is no longer a root
+            if (p.compareAndSet(a, a, b)) return true;
+        }
+    }
+
+    /**
+     * @return true if a and b were in the same set at some point during the call
+     */
+    public boolean sameSet(int a, int b) {
+        while (true) {
+            a = findSet(a);
+            b = findSet(b);
+            if (a == b) return true;
+            // If a is still a root, a and b were in different sets when b was found
+            if (p.get(a) == a) return false;
+        }
+    }
+
+    private static boolean higherPriority(int a, int b) {
+        // Priorities are distinct since priority is a bijection
+        return priority(a) > priority(b);
+    }
+
+    private static int priority(int x) {
+        // Murmur3 finalizer, a bijection on ints
+        x ^= x >>> 16;
+        x *= 0x85ebca6b;
+        x ^= x >>> 13;
+        x *= 0xc2b2ae35;
+        x ^= x >>> 16;
+        return x;
+    }
+}
@@ -0,0 +1,157 @@
+package yarin.yal;
+
+import yarin.yal.graph.CsrGraph;
+import yarin.yal.graph.DirectedGraph;
+
+import java.util.List;
+
+/**
+ * Same as {@link DijkstraHelper} but with primitive long distances, backed by an indexed 4-ary heap
+ * with decrease-key. No objects are allocated after construction, and the helper can be reused
+ * for many queries with {@link #reset()}, which only clears the nodes touched by the previous query.
+ */
+public class DijkstraHelperLong {
+    private static final int D = 4;
+    private static final int UNSEEN = -1, DONE = -2;
+
+    private final long initialDistance;
+    private final long[] distance;
+    private final int[] heap;      // nodes in heap order
+    private final int[] heapPos;   // position of the node in the heap, or UNSEEN/DONE
+    private final int[] touched;   // nodes that are no longer UNSEEN
+    private int size, touchedCount;
+
+    public DijkstraHelperLong(int noNodes, long initialDistance) {
+        this.initialDistance = initialDistance;
+        distance = new long[noNodes];
+        heap = new int[noNodes];
+        heapPos = new int[noNodes];
+        touched = new int[noNodes];
+        for (int i = 0; i < noNodes; i++) {
+            distance[i] = initialDistance;
+            heapPos[i] = UNSEEN;
+        }
+    }
+
+    /**
+     * Clears the state from the previous query. Takes time proportional to the number of nodes reached.
+     */
+    public void reset() {
+        for (int i = 0; i < touchedCount; i++) {
+            int node = touched[i];
+            distance[node] = initialDistance;
+            heapPos[node] = UNSEEN;
+        }
+        touchedCount = 0;
+        size = 0;
+    }
+
+    public void add(int node, long dist) {
+        int p = heapPos[node];
+        if (p == UNSEEN) {
+            touched[touchedCount++] = node;
+            distance[node] = dist;
+            heap[size] = node;
+            heapPos[node] = size;
+            siftUp(size++);
+        } else if (p >= 0 && dist < distance[node]) {
+            distance[node] = dist;
+            siftUp(p);
+        }
+    }
+
+    public int getNext() {
+        if (size == 0) return -1;
+        int next = heap[0];
+        heapPos[next] = DONE;
+        if (--size > 0) {
+            heap[0] = heap[size];
+            heapPos[heap[0]] = 0;
+            siftDown(0);
+        }
+        return next;
+    }
+
+    public long getDistance(int node) {
+        return distance[node];
+    }
+
+    public boolean isDone(int node) {
+        return heapPos[node] == DONE;
+    }
+
+    /**
+     * Runs a full search from the source in a weighted graph. Unweighted edges have weight 1.
+     * The distances can then be read with {@link #getDistance(int)}.
+     */
+    public void run(DirectedGraph dg, int source) {
+        reset();
+        List<List<DirectedGraph.Edge>> outEdges = dg.getNodeOutEdges();
+        add(source, 0);
+        for (int cur = getNext(); cur >= 0; cur = getNext()) {
+            long curDist = distance[cur];
+            List<DirectedGraph.Edge> edges = outEdges.get(cur);
+            for (int i = 0; i < edges.size(); i++) {
+                DirectedGraph.Edge edge = edges.get(i);
+                int weight = edge instanceof DirectedGraph.WeightedEdge ? ((DirectedGraph.WeightedEdge) edge).getWeight() : 1;
+                add(edge.getDest().getIndex(), curDist + weight);
+            }
+        }
+    }
+
+    /**
+     * Runs a full search from the source in a CSR graph. Unweighted arcs have weight 1.
+     * The distances can then be read with {@link #getDistance(int)}.
+     */
+    public void run(CsrGraph g, int source) {
+        reset();
+        int[] offsets = g.getOffsets(), targets = g.getTargets();
+        add(source, 0);
+        for (int cur = getNext(); cur >= 0; cur = getNext()) {
+            long curDist = distance[cur];
+            for (int j = offsets[cur]; j < offsets[cur + 1]; j++) {
+                add(targets[j], curDist + g.getLongWeight(j));
+            }
+        }
+    }
+
+    private void siftUp(int i) {
+        int node = heap[i];
+        long dist = distance[node];
+        while (i > 0) {
+            int parent = (i - 1) / D;
+            int p = heap[parent];
+            if (distance[p] < dist || (distance[p] == dist && p < node)) break;
+            heap[i] = p;
+            heapPos[p] = i;
+            i = parent;
+        }
+        heap[i] = node;
+        heapPos[node] = i;
+    }
+
+    private void siftDown(int i) {
+        int node = heap[i];
+        long dist = distance[node];
+        while (true) {
+            int first = i * D + 1;
+            if (first >= size) break;
+            int best = first;
+            int last = Math.min(first + D, size);
+            for (int c = first + 1; c < last; c++) {
+                if (less(heap[c], heap[best])) best = c;
+            }
+            int b = heap[best];
+            if (distance[b] > dist || (distance[b] == dist && b > node)) break;
+            heap[i] = b;
+            heapPos[b] = i;
+            i = best;
+        }
+        heap[i] = node;
+        heapPos[node] = i;
+    }
+
+    private boolean less(int a, int b) {
+        return distance[a] < distance[b] || (distance[a] == distance[b] && a < b);
+    }
+}
@@ -0,0 +1,181 @@
+package yarin.yal;
+
+import yarin.yal.graph.CsrGraph;
+import yarin.yal.graph.DirectedGraph;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Same as {@link DijkstraHelperLong} but backed by a radix heap, which requires that the distances are
+ * non-negative and that no distance added is smaller than the distance of the last node returned
+ * by {@link #getNext()}. This always holds when running Dijkstra with non-negative integer weights.
+ *
+ * Decrease-key is done lazily by inserting the node again; stale entries are skipped when extracted.
+ * The buckets grow as needed but are kept between queries, so a reused helper doesn't allocate.
+ */
+public class DijkstraHelperRadix {
+    private static final int BUCKETS = 65;
+    private static final byte UNSEEN = 0, QUEUED = 1, DONE = 2;
+
+    private final long initialDistance;
+    private final long[] distance;
+    private final byte[] state;
+    private final int[] touched;
+    private int touchedCount;
+
+    // Bucket 0 contains keys equal to last, bucket b > 0 keys whose highest bit differing from last is b-1
+    private final int[][] bucketNodes = new int[BUCKETS][];
+    private final long[][] bucketKeys = new long[BUCKETS][];
+    private final int[] bucketSize = new int[BUCKETS];
+    private long last;
+
+    public DijkstraHelperRadix(int noNodes, long initialDistance) {
+        this.initialDistance = initialDistance;
+        distance = new long[noNodes];
+        Arrays.fill(distance, initialDistance);
+        state = new byte[noNodes];
+        touched = new int[noNodes];
+        for (int i = 0; i < BUCKETS; i++) {
+            bucketNodes[i] = new int[4];
+            bucketKeys[i] = new long[4];
+        }
+    }
+
+    /**
+     * Clears the state from the previous query. Takes time proportional to the number of nodes reached.
+     */
+    public void reset() {
+        for (int i = 0; i < touchedCount; i++) {
+            int node = touched[i];
+            distance[node] = initialDistance;
+            state[node] = UNSEEN;
+        }
+        touchedCount = 0;
+        Arrays.fill(bucketSize, 0);
+        last = 0;
+    }
+
+    public void add(int node, long dist) {
+        if (dist < last) {
+            throw new IllegalArgumentException("Distance " + dist + " is smaller than the last extracted distance " + last);
+        }
+        switch (state[node]) {
+            case UNSEEN:
+                touched[touchedCount++] = node;
+                state[node] = QUEUED;
+                break;
+            case QUEUED:
+                if (dist >= distance[node]) return;
+                break;
+            default:
+                return;
+        }
+        distance[node] = dist;
+        push(bucketOf(dist), node, dist);
+    }
+
+    public int getNext() {
+        while (true) {
+            if (bucketSize[0] == 0 && !refill()) {
+                return -1;
+            }
+            int i = --bucketSize[0];
+            int node = bucketNodes[0][i];
+            if (state[node] == QUEUED && distance[node] == bucketKeys[0][i]) {
+                state[node] = DONE;
+                return node;
+            }
+        }
+    }
+
+    public long getDistance(int node) {
+        return distance[node];
+    }
+
+    public boolean isDone(int node) {
+        return state[node] == DONE;
+    }
+
+    /**
+     * Runs a full search from the source in a graph with non-negative weights. Unweighted edges have weight 1.
+     * The distances can then be read with {@link #getDistance(int)}.
+     */
+    public void run(DirectedGraph dg, int source) {
+        reset();
+        List<List<DirectedGraph.Edge>> outEdges = dg.getNodeOutEdges();
+        add(source, 0);
+        for (int cur = getNext(); cur >= 0; cur = getNext()) {
+            long curDist = distance[cur];
+            List<DirectedGraph.Edge> edges = outEdges.get(cur);
+            for (int i = 0; i < edges.size(); i++) {
+                DirectedGraph.Edge edge = edges.get(i);
+                int weight = edge instanceof DirectedGraph.WeightedEdge ? ((DirectedGraph.WeightedEdge) edge).getWeight() : 1;
+                add(edge.getDest().getIndex(), curDist + weight);
+            }
+        }
+    }
+
+    /**
+     * Runs a full search from the source in a CSR graph with non-negative weights. Unweighted arcs have weight 1.
+     * The distances can then be read with {@link #getDistance(int)}.
+     */
+    public void run(CsrGraph g, int source) {
+        reset();
+        int[] offsets = g.getOffsets(), targets = g.getTargets();
+        add(source, 0);
+        for (int cur = getNext(); cur >= 0; cur = getNext()) {
+            long curDist = distance[cur];
+            for (int j = offsets[cur]; j < offsets[cur + 1]; j++) {
+                add(targets[j], curDist + g.getLongWeight(j));
+            }
+        }
+    }
+
+    private int bucketOf(long key) {
+        return key == last ? 0 : 64 - Long.numberOfLeadingZeros(key ^ last);
+    }
+
+    private void push(int b, int node, long key) {
+        int s = bucketSize[b];
+        if (s == bucketNodes[b].length) {
+            bucketNodes[b] = Arrays.copyOf(bucketNodes[b], s * 2);
+            bucketKeys[b] = Arrays.copyOf(bucketKeys[b], s * 2);
+        }
+        bucketNodes[b][s] = node;
+        bucketKeys[b][s] = key;
+        bucketSize[b] = s + 1;
+    }
+
+    /**
+     * Moves the entries of the first non-empty bucket to lower buckets, which makes bucket 0 non-empty.
+     * @return false if there are no valid entries left
+     */
+    private boolean refill() {
+        for (int b = 1; b < BUCKETS; b++) {
+            int s = bucketSize[b];
+            if (s == 0) continue;
+            int[] nodes = bucketNodes[b];
+            long[] keys = bucketKeys[b];
+            long min = Long.MAX_VALUE;
+            for (int i = 0; i < s; i++) {
+                int node = nodes[i];
+                if (state[node] == QUEUED && distance[node] == keys[i] && keys[i] < min) {
+                    min = keys[i];
+                }
+            }
+            bucketSize[b] = 0;
+            if (min == Long.MAX_VALUE) continue; // Only stale entries
+            last = min;
+            for (int i = 0; i < s; i++) {
+                int node = nodes[i];
+                if (state[node] == QUEUED && distance[node] == keys[i]) {
+                    // Always goes to a lower bucket, so nodes/keys aren't reallocated while iterating
+                    push(bucketOf(keys[i]), node, keys[i]);
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+}
@@ -1,54 +1,134 @@
 package yarin.yal;
 
-import java.util.Stack;
-
+/**
+ * Keeps track of the minimum (or maximum) value among the values in a queue, in amortized O(1) time per
+ * operation.
+ *
+ * The values are kept in a growable ring buffer, and the candidates for the minimum in a second ring buffer
+ * as a monotonic deque: a value is dropped from the back when a better one is enqueued, since it can never
+ * be the minimum again, and from the front when it's dequeued. Equal values are all kept, so that the front
+ * candidate can be matched against the dequeued value without storing indices.
+ */
 public class DynamicRangeMinimumQuery {
 
+  public interface Comparator {
+    int compare(int first, int second);
+  }
+
+  private final boolean maximum;
+  private final Comparator comparator;
+  private int[] values = new int[16], candidates = new int[16];
+  private int valueHead, valueCount, candidateHead, candidateCount;
+
+  public DynamicRangeMinimumQuery() {
+    this(false);
+  }
+
+  /**
+   * @param maximum if true, keeps track of the maximum value instead of the minimum
+   */
+  public DynamicRangeMinimumQuery(boolean maximum) {
+    this.maximum = maximum;
+    this.comparator = null;
+  }
+
   /**
-   * Keeps track of the minimum value among a current set of active values
-   * in amoritzed O(n) time (n = number of elements)
+   * Keeps track of the smallest value according to the comparator.
    */
+  public DynamicRangeMinimumQuery(Comparator comparator) {
+    this.maximum = false;
+    this.comparator = comparator;
+  }
 
-  private Stack<Integer> s1 = new Stack<>(), s2 = new Stack<>();
-  private Stack<Integer> m1 = new Stack<>(), m2 = new Stack<>();
-  private int min1 = Integer.MAX_VALUE, min2 = Integer.MAX_VALUE;
+  // True if a can be dropped from the candidates when b is enqueued after it
+  private boolean worse(int a, int b) {
+    if (comparator != null) return comparator.compare(a, b) > 0;
+    return maximum ? a < b : a > b;
+  }
 
   public void enqueue(int value) {
-    s2.push(value);
-    m2.push(min2);
-    min2 = Math.min(value, min2);
-  }
-
-  public void dequeue() {
-    if (s1.size() == 0) {
-      while (s2.size() > 0) {
-        int old = s2.pop();
-        min2 = m2.pop();
-        s1.push(old);
-        m1.push(min1);
-        min1 = Math.min(old, min1);
-      }
+    if (valueCount == values.length) {
+      values = grow(values, valueHead);
+      valueHead = 0;
     }
-    min1 = m1.pop();
-    s1.pop();
+    values[(valueHead + valueCount++) & (values.length - 1)] = value;
+
+    int mask = candidates.length - 1;
+    while (candidateCount > 0 && worse(candidates[(candidateHead + candidateCount - 1) & mask], value)) {
+      candidateCount--;
+    }
+    if (candidateCount == candidates.length) {
+      candidates = grow(candidates, candidateHead);
+      candidateHead = 0;
+      mask = candidates.length - 1;
+    }
+    candidates[(candidateHead + candidateCount++) & mask] = value;
   }
 
-  public int[] getAll() {
-    Integer[] t1 = new Integer[s1.size()], t2 = new Integer[s2.size()];
-    s1.copyInto(t1);
-    s2.copyInto(t2);
-    int[] tmp = new int[t1.length + t2.length];
-    for (int i = 0; i < t1.length; i++) {
-      tmp[i] = t1[i];
+  /**
+   * Removes the oldest value.
+   * @return the removed value
+   */
+  public int dequeue() {
+    if (valueCount == 0) {
+      throw new IllegalStateException("Queue is empty");
     }
-    for (int i = 0; i < t2.length; i++) {
-      tmp[i + t1.length] = t2[i];
+    int value = values[valueHead];
+    valueHead = (valueHead + 1) & (values.length - 1);
+    valueCount--;
+    // The front candidate is the oldest value that's still a candidate, so if it isn't this value,
+    // this value was already dropped.
+    if (candidates[candidateHead] == value) {
+      candidateHead = (candidateHead + 1) & (candidates.length - 1);
+      candidateCount--;
     }
-    return tmp;
+    return value;
+  }
+
+  public int size() {
+    return valueCount;
+  }
+
+  public boolean isEmpty() {
+    return valueCount == 0;
+  }
+
+  public void clear() {
+    valueHead = valueCount = candidateHead = candidateCount = 0;
+  }
+
+  /**
+   * @return the values in the queue, oldest first
+   */
+  public int[] getAll() {
+    int[] result = new int[valueCount];
+    int first = Math.min(valueCount, values.length - valueHead);
+    System.arraycopy(values, valueHead, result, 0, first);
+    System.arraycopy(values, 0, result, first, valueCount - first);
+    return result;
   }
 
+  /**
+   * @return the minimum (or maximum) value in the queue. If the queue is empty, this is
+   * Integer.MAX_VALUE (or Integer.MIN_VALUE).
+   * @throws IllegalStateException if the queue is empty and a comparator is used
+   */
   public int currentMin() {
-    return Math.min(min1, min2);
+    if (candidateCount == 0) {
+      if (comparator != null) {
+        throw new IllegalStateException("Queue is empty");
+      }
+      return maximum ? Integer.MIN_VALUE : Integer.MAX_VALUE;
+    }
+    return candidates[candidateHead];
+  }
+
+  // Doubles the capacity of a full ring buffer, moving the head to 0
+  private static int[] grow(int[] ring, int head) {
+    int[] result = new int[ring.length * 2];
+    System.arraycopy(ring, head, result, 0, ring.length - head);
+    System.arraycopy(ring, 0, result, ring.length - head, head);
+    return result;
   }
 
 }
@@ -0,0 +1,128 @@
+package yarin.yal;
+
+/**
+ * Same as {@link DynamicRangeMinimumQuery} but with long values.
+ */
+public class DynamicRangeMinimumQueryLong {
+
+  public interface Comparator {
+    int compare(long first, long second);
+  }
+
+  private final boolean maximum;
+  private final Comparator comparator;
+  private long[] values = new long[16], candidates = new long[16];
+  private int valueHead, valueCount, candidateHead, candidateCount;
+
+  public DynamicRangeMinimumQueryLong() {
+    this(false);
+  }
+
+  /**
+   * @param maximum if true, keeps track of the maximum value instead of the minimum
+   */
+  public DynamicRangeMinimumQueryLong(boolean maximum) {
+    this.maximum = maximum;
+    this.comparator = null;
+  }
+
+  /**
+   * Keeps track of the smallest value according to the comparator.
+   */
+  public DynamicRangeMinimumQueryLong(Comparator comparator) {
+    this.maximum = false;
+    this.comparator = comparator;
+  }
+
+  // True if a can be dropped from the candidates when b is enqueued after it
+  private boolean worse(long a, long b) {
+    if (comparator != null) return comparator.compare(a, b) > 0;
+    return maximum ? a < b : a > b;
+  }
+
+  public void enqueue(long value) {
+    if (valueCount == values.length) {
+      values = grow(values, valueHead);
+      valueHead = 0;
+    }
+    values[(valueHead + valueCount++) & (values.length - 1)] = value;
+
+    int mask = candidates.length - 1;
+    while (candidateCount > 0 && worse(candidates[(candidateHead + candidateCount - 1) & mask], value)) {
+      candidateCount--;
+    }
+    if (candidateCount == candidates.length) {
+      candidates = grow(candidates, candidateHead);
+      candidateHead = 0;
+      mask = candidates.length - 1;
+    }
+    candidates[(candidateHead + candidateCount++) & mask] = value;
+  }
+
+  /**
+   * Removes the oldest value.
+   * @return the removed value
+   */
+  public long dequeue() {
+    if (valueCount == 0) {
+      throw new IllegalStateException("Queue is empty");
+    }
+    long value = values[valueHead];
+    valueHead = (valueHead + 1) & (values.length - 1);
+    valueCount--;
+    // The front candidate is the oldest value that's still a candidate, so if it isn't this value,
+    // this value was already dropped.
+    if (candidates[candidateHead] == value) {
+      candidateHead = (candidateHead + 1) & (candidates.length - 1);
+      candidateCount--;
+    }
+    return value;
+  }
+
+  public int size() {
+    return valueCount;
+  }
+
+  public boolean isEmpty() {
+    return valueCount == 0;
+  }
+
+  public void clear() {
+    valueHead = valueCount = candidateHead = candidateCount = 0;
+  }
+
+  /**
+   * @return the values in the queue, oldest first
+   */
+  public long[] getAll() {
+    long[] result = new long[valueCount];
+    int first = Math.min(valueCount, values.length - valueHead);
+    System.arraycopy(values, valueHead, result, 0, first);
+    System.arraycopy(values, 0, result, first, valueCount - first);
+    return result;
+  }
+
+  /**
+   * @return the minimum (or maximum) value in the queue. If the queue is empty, this is
+   * Long.MAX_VALUE (or Long.MIN_VALUE).
+   * @throws IllegalStateException if the queue is empty and a comparator is used
+   */
+  public long currentMin() {
+    if (candidateCount == 0) {
+      if (comparator != null) {
+        throw new IllegalStateException("Queue is empty");
+      }
+      return maximum ? Long.MIN_VALUE : Long.MAX_VALUE;
+    }
+    return candidates[candidateHead];
+  }
+
+  // Doubles the capacity of a full ring buffer, moving the head to 0
+  private static long[] grow(long[] ring, int head) {
+    long[] result = new long[ring.length * 2];
+    System.arraycopy(ring, head, result, 0, ring.length - head);
+    System.arraycopy(ring, 0, result, ring.length - head, head);
+    return result;
+  }
+
+}
@@ -1,24 +1,403 @@
 package yarin.yal;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * Compiles arithmetic expressions with + - * / ^, unary minus, parentheses, named variables and functions
+ * of one or two arguments into a flat stack bytecode, which can then be evaluated any number of times
+ * without allocating, either for one set of variable values or for whole columns of values at once.
+ *
+ * ^ is right associative and binds tighter than unary minus, so -2^2 = -4 and 2^3^2 = 512.
+ * Function names are case insensitive; variable names are not. Constant subexpressions are folded, so
+ * functions must be pure.
+ */
 public class ExpressionEvaluator
 {
-    private static final String[] operators = new String[] { "[\\+~]", "[\\*/]", "[\\^]" };
+    private static final int CONST = 0, VAR = 1, ADD = 2, SUB = 3, MUL = 4, DIV = 5, POW = 6, NEG = 7,
+            CALL1 = 8, CALL2 = 9;
+
+    private static final ExpressionEvaluator DEFAULT = new ExpressionEvaluator();
+
+    private final Map<String, DoubleUnaryOperator> unaryFunctions = new HashMap<>();
+    private final Map<String, DoubleBinaryOperator> binaryFunctions = new HashMap<>();
+
+    /**
+     * Creates an evaluator with the functions sin, cos, tan, asin, acos, atan, sqrt, exp, log, abs, floor,
+     * ceil, min, max, pow and atan2.
+     */
+    public ExpressionEvaluator() {
+        addFunction("sin", Math::sin);
+        addFunction("cos", Math::cos);
+        addFunction("tan", Math::tan);
+        addFunction("asin", Math::asin);
+        addFunction("acos", Math::acos);
+        addFunction("atan", Math::atan);
+        addFunction("sqrt", Math::sqrt);
+        addFunction("exp", Math::exp);
+        addFunction("log", Math::log);
+        addFunction("abs", Math::abs);
+        addFunction("floor", Math::floor);
+        addFunction("ceil", Math::ceil);
+        addFunction("min", Math::min);
+        addFunction("max", Math::max);
+        addFunction("pow", Math::pow);
+        addFunction("atan2", Math::atan2);
+    }
+
+    public ExpressionEvaluator addFunction(String name, DoubleUnaryOperator function) {
+        unaryFunctions.put(name.toLowerCase(), function);
+        return this;
+    }
+
+    public ExpressionEvaluator addFunction(String name, DoubleBinaryOperator function) {
+        binaryFunctions.put(name.toLowerCase(), function);
+        return this;
+    }
+
+    /**
+     * @param variables the names of the variables, in the order their values are given to evaluate
+     * @throws IllegalArgumentException if the expression can't be parsed
+     */
+    public Expression compile(String expr, String... variables) {
+        return new Parser(expr, variables).compile();
+    }
+
+    /**
+     * A compiled expression. It reuses its evaluation stack, so one instance must not be evaluated
+     * by several threads at once; use {@link #copy()} to get one per thread.
+     */
+    public static final class Expression {
+        private static final int BLOCK = 256;
+
+        private final String[] variables;
+        private final int[] code;
+        private final double[] constants;
+        private final DoubleUnaryOperator[] unary;
+        private final DoubleBinaryOperator[] binary;
+        private final double[] stack;
+        private final double[][] blocks;
+
+        private Expression(String[] variables, int[] code, double[] constants, DoubleUnaryOperator[] unary,
+                           DoubleBinaryOperator[] binary, int maxDepth) {
+            this.variables = variables;
+            this.code = code;
+            this.constants = constants;
+            this.unary = unary;
+            this.binary = binary;
+            stack = new double[maxDepth];
+            blocks = new double[maxDepth][BLOCK];
+        }
+
+        public Expression copy() {
+            return new Expression(variables, code, constants, unary, binary, stack.length);
+        }
+
+        public String[] getVariables() {
+            return variables.clone();
+        }
+
+        /**
+         * @param values the value of each variable
+         */
+        public double evaluate(double... values) {
+            if (values.length != variables.length)
+                throw new IllegalArgumentException("Expected " + variables.length + " values");
+            double[] s = stack;
+            int sp = 0;
+            for (int pc = 0; pc < code.length; pc++) {
+                switch (code[pc]) {
+                    case CONST: s[sp++] = constants[code[++pc]]; break;
+                    case VAR: s[sp++] = values[code[++pc]]; break;
+                    case ADD: sp--; s[sp - 1] += s[sp]; break;
+                    case SUB: sp--; s[sp - 1] -= s[sp]; break;
+                    case MUL: sp--; s[sp - 1] *= s[sp]; break;
+                    case DIV: sp--; s[sp - 1] /= s[sp]; break;
+                    case POW: sp--; s[sp - 1] = Math.pow(s[sp - 1], s[sp]); break;
+                    case NEG: s[sp - 1] = -s[sp - 1]; break;
+                    case CALL1: s[sp - 1] = unary[code[++pc]].applyAsDouble(s[sp - 1]); break;
+                    case CALL2: sp--; s[sp - 1] = binary[code[++pc]].applyAsDouble(s[sp - 1], s[sp]); break;
+                }
+            }
+            return s[0];
+        }
+
+        /**
+         * Evaluates the expression for each row of the columns, one instruction at a time over blocks of rows,
+         * so that the interpretation overhead is per block and the loops over the rows can be vectorized.
+         * @param columns the values of each variable, with at least result.length rows
+         * @param result receives the value of the expression for each row
+         */
+        public void evaluate(double[][] columns, double[] result) {
+            if (columns.length != variables.length)
+                throw new IllegalArgumentException("Expected " + variables.length + " columns");
+            double[][] b = blocks;
+            for (int from = 0; from < result.length; from += BLOCK) {
+                int len = Math.min(BLOCK, result.length - from), sp = 0;
+                for (int pc = 0; pc < code.length; pc++) {
+                    switch (code[pc]) {
+                        case CONST:
+                            Arrays.fill(b[sp++], 0, len, constants[code[++pc]]);
+                            break;
+                        case VAR:
+                            System.arraycopy(columns[code[++pc]], from, b[sp++], 0, len);
+                            break;
+                        case NEG: {
+                            double[] x = b[sp - 1];
+                            for (int i = 0; i < len; i++) x[i] = -x[i];
+                            break;
+                        }
+                        case CALL1: {
+                            double[] x = b[sp - 1];
+                            DoubleUnaryOperator f = unary[code[++pc]];
+                            for (int i = 0; i < len; i++) x[i] = f.applyAsDouble(x[i]);
+                            break;
+                        }
+                        default: {
+                            sp--;
+                            double[] x = b[sp - 1], y = b[sp];
+                            switch (code[pc]) {
+                                case ADD: for (int i = 0; i < len; i++) x[i] += y[i]; break;
+                                case SUB: for (int i = 0; i < len; i++) x[i] -= y[i]; break;
+                                case MUL: for (int i = 0; i < len; i++) x[i] *= y[i]; break;
+                                case DIV: for (int i = 0; i < len; i++) x[i] /= y[i]; break;
+                                case POW: for (int i = 0; i < len; i++) x[i] = Math.pow(x[i], y[i]); break;
+                                case CALL2: {
+                                    DoubleBinaryOperator f = binary[code[++pc]];
+                                    for (int i = 0; i < len; i++) x[i] = f.applyAsDouble(x[i], y[i]);
+                                    break;
+                                }
+                            }
+                        }
+                    }
+                }
+                System.arraycopy(b[0], 0, result, from, len);
+            }
+        }
+    }
+
+    /**
+     * Recursive descent parser that emits the code in postfix order. The start of the code of each
+     * subexpression is returned, so that constant subexpressions can be folded as soon as they are complete.
+     */
+    private final class Parser {
+        private final String s;
+        private final String[] variables;
+        private int pos;
+        private int[] code = new int[16];
+        private int size, depth, maxDepth;
+        private final List<Double> constants = new ArrayList<>();
+        private final List<DoubleUnaryOperator> unary = new ArrayList<>();
+        private final List<DoubleBinaryOperator> binary = new ArrayList<>();
+
+        Parser(String s, String[] variables) {
+            this.s = s;
+            this.variables = variables.clone();
+        }
+
+        Expression compile() {
+            parseExpression();
+            skipSpaces();
+            if (pos < s.length())
+                throw error("Unexpected '" + s.charAt(pos) + "'");
+            double[] c = new double[constants.size()];
+            for (int i = 0; i < c.length; i++)
+                c[i] = constants.get(i);
+            return new Expression(variables, Arrays.copyOf(code, size), c,
+                    unary.toArray(new DoubleUnaryOperator[0]), binary.toArray(new DoubleBinaryOperator[0]), maxDepth);
+        }
+
+        private IllegalArgumentException error(String message) {
+            return new IllegalArgumentException(message + " at position " + pos + " in \"" + s + "\"");
+        }
+
+        private void skipSpaces() {
+            while (pos < s.length() && Character.isWhitespace(s.charAt(pos))) pos++;
+        }
 
-    private static double eval(String expr, int level) {
-        if (level == 3) return (expr.length() == 0) ? 0 : Double.parseDouble(expr);
-        String[] parts = expr.split(operators[level]);
-        double val = eval(parts[0], level + 1);
-        for (int i = 1, cur = parts[0].length(); i < parts.length; cur += parts[i++].length() + 1) {
-            double nval = eval(parts[i], level + 1);
-            switch (expr.charAt(cur)) {
-                case '+': val += nval; break;
-                case '~': val -= nval; break;
-                case '*': val *= nval; break;
-                case '/': val /= nval; break;
-                case '^': val = Math.pow(val, nval); break;
+        private boolean accept(char c) {
+            skipSpaces();
+            if (pos < s.length() && s.charAt(pos) == c) {
+                pos++;
+                return true;
+            }
+            return false;
+        }
+
+        private void emit(int op) {
+            if (size + 2 > code.length) code = Arrays.copyOf(code, 2 * code.length);
+            code[size++] = op;
+        }
+
+        private void emit(int op, int arg) {
+            emit(op);
+            code[size++] = arg;
+        }
+
+        private void emitConstant(double v) {
+            emit(CONST, constants.size());
+            constants.add(v);
+            if (++depth > maxDepth) maxDepth = depth;
+        }
+
+        private boolean isConstant(int start) {
+            return code[start] == CONST && start + 2 == size;
+        }
+
+        private double constantAt(int start) {
+            return constants.get(code[start + 1]);
+        }
+
+        // Emits a binary operation on the subexpressions starting at left and right, folding constants
+        private void binaryOp(int left, int right, int op, int function) {
+            depth--;
+            if (isConstant(right) && code[left] == CONST && left + 2 == right) {
+                double x = constantAt(left), y = constantAt(right), v;
+                switch (op) {
+                    case ADD: v = x + y; break;
+                    case SUB: v = x - y; break;
+                    case MUL: v = x * y; break;
+                    case DIV: v = x / y; break;
+                    case POW: v = Math.pow(x, y); break;
+                    default: v = binary.get(function).applyAsDouble(x, y); break;
+                }
+                constants.set(code[left + 1], v);
+                size = right;
+                return;
+            }
+            if (op == CALL2) emit(op, function); else emit(op);
+        }
+
+        private void unaryOp(int start, int op, int function) {
+            if (isConstant(start)) {
+                double x = constantAt(start);
+                constants.set(code[start + 1], op == NEG ? -x : unary.get(function).applyAsDouble(x));
+                return;
+            }
+            if (op == CALL1) emit(op, function); else emit(op);
+        }
+
+        private int parseExpression() {
+            int start = parseTerm();
+            while (true) {
+                int op;
+                if (accept('+')) op = ADD;
+                else if (accept('-')) op = SUB;
+                else return start;
+                int right = parseTerm();
+                binaryOp(start, right, op, -1);
+            }
+        }
+
+        private int parseTerm() {
+            int start = parseUnary();
+            while (true) {
+                int op;
+                if (accept('*')) op = MUL;
+                else if (accept('/')) op = DIV;
+                else return start;
+                int right = parseUnary();
+                binaryOp(start, right, op, -1);
+            }
+        }
+
+        private int parseUnary() {
+            int start = size;
+            if (accept('-')) {
+                parseUnary();
+                unaryOp(start, NEG, -1);
+                return start;
+            }
+            if (accept('+'))
+                return parseUnary();
+            return parsePower();
+        }
+
+        private int parsePower() {
+            int start = parsePrimary();
+            if (accept('^')) {
+                int right = parseUnary();
+                binaryOp(start, right, POW, -1);
+            }
+            return start;
+        }
+
+        private int parsePrimary() {
+            skipSpaces();
+            int start = size;
+            if (pos == s.length())
+                throw error("Unexpected end");
+            char c = s.charAt(pos);
+            if (accept('(')) {
+                parseExpression();
+                if (!accept(')'))
+                    throw error("Expected ')'");
+            } else if (Character.isDigit(c) || c == '.') {
+                int from = pos;
+                while (pos < s.length() && (Character.isDigit(s.charAt(pos)) || s.charAt(pos) == '.')) pos++;
+                if (pos < s.length() && (s.charAt(pos) == 'e' || s.charAt(pos) == 'E')) {
+                    int p = pos + 1;
+                    if (p < s.length() && (s.charAt(p) == '+' || s.charAt(p) == '-')) p++;
+                    if (p < s.length() && Character.isDigit(s.charAt(p))) {
+                        pos = p;
+                        while (pos < s.length() && Character.isDigit(s.charAt(pos))) pos++;
+                    }
+                }
+                try {
+                    emitConstant(Double.parseDouble(s.substring(from, pos)));
+                } catch (NumberFormatException e) {
+                    pos = from;
+                    throw error("Invalid number");
+                }
+            } else if (Character.isLetter(c) || c == '_') {
+                int from = pos;
+                while (pos < s.length() && (Character.isLetterOrDigit(s.charAt(pos)) || s.charAt(pos) == '_')) pos++;
+                String name = s.substring(from, pos);
+                if (accept('(')) {
+                    parseCall(name);
+                } else {
+                    int v = Arrays.asList(variables).indexOf(name);
+                    if (v < 0) {
+                        pos = from;
+                        throw error("Unknown variable '" + name + "'");
+                    }
+                    emit(VAR, v);
+                    if (++depth > maxDepth) maxDepth = depth;
+                }
+            } else {
+                throw error("Unexpected '" + c + "'");
+            }
+            return start;
+        }
+
+        private void parseCall(String name) {
+            String key = name.toLowerCase();
+            int start = size;
+            parseExpression();
+            if (accept(',')) {
+                DoubleBinaryOperator f = binaryFunctions.get(key);
+                if (f == null)
+                    throw error("Unknown function " + name + " of two arguments");
+                int right = parseExpression();
+                if (!accept(')'))
+                    throw error("Expected ')'");
+                binary.add(f);
+                binaryOp(start, right, CALL2, binary.size() - 1);
+            } else {
+                DoubleUnaryOperator f = unaryFunctions.get(key);
+                if (f == null)
+                    throw error("Unknown function " + name);
+                if (!accept(')'))
+                    throw error("Expected ')'");
+                unary.add(f);
+                unaryOp(start, CALL1, unary.size() - 1);
             }
         }
-        return val;
     }
 
     public static double funcEval(String func, double val) {
@@ -32,16 +411,10 @@ public class ExpressionEvaluator
         throw new RuntimeException("Unknown function: " + func);
     }
 
+    /**
+     * Evaluates an expression without variables with the default functions.
+     */
     public static double Evaluate(String expr) {
-        // TODO: This doesn't allow unary minus in the input
-        expr = expr.replace('-', '~'); // Distinguish between unary and binary minus
-        int rp;
-        while ((rp = expr.indexOf(')')) >= 0) {
-            int lp = expr.substring(0, rp).lastIndexOf('('), llp = lp;
-            double val = eval(expr.substring(lp + 1, rp), 0);
-            while (llp > 0 && Character.isLetter(expr.charAt(llp - 1))) llp--;
-            expr = expr.substring(0, llp) + Double.toString(funcEval(expr.substring(llp, lp).toLowerCase(), val)) + expr.substring(rp + 1);
-        }
-        return eval(expr, 0);
-    }
-}
\ No newline at end of file
+        return DEFAULT.compile(expr).evaluate();
+    }
+}
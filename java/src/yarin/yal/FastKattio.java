@@ -0,0 +1,468 @@
+package yarin.yal;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Locale;
+import java.util.NoSuchElementException;
+
+/**
+ * Same as {@link Kattio} but tokenizes the input at the byte level, parsing numbers directly from
+ * the bytes without creating any Strings. The input is read from a channel through a reused buffer,
+ * or from a memory mapped file with {@link #map(Path, OutputStream)}. Tokens are separated by
+ * any bytes <= ' '.
+ *
+ * Output is written to a byte buffer, and numbers are formatted into it digit by digit.
+ */
+public class FastKattio implements Closeable, Flushable {
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final long MAP_WINDOW = 1L << 30;
+    private static final double[] POW10 = new double[23];
+    // 10^18 is the largest power of ten that fits in a long
+    private static final int MAX_FAST_DECIMALS = 18;
+
+    static {
+        POW10[0] = 1;
+        for (int i = 1; i < POW10.length; i++) {
+            POW10[i] = POW10[i - 1] * 10;
+        }
+    }
+
+    private final ReadableByteChannel inChannel;
+    private final FileChannel mappedFile;
+    private long mappedPos;
+    private ByteBuffer in;
+    private final byte[] inArray; // Backing array of in, or null if the input is mapped
+    private int inPos, inLimit;
+    private boolean eof;
+
+    private final WritableByteChannel outChannel;
+    private final byte[] out = new byte[BUFFER_SIZE];
+    private int outPos;
+    private final byte[] digits = new byte[20];
+    private final StringBuilder slowPath = new StringBuilder();
+
+    public FastKattio(InputStream i) {
+        this(Channels.newChannel(i), Channels.newChannel(System.out));
+    }
+
+    public FastKattio(InputStream i, OutputStream o) {
+        this(Channels.newChannel(i), Channels.newChannel(o));
+    }
+
+    public FastKattio(ReadableByteChannel i, WritableByteChannel o) {
+        inChannel = i;
+        mappedFile = null;
+        outChannel = o;
+        inArray = new byte[BUFFER_SIZE];
+        in = ByteBuffer.wrap(inArray);
+    }
+
+    private FastKattio(FileChannel file, WritableByteChannel o) {
+        inChannel = null;
+        mappedFile = file;
+        outChannel = o;
+        inArray = null;
+        in = ByteBuffer.allocate(0);
+    }
+
+    /**
+     * Reads the input from a memory mapped file, which avoids copying the input into a buffer.
+     */
+    public static FastKattio map(Path file, OutputStream o) throws IOException {
+        return new FastKattio(FileChannel.open(file, StandardOpenOption.READ), Channels.newChannel(o));
+    }
+
+    // ----- Input -----
+
+    /**
+     * @return the next byte without consuming it, or -1 at the end of the input
+     */
+    private int peek() {
+        if (inPos == inLimit && !refill()) {
+            return -1;
+        }
+        return (inArray != null ? inArray[inPos] : in.get(inPos)) & 0xFF;
+    }
+
+    private boolean refill() {
+        if (eof) return false;
+        try {
+            if (mappedFile != null) {
+                long remaining = mappedFile.size() - mappedPos;
+                if (remaining <= 0) {
+                    eof = true;
+                    return false;
+                }
+                long size = Math.min(remaining, MAP_WINDOW);
+                in = mappedFile.map(FileChannel.MapMode.READ_ONLY, mappedPos, size);
+                mappedPos += size;
+                inPos = 0;
+                inLimit = (int) size;
+                return true;
+            }
+            in.clear();
+            int n;
+            do {
+                n = inChannel.read(in);
+            } while (n == 0);
+            if (n < 0) {
+                eof = true;
+                return false;
+            }
+            inPos = 0;
+            inLimit = in.position();
+            return true;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Skips whitespace
+     * @return the first byte of the next token, or -1 at the end of the input
+     */
+    private int skipBlanks() {
+        while (true) {
+            int c = peek();
+            if (c < 0 || c > ' ') return c;
+            inPos++;
+        }
+    }
+
+    private int nextByte() {
+        inPos++;
+        return peek();
+    }
+
+    public boolean hasMoreTokens() {
+        return skipBlanks() >= 0;
+    }
+
+    public int getInt() {
+        long v = getLong();
+        if (v != (int) v) {
+            throw new NumberFormatException("Value out of range: " + v);
+        }
+        return (int) v;
+    }
+
+    public long getLong() {
+        int c = skipBlanks();
+        if (c < 0) {
+            throw new NoSuchElementException("No more tokens");
+        }
+        boolean negative = c == '-';
+        if (negative || c == '+') {
+            c = nextByte();
+        }
+        if (c < '0' || c > '9') {
+            throw new NumberFormatException("Not a number");
+        }
+        // Accumulate negatively so that Long.MIN_VALUE can be parsed
+        long v = 0;
+        do {
+            int d = c - '0';
+            if (v < Long.MIN_VALUE / 10 || v * 10 < Long.MIN_VALUE + d) {
+                throw new NumberFormatException("Value out of range");
+            }
+            v = v * 10 - d;
+            c = nextByte();
+        } while (c >= '0' && c <= '9');
+        if (c > ' ') {
+            throw new NumberFormatException("Not a number");
+        }
+        if (!negative) {
+            if (v == Long.MIN_VALUE) {
+                throw new NumberFormatException("Value out of range");
+            }
+            v = -v;
+        }
+        return v;
+    }
+
+    /**
+     * Numbers with a mantissa of at most 2^53 and a decimal exponent of at most 22 are parsed
+     * without allocating; other numbers fall back to {@link Double#parseDouble(String)}.
+     */
+    public double getDouble() {
+        int c = skipBlanks();
+        if (c < 0) {
+            throw new NoSuchElementException("No more tokens");
+        }
+        slowPath.setLength(0);
+        boolean negative = c == '-';
+        long mantissa = 0;
+        int significant = 0, exponent = 0;
+        boolean anyDigits = false, exact = true;
+        if (negative || c == '+') {
+            slowPath.append((char) c);
+            c = nextByte();
+        }
+        for (boolean fraction = false; ; c = nextByte()) {
+            if (c >= '0' && c <= '9') {
+                anyDigits = true;
+                if (significant < 18) {
+                    mantissa = mantissa * 10 + (c - '0');
+                    if (mantissa > 0) significant++;
+                    if (fraction) exponent--;
+                } else {
+                    exact = false;
+                }
+            } else if (c == '.' && !fraction) {
+                fraction = true;
+            } else {
+                break;
+            }
+            slowPath.append((char) c);
+        }
+        if (c == 'e' || c == 'E') {
+            slowPath.append((char) c);
+            c = nextByte();
+            boolean negativeExponent = c == '-';
+            if (negativeExponent || c == '+') {
+                slowPath.append((char) c);
+                c = nextByte();
+            }
+            int e = 0;
+            for (; c >= '0' && c <= '9'; c = nextByte()) {
+                slowPath.append((char) c);
+                e = Math.min(e * 10 + (c - '0'), 100000);
+            }
+            exponent += negativeExponent ? -e : e;
+        }
+        if (c > ' ') {
+            // Infinity, NaN, hex floats etc
+            for (; c > ' '; c = nextByte()) {
+                slowPath.append((char) c);
+            }
+            exact = false;
+        } else if (!anyDigits) {
+            throw new NumberFormatException("Not a number");
+        }
+        // Both the mantissa and the power of ten must be exact doubles for the result to be correctly rounded
+        if (!exact || mantissa > (1L << 53) || exponent < -22 || exponent > 22) {
+            return Double.parseDouble(slowPath.toString());
+        }
+        double v = exponent < 0 ? mantissa / POW10[-exponent] : mantissa * POW10[exponent];
+        return negative ? -v : v;
+    }
+
+    public String getWord() {
+        int c = skipBlanks();
+        if (c < 0) {
+            return null;
+        }
+        slowPath.setLength(0);
+        for (; c > ' '; c = nextByte()) {
+            slowPath.append((char) c);
+        }
+        // Decode properly in case the word isn't ASCII
+        byte[] bytes = new byte[slowPath.length()];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) slowPath.charAt(i);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    public void readInts(int[] dst) {
+        readInts(dst, 0, dst.length);
+    }
+
+    public void readInts(int[] dst, int offset, int count) {
+        for (int i = 0; i < count; i++) {
+            dst[offset + i] = getInt();
+        }
+    }
+
+    public void readLongs(long[] dst) {
+        readLongs(dst, 0, dst.length);
+    }
+
+    public void readLongs(long[] dst, int offset, int count) {
+        for (int i = 0; i < count; i++) {
+            dst[offset + i] = getLong();
+        }
+    }
+
+    public void readDoubles(double[] dst) {
+        readDoubles(dst, 0, dst.length);
+    }
+
+    public void readDoubles(double[] dst, int offset, int count) {
+        for (int i = 0; i < count; i++) {
+            dst[offset + i] = getDouble();
+        }
+    }
+
+    // ----- Output -----
+
+    private void ensure(int bytes) {
+        if (outPos + bytes > out.length) {
+            flushBuffer();
+        }
+    }
+
+    public FastKattio print(char c) {
+        if (c < 0x80) {
+            ensure(1);
+            out[outPos++] = (byte) c;
+        } else {
+            print(String.valueOf(c));
+        }
+        return this;
+    }
+
+    public FastKattio print(String s) {
+        int n = s.length();
+        for (int i = 0; i < n; i++) {
+            char c = s.charAt(i);
+            if (c >= 0x80) {
+                writeBytes(s.substring(i).getBytes(StandardCharsets.UTF_8));
+                return this;
+            }
+            ensure(1);
+            out[outPos++] = (byte) c;
+        }
+        return this;
+    }
+
+    private void writeBytes(byte[] bytes) {
+        for (int i = 0; i < bytes.length; ) {
+            ensure(1);
+            int len = Math.min(bytes.length - i, out.length - outPos);
+            System.arraycopy(bytes, i, out, outPos, len);
+            outPos += len;
+            i += len;
+        }
+    }
+
+    public FastKattio print(int v) {
+        return print((long) v);
+    }
+
+    public FastKattio print(long v) {
+        ensure(20);
+        if (v >= 0) {
+            v = -v;
+        } else {
+            out[outPos++] = '-';
+        }
+        // Formats the negated value so that Long.MIN_VALUE works
+        int n = 0;
+        do {
+            digits[n++] = (byte) ('0' - v % 10);
+            v /= 10;
+        } while (v != 0);
+        while (n > 0) {
+            out[outPos++] = digits[--n];
+        }
+        return this;
+    }
+
+    /**
+     * Prints the value with the given number of decimals, like String.format("%.nf"), which is used
+     * for more than 18 decimals and for values too large to be scaled into a long. Otherwise the
+     * value times 10^decimals is rounded half away from zero, so the last digit can differ from
+     * String.format, which rounds the shortest decimal representation instead, e.g. 1.005 is printed
+     * as 1.00 here and 1.01 by String.format. Negative values that round to 0 keep their sign.
+     */
+    public FastKattio print(double v, int decimals) {
+        if (decimals < 0) {
+            throw new IllegalArgumentException("Invalid number of decimals: " + decimals);
+        }
+        if (decimals > MAX_FAST_DECIMALS || Double.isNaN(v) || Math.abs(v) * POW10[decimals] >= 9e18) {
+            return print(String.format(Locale.ROOT, "%." + decimals + "f", v));
+        }
+        long r = Math.round(Math.abs(v) * POW10[decimals]);
+        if (v < 0 || v == 0 && 1 / v < 0) {
+            print('-');
+        }
+        long p = (long) POW10[decimals];
+        print(r / p);
+        if (decimals > 0) {
+            print('.');
+            long frac = r % p;
+            for (long d = p / 10; d > 0; d /= 10) {
+                print((char) ('0' + frac / d % 10));
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Prints the values in the range separated by the given character.
+     */
+    public FastKattio print(int[] values, int from, int to, char separator) {
+        for (int i = from; i < to; i++) {
+            if (i > from) print(separator);
+            print(values[i]);
+        }
+        return this;
+    }
+
+    public FastKattio print(long[] values, int from, int to, char separator) {
+        for (int i = from; i < to; i++) {
+            if (i > from) print(separator);
+            print(values[i]);
+        }
+        return this;
+    }
+
+    public FastKattio println() {
+        return print('\n');
+    }
+
+    public FastKattio println(int v) {
+        return print(v).println();
+    }
+
+    public FastKattio println(long v) {
+        return print(v).println();
+    }
+
+    public FastKattio println(String s) {
+        return print(s).println();
+    }
+
+    private void flushBuffer() {
+        try {
+            ByteBuffer buf = ByteBuffer.wrap(out, 0, outPos);
+            while (buf.hasRemaining()) {
+                outChannel.write(buf);
+            }
+            outPos = 0;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void flush() {
+        flushBuffer();
+    }
+
+    /**
+     * Flushes the output and closes the input. The output channel is left open, like System.out.
+     */
+    @Override
+    public void close() throws IOException {
+        flush();
+        if (mappedFile != null) {
+            mappedFile.close();
+        } else {
+            inChannel.close();
+        }
+    }
+}
@@ -8,8 +8,8 @@ public class FixedRangeMinimumQuery {
         if (range > data.length)
             throw new IllegalArgumentException();
         int[] result = new int[data.length - range + 1];
+        int[] minLeft = new int[range];
         for (int i = 0; i + range - 1 < data.length; i += range) {
-            int[] minLeft = new int[range];
             minLeft[0] = data[i + range - 1];
             for (int j = 1; j < range; j++)	{
                 int dif = minLeft[j - 1] - data[i + range - 1 - j];
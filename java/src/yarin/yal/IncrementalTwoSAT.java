@@ -0,0 +1,218 @@
+package yarin.yal;
+
+import java.util.Arrays;
+
+import yarin.yal.graph.CsrGraph;
+import yarin.yal.graph.StronglyConnectedComponents;
+
+/**
+ * Solves the 2-satisfiability problem incrementally: clauses can be added between solves, and each solve
+ * can assume a set of literals to be true without adding them to the expression.
+ *
+ * The last solution is kept, and a clause that it violates is repaired by propagating one of its literals
+ * through the implication graph, only flipping the variables that must change. If the propagation reaches
+ * both a literal and its negation, the literal implies a contradiction, and the other literal of the clause
+ * is tried instead. The assumptions are propagated the same way, and are undone after the solve. Only when
+ * many clauses have been added since the last solve is the whole problem solved with strongly connected
+ * components.
+ *
+ * A literal is 2 * variable for the variable itself and 2 * variable + 1 for its negation, as in {@link TwoSAT}.
+ *
+ * Dependency: CsrGraph, StronglyConnectedComponents
+ */
+public class IncrementalTwoSAT {
+    private final int n;
+    private boolean[] value; // The current solution, satisfying all clauses before firstPending
+    private boolean unsatisfiable;
+
+    // The clauses, and the implication graph as linked arc lists
+    private int[] clause1 = new int[16], clause2 = new int[16];
+    private int clauseCount, firstPending;
+    private final int[] head;
+    private int[] arcTarget = new int[32], arcNext = new int[32];
+
+    // Variables flipped by propagations that may be undone
+    private int[] trail = new int[16];
+    private int trailSize;
+    private final int[] visited, locked;
+    private int propagation, solveId;
+
+    /**
+     * @param noVariables the number of variables in the expression.
+     */
+    public IncrementalTwoSAT(int noVariables) {
+        n = noVariables;
+        value = new boolean[n];
+        head = new int[2 * n];
+        Arrays.fill(head, -1);
+        visited = new int[n];
+        locked = new int[n];
+    }
+
+    public static int literal(int variable, boolean negated) {
+        return variable * 2 + (negated ? 1 : 0);
+    }
+
+    public int getVariableCount() {
+        return n;
+    }
+
+    public int getClauseCount() {
+        return clauseCount;
+    }
+
+    /**
+     * Adds a new clause to the expression.
+     * @param term1 the first variable in the clause.
+     * @param neg1 true if the first variable is negated; otherwise false.
+     * @param term2 the second variable in the clause.
+     * @param neg2 true if the second variable is negated; otherwise false.
+     */
+    public void addClause(int term1, boolean neg1, int term2, boolean neg2) {
+        addClause(literal(term1, neg1), literal(term2, neg2));
+    }
+
+    /**
+     * Adds the clause (literal1 or literal2) to the expression. A unit clause is added with literal1 == literal2.
+     */
+    public void addClause(int literal1, int literal2) {
+        if (literal1 < 0 || literal1 >= 2 * n || literal2 < 0 || literal2 >= 2 * n) {
+            throw new IllegalArgumentException("Invalid literal");
+        }
+        if (clauseCount == clause1.length) {
+            clause1 = Arrays.copyOf(clause1, 2 * clauseCount);
+            clause2 = Arrays.copyOf(clause2, 2 * clauseCount);
+            arcTarget = Arrays.copyOf(arcTarget, 4 * clauseCount);
+            arcNext = Arrays.copyOf(arcNext, 4 * clauseCount);
+        }
+        clause1[clauseCount] = literal1;
+        clause2[clauseCount] = literal2;
+        addArc(2 * clauseCount, literal1 ^ 1, literal2);
+        addArc(2 * clauseCount + 1, literal2 ^ 1, literal1);
+        clauseCount++;
+    }
+
+    private void addArc(int arc, int from, int to) {
+        arcTarget[arc] = to;
+        arcNext[arc] = head[from];
+        head[from] = arc;
+    }
+
+    private boolean isTrue(int literal) {
+        return value[literal >> 1] == ((literal & 1) == 0);
+    }
+
+    /**
+     * Solves the 2-SAT problem and returns a possible variable assignment if it exits.
+     * @return the variable assignment, or null if no solution exists.
+     */
+    public boolean[] solve() {
+        return solve(new int[0]);
+    }
+
+    /**
+     * Solves the 2-SAT problem with the given literals assumed to be true.
+     * @return the variable assignment, or null if no solution exists under the assumptions.
+     */
+    public boolean[] solve(int... assumptions) {
+        solveId++;
+        if (!unsatisfiable && (clauseCount - firstPending) * 4 > clauseCount) {
+            solveFromScratch();
+        }
+        while (!unsatisfiable && firstPending < clauseCount) {
+            int a = clause1[firstPending], b = clause2[firstPending];
+            if (!isTrue(a) && !isTrue(b)) {
+                trailSize = 0;
+                if (!propagate(a) && !propagate(b)) {
+                    unsatisfiable = true;
+                }
+            }
+            firstPending++;
+        }
+        if (unsatisfiable) return null;
+
+        trailSize = 0;
+        boolean[] result = null;
+        boolean ok = true;
+        for (int i = 0; ok && i < assumptions.length; i++) {
+            int a = assumptions[i];
+            if (a < 0 || a >= 2 * n) {
+                undo(0);
+                throw new IllegalArgumentException("Invalid literal");
+            }
+            ok = propagate(a);
+            locked[a >> 1] = solveId;
+        }
+        if (ok) {
+            result = value.clone();
+        }
+        undo(0);
+        return result;
+    }
+
+    /**
+     * Makes literal true and propagates it along the implications, flipping every variable that must change.
+     * Fails if the same variable must be flipped twice, meaning that the literal implies both a literal and
+     * its negation, or if a variable locked by an assumption must change; the assignment is then restored.
+     */
+    private boolean propagate(int literal) {
+        if (isTrue(literal)) return true;
+        int v = literal >> 1;
+        if (locked[v] == solveId) return false;
+        int mark = trailSize;
+        propagation++;
+        flip(v);
+        for (int q = mark; q < trailSize; q++) {
+            int u = trail[q];
+            int y = 2 * u + (value[u] ? 0 : 1);
+            for (int arc = head[y]; arc >= 0; arc = arcNext[arc]) {
+                int z = arcTarget[arc];
+                if (isTrue(z)) continue;
+                int w = z >> 1;
+                if (visited[w] == propagation || locked[w] == solveId) {
+                    undo(mark);
+                    return false;
+                }
+                flip(w);
+            }
+        }
+        return true;
+    }
+
+    private void flip(int v) {
+        value[v] = !value[v];
+        visited[v] = propagation;
+        if (trailSize == trail.length) {
+            trail = Arrays.copyOf(trail, 2 * trailSize);
+        }
+        trail[trailSize++] = v;
+    }
+
+    private void undo(int mark) {
+        while (trailSize > mark) {
+            int v = trail[--trailSize];
+            value[v] = !value[v];
+        }
+    }
+
+    private void solveFromScratch() {
+        int[] from = new int[2 * clauseCount], to = new int[2 * clauseCount];
+        for (int i = 0; i < clauseCount; i++) {
+            from[2 * i] = clause1[i] ^ 1;
+            to[2 * i] = clause2[i];
+            from[2 * i + 1] = clause2[i] ^ 1;
+            to[2 * i + 1] = clause1[i];
+        }
+        CsrGraph g = CsrGraph.fromEdges(2 * n, from, to, (int[]) null, true);
+        int[] component = new StronglyConnectedComponents().findComponentIds(g);
+        for (int v = 0; v < n; v++) {
+            if (component[2 * v] == component[2 * v + 1]) {
+                unsatisfiable = true;
+                return;
+            }
+            // The ids are in topological order, and a literal is true if it comes after its negation
+            value[v] = component[2 * v] > component[2 * v + 1];
+        }
+        firstPending = clauseCount;
+    }
+}
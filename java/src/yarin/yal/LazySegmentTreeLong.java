@@ -0,0 +1,200 @@
+package yarin.yal;
+
+/**
+ * A segment tree over long values supporting range add and range assign updates, and
+ * range sum, minimum and maximum queries, all in O(log n).
+ *
+ * The tree is laid out bottom-up in flat arrays with the leaves at [size, 2*size). Pending updates
+ * are stored lazily in the inner nodes and pushed down along the two boundary paths of each
+ * operation, so neither updates nor queries are recursive.
+ */
+public class LazySegmentTreeLong {
+    private final int n, size, log;
+    private final long[] sum, min, max;
+    private final int[] count; // Number of real (not padding) leaves below each node
+    private final long[] pendingAdd, pendingAssign;
+    private final boolean[] hasAssign;
+
+    public LazySegmentTreeLong(int n) {
+        this(new long[n]);
+    }
+
+    public LazySegmentTreeLong(long[] data) {
+        n = data.length;
+        log = 32 - Integer.numberOfLeadingZeros(Math.max(1, n - 1));
+        size = 1 << log;
+        sum = new long[2 * size];
+        min = new long[2 * size];
+        max = new long[2 * size];
+        count = new int[2 * size];
+        pendingAdd = new long[size];
+        pendingAssign = new long[size];
+        hasAssign = new boolean[size];
+        for (int i = 0; i < size; i++) {
+            if (i < n) {
+                sum[size + i] = min[size + i] = max[size + i] = data[i];
+                count[size + i] = 1;
+            } else {
+                min[size + i] = Long.MAX_VALUE;
+                max[size + i] = Long.MIN_VALUE;
+            }
+        }
+        for (int i = size - 1; i > 0; i--) {
+            count[i] = count[2 * i] + count[2 * i + 1];
+            pull(i);
+        }
+    }
+
+    private void pull(int k) {
+        sum[k] = sum[2 * k] + sum[2 * k + 1];
+        min[k] = Math.min(min[2 * k], min[2 * k + 1]);
+        max[k] = Math.max(max[2 * k], max[2 * k + 1]);
+    }
+
+    private void applyAssign(int k, long value) {
+        if (count[k] == 0) return;
+        sum[k] = value * count[k];
+        min[k] = max[k] = value;
+        if (k < size) {
+            hasAssign[k] = true;
+            pendingAssign[k] = value;
+            pendingAdd[k] = 0;
+        }
+    }
+
+    private void applyAdd(int k, long delta) {
+        if (count[k] == 0) return;
+        sum[k] += delta * count[k];
+        min[k] += delta;
+        max[k] += delta;
+        if (k < size) {
+            // An add after an assign is the same as assigning the sum
+            if (hasAssign[k]) {
+                pendingAssign[k] += delta;
+            } else {
+                pendingAdd[k] += delta;
+            }
+        }
+    }
+
+    private void push(int k) {
+        if (hasAssign[k]) {
+            applyAssign(2 * k, pendingAssign[k]);
+            applyAssign(2 * k + 1, pendingAssign[k]);
+            hasAssign[k] = false;
+        }
+        if (pendingAdd[k] != 0) {
+            applyAdd(2 * k, pendingAdd[k]);
+            applyAdd(2 * k + 1, pendingAdd[k]);
+            pendingAdd[k] = 0;
+        }
+    }
+
+    /**
+     * Pushes the pending updates on the paths from the root to the boundaries of [l, r), given as leaf indexes.
+     */
+    private void pushBoundaries(int l, int r) {
+        for (int i = log; i >= 1; i--) {
+            if (((l >> i) << i) != l) push(l >> i);
+            if (((r >> i) << i) != r) push((r - 1) >> i);
+        }
+    }
+
+    private void pullBoundaries(int l, int r) {
+        for (int i = 1; i <= log; i++) {
+            if (((l >> i) << i) != l) pull(l >> i);
+            if (((r >> i) << i) != r) pull((r - 1) >> i);
+        }
+    }
+
+    private void checkRange(int start, int end) {
+        if (start < 0 || end > n || start >= end) {
+            throw new IllegalArgumentException();
+        }
+    }
+
+    /**
+     * Adds delta to all values in the range [start, end)
+     */
+    public void add(int start, int end, long delta) {
+        checkRange(start, end);
+        int l = start + size, r = end + size;
+        pushBoundaries(l, r);
+        for (int a = l, b = r; a < b; a >>= 1, b >>= 1) {
+            if ((a & 1) == 1) applyAdd(a++, delta);
+            if ((b & 1) == 1) applyAdd(--b, delta);
+        }
+        pullBoundaries(l, r);
+    }
+
+    /**
+     * Sets all values in the range [start, end) to value
+     */
+    public void assign(int start, int end, long value) {
+        checkRange(start, end);
+        int l = start + size, r = end + size;
+        pushBoundaries(l, r);
+        for (int a = l, b = r; a < b; a >>= 1, b >>= 1) {
+            if ((a & 1) == 1) applyAssign(a++, value);
+            if ((b & 1) == 1) applyAssign(--b, value);
+        }
+        pullBoundaries(l, r);
+    }
+
+    public void set(int index, long value) {
+        assign(index, index + 1, value);
+    }
+
+    public long get(int index) {
+        int k = index + size;
+        for (int i = log; i >= 1; i--) {
+            push(k >> i);
+        }
+        return sum[k];
+    }
+
+    /**
+     * @return the sum of the values in the range [start, end)
+     */
+    public long sum(int start, int end) {
+        checkRange(start, end);
+        int l = start + size, r = end + size;
+        pushBoundaries(l, r);
+        long res = 0;
+        for (; l < r; l >>= 1, r >>= 1) {
+            if ((l & 1) == 1) res += sum[l++];
+            if ((r & 1) == 1) res += sum[--r];
+        }
+        return res;
+    }
+
+    /**
+     * @return the minimum value in the range [start, end)
+     */
+    public long min(int start, int end) {
+        checkRange(start, end);
+        int l = start + size, r = end + size;
+        pushBoundaries(l, r);
+        long res = Long.MAX_VALUE;
+        for (; l < r; l >>= 1, r >>= 1) {
+            if ((l & 1) == 1) res = Math.min(res, min[l++]);
+            if ((r & 1) == 1) res = Math.min(res, min[--r]);
+        }
+        return res;
+    }
+
+    /**
+     * @return the maximum value in the range [start, end)
+     */
+    public long max(int start, int end) {
+        checkRange(start, end);
+        int l = start + size, r = end + size;
+        pushBoundaries(l, r);
+        long res = Long.MIN_VALUE;
+        for (; l < r; l >>= 1, r >>= 1) {
+            if ((l & 1) == 1) res = Math.max(res, max[l++]);
+            if ((r & 1) == 1) res = Math.max(res, max[--r]);
+        }
+        return res;
+    }
+}
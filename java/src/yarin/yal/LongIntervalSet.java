@@ -0,0 +1,241 @@
+package yarin.yal;
+
+import java.util.Arrays;
+
+/**
+ * Immutable set of half-open intervals [start, end) with long endpoints. Like {@link IntervalSet},
+ * overlapping or touching intervals are merged, so the set is stored as two sorted arrays of
+ * disjoint intervals and all queries are binary searches without allocation.
+ *
+ * Adding intervals creates a new set, so a set can be read by any number of threads while a writer
+ * builds the next version; see {@link ConcurrentLongIntervalSet}. Intervals should be added in
+ * batches, as each addition costs O(n + k log k) for a batch of size k.
+ */
+public class LongIntervalSet {
+    private static final LongIntervalSet EMPTY = new LongIntervalSet(new long[0], new long[0], 0);
+
+    private final long[] starts, ends;
+    private final int count;
+
+    private LongIntervalSet(long[] starts, long[] ends, int count) {
+        this.starts = starts;
+        this.ends = ends;
+        this.count = count;
+    }
+
+    public static LongIntervalSet empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Creates a set of the intervals [starts[i], ends[i]), which may be given in any order.
+     */
+    public static LongIntervalSet of(long[] starts, long[] ends) {
+        if (starts.length != ends.length) {
+            throw new IllegalArgumentException("starts and ends must have the same length");
+        }
+        int m = starts.length;
+        for (int i = 0; i < m; i++) {
+            if (starts[i] > ends[i]) {
+                throw new IllegalArgumentException("Interval start is after its end");
+            }
+        }
+        long[] s = Arrays.copyOf(starts, m), e = Arrays.copyOf(ends, m);
+        Arrays.sort(s);
+        Arrays.sort(e);
+
+        // The union is where the number of open intervals is positive. Starts are taken before ends
+        // at the same point, so touching intervals are merged.
+        long[] resStarts = new long[m], resEnds = new long[m];
+        int count = 0, depth = 0;
+        long open = 0;
+        for (int i = 0, j = 0; i < m || j < m; ) {
+            if (i < m && s[i] <= e[j]) {
+                if (depth++ == 0) open = s[i];
+                i++;
+            } else {
+                if (--depth == 0 && open < e[j]) {
+                    resStarts[count] = open;
+                    resEnds[count++] = e[j];
+                }
+                j++;
+            }
+        }
+        return count == 0 ? EMPTY : new LongIntervalSet(resStarts, resEnds, count);
+    }
+
+    /**
+     * Gets the number of (merged) intervals in the set
+     */
+    public int getCount() {
+        return count;
+    }
+
+    public long getStart(int index) {
+        checkIndex(index);
+        return starts[index];
+    }
+
+    public long getEnd(int index) {
+        checkIndex(index);
+        return ends[index];
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= count) {
+            throw new IndexOutOfBoundsException();
+        }
+    }
+
+    /**
+     * @return a set containing the intervals of both sets, in O(n + m)
+     */
+    public LongIntervalSet union(LongIntervalSet other) {
+        if (other.count == 0) return this;
+        if (count == 0) return other;
+        long[] resStarts = new long[count + other.count], resEnds = new long[count + other.count];
+        int n = 0;
+        for (int i = 0, j = 0; i < count || j < other.count; ) {
+            long s, e;
+            if (j == other.count || (i < count && starts[i] <= other.starts[j])) {
+                s = starts[i];
+                e = ends[i++];
+            } else {
+                s = other.starts[j];
+                e = other.ends[j++];
+            }
+            if (n > 0 && s <= resEnds[n - 1]) {
+                resEnds[n - 1] = Math.max(resEnds[n - 1], e);
+            } else {
+                resStarts[n] = s;
+                resEnds[n++] = e;
+            }
+        }
+        return new LongIntervalSet(resStarts, resEnds, n);
+    }
+
+    /**
+     * @return a set with the intervals [starts[i], ends[i]) added
+     */
+    public LongIntervalSet addAll(long[] starts, long[] ends) {
+        return union(of(starts, ends));
+    }
+
+    public LongIntervalSet add(long start, long end) {
+        return addAll(new long[]{start}, new long[]{end});
+    }
+
+    /**
+     * @return the index of the first interval with an end after x, or the count if there is none
+     */
+    private int firstEndingAfter(long x) {
+        int lo = 0, hi = count;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (ends[mid] > x) hi = mid;
+            else lo = mid + 1;
+        }
+        return lo;
+    }
+
+    /**
+     * @return the index of the first interval starting at or after x, or the count if there is none
+     */
+    private int firstStartingFrom(long x) {
+        int lo = 0, hi = count;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (starts[mid] >= x) hi = mid;
+            else lo = mid + 1;
+        }
+        return lo;
+    }
+
+    /**
+     * @return the index of the interval containing point, or -1 if no interval contains it
+     */
+    public int findContaining(long point) {
+        int i = firstEndingAfter(point);
+        return i < count && starts[i] <= point ? i : -1;
+    }
+
+    public boolean contains(long point) {
+        return findContaining(point) >= 0;
+    }
+
+    /**
+     * Finds the interval containing each of the points, storing its index (or -1) in result.
+     * Each search gallops from the result of the previous point, so a sorted batch of k points
+     * takes O(k log(n / k)) time.
+     */
+    public void findContaining(long[] points, int[] result) {
+        if (result.length < points.length) {
+            throw new IllegalArgumentException("result is shorter than points");
+        }
+        // i is the index of the first interval ending after the previous point
+        int i = 0;
+        long previous = Long.MIN_VALUE;
+        for (int k = 0; k < points.length; k++) {
+            long p = points[k];
+            if (p < previous) {
+                i = firstEndingAfter(p);
+            } else {
+                // Gallop forward to find hi with ends[hi - 1] > p, then binary search in [lo, hi)
+                int lo = i, step = 1;
+                while (lo < count && ends[lo] <= p) {
+                    int next = Math.min(count, lo + step);
+                    if (next < count && ends[next] <= p) {
+                        lo = next + 1;
+                        step <<= 1;
+                    } else {
+                        int hi = next;
+                        lo++;
+                        while (lo < hi) {
+                            int mid = (lo + hi) >>> 1;
+                            if (ends[mid] > p) hi = mid;
+                            else lo = mid + 1;
+                        }
+                        break;
+                    }
+                }
+                i = lo;
+            }
+            previous = p;
+            result[k] = i < count && starts[i] <= p ? i : -1;
+        }
+    }
+
+    /**
+     * The intervals overlapping [start, end) are those with indexes
+     * [firstOverlapping(start, end), endOverlapping(start, end)), which is empty if the two are equal.
+     * As with {@link Interval#overlaps(Interval)}, the overlapping part must be non-empty.
+     */
+    public int firstOverlapping(long start, long end) {
+        return start < end ? firstEndingAfter(start) : 0;
+    }
+
+    /**
+     * @see #firstOverlapping(long, long)
+     */
+    public int endOverlapping(long start, long end) {
+        return start < end ? Math.max(firstStartingFrom(end), firstEndingAfter(start)) : 0;
+    }
+
+    /**
+     * @return the index of an interval overlapping [start, end), or -1 if there is none
+     */
+    public int findOverlappingInterval(long start, long end) {
+        int i = firstOverlapping(start, end);
+        return i < endOverlapping(start, end) ? i : -1;
+    }
+
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            if (sb.length() > 0)
+                sb.append(' ');
+            sb.append('[').append(starts[i]).append(", ").append(ends[i]).append(']');
+        }
+        return sb.toString();
+    }
+}
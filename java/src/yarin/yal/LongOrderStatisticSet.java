@@ -0,0 +1,457 @@
+package yarin.yal;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * An ordered set of long keys with O(log n) rank and select, implemented as a treap.
+ * Instead of a Node object per key, the nodes are stored in two parallel arrays, one with the keys and one
+ * with the children, subtree size and heap priority of each node, with index 0 as the null node.
+ * Freed nodes are reused.
+ *
+ * Split, join and insertion are done with iterative split/merge, so deep trees can't overflow the stack.
+ * Sets created by {@link #split(long)} share the node storage with the original set, which makes
+ * splitting and joining them again O(log n). Such sets must not be modified concurrently.
+ *
+ * Expected times: add/remove/contains/rank/select O(log n), {@link #fromSorted(long[], int, int)} O(n).
+ */
+public class LongOrderStatisticSet {
+    private static final int LEFT = 0, RIGHT = 1, SIZE = 2, PRIORITY = 3;
+
+    // Node storage, possibly shared between sets created by split
+    private static final class Storage {
+        long[] key;
+        // The links, subtree size and priority of node x are stored together at 4x..4x+3 for locality
+        int[] node;
+        int used = 1, freeList;
+        int[] scratch = new int[64];
+        long seed = 0x9E3779B97F4A7C15L;
+
+        Storage(int capacity) {
+            capacity = Math.max(capacity + 1, 2);
+            key = new long[capacity];
+            node = new int[4 * capacity];
+        }
+
+        int newNode(long k) {
+            int x;
+            if (freeList != 0) {
+                x = freeList;
+                freeList = node[4 * x + RIGHT];
+            } else {
+                if (used == key.length) {
+                    int capacity = key.length * 2;
+                    key = Arrays.copyOf(key, capacity);
+                    node = Arrays.copyOf(node, 4 * capacity);
+                }
+                x = used++;
+            }
+            key[x] = k;
+            node[4 * x + LEFT] = node[4 * x + RIGHT] = 0;
+            node[4 * x + SIZE] = 1;
+            // xorshift64
+            seed ^= seed << 13;
+            seed ^= seed >>> 7;
+            seed ^= seed << 17;
+            node[4 * x + PRIORITY] = (int) seed;
+            return x;
+        }
+
+        void free(int x) {
+            node[4 * x + RIGHT] = freeList;
+            freeList = x;
+        }
+
+        void record(int pos, int x) {
+            if (pos == scratch.length) {
+                scratch = Arrays.copyOf(scratch, pos * 2);
+            }
+            scratch[pos] = x;
+        }
+
+        // Recomputes the sizes of the first count recorded nodes, bottom-up
+        void updateRecorded(int count) {
+            for (int i = count - 1; i >= 0; i--) {
+                int x = scratch[i];
+                int l = node[4 * x + LEFT], r = node[4 * x + RIGHT];
+                node[4 * x + SIZE] = 1 + node[4 * l + SIZE] + node[4 * r + SIZE];
+            }
+        }
+    }
+
+    private final Storage s;
+    private int root;
+    private int version;
+    // Results of split
+    private int splitLeft, splitRight;
+
+    public LongOrderStatisticSet() {
+        this(16);
+    }
+
+    public LongOrderStatisticSet(int capacity) {
+        s = new Storage(capacity);
+    }
+
+    private LongOrderStatisticSet(Storage storage, int root) {
+        s = storage;
+        this.root = root;
+    }
+
+    /**
+     * Builds a set from strictly increasing keys in O(n).
+     */
+    public static LongOrderStatisticSet fromSorted(long[] keys, int from, int to) {
+        LongOrderStatisticSet set = new LongOrderStatisticSet(to - from);
+        set.root = set.build(keys, from, to);
+        return set;
+    }
+
+    public static LongOrderStatisticSet fromSorted(long[] keys) {
+        return fromSorted(keys, 0, keys.length);
+    }
+
+    // Builds a treap of sorted keys in this set's storage using a Cartesian tree construction
+    private int build(long[] keys, int from, int to) {
+        int[] stack = new int[Math.max(1, to - from)];
+        int sp = 0;
+        for (int i = from; i < to; i++) {
+            if (i > from && keys[i] <= keys[i - 1]) {
+                throw new IllegalArgumentException("Keys must be strictly increasing");
+            }
+            int x = s.newNode(keys[i]), last = 0;
+            while (sp > 0 && s.node[4 * stack[sp - 1] + PRIORITY] < s.node[4 * x + PRIORITY]) {
+                last = stack[--sp];
+            }
+            s.node[4 * x + LEFT] = last;
+            if (sp > 0) {
+                s.node[4 * stack[sp - 1] + RIGHT] = x;
+            }
+            stack[sp++] = x;
+        }
+        if (sp == 0) return 0;
+        int r = stack[0];
+        // Compute the sizes bottom-up, in reverse BFS order
+        int count = 0;
+        s.record(count++, r);
+        for (int i = 0; i < count; i++) {
+            int x = s.scratch[i];
+            if (s.node[4 * x + LEFT] != 0) s.record(count++, s.node[4 * x + LEFT]);
+            if (s.node[4 * x + RIGHT] != 0) s.record(count++, s.node[4 * x + RIGHT]);
+        }
+        s.updateRecorded(count);
+        return r;
+    }
+
+    public int size() {
+        return s.node[4 * root + SIZE];
+    }
+
+    public boolean isEmpty() {
+        return root == 0;
+    }
+
+    public void clear() {
+        freeSubtree(root);
+        root = 0;
+        version++;
+    }
+
+    private void freeSubtree(int r) {
+        if (r == 0) return;
+        int count = 0;
+        s.record(count++, r);
+        for (int i = 0; i < count; i++) {
+            int x = s.scratch[i];
+            if (s.node[4 * x + LEFT] != 0) s.record(count++, s.node[4 * x + LEFT]);
+            if (s.node[4 * x + RIGHT] != 0) s.record(count++, s.node[4 * x + RIGHT]);
+        }
+        for (int i = 0; i < count; i++) {
+            s.free(s.scratch[i]);
+        }
+    }
+
+    public boolean contains(long key) {
+        int x = root;
+        while (x != 0) {
+            long k = s.key[x];
+            if (key == k) return true;
+            x = key < k ? s.node[4 * x + LEFT] : s.node[4 * x + RIGHT];
+        }
+        return false;
+    }
+
+    /**
+     * @return false if the key was already in the set
+     */
+    public boolean add(long key) {
+        if (contains(key)) return false;
+        int n = s.newNode(key);
+        int prio = s.node[4 * n + PRIORITY];
+        int parent = 0, x = root;
+        boolean toLeft = false;
+        while (x != 0 && s.node[4 * x + PRIORITY] > prio) {
+            s.node[4 * x + SIZE]++;
+            parent = x;
+            toLeft = key < s.key[x];
+            x = toLeft ? s.node[4 * x + LEFT] : s.node[4 * x + RIGHT];
+        }
+        split(x, key);
+        s.node[4 * n + LEFT] = splitLeft;
+        s.node[4 * n + RIGHT] = splitRight;
+        s.node[4 * n + SIZE] = 1 + s.node[4 * splitLeft + SIZE] + s.node[4 * splitRight + SIZE];
+        replaceChild(parent, toLeft, n);
+        version++;
+        return true;
+    }
+
+    /**
+     * @return false if the key wasn't in the set
+     */
+    public boolean remove(long key) {
+        if (!contains(key)) return false;
+        int parent = 0, x = root;
+        boolean toLeft = false;
+        while (s.key[x] != key) {
+            s.node[4 * x + SIZE]--;
+            parent = x;
+            toLeft = key < s.key[x];
+            x = toLeft ? s.node[4 * x + LEFT] : s.node[4 * x + RIGHT];
+        }
+        replaceChild(parent, toLeft, merge(s.node[4 * x + LEFT], s.node[4 * x + RIGHT]));
+        s.free(x);
+        version++;
+        return true;
+    }
+
+    private void replaceChild(int parent, boolean left, int child) {
+        if (parent == 0) {
+            root = child;
+        } else if (left) {
+            s.node[4 * parent + LEFT] = child;
+        } else {
+            s.node[4 * parent + RIGHT] = child;
+        }
+    }
+
+    /**
+     * @return the number of keys smaller than key
+     */
+    public int rank(long key) {
+        int r = 0, x = root;
+        while (x != 0) {
+            if (key <= s.key[x]) {
+                x = s.node[4 * x + LEFT];
+            } else {
+                r += s.node[4 * s.node[4 * x + LEFT] + SIZE] + 1;
+                x = s.node[4 * x + RIGHT];
+            }
+        }
+        return r;
+    }
+
+    /**
+     * @return the key of rank k, i.e. the k+1:th smallest key
+     */
+    public long select(int k) {
+        if (k < 0 || k >= size()) {
+            throw new IllegalArgumentException("Rank out of range: " + k);
+        }
+        int x = root;
+        while (true) {
+            int t = s.node[4 * s.node[4 * x + LEFT] + SIZE];
+            if (k < t) {
+                x = s.node[4 * x + LEFT];
+            } else if (k > t) {
+                k -= t + 1;
+                x = s.node[4 * x + RIGHT];
+            } else {
+                return s.key[x];
+            }
+        }
+    }
+
+    public long min() {
+        if (root == 0) {
+            throw new NoSuchElementException("Empty set");
+        }
+        int x = root;
+        while (s.node[4 * x + LEFT] != 0) x = s.node[4 * x + LEFT];
+        return s.key[x];
+    }
+
+    public long max() {
+        if (root == 0) {
+            throw new NoSuchElementException("Empty set");
+        }
+        int x = root;
+        while (s.node[4 * x + RIGHT] != 0) x = s.node[4 * x + RIGHT];
+        return s.key[x];
+    }
+
+    /**
+     * Moves all keys >= key to a new set, which shares node storage with this set.
+     * @return the set with the keys >= key
+     */
+    public LongOrderStatisticSet split(long key) {
+        split(root, key);
+        root = splitLeft;
+        version++;
+        return new LongOrderStatisticSet(s, splitRight);
+    }
+
+    /**
+     * Moves all keys of other, which must all be greater than the keys in this set, to this set.
+     * Takes O(log n) if other shares storage with this set (was created by a split), otherwise O(m)
+     * where m is the size of other.
+     */
+    public void join(LongOrderStatisticSet other) {
+        if (other == this) {
+            throw new IllegalArgumentException("Can't join a set with itself");
+        }
+        if (other.isEmpty()) return;
+        if (!isEmpty() && other.min() <= max()) {
+            throw new IllegalArgumentException("The keys of the joined set must be greater than all keys in this set");
+        }
+        int otherRoot;
+        if (other.s == s) {
+            otherRoot = other.root;
+        } else {
+            otherRoot = build(other.toArray(), 0, other.size());
+            other.clear();
+        }
+        other.root = 0;
+        other.version++;
+        root = merge(root, otherRoot);
+        version++;
+    }
+
+    /**
+     * Splits the subtree t into the keys < key (splitLeft) and >= key (splitRight).
+     */
+    private void split(int t, long key) {
+        int leftRoot = 0, rightRoot = 0, leftTail = 0, rightTail = 0, count = 0;
+        while (t != 0) {
+            s.record(count++, t);
+            if (s.key[t] < key) {
+                if (leftTail == 0) leftRoot = t;
+                else s.node[4 * leftTail + RIGHT] = t;
+                leftTail = t;
+                t = s.node[4 * t + RIGHT];
+            } else {
+                if (rightTail == 0) rightRoot = t;
+                else s.node[4 * rightTail + LEFT] = t;
+                rightTail = t;
+                t = s.node[4 * t + LEFT];
+            }
+        }
+        if (leftTail != 0) s.node[4 * leftTail + RIGHT] = 0;
+        if (rightTail != 0) s.node[4 * rightTail + LEFT] = 0;
+        s.updateRecorded(count);
+        splitLeft = leftRoot;
+        splitRight = rightRoot;
+    }
+
+    /**
+     * Merges two subtrees where all keys in a are smaller than all keys in b.
+     */
+    private int merge(int a, int b) {
+        int r = 0, tail = 0, count = 0;
+        boolean tailRight = false;
+        while (a != 0 && b != 0) {
+            // The root with the highest priority is kept; the rest is merged into its inner subtree
+            int x;
+            boolean xRight;
+            if (s.node[4 * a + PRIORITY] > s.node[4 * b + PRIORITY]) {
+                x = a;
+                a = s.node[4 * a + RIGHT];
+                xRight = true;
+            } else {
+                x = b;
+                b = s.node[4 * b + LEFT];
+                xRight = false;
+            }
+            if (tail == 0) r = x;
+            else if (tailRight) s.node[4 * tail + RIGHT] = x;
+            else s.node[4 * tail + LEFT] = x;
+            s.record(count++, x);
+            tail = x;
+            tailRight = xRight;
+        }
+        int rest = a != 0 ? a : b;
+        if (tail == 0) r = rest;
+        else if (tailRight) s.node[4 * tail + RIGHT] = rest;
+        else s.node[4 * tail + LEFT] = rest;
+        s.updateRecorded(count);
+        return r;
+    }
+
+    public long[] toArray() {
+        long[] res = new long[size()];
+        Cursor c = cursor();
+        for (int i = 0; c.hasNext(); i++) {
+            res[i] = c.next();
+        }
+        return res;
+    }
+
+    /**
+     * @return a new cursor positioned before the smallest key
+     */
+    public Cursor cursor() {
+        Cursor c = new Cursor();
+        c.seek(Long.MIN_VALUE);
+        return c;
+    }
+
+    /**
+     * Iterates over the keys in increasing order. A cursor can be repositioned with {@link #seek(long)},
+     * so a single cursor can be reused for many scans without allocating.
+     * The set must not be modified while a cursor is used.
+     */
+    public class Cursor {
+        private int[] stack = new int[32];
+        private int sp, expectedVersion;
+
+        /**
+         * Positions the cursor so that the next key returned is the smallest key >= key.
+         */
+        public void seek(long key) {
+            expectedVersion = version;
+            sp = 0;
+            for (int x = root; x != 0; ) {
+                if (key <= s.key[x]) {
+                    push(x);
+                    x = s.node[4 * x + LEFT];
+                } else {
+                    x = s.node[4 * x + RIGHT];
+                }
+            }
+        }
+
+        private void push(int x) {
+            if (sp == stack.length) {
+                stack = Arrays.copyOf(stack, sp * 2);
+            }
+            stack[sp++] = x;
+        }
+
+        public boolean hasNext() {
+            if (expectedVersion != version) {
+                throw new IllegalStateException("The set was modified");
+            }
+            return sp > 0;
+        }
+
+        public long next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            int x = stack[--sp];
+            for (int y = s.node[4 * x + RIGHT]; y != 0; y = s.node[4 * y + LEFT]) {
+                push(y);
+            }
+            return s.key[x];
+        }
+    }
+}
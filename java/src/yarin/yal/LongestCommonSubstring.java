@@ -57,6 +57,33 @@ public class LongestCommonSubstring {
     return match;
   }
 
+  /**
+   * Finds the longest common substring between two strings, using a prebuilt index
+   * of s + '\0' + t, where split is the position of the separator (the length of s).
+   * The substring of the match is read from the index.
+   */
+  public Match find(SuffixArrayIndex index, int split) {
+    Match match = new Match(0, "");
+    int prev = index.length() > 0 ? index.getSuffix(0) : 0;
+    for (int i = 1; i < index.length(); i++) {
+      int cur = index.getSuffix(i);
+      // getLcp must be called for every rank to keep scans of compressed LCP arrays sequential
+      int lcp = index.getLcp(i);
+      if ((prev < split) != (cur < split) && lcp > match.length) {
+        if (prev < split) {
+          match = new Match(lcp, prev, cur - split - 1);
+        } else {
+          match = new Match(lcp, cur, prev - split - 1);
+        }
+      }
+      prev = cur;
+    }
+    if (match.length > 0) {
+      match.substring = index.substring(match.ofs[0], match.ofs[0] + match.length);
+    }
+    return match;
+  }
+
   public List<Match> findAll(List<String> strings, int k) {
     return find(strings, k, Integer.MAX_VALUE, true);
   }
@@ -86,26 +113,44 @@ public class LongestCommonSubstring {
 
     String string = sb.toString();
     SuffixArray sab = new SuffixArray(string);
-    int[] sa = sab.buildSuffixArray();
-    int[] lcp = sab.buildLongestCommonPrefix();
-    int[] cnt = new int[strings.size()];
-    int[] type = new int[string.length()];
-
-    for (int i = 0, j = 0, m = 0; i < type.length; i++) {
-      type[i] = m;
-      if (++j > strings.get(m).length()) {
-        m++;
-        j = 0;
-      }
-    }
+    final int[] sa = sab.buildSuffixArray();
+    final int[] lcp = sab.buildLongestCommonPrefix();
+    return find(new Suffixes() {
+      public int suffix(int rank) { return sa[rank]; }
+      public int lcp(int rank) { return lcp[rank]; }
+      public String substring(int from, int to) { return string.substring(from, to); }
+    }, string.length(), start, k, max, includeOffsets);
+  }
+
+  /**
+   * Same as {@link #find(List, int, int, boolean)}, but using a prebuilt index of the concatenated strings.
+   * Each string must be followed by a separator that is unique and doesn't occur in any of the strings;
+   * start contains the position of the first character of each string in the index.
+   */
+  public List<Match> find(final SuffixArrayIndex index, int[] start, int k, int max, boolean includeOffsets) {
+    return find(new Suffixes() {
+      public int suffix(int rank) { return index.getSuffix(rank); }
+      public int lcp(int rank) { return index.getLcp(rank); }
+      public String substring(int from, int to) { return index.substring(from, to); }
+    }, index.length(), start, k, max, includeOffsets);
+  }
+
+  private interface Suffixes {
+    int suffix(int rank);
+    int lcp(int rank);
+    String substring(int from, int to);
+  }
+
+  private List<Match> find(Suffixes sa, int n, int[] start, int k, int max, boolean includeOffsets) {
+    int[] cnt = new int[start.length];
     ArrayList<Window> longestWindows = new ArrayList<>();
     int npos = 0, head = 0, tail = 0, longestMatch = 0;
     DynamicRangeMinimumQuery mq = new DynamicRangeMinimumQuery();
     while (true) {
       // Extend window so at least k different input strings are included.
-      while (head < lcp.length && npos < k) {
-        if (head > 0) mq.enqueue(lcp[head]);
-        if (cnt[type[sa[head++]]]++ == 0) npos++;
+      while (head < n && npos < k) {
+        if (head > 0) mq.enqueue(sa.lcp(head));
+        if (cnt[owner(start, sa.suffix(head++))]++ == 0) npos++;
       }
       if (npos < k) break;
 
@@ -121,7 +166,7 @@ public class LongestCommonSubstring {
         }
 
         // Decrease size of window
-        if (--cnt[type[sa[tail++]]] == 0) npos--;
+        if (--cnt[owner(start, sa.suffix(tail++))] == 0) npos--;
         mq.dequeue();
       }
     }
@@ -141,20 +186,34 @@ public class LongestCommonSubstring {
       if (includeOffsets) {
         // In case of many matches and many strings, returning all offsets
         // could affect complexity. Therefore make it optional.
-        ofs = new int[strings.size()];
-        for (int j = 0; j < strings.size(); j++) {
+        ofs = new int[start.length];
+        for (int j = 0; j < start.length; j++) {
           ofs[j] = -1;
         }
         for (int j = wstart; j < wend; j++) {
-          int t = type[sa[j]], res = sa[j] - start[t];
+          int t = owner(start, sa.suffix(j)), res = sa.suffix(j) - start[t];
           // Pick first matching
           if (ofs[t] == -1 || res < ofs[t]) {
             ofs[t] = res;
           }
         }
       }
-      matches.add(new Match(longestMatch, string.substring(sa[wstart], sa[wstart] + longestMatch), ofs));
+      matches.add(new Match(longestMatch, sa.substring(sa.suffix(wstart), sa.suffix(wstart) + longestMatch), ofs));
     }
     return matches;
   }
+
+  // The index of the string the position belongs to, i.e. the last string starting at or before it
+  private static int owner(int[] start, int pos) {
+    int lo = 0, hi = start.length - 1;
+    while (lo < hi) {
+      int mid = (lo + hi + 1) >>> 1;
+      if (start[mid] <= pos) {
+        lo = mid;
+      } else {
+        hi = mid - 1;
+      }
+    }
+    return lo;
+  }
 }
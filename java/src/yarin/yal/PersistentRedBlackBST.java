@@ -0,0 +1,432 @@
+package yarin.yal;
+
+import java.util.LinkedList;
+import java.util.NoSuchElementException;
+import java.util.Queue;
+
+/**
+ * Persistent version of {@link RedBlackBST}. A tree is never modified; put and delete return a new tree
+ * which shares all nodes except the O(log n) ones on the changed paths with the old tree.
+ * Every tree is thereby an O(1) snapshot that can be read while newer versions are created, e.g. by
+ * publishing the latest version through a volatile field or an AtomicReference.
+ */
+public class PersistentRedBlackBST<Key extends Comparable<Key>, Value> {
+
+  private static final boolean RED   = true;
+  private static final boolean BLACK = false;
+
+  private static final PersistentRedBlackBST<?, ?> EMPTY = new PersistentRedBlackBST<>(null);
+
+  private final Node<Key, Value> root;
+
+  // Nodes are only mutated by the operation that created them, identified by the edit token
+  private static final class Node<Key, Value> {
+    private Key key;
+    private Value val;
+    private Node<Key, Value> left, right;
+    private boolean color;
+    private int N;
+    private final Object edit;
+
+    Node(Key key, Value val, boolean color, int N, Object edit) {
+      this.key = key;
+      this.val = val;
+      this.color = color;
+      this.N = N;
+      this.edit = edit;
+    }
+  }
+
+  private PersistentRedBlackBST(Node<Key, Value> root) {
+    this.root = root;
+  }
+
+  @SuppressWarnings("unchecked")
+  public static <Key extends Comparable<Key>, Value> PersistentRedBlackBST<Key, Value> empty() {
+    return (PersistentRedBlackBST<Key, Value>) EMPTY;
+  }
+
+  private static <Key extends Comparable<Key>, Value> PersistentRedBlackBST<Key, Value> of(Node<Key, Value> root) {
+    return root == null ? PersistentRedBlackBST.<Key, Value>empty() : new PersistentRedBlackBST<Key, Value>(root);
+  }
+
+  /*************************************************************************
+   *  Node helper methods
+   *************************************************************************/
+
+  private static boolean isRed(Node<?, ?> x) {
+    return x != null && x.color == RED;
+  }
+
+  private static int size(Node<?, ?> x) {
+    return x == null ? 0 : x.N;
+  }
+
+  // returns x if it was created by this edit, otherwise a copy of x that may be modified
+  private static <Key, Value> Node<Key, Value> own(Node<Key, Value> x, Object edit) {
+    if (x == null || x.edit == edit) return x;
+    Node<Key, Value> c = new Node<Key, Value>(x.key, x.val, x.color, x.N, edit);
+    c.left = x.left;
+    c.right = x.right;
+    return c;
+  }
+
+  /*************************************************************************
+   *  Size methods
+   *************************************************************************/
+
+  public int size() { return size(root); }
+
+  public boolean isEmpty() {
+    return root == null;
+  }
+
+  /*************************************************************************
+   *  Standard BST search
+   *************************************************************************/
+
+  // value associated with the given key; null if no such key
+  public Value get(Key key) {
+    Node<Key, Value> x = root;
+    while (x != null) {
+      int cmp = key.compareTo(x.key);
+      if      (cmp < 0) x = x.left;
+      else if (cmp > 0) x = x.right;
+      else              return x.val;
+    }
+    return null;
+  }
+
+  public boolean contains(Key key) {
+    return get(key) != null;
+  }
+
+  /*************************************************************************
+   *  Red-black insertion
+   *************************************************************************/
+
+  // a tree with the key-value pair inserted, overwriting the old value if the key is already present
+  public PersistentRedBlackBST<Key, Value> put(Key key, Value val) {
+    Object edit = new Object();
+    Node<Key, Value> r = put(root, key, val, edit);
+    if (r.color != BLACK) {
+      r = own(r, edit);
+      r.color = BLACK;
+    }
+    return of(r);
+  }
+
+  private static <Key extends Comparable<Key>, Value> Node<Key, Value> put(Node<Key, Value> h, Key key, Value val, Object edit) {
+    if (h == null) return new Node<Key, Value>(key, val, RED, 1, edit);
+
+    h = own(h, edit);
+    int cmp = key.compareTo(h.key);
+    if      (cmp < 0) h.left  = put(h.left,  key, val, edit);
+    else if (cmp > 0) h.right = put(h.right, key, val, edit);
+    else              h.val   = val;
+
+    // fix-up any right-leaning links
+    if (isRed(h.right) && !isRed(h.left))      h = rotateLeft(h, edit);
+    if (isRed(h.left)  &&  isRed(h.left.left)) h = rotateRight(h, edit);
+    if (isRed(h.left)  &&  isRed(h.right))     flipColors(h, edit);
+    h.N = size(h.left) + size(h.right) + 1;
+
+    return h;
+  }
+
+  /*************************************************************************
+   *  Red-black deletion
+   *************************************************************************/
+
+  // a tree without the minimum key
+  public PersistentRedBlackBST<Key, Value> deleteMin() {
+    if (isEmpty()) throw new NoSuchElementException("BST underflow");
+    Object edit = new Object();
+    Node<Key, Value> r = root;
+    // if both children of root are black, set root to red
+    if (!isRed(r.left) && !isRed(r.right)) {
+      r = own(r, edit);
+      r.color = RED;
+    }
+    return withBlackRoot(deleteMin(r, edit), edit);
+  }
+
+  private static <Key, Value> Node<Key, Value> deleteMin(Node<Key, Value> h, Object edit) {
+    if (h.left == null)
+      return null;
+
+    h = own(h, edit);
+    if (!isRed(h.left) && !isRed(h.left.left))
+      h = moveRedLeft(h, edit);
+
+    h.left = deleteMin(h.left, edit);
+    return balance(h, edit);
+  }
+
+  // a tree without the maximum key
+  public PersistentRedBlackBST<Key, Value> deleteMax() {
+    if (isEmpty()) throw new NoSuchElementException("BST underflow");
+    Object edit = new Object();
+    Node<Key, Value> r = root;
+    if (!isRed(r.left) && !isRed(r.right)) {
+      r = own(r, edit);
+      r.color = RED;
+    }
+    return withBlackRoot(deleteMax(r, edit), edit);
+  }
+
+  private static <Key, Value> Node<Key, Value> deleteMax(Node<Key, Value> h, Object edit) {
+    h = own(h, edit);
+    if (isRed(h.left))
+      h = rotateRight(h, edit);
+
+    if (h.right == null)
+      return null;
+
+    if (!isRed(h.right) && !isRed(h.right.left))
+      h = moveRedRight(h, edit);
+
+    h.right = deleteMax(h.right, edit);
+
+    return balance(h, edit);
+  }
+
+  // a tree without the given key; this tree if the key isn't present
+  public PersistentRedBlackBST<Key, Value> delete(Key key) {
+    if (!contains(key)) return this;
+    Object edit = new Object();
+    Node<Key, Value> r = root;
+    if (!isRed(r.left) && !isRed(r.right)) {
+      r = own(r, edit);
+      r.color = RED;
+    }
+    return withBlackRoot(delete(r, key, edit), edit);
+  }
+
+  private static <Key extends Comparable<Key>, Value> Node<Key, Value> delete(Node<Key, Value> h, Key key, Object edit) {
+    h = own(h, edit);
+    if (key.compareTo(h.key) < 0)  {
+      if (!isRed(h.left) && !isRed(h.left.left))
+        h = moveRedLeft(h, edit);
+      h.left = delete(h.left, key, edit);
+    }
+    else {
+      if (isRed(h.left))
+        h = rotateRight(h, edit);
+      if (key.compareTo(h.key) == 0 && (h.right == null))
+        return null;
+      if (!isRed(h.right) && !isRed(h.right.left))
+        h = moveRedRight(h, edit);
+      if (key.compareTo(h.key) == 0) {
+        Node<Key, Value> x = min(h.right);
+        h.key = x.key;
+        h.val = x.val;
+        h.right = deleteMin(h.right, edit);
+      }
+      else h.right = delete(h.right, key, edit);
+    }
+    return balance(h, edit);
+  }
+
+  private PersistentRedBlackBST<Key, Value> withBlackRoot(Node<Key, Value> r, Object edit) {
+    if (r != null && r.color != BLACK) {
+      r = own(r, edit);
+      r.color = BLACK;
+    }
+    return of(r);
+  }
+
+  /*************************************************************************
+   *  red-black tree helper functions; h must be owned by the edit
+   *************************************************************************/
+
+  // make a left-leaning link lean to the right
+  private static <Key, Value> Node<Key, Value> rotateRight(Node<Key, Value> h, Object edit) {
+    Node<Key, Value> x = own(h.left, edit);
+    h.left = x.right;
+    x.right = h;
+    x.color = h.color;
+    h.color = RED;
+    x.N = h.N;
+    h.N = size(h.left) + size(h.right) + 1;
+    return x;
+  }
+
+  // make a right-leaning link lean to the left
+  private static <Key, Value> Node<Key, Value> rotateLeft(Node<Key, Value> h, Object edit) {
+    Node<Key, Value> x = own(h.right, edit);
+    h.right = x.left;
+    x.left = h;
+    x.color = h.color;
+    h.color = RED;
+    x.N = h.N;
+    h.N = size(h.left) + size(h.right) + 1;
+    return x;
+  }
+
+  // flip the colors of a node and its two children
+  private static <Key, Value> void flipColors(Node<Key, Value> h, Object edit) {
+    h.left = own(h.left, edit);
+    h.right = own(h.right, edit);
+    h.color = !h.color;
+    h.left.color = !h.left.color;
+    h.right.color = !h.right.color;
+  }
+
+  // Assuming that h is red and both h.left and h.left.left
+  // are black, make h.left or one of its children red.
+  private static <Key, Value> Node<Key, Value> moveRedLeft(Node<Key, Value> h, Object edit) {
+    flipColors(h, edit);
+    if (isRed(h.right.left)) {
+      h.right = rotateRight(h.right, edit);
+      h = rotateLeft(h, edit);
+    }
+    return h;
+  }
+
+  // Assuming that h is red and both h.right and h.right.left
+  // are black, make h.right or one of its children red.
+  private static <Key, Value> Node<Key, Value> moveRedRight(Node<Key, Value> h, Object edit) {
+    flipColors(h, edit);
+    if (isRed(h.left.left)) {
+      h = rotateRight(h, edit);
+    }
+    return h;
+  }
+
+  // restore red-black tree invariant
+  private static <Key, Value> Node<Key, Value> balance(Node<Key, Value> h, Object edit) {
+    if (isRed(h.right))                      h = rotateLeft(h, edit);
+    if (isRed(h.left) && isRed(h.left.left)) h = rotateRight(h, edit);
+    if (isRed(h.left) && isRed(h.right))     flipColors(h, edit);
+
+    h.N = size(h.left) + size(h.right) + 1;
+    return h;
+  }
+
+  /*************************************************************************
+   *  Utility functions
+   *************************************************************************/
+
+  // height of tree (1-node tree has height 0)
+  public int height() { return height(root); }
+  private static int height(Node<?, ?> x) {
+    if (x == null) return -1;
+    return 1 + Math.max(height(x.left), height(x.right));
+  }
+
+  /*************************************************************************
+   *  Ordered symbol table methods.
+   *************************************************************************/
+
+  // the smallest key; null if no such key
+  public Key min() {
+    if (isEmpty()) return null;
+    return min(root).key;
+  }
+
+  private static <Key, Value> Node<Key, Value> min(Node<Key, Value> x) {
+    while (x.left != null) x = x.left;
+    return x;
+  }
+
+  // the largest key; null if no such key
+  public Key max() {
+    if (isEmpty()) return null;
+    Node<Key, Value> x = root;
+    while (x.right != null) x = x.right;
+    return x.key;
+  }
+
+  // the largest key less than or equal to the given key; null if no such key
+  public Key floor(Key key) {
+    Key best = null;
+    Node<Key, Value> x = root;
+    while (x != null) {
+      int cmp = key.compareTo(x.key);
+      if (cmp == 0) return x.key;
+      if (cmp < 0) {
+        x = x.left;
+      } else {
+        best = x.key;
+        x = x.right;
+      }
+    }
+    return best;
+  }
+
+  // the smallest key greater than or equal to the given key; null if no such key
+  public Key ceiling(Key key) {
+    Key best = null;
+    Node<Key, Value> x = root;
+    while (x != null) {
+      int cmp = key.compareTo(x.key);
+      if (cmp == 0) return x.key;
+      if (cmp > 0) {
+        x = x.right;
+      } else {
+        best = x.key;
+        x = x.left;
+      }
+    }
+    return best;
+  }
+
+  // the key of rank k; null if k is out of range
+  public Key select(int k) {
+    if (k < 0 || k >= size()) return null;
+    Node<Key, Value> x = root;
+    while (true) {
+      int t = size(x.left);
+      if      (t > k) x = x.left;
+      else if (t < k) { k -= t + 1; x = x.right; }
+      else            return x.key;
+    }
+  }
+
+  // number of keys less than key
+  public int rank(Key key) {
+    int r = 0;
+    Node<Key, Value> x = root;
+    while (x != null) {
+      int cmp = key.compareTo(x.key);
+      if      (cmp < 0) x = x.left;
+      else if (cmp > 0) { r += 1 + size(x.left); x = x.right; }
+      else              return r + size(x.left);
+    }
+    return r;
+  }
+
+  /***********************************************************************
+   *  Range count and range search.
+   ***********************************************************************/
+
+  // all of the keys, as an Iterable
+  public Iterable<Key> keys() {
+    if (isEmpty()) return new LinkedList<Key>();
+    return keys(min(), max());
+  }
+
+  // the keys between lo and hi, as an Iterable
+  public Iterable<Key> keys(Key lo, Key hi) {
+    Queue<Key> queue = new LinkedList<Key>();
+    keys(root, queue, lo, hi);
+    return queue;
+  }
+
+  private static <Key extends Comparable<Key>> void keys(Node<Key, ?> x, Queue<Key> queue, Key lo, Key hi) {
+    if (x == null) return;
+    int cmplo = lo.compareTo(x.key);
+    int cmphi = hi.compareTo(x.key);
+    if (cmplo < 0) keys(x.left, queue, lo, hi);
+    if (cmplo <= 0 && cmphi >= 0) queue.add(x.key);
+    if (cmphi > 0) keys(x.right, queue, lo, hi);
+  }
+
+  // number keys between lo and hi
+  public int size(Key lo, Key hi) {
+    if (lo.compareTo(hi) > 0) return 0;
+    if (contains(hi)) return rank(hi) - rank(lo) + 1;
+    else              return rank(hi) - rank(lo);
+  }
+}
@@ -301,6 +301,21 @@ public class RedBlackBST<Key extends Comparable<Key>, Value> {
    *  Utility functions
    *************************************************************************/
 
+  // an independent copy of this tree in O(n); see PersistentRedBlackBST for O(1) snapshots
+  public RedBlackBST<Key, Value> copy() {
+    RedBlackBST<Key, Value> t = new RedBlackBST<Key, Value>();
+    t.root = t.copy(root);
+    return t;
+  }
+
+  private Node copy(Node x) {
+    if (x == null) return null;
+    Node c = new Node(x.key, x.val, x.color, x.N);
+    c.left = copy(x.left);
+    c.right = copy(x.right);
+    return c;
+  }
+
   // height of tree (1-node tree has height 0)
   public int height() { return height(root); }
   private int height(Node x) {
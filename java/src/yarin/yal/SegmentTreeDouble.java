@@ -0,0 +1,72 @@
+package yarin.yal;
+
+/**
+ * Same as {@link SegmentTree} but with primitive double values stored in a flat array, ordered either
+ * by minimum or maximum. The tree stores the index of the best value in each node and is laid out
+ * bottom-up with the leaves at [size, 2*size); both updates and queries are iterative.
+ *
+ * If there are several best values in a range, the one with the smallest index is returned.
+ */
+public class SegmentTreeDouble {
+    private final double[] data;
+    private final int[] tree;
+    private final int n, size;
+    private final boolean maximum;
+
+    public SegmentTreeDouble(int n, boolean maximum) {
+        this(new double[n], maximum);
+    }
+
+    /**
+     * @param maximum if true, queries return the index of the maximum value instead of the minimum
+     */
+    public SegmentTreeDouble(double[] data, boolean maximum) {
+        this.data = data.clone();
+        this.maximum = maximum;
+        n = data.length;
+        size = Integer.highestOneBit(Math.max(1, n - 1)) << 1;
+        tree = new int[2 * size];
+        for (int i = 0; i < size; i++) {
+            tree[size + i] = i < n ? i : -1;
+        }
+        for (int i = size - 1; i > 0; i--) {
+            tree[i] = best(tree[2 * i], tree[2 * i + 1]);
+        }
+    }
+
+    // a must be to the left of b
+    private int best(int a, int b) {
+        if (a < 0) return b;
+        if (b < 0) return a;
+        if (maximum) {
+            return data[b] > data[a] ? b : a;
+        }
+        return data[b] < data[a] ? b : a;
+    }
+
+    /**
+     * @return the index of the minimum (or maximum) value in the range [start, end)
+     */
+    public int query(int start, int end) {
+        if (start < 0 || end > n || start >= end) {
+            throw new IllegalArgumentException();
+        }
+        int left = -1, right = -1;
+        for (int l = start + size, r = end + size; l < r; l >>= 1, r >>= 1) {
+            if ((l & 1) == 1) left = best(left, tree[l++]);
+            if ((r & 1) == 1) right = best(tree[--r], right);
+        }
+        return best(left, right);
+    }
+
+    public double get(int index) {
+        return data[index];
+    }
+
+    public void set(int index, double value) {
+        data[index] = value;
+        for (int i = (size + index) >> 1; i > 0; i >>= 1) {
+            tree[i] = best(tree[2 * i], tree[2 * i + 1]);
+        }
+    }
+}
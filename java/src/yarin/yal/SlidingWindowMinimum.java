@@ -0,0 +1,134 @@
+package yarin.yal;
+
+import java.util.Arrays;
+
+/**
+ * Keeps track of the minimum (or maximum) of the last w values of a stream for several window widths w
+ * at once, in amortized O(1 + number of windows) time per value.
+ *
+ * All windows share one monotonic deque of candidates over the widest window, kept in a fixed size ring
+ * buffer together with the position of each candidate in the stream. Since the candidates are ordered both
+ * by position and by value, the minimum of a window is its oldest candidate, and each window keeps a cursor
+ * into the deque that only moves forward, except when the candidate it points to is dropped from the back.
+ */
+public class SlidingWindowMinimum {
+    private final int[] widths;
+    private final boolean maximum;
+    private final DynamicRangeMinimumQueryLong.Comparator comparator;
+    private final long[] values, positions;
+    private final long[] cursors;
+    private final int mask, maxWidth;
+    private long head, tail, count;
+
+    /**
+     * @param widths the window widths, all positive
+     * @param maximum if true, keeps track of the maximum values instead of the minimum
+     */
+    public SlidingWindowMinimum(int[] widths, boolean maximum) {
+        this(widths, maximum, null);
+    }
+
+    /**
+     * Keeps track of the smallest values according to the comparator.
+     */
+    public SlidingWindowMinimum(int[] widths, DynamicRangeMinimumQueryLong.Comparator comparator) {
+        this(widths, false, comparator);
+    }
+
+    private SlidingWindowMinimum(int[] widths, boolean maximum, DynamicRangeMinimumQueryLong.Comparator comparator) {
+        if (widths.length == 0) {
+            throw new IllegalArgumentException("There must be at least one window");
+        }
+        int max = 0;
+        for (int w : widths) {
+            if (w <= 0) {
+                throw new IllegalArgumentException("Invalid window width " + w);
+            }
+            max = Math.max(max, w);
+        }
+        this.widths = widths.clone();
+        this.maximum = maximum;
+        this.comparator = comparator;
+        maxWidth = max;
+        int capacity = Integer.highestOneBit(Math.max(1, max - 1)) << 1;
+        mask = capacity - 1;
+        values = new long[capacity];
+        positions = new long[capacity];
+        cursors = new long[widths.length];
+    }
+
+    // True if a can be dropped from the candidates when b is added after it
+    private boolean worse(long a, long b) {
+        if (comparator != null) return comparator.compare(a, b) > 0;
+        return maximum ? a < b : a > b;
+    }
+
+    public void add(long value) {
+        long position = count++;
+        while (tail > head && worse(values[(int) (tail - 1) & mask], value)) {
+            tail--;
+        }
+        if (tail > head && positions[(int) head & mask] <= position - maxWidth) {
+            head++;
+        }
+        values[(int) tail & mask] = value;
+        positions[(int) tail & mask] = position;
+        tail++;
+        for (int i = 0; i < widths.length; i++) {
+            long c = Math.max(head, Math.min(cursors[i], tail - 1));
+            long start = position - widths[i];
+            while (positions[(int) c & mask] <= start) {
+                c++;
+            }
+            cursors[i] = c;
+        }
+    }
+
+    /**
+     * Adds all values and stores the minimum of each window after each of them.
+     * @param result the minimum of window i after values[j] is stored at result[i][offset + j]
+     */
+    public void addAll(long[] values, long[][] result, int offset) {
+        if (result.length != widths.length) {
+            throw new IllegalArgumentException("There must be one result array per window");
+        }
+        for (int j = 0; j < values.length; j++) {
+            add(values[j]);
+            for (int i = 0; i < widths.length; i++) {
+                result[i][offset + j] = this.values[(int) cursors[i] & mask];
+            }
+        }
+    }
+
+    /**
+     * @return the number of values added
+     */
+    public long getCount() {
+        return count;
+    }
+
+    public int getWindowCount() {
+        return widths.length;
+    }
+
+    public int getWidth(int window) {
+        return widths[window];
+    }
+
+    /**
+     * @return the minimum (or maximum) of the last getWidth(window) values, or of all values if there
+     * are fewer
+     * @throws IllegalStateException if no values have been added
+     */
+    public long get(int window) {
+        if (count == 0) {
+            throw new IllegalStateException("No values have been added");
+        }
+        return values[(int) cursors[window] & mask];
+    }
+
+    public void clear() {
+        head = tail = count = 0;
+        Arrays.fill(cursors, 0);
+    }
+}
@@ -0,0 +1,119 @@
+package yarin.yal;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Answers minimum (or maximum) queries over arbitrary ranges of a fixed array in O(1) time, after
+ * O(n log n) preprocessing.
+ *
+ * Level k of the table holds the minimum of each range of length 2^k, and a query is answered by the two
+ * (possibly overlapping) ranges of the largest such length that cover it. This needs n log n ints; for very
+ * large arrays, {@link BlockRangeMinimumQuery} needs much less memory.
+ */
+public class SparseTableRangeMinimumQuery {
+    static final int BATCH_CHUNK = 1 << 14;
+
+    private final int[][] table;
+    private final int n;
+    private final boolean maximum;
+
+    public SparseTableRangeMinimumQuery(int[] data) {
+        this(data, false);
+    }
+
+    /**
+     * @param maximum if true, queries return the maximum value instead of the minimum
+     */
+    public SparseTableRangeMinimumQuery(int[] data, boolean maximum) {
+        this.maximum = maximum;
+        n = data.length;
+        int levels = n == 0 ? 1 : 32 - Integer.numberOfLeadingZeros(n);
+        table = new int[levels][];
+        table[0] = data.clone();
+        for (int k = 1; k < levels; k++) {
+            int[] prev = table[k - 1], cur = new int[n - (1 << k) + 1];
+            int half = 1 << (k - 1);
+            if (maximum) {
+                for (int i = 0; i < cur.length; i++) {
+                    cur[i] = Math.max(prev[i], prev[i + half]);
+                }
+            } else {
+                for (int i = 0; i < cur.length; i++) {
+                    cur[i] = Math.min(prev[i], prev[i + half]);
+                }
+            }
+            table[k] = cur;
+        }
+    }
+
+    public int size() {
+        return n;
+    }
+
+    /**
+     * @return the minimum (or maximum) value in the range [start, end)
+     */
+    public int query(int start, int end) {
+        if (start < 0 || end > n || start >= end) {
+            throw new IllegalArgumentException("Invalid range [" + start + ", " + end + ")");
+        }
+        int k = 31 - Integer.numberOfLeadingZeros(end - start);
+        int[] level = table[k];
+        int a = level[start], b = level[end - (1 << k)];
+        return maximum ? Math.max(a, b) : Math.min(a, b);
+    }
+
+    /**
+     * Answers a batch of queries.
+     * @param result the minimum (or maximum) value in the range [starts[i], ends[i]) is stored at result[i]
+     */
+    public void query(int[] starts, int[] ends, int[] result) {
+        checkBatch(starts, ends, result);
+        query(starts, ends, result, 0, starts.length);
+    }
+
+    /**
+     * Answers a batch of queries, in parallel if there are many.
+     * @param result the minimum (or maximum) value in the range [starts[i], ends[i]) is stored at result[i]
+     */
+    public void query(int[] starts, int[] ends, int[] result, ForkJoinPool pool) {
+        checkBatch(starts, ends, result);
+        pool.invoke(new QueryTask(starts, ends, result, 0, starts.length));
+    }
+
+    private void query(int[] starts, int[] ends, int[] result, int from, int to) {
+        for (int i = from; i < to; i++) {
+            result[i] = query(starts[i], ends[i]);
+        }
+    }
+
+    static void checkBatch(int[] starts, int[] ends, int[] result) {
+        if (starts.length != ends.length || result.length < starts.length) {
+            throw new IllegalArgumentException("starts, ends and result must have the same length");
+        }
+    }
+
+    private class QueryTask extends RecursiveAction {
+        private final int[] starts, ends, result;
+        private final int from, to;
+
+        QueryTask(int[] starts, int[] ends, int[] result, int from, int to) {
+            this.starts = starts;
+            this.ends = ends;
+            this.result = result;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > BATCH_CHUNK) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new QueryTask(starts, ends, result, from, mid), new QueryTask(starts, ends, result, mid, to));
+            } else {
+                query(starts, ends, result, from, to);
+            }
+        }
+    }
+}
@@ -0,0 +1,399 @@
+package yarin.yal;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * A suffix array and LCP array stored in a file, which is memory mapped when opened.
+ * The index can be reused across JVM runs without being rebuilt, and queries run directly
+ * off the mapped file, so the text, SA and LCP don't have to fit on the heap.
+ *
+ * The file contains a header, the text as 16-bit chars, the suffix array as ints and the LCP
+ * array in one of the {@link LcpEncoding} formats. getLcp(i) follows the convention of
+ * {@link SuffixArray}: lcp[i] is the longest common prefix of the suffixes at sa[i-1] and sa[i].
+ *
+ * Construction with {@link #write(Path, String, LcpEncoding)} still happens on the heap (using SA-IS).
+ * An instance is not thread safe; open the file once per thread, the OS shares the mapped pages.
+ */
+public class SuffixArrayIndex implements Closeable {
+
+  public enum LcpEncoding {
+    /** 4 bytes per entry */
+    INT,
+    /** 1 byte per entry, values of 255 or more are stored in a separate sorted table */
+    BYTE,
+    /** LEB128 varints, with the offset of every 64th entry stored for random access */
+    VARINT
+  }
+
+  private static final int MAGIC = 0x59534149; // "YSAI"
+  private static final int VERSION = 1;
+  private static final int HEADER_SIZE = 64;
+  private static final int SEGMENT_BITS = 30;
+  private static final long SEGMENT_MASK = (1L << SEGMENT_BITS) - 1;
+  private static final int SAMPLE_BITS = 6;
+
+  private final FileChannel channel;
+  private final MappedByteBuffer[] segments;
+  private final int n;
+  private final LcpEncoding lcpEncoding;
+  private final long textOffset, saOffset, lcpOffset, extraOffset;
+  private final int extraCount;
+
+  // Position of the next entry when scanning a VARINT LCP array sequentially
+  private int nextLcpIndex = -1;
+  private long nextLcpPos;
+
+  private SuffixArrayIndex(FileChannel channel) throws IOException {
+    this.channel = channel;
+    long size = channel.size();
+    if (size < HEADER_SIZE) {
+      throw new IOException("Not a suffix array index");
+    }
+    segments = new MappedByteBuffer[(int) ((size + SEGMENT_MASK) >>> SEGMENT_BITS)];
+    for (int i = 0; i < segments.length; i++) {
+      long start = (long) i << SEGMENT_BITS;
+      // Segments overlap by 8 bytes so that an aligned value never crosses a segment boundary
+      segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(size - start, (1L << SEGMENT_BITS) + 8));
+    }
+    if (getInt(0) != MAGIC || getInt(4) != VERSION) {
+      throw new IOException("Not a suffix array index, or unsupported version");
+    }
+    n = getInt(8);
+    lcpEncoding = LcpEncoding.values()[getInt(12)];
+    extraCount = getInt(16);
+    textOffset = getLong(24);
+    saOffset = getLong(32);
+    lcpOffset = getLong(40);
+    extraOffset = getLong(48);
+  }
+
+  public static SuffixArrayIndex open(Path file) throws IOException {
+    FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+    try {
+      return new SuffixArrayIndex(channel);
+    } catch (IOException | RuntimeException e) {
+      channel.close();
+      throw e;
+    }
+  }
+
+  /**
+   * Builds the suffix array and LCP array of the text and writes the index to a file.
+   */
+  public static void write(Path file, String text, LcpEncoding lcpEncoding) throws IOException {
+    SuffixArraySAIS sais = new SuffixArraySAIS(text);
+    int[] sa = sais.buildSuffixArray();
+    int[] lcp = sais.buildLongestCommonPrefix();
+    write(file, text, sa, lcp, lcpEncoding);
+  }
+
+  /**
+   * Writes an index from an already built suffix array and LCP array.
+   */
+  public static void write(Path file, CharSequence text, int[] sa, int[] lcp, LcpEncoding lcpEncoding) throws IOException {
+    int n = text.length();
+    if (sa.length != n || lcp.length != n) {
+      throw new IllegalArgumentException("The suffix array and LCP array must have the same length as the text");
+    }
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+        StandardOpenOption.TRUNCATE_EXISTING)) {
+      Output out = new Output(channel);
+      out.position = HEADER_SIZE;
+      long textOffset = out.position;
+      for (int i = 0; i < n; i++) {
+        out.putChar(text.charAt(i));
+      }
+      out.align();
+      long saOffset = out.position;
+      for (int i = 0; i < n; i++) {
+        out.putInt(sa[i]);
+      }
+      long lcpOffset = out.position;
+      int extraCount = 0;
+      long extraOffset;
+      switch (lcpEncoding) {
+        case INT:
+          for (int i = 0; i < n; i++) {
+            out.putInt(lcp[i]);
+          }
+          extraOffset = out.position;
+          break;
+        case BYTE:
+          for (int i = 0; i < n; i++) {
+            out.putByte(Math.min(lcp[i], 255));
+            if (lcp[i] >= 255) extraCount++;
+          }
+          out.align();
+          extraOffset = out.position;
+          for (int i = 0; i < n; i++) {
+            if (lcp[i] >= 255) {
+              out.putInt(i);
+              out.putInt(lcp[i]);
+            }
+          }
+          break;
+        case VARINT:
+          extraCount = (n >> SAMPLE_BITS) + 1;
+          long[] samples = new long[extraCount];
+          for (int i = 0; i < n; i++) {
+            if ((i & ((1 << SAMPLE_BITS) - 1)) == 0) {
+              samples[i >> SAMPLE_BITS] = out.position;
+            }
+            int v = lcp[i];
+            while ((v & ~0x7F) != 0) {
+              out.putByte((v & 0x7F) | 0x80);
+              v >>>= 7;
+            }
+            out.putByte(v);
+          }
+          out.align();
+          extraOffset = out.position;
+          for (long sample : samples) {
+            out.putLong(sample);
+          }
+          break;
+        default:
+          throw new IllegalArgumentException("Unknown encoding " + lcpEncoding);
+      }
+      out.flush();
+
+      ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+      header.putInt(MAGIC).putInt(VERSION).putInt(n).putInt(lcpEncoding.ordinal()).putInt(extraCount).putInt(0);
+      header.putLong(textOffset).putLong(saOffset).putLong(lcpOffset).putLong(extraOffset);
+      header.clear();
+      while (header.hasRemaining()) {
+        channel.write(header, header.position());
+      }
+    }
+  }
+
+  public int length() {
+    return n;
+  }
+
+  public LcpEncoding getLcpEncoding() {
+    return lcpEncoding;
+  }
+
+  public char charAt(int i) {
+    return getChar(textOffset + 2L * i);
+  }
+
+  public String substring(int from, int to) {
+    char[] buf = new char[to - from];
+    for (int i = from; i < to; i++) {
+      buf[i - from] = charAt(i);
+    }
+    return new String(buf);
+  }
+
+  /**
+   * @return the start of the suffix with the given lexicographic rank, sa[rank]
+   */
+  public int getSuffix(int rank) {
+    return getInt(saOffset + 4L * rank);
+  }
+
+  /**
+   * Sequential scans are O(1) per entry for all encodings; random access to a VARINT encoded
+   * LCP array decodes up to 64 entries.
+   *
+   * @return the longest common prefix of the suffixes at sa[rank-1] and sa[rank]
+   */
+  public int getLcp(int rank) {
+    switch (lcpEncoding) {
+      case INT:
+        return getInt(lcpOffset + 4L * rank);
+      case BYTE: {
+        int v = getByte(lcpOffset + rank) & 0xFF;
+        return v < 255 ? v : lookupLargeLcp(rank);
+      }
+      default: {
+        long pos;
+        if (rank == nextLcpIndex) {
+          pos = nextLcpPos;
+        } else {
+          pos = getLong(extraOffset + 8L * (rank >> SAMPLE_BITS));
+          for (int i = rank & ~((1 << SAMPLE_BITS) - 1); i < rank; i++) {
+            // Skip one varint
+            while ((getByte(pos++) & 0x80) != 0) {
+              continue;
+            }
+          }
+        }
+        int v = 0, shift = 0;
+        byte b;
+        do {
+          b = getByte(pos++);
+          v |= (b & 0x7F) << shift;
+          shift += 7;
+        } while ((b & 0x80) != 0);
+        nextLcpIndex = rank + 1;
+        nextLcpPos = pos;
+        return v;
+      }
+    }
+  }
+
+  private int lookupLargeLcp(int rank) {
+    int lo = 0, hi = extraCount - 1;
+    while (lo <= hi) {
+      int mid = (lo + hi) >>> 1;
+      int r = getInt(extraOffset + 8L * mid);
+      if (r == rank) return getInt(extraOffset + 8L * mid + 4);
+      if (r < rank) lo = mid + 1;
+      else hi = mid - 1;
+    }
+    throw new IllegalStateException("Corrupt index, missing LCP value for rank " + rank);
+  }
+
+  /**
+   * @return the number of occurrences of the pattern in the text
+   */
+  public int count(CharSequence pattern) {
+    return upperBound(pattern) - lowerBound(pattern);
+  }
+
+  /**
+   * @return the start positions of all occurrences of the pattern in the text, in increasing order
+   */
+  public int[] locate(CharSequence pattern) {
+    int lo = lowerBound(pattern), hi = upperBound(pattern);
+    int[] res = new int[hi - lo];
+    for (int i = lo; i < hi; i++) {
+      res[i - lo] = getSuffix(i);
+    }
+    Arrays.sort(res);
+    return res;
+  }
+
+  /**
+   * @return the rank of the first suffix that is not smaller than the pattern
+   */
+  public int lowerBound(CharSequence pattern) {
+    int lo = 0, hi = n;
+    while (lo < hi) {
+      int mid = (lo + hi) >>> 1;
+      if (compareSuffix(getSuffix(mid), pattern) < 0) lo = mid + 1;
+      else hi = mid;
+    }
+    return lo;
+  }
+
+  /**
+   * @return the rank of the first suffix that doesn't start with, and is greater than, the pattern
+   */
+  public int upperBound(CharSequence pattern) {
+    int lo = 0, hi = n;
+    while (lo < hi) {
+      int mid = (lo + hi) >>> 1;
+      if (compareSuffix(getSuffix(mid), pattern) <= 0) lo = mid + 1;
+      else hi = mid;
+    }
+    return lo;
+  }
+
+  /**
+   * Compares the suffix with the pattern, considering only the first pattern.length() chars of the suffix.
+   */
+  private int compareSuffix(int start, CharSequence pattern) {
+    int m = pattern.length();
+    for (int i = 0; i < m; i++) {
+      if (start + i >= n) return -1;
+      char c = charAt(start + i), p = pattern.charAt(i);
+      if (c != p) return c < p ? -1 : 1;
+    }
+    return 0;
+  }
+
+  /**
+   * The mapping is released when the buffers are garbage collected.
+   */
+  @Override
+  public void close() throws IOException {
+    channel.close();
+  }
+
+  private MappedByteBuffer segment(long pos) {
+    return segments[(int) (pos >>> SEGMENT_BITS)];
+  }
+
+  private byte getByte(long pos) {
+    return segment(pos).get((int) (pos & SEGMENT_MASK));
+  }
+
+  private char getChar(long pos) {
+    return segment(pos).getChar((int) (pos & SEGMENT_MASK));
+  }
+
+  private int getInt(long pos) {
+    return segment(pos).getInt((int) (pos & SEGMENT_MASK));
+  }
+
+  private long getLong(long pos) {
+    return segment(pos).getLong((int) (pos & SEGMENT_MASK));
+  }
+
+  private static class Output {
+    private final FileChannel channel;
+    private final ByteBuffer buf = ByteBuffer.allocateDirect(1 << 16);
+    private long position;
+
+    Output(FileChannel channel) {
+      this.channel = channel;
+    }
+
+    void putByte(int v) throws IOException {
+      ensure(1);
+      buf.put((byte) v);
+      position++;
+    }
+
+    void putChar(char v) throws IOException {
+      ensure(2);
+      buf.putChar(v);
+      position += 2;
+    }
+
+    void putInt(int v) throws IOException {
+      ensure(4);
+      buf.putInt(v);
+      position += 4;
+    }
+
+    void putLong(long v) throws IOException {
+      ensure(8);
+      buf.putLong(v);
+      position += 8;
+    }
+
+    // Pads to a multiple of 8 bytes
+    void align() throws IOException {
+      while ((position & 7) != 0) {
+        putByte(0);
+      }
+    }
+
+    private void ensure(int bytes) throws IOException {
+      if (buf.remaining() < bytes) {
+        flush();
+      }
+    }
+
+    void flush() throws IOException {
+      buf.flip();
+      long writeAt = position - buf.remaining();
+      while (buf.hasRemaining()) {
+        writeAt += channel.write(buf, writeAt);
+      }
+      buf.clear();
+    }
+  }
+}
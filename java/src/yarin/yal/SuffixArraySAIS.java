@@ -0,0 +1,436 @@
+package yarin.yal;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Construct a suffix array in O(n) using SA-IS (induced sorting)
+ * Longest common prefix array is create in O(n)
+ *
+ * Unlike {@link SuffixArray}, the alphabet is not limited; int input is remapped to its distinct values,
+ * so it can be used instead of {@link SuffixArrayBuilderInt} as well.
+ *
+ * For very large inputs there is also a parallel mode, {@link #buildSuffixArrayParallel(ForkJoinPool)},
+ * which uses prefix doubling where each round is a few fork-join radix sort passes. It does O(n log n) work,
+ * but unlike SA-IS the work can be spread over all cores.
+ *
+ * The memory used during construction is counted, see {@link #getPeakMemoryBytes()}.
+ * SA-IS typically needs about 20n bytes including the result (at most about 30n), compared to about 40n for
+ * DC3 in {@link SuffixArray}. The parallel mode needs 16n bytes plus 256 kB per fork-join chunk.
+ */
+public class SuffixArraySAIS {
+  private static final int DIGIT_BITS = 16, DIGIT_MASK = (1 << DIGIT_BITS) - 1;
+
+  private final int n;
+  private final int[] s;   // Input remapped to 0..upper
+  private final int upper;
+  private int[] sa;
+  private long currentMemory, peakMemory;
+
+  public SuffixArraySAIS(String str) {
+    n = str.length();
+    s = new int[n];
+    int max = 0;
+    for (int i = 0; i < n; i++) {
+      s[i] = str.charAt(i);
+      max = Math.max(max, s[i]);
+    }
+    upper = max;
+  }
+
+  public SuffixArraySAIS(int[] str) {
+    n = str.length;
+    s = new int[n];
+    if (n == 0) {
+      upper = 0;
+      return;
+    }
+    int min = Integer.MAX_VALUE, max = Integer.MIN_VALUE;
+    for (int v : str) {
+      min = Math.min(min, v);
+      max = Math.max(max, v);
+    }
+    if ((long) max - min <= Math.max(n, 1 << DIGIT_BITS)) {
+      // Small range, just shift the values
+      for (int i = 0; i < n; i++) {
+        s[i] = str[i] - min;
+      }
+      upper = max - min;
+    } else {
+      int[] distinct = str.clone();
+      Arrays.sort(distinct);
+      int k = 0;
+      for (int i = 0; i < n; i++) {
+        if (i == 0 || distinct[i] != distinct[i - 1]) {
+          distinct[k++] = distinct[i];
+        }
+      }
+      for (int i = 0; i < n; i++) {
+        s[i] = Arrays.binarySearch(distinct, 0, k, str[i]);
+      }
+      upper = k - 1;
+    }
+  }
+
+  public int[] buildSuffixArray() {
+    currentMemory = peakMemory = 0;
+    sa = saIs(s, n, upper);
+    return sa;
+  }
+
+  /**
+   * Builds the suffix array using prefix doubling with parallel radix sort passes.
+   * The result is the same as {@link #buildSuffixArray()}.
+   */
+  public int[] buildSuffixArrayParallel(ForkJoinPool pool) {
+    currentMemory = peakMemory = 0;
+    sa = new ParallelBuilder(pool).build();
+    return sa;
+  }
+
+  public int[] buildLongestCommonPrefix() {
+    if (sa == null) {
+      throw new IllegalStateException("The suffix array must be built first");
+    }
+    int lcp[] = new int[n];
+    int rank[] = new int[n];
+    for (int i = 0; i < n; i++) {
+      rank[sa[i]] = i;
+    }
+    for (int i = 0, h = 0; i < n; i++) {
+      if (rank[i] > 0) {
+        int j = sa[rank[i] - 1];
+        while (i + h < n && j + h < n && s[i + h] == s[j + h]) {
+          h++;
+        }
+        lcp[rank[i]] = h;
+        if (h > 0) {
+          h--;
+        }
+      } else {
+        h = 0;
+      }
+    }
+    return lcp;
+  }
+
+  /**
+   * @return the largest amount of memory, in bytes, allocated at the same time by the last build
+   */
+  public long getPeakMemoryBytes() {
+    return peakMemory;
+  }
+
+  private void allocated(long bytes) {
+    currentMemory += bytes;
+    peakMemory = Math.max(peakMemory, currentMemory);
+  }
+
+  private void released(long bytes) {
+    currentMemory -= bytes;
+  }
+
+  // The suffix array of s[0..n-1] with values in 0..upper
+  private int[] saIs(int[] s, int n, int upper) {
+    if (n == 0) return new int[0];
+    if (n == 1) return new int[]{0};
+    if (n == 2) return s[0] < s[1] ? new int[]{0, 1} : new int[]{1, 0};
+
+    long bytes = 4L * n + n + 12L * (upper + 1) + 4L * (n + 1);
+    allocated(bytes);
+    int[] sa = new int[n];
+    boolean[] ls = new boolean[n]; // true for S-type positions
+    for (int i = n - 2; i >= 0; i--) {
+      ls[i] = s[i] == s[i + 1] ? ls[i + 1] : s[i] < s[i + 1];
+    }
+    int[] sumL = new int[upper + 1], sumS = new int[upper + 1];
+    for (int i = 0; i < n; i++) {
+      if (!ls[i]) {
+        sumS[s[i]]++;
+      } else {
+        sumL[s[i] + 1]++; // An S-type position is never the largest value
+      }
+    }
+    for (int i = 0; i <= upper; i++) {
+      sumS[i] += sumL[i];
+      if (i < upper) sumL[i + 1] += sumS[i];
+    }
+    int[] buf = new int[upper + 1];
+
+    int[] lmsMap = new int[n + 1];
+    Arrays.fill(lmsMap, -1);
+    int m = 0;
+    for (int i = 1; i < n; i++) {
+      if (!ls[i - 1] && ls[i]) {
+        lmsMap[i] = m++;
+      }
+    }
+    allocated(4L * m);
+    int[] lms = new int[m];
+    for (int i = 1, j = 0; i < n; i++) {
+      if (!ls[i - 1] && ls[i]) {
+        lms[j++] = i;
+      }
+    }
+
+    induce(s, n, upper, sa, ls, sumS, sumL, buf, lms, m);
+
+    if (m > 0) {
+      allocated(8L * m);
+      int[] sortedLms = new int[m];
+      int k = 0;
+      for (int v : sa) {
+        if (lmsMap[v] != -1) sortedLms[k++] = v;
+      }
+      int[] recS = new int[m];
+      int recUpper = 0;
+      recS[lmsMap[sortedLms[0]]] = 0;
+      for (int i = 1; i < m; i++) {
+        int l = sortedLms[i - 1], r = sortedLms[i];
+        int endL = lmsMap[l] + 1 < m ? lms[lmsMap[l] + 1] : n;
+        int endR = lmsMap[r] + 1 < m ? lms[lmsMap[r] + 1] : n;
+        boolean same = true;
+        if (endL - l != endR - r) {
+          same = false;
+        } else {
+          while (l < endL && s[l] == s[r]) {
+            l++;
+            r++;
+          }
+          if (l == n || s[l] != s[r]) same = false;
+        }
+        if (!same) recUpper++;
+        recS[lmsMap[sortedLms[i]]] = recUpper;
+      }
+
+      int[] recSa = saIs(recS, m, recUpper);
+      for (int i = 0; i < m; i++) {
+        sortedLms[i] = lms[recSa[i]];
+      }
+      induce(s, n, upper, sa, ls, sumS, sumL, buf, sortedLms, m);
+      released(8L * m);
+    }
+    released(bytes + 4L * m);
+    return sa;
+  }
+
+  private static void induce(int[] s, int n, int upper, int[] sa, boolean[] ls, int[] sumS, int[] sumL,
+                             int[] buf, int[] lms, int m) {
+    Arrays.fill(sa, -1);
+    System.arraycopy(sumS, 0, buf, 0, upper + 1);
+    for (int i = 0; i < m; i++) {
+      int d = lms[i];
+      if (d == n) continue;
+      sa[buf[s[d]]++] = d;
+    }
+    System.arraycopy(sumL, 0, buf, 0, upper + 1);
+    sa[buf[s[n - 1]]++] = n - 1;
+    for (int i = 0; i < n; i++) {
+      int v = sa[i];
+      if (v >= 1 && !ls[v - 1]) {
+        sa[buf[s[v - 1]]++] = v - 1;
+      }
+    }
+    System.arraycopy(sumL, 0, buf, 0, upper + 1);
+    for (int i = n - 1; i >= 0; i--) {
+      int v = sa[i];
+      if (v >= 1 && ls[v - 1]) {
+        sa[--buf[s[v - 1] + 1]] = v - 1;
+      }
+    }
+  }
+
+  /**
+   * Prefix doubling where the suffixes are sorted by their first 2k characters in round k.
+   * Ranks are 1-based so that 0 can denote a suffix shorter than the offset.
+   */
+  private class ParallelBuilder {
+    private final ForkJoinPool pool;
+    private final int chunks;
+    private final int[][] hist;
+    private final int[] chunkCount;
+
+    ParallelBuilder(ForkJoinPool pool) {
+      this.pool = pool;
+      // Enough chunks to keep all threads busy, but not so many that the histograms dominate
+      chunks = (int) Math.max(1, Math.min(4L * pool.getParallelism(), n / (1 << DIGIT_BITS)));
+      allocated((long) chunks * (4L << DIGIT_BITS) + 4L * chunks);
+      hist = new int[chunks][1 << DIGIT_BITS];
+      chunkCount = new int[chunks];
+    }
+
+    int[] build() {
+      if (n == 0) return new int[0];
+      allocated(16L * n);
+      int[] result = new int[n], tmp = new int[n];
+      int[] rank = new int[n], newRank = new int[n];
+      for (int i = 0; i < n; i++) {
+        result[i] = i;
+        rank[i] = s[i] + 1;
+      }
+      // Initial sort on the first character
+      int maxRank = radixSort(result, tmp, rank, upper + 1);
+      maxRank = updateRanks(result, rank, newRank, 0, maxRank);
+      int[] t = rank; rank = newRank; newRank = t;
+
+      for (int k = 1; maxRank < n; k *= 2) {
+        orderBySecondKey(result, tmp, k);
+        // tmp is now sorted on rank[i+k]; a stable sort on rank[i] gives the order on both
+        int[] sorted = radixSortInto(tmp, result, rank, maxRank);
+        if (sorted != result) {
+          System.arraycopy(sorted, 0, result, 0, n);
+        }
+        maxRank = updateRanks(result, rank, newRank, k, maxRank);
+        t = rank; rank = newRank; newRank = t;
+      }
+      return result;
+    }
+
+    // tmp = all i with i+k >= n (empty second key), followed by sa[j]-k for sa[j] >= k in sa order
+    private void orderBySecondKey(final int[] sa, final int[] tmp, final int k) {
+      final int first = Math.min(k, n);
+      for (int i = 0; i < first; i++) {
+        tmp[i] = n - first + i;
+      }
+      forEachChunk(new ChunkBody() {
+        public void run(int c, int from, int to) {
+          int count = 0;
+          for (int j = from; j < to; j++) {
+            if (sa[j] >= k) count++;
+          }
+          chunkCount[c] = count;
+        }
+      });
+      final int[] start = prefixSums(first);
+      forEachChunk(new ChunkBody() {
+        public void run(int c, int from, int to) {
+          int p = start[c];
+          for (int j = from; j < to; j++) {
+            if (sa[j] >= k) tmp[p++] = sa[j] - k;
+          }
+        }
+      });
+    }
+
+    // Sorts in by key[in[i]] stably with LSD radix passes, and returns the array containing the result (in or out)
+    private int[] radixSortInto(int[] in, int[] out, int[] key, int maxKey) {
+      for (int shift = 0; shift == 0 || (shift < 32 && (maxKey >>> shift) > 0); shift += DIGIT_BITS) {
+        radixPass(in, out, key, shift);
+        int[] t = in; in = out; out = t;
+      }
+      return in;
+    }
+
+    private int radixSort(int[] a, int[] tmp, int[] key, int maxKey) {
+      int[] sorted = radixSortInto(a, tmp, key, maxKey);
+      if (sorted != a) {
+        System.arraycopy(sorted, 0, a, 0, n);
+      }
+      return maxKey;
+    }
+
+    private void radixPass(final int[] in, final int[] out, final int[] key, final int shift) {
+      forEachChunk(new ChunkBody() {
+        public void run(int c, int from, int to) {
+          int[] h = hist[c];
+          Arrays.fill(h, 0);
+          for (int i = from; i < to; i++) {
+            h[(key[in[i]] >>> shift) & DIGIT_MASK]++;
+          }
+        }
+      });
+      // Exclusive offsets, bucket major so that the sort is stable
+      int sum = 0;
+      for (int b = 0; b <= DIGIT_MASK; b++) {
+        for (int c = 0; c < chunks; c++) {
+          int v = hist[c][b];
+          hist[c][b] = sum;
+          sum += v;
+        }
+      }
+      forEachChunk(new ChunkBody() {
+        public void run(int c, int from, int to) {
+          int[] h = hist[c];
+          for (int i = from; i < to; i++) {
+            out[h[(key[in[i]] >>> shift) & DIGIT_MASK]++] = in[i];
+          }
+        }
+      });
+    }
+
+    // Assigns newRank from the order in sa on the key (rank[i], rank[i+k]); returns the largest rank
+    private int updateRanks(final int[] sa, final int[] rank, final int[] newRank, final int k, int maxRank) {
+      forEachChunk(new ChunkBody() {
+        public void run(int c, int from, int to) {
+          int count = 0;
+          for (int j = Math.max(from, 1); j < to; j++) {
+            if (differs(sa[j - 1], sa[j], rank, k)) count++;
+          }
+          chunkCount[c] = count;
+        }
+      });
+      final int[] start = prefixSums(1);
+      forEachChunk(new ChunkBody() {
+        public void run(int c, int from, int to) {
+          int r = start[c];
+          for (int j = from; j < to; j++) {
+            if (j > 0 && differs(sa[j - 1], sa[j], rank, k)) r++;
+            newRank[sa[j]] = r;
+          }
+        }
+      });
+      return start[chunks];
+    }
+
+    private boolean differs(int a, int b, int[] rank, int k) {
+      if (rank[a] != rank[b]) return true;
+      if (k == 0) return false;
+      int ra = a + k < n ? rank[a + k] : 0, rb = b + k < n ? rank[b + k] : 0;
+      return ra != rb;
+    }
+
+    // start[c] = base + sum of chunkCount[0..c-1]; start[chunks] is the total
+    private int[] prefixSums(int base) {
+      int[] start = new int[chunks + 1];
+      start[0] = base;
+      for (int c = 0; c < chunks; c++) {
+        start[c + 1] = start[c] + chunkCount[c];
+      }
+      return start;
+    }
+
+    private void forEachChunk(final ChunkBody body) {
+      if (chunks == 1) {
+        body.run(0, 0, n);
+      } else {
+        pool.invoke(new ChunkTask(body, 0, chunks));
+      }
+    }
+
+    private class ChunkTask extends RecursiveAction {
+      private final ChunkBody body;
+      private final int lo, hi;
+
+      ChunkTask(ChunkBody body, int lo, int hi) {
+        this.body = body;
+        this.lo = lo;
+        this.hi = hi;
+      }
+
+      @Override
+      protected void compute() {
+        if (hi - lo == 1) {
+          body.run(lo, (int) ((long) n * lo / chunks), (int) ((long) n * (lo + 1) / chunks));
+        } else {
+          int mid = (lo + hi) / 2;
+          invokeAll(new ChunkTask(body, lo, mid), new ChunkTask(body, mid, hi));
+        }
+      }
+    }
+  }
+
+  private interface ChunkBody {
+    void run(int chunk, int from, int to);
+  }
+}
@@ -32,6 +32,9 @@ public class GameEvaluator {
     this.visited = new boolean[graph.getNodeCount()];
     for (DirectedGraph.Node node : graph.getNodes()) {
       this.movesLeft[node.getIndex()] = node.getOutgoingEdges().size();
+    }
+    // Separate pass, since setting a result decrements movesLeft of the predecessors
+    for (DirectedGraph.Node node : graph.getNodes()) {
       if (node.getOutgoingEdges().size() == 0) {
         setResult(node.getIndex(), noMovesResult);
       }
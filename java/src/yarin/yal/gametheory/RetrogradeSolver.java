@@ -0,0 +1,321 @@
+package yarin.yal.gametheory;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Retrograde analysis of two player games with states numbered 0..n-1, where the moves are generated on
+ * demand instead of stored in a {@link yarin.yal.graph.DirectedGraph}. Same rules as {@link GameEvaluator}:
+ * the player to move alternates after each move, and a state is a Win if the player to move has a winning
+ * strategy, a Lose if the player to move can't avoid losing, and otherwise a Draw.
+ *
+ * The states are solved one distance at a time, starting from the states with a given result and the states
+ * without moves, so that the distance of a Win is the fewest moves to win and the distance of a Lose is the
+ * most moves the loser can hold out. The result of each state is stored in a byte, and its distance in
+ * the same int that holds the number of moves not yet known to lose until the state is solved, which is
+ * 9 bytes per state including the frontier queue. The frontiers can be processed in a fork-join pool.
+ *
+ * If no predecessor generator is given, the predecessors are stored in CSR form, which needs another
+ * 4 bytes per state and per move.
+ */
+public class RetrogradeSolver {
+
+  public interface MoveGenerator {
+    /**
+     * Stores the states one move away from the state in moves.
+     * @return the number of states stored
+     */
+    int generate(int state, int[] moves);
+  }
+
+  private static final int CHUNK = 1 << 12;
+  private static final byte UNKNOWN = 0, LOSE = 1, DRAW = 2, WIN = 3;
+
+  private final int stateCount, maxMoves;
+  private final MoveGenerator successors, predecessors;
+  private final byte noMovesResult;
+  private final byte[] results;
+  // Unsolved states: the number of moves not yet known to lead to a Win. Solved states: -1 - distance.
+  private final AtomicIntegerArray counters;
+  private int[] queue, predecessorStart, predecessorList;
+  private AtomicInteger tail;
+  private long[] levelSizes;
+  private boolean solved;
+
+  /**
+   * States without moves are a Lose, and the predecessors are found from the successors.
+   * @param maxMoves the most successors of any state
+   */
+  public RetrogradeSolver(int stateCount, int maxMoves, MoveGenerator successors) {
+    this(stateCount, maxMoves, successors, null, Result.Lose);
+  }
+
+  /**
+   * @param maxMoves the most successors, or predecessors, of any state
+   * @param predecessors generates the states with a move to a state, once per such move, or null to find
+   *                     them from the successors
+   * @param noMovesResult the result of states without moves
+   */
+  public RetrogradeSolver(int stateCount, int maxMoves, MoveGenerator successors, MoveGenerator predecessors,
+                          Result noMovesResult) {
+    this.stateCount = stateCount;
+    this.maxMoves = maxMoves;
+    this.successors = successors;
+    this.predecessors = predecessors;
+    this.noMovesResult = encode(noMovesResult);
+    results = new byte[stateCount];
+    counters = new AtomicIntegerArray(stateCount);
+    queue = new int[stateCount];
+    tail = new AtomicInteger();
+  }
+
+  private static byte encode(Result result) {
+    switch (result) {
+      case Lose: return LOSE;
+      case Win: return WIN;
+      default: return DRAW;
+    }
+  }
+
+  public int getStateCount() {
+    return stateCount;
+  }
+
+  /**
+   * Sets the result of a state before solving, e.g. a state where the game has ended. Its distance is 0.
+   */
+  public void setResult(int state, Result result) {
+    if (solved) throw new IllegalStateException("Already solved");
+    if (results[state] != UNKNOWN) throw new IllegalStateException("State " + state + " already has a result");
+    resolve(state, encode(result));
+  }
+
+  private void resolve(int state, byte result) {
+    results[state] = result;
+    counters.lazySet(state, -1);
+    if (result != DRAW) {
+      queue[tail.getAndIncrement()] = state;
+    }
+  }
+
+  public void solve() {
+    solve(null);
+  }
+
+  /**
+   * @param pool the pool to run in, or null to run in the calling thread
+   */
+  public void solve(ForkJoinPool pool) {
+    if (solved) throw new IllegalStateException("Already solved");
+    solved = true;
+    run(pool, new Body() {
+      public void run(int from, int to, int[] moves, Appender out) {
+        countMoves(from, to, moves);
+      }
+    }, stateCount);
+    if (predecessors == null) {
+      buildPredecessors(pool);
+    }
+
+    long[] sizes = new long[16];
+    int head = 0, depth = 0;
+    while (head < tail.get()) {
+      final int from = head, end = tail.get(), d = depth;
+      if (depth == sizes.length) sizes = Arrays.copyOf(sizes, 2 * depth);
+      sizes[depth++] = end - from;
+      run(pool, new Body() {
+        public void run(int lo, int hi, int[] moves, Appender out) {
+          for (int i = from + lo; i < from + hi; i++) {
+            propagate(queue[i], d, moves, out);
+          }
+        }
+      }, end - from);
+      head = end;
+    }
+    levelSizes = Arrays.copyOf(sizes, depth);
+    queue = null;
+  }
+
+  // Stores the number of moves of each unsolved state in from..to, and solves the states without moves
+  private void countMoves(int from, int to, int[] moves) {
+    for (int s = from; s < to; s++) {
+      if (results[s] != UNKNOWN) continue;
+      int count = successors.generate(s, moves);
+      if (count == 0) {
+        results[s] = noMovesResult;
+        counters.lazySet(s, -1);
+        if (noMovesResult != DRAW) queue[tail.getAndIncrement()] = s;
+      } else {
+        counters.lazySet(s, count);
+      }
+    }
+  }
+
+  // Builds the predecessor lists in CSR form, skipping moves from states that are already solved
+  private void buildPredecessors(ForkJoinPool pool) {
+    final AtomicIntegerArray fill = new AtomicIntegerArray(stateCount + 1);
+    run(pool, new Body() {
+      public void run(int from, int to, int[] moves, Appender out) {
+        for (int s = from; s < to; s++) {
+          if (counters.get(s) <= 0) continue;
+          int count = successors.generate(s, moves);
+          for (int j = 0; j < count; j++) {
+            fill.getAndIncrement(moves[j] + 1);
+          }
+        }
+      }
+    }, stateCount);
+    predecessorStart = new int[stateCount + 1];
+    for (int s = 0; s < stateCount; s++) {
+      predecessorStart[s + 1] = predecessorStart[s] + fill.get(s + 1);
+      fill.lazySet(s, predecessorStart[s]);
+    }
+    predecessorList = new int[predecessorStart[stateCount]];
+    run(pool, new Body() {
+      public void run(int from, int to, int[] moves, Appender out) {
+        for (int s = from; s < to; s++) {
+          if (counters.get(s) <= 0) continue;
+          int count = successors.generate(s, moves);
+          for (int j = 0; j < count; j++) {
+            predecessorList[fill.getAndIncrement(moves[j])] = s;
+          }
+        }
+      }
+    }, stateCount);
+  }
+
+  /**
+   * Solves the unsolved predecessors of a state solved at the given distance: all predecessors of a Lose are
+   * a Win, and a predecessor whose last unknown move leads to a Win is a Lose.
+   * The counters are updated with compare-and-set, so that each state is solved by exactly one thread.
+   */
+  private void propagate(int state, int distance, int[] moves, Appender out) {
+    int from, to;
+    int[] list;
+    if (predecessors == null) {
+      list = predecessorList;
+      from = predecessorStart[state];
+      to = predecessorStart[state + 1];
+    } else {
+      list = moves;
+      from = 0;
+      to = predecessors.generate(state, moves);
+    }
+    boolean lose = results[state] == LOSE;
+    int solvedValue = -2 - distance;
+    for (int j = from; j < to; j++) {
+      int p = list[j];
+      while (true) {
+        int c = counters.get(p);
+        if (c <= 0) break;
+        if (lose || c == 1) {
+          if (counters.compareAndSet(p, c, solvedValue)) {
+            results[p] = lose ? WIN : LOSE;
+            out.add(p);
+            break;
+          }
+        } else if (counters.compareAndSet(p, c, c - 1)) {
+          break;
+        }
+      }
+    }
+  }
+
+  private void checkSolved() {
+    if (!solved) throw new IllegalStateException("Not solved yet");
+  }
+
+  public Result getResult(int state) {
+    checkSolved();
+    switch (results[state]) {
+      case LOSE: return Result.Lose;
+      case WIN: return Result.Win;
+      default: return Result.Draw;
+    }
+  }
+
+  /**
+   * @return the number of moves until the game ends with optimal play, or -1 for a Draw
+   */
+  public int getDistance(int state) {
+    checkSolved();
+    return results[state] == LOSE || results[state] == WIN ? -1 - counters.get(state) : -1;
+  }
+
+  /**
+   * @return the number of Win and Lose states at each distance
+   */
+  public long[] getLevelSizes() {
+    checkSolved();
+    return levelSizes.clone();
+  }
+
+  /**
+   * @return the number of states with the result
+   */
+  public long getCount(Result result) {
+    checkSolved();
+    byte r = encode(result);
+    long count = 0;
+    for (byte b : results) {
+      if (b == r || r == DRAW && b == UNKNOWN) count++;
+    }
+    return count;
+  }
+
+  // Collects solved states in a local buffer, and reserves room in the queue for a whole buffer at a time
+  private class Appender {
+    private final int[] buffer = new int[CHUNK];
+    private int size;
+
+    void add(int state) {
+      if (size == buffer.length) flush();
+      buffer[size++] = state;
+    }
+
+    void flush() {
+      System.arraycopy(buffer, 0, queue, tail.getAndAdd(size), size);
+      size = 0;
+    }
+  }
+
+  private interface Body {
+    void run(int from, int to, int[] moves, Appender out);
+  }
+
+  private void run(ForkJoinPool pool, Body body, int n) {
+    if (pool == null) {
+      Appender out = new Appender();
+      body.run(0, n, new int[maxMoves], out);
+      out.flush();
+    } else {
+      pool.invoke(new ChunkTask(body, 0, n));
+    }
+  }
+
+  private class ChunkTask extends RecursiveAction {
+    private final Body body;
+    private final int from, to;
+
+    ChunkTask(Body body, int from, int to) {
+      this.body = body;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    protected void compute() {
+      if (to - from > CHUNK) {
+        int mid = (from + to) >>> 1;
+        invokeAll(new ChunkTask(body, from, mid), new ChunkTask(body, mid, to));
+      } else {
+        Appender out = new Appender();
+        body.run(from, to, new int[maxMoves], out);
+        out.flush();
+      }
+    }
+  }
+}
@@ -0,0 +1,11 @@
+package yarin.yal.gametheory.impartial;
+
+/**
+ * An impartial game whose states are encoded as longs, for {@link LongGameEvaluator}.
+ */
+public interface ILongGame {
+    /**
+     * Adds all legal moves from the state to moves. A move may lead to several independent games.
+     */
+    void nextStates(long state, LongMoves moves);
+}
@@ -0,0 +1,202 @@
+package yarin.yal.gametheory.impartial;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.ToLongFunction;
+
+import yarin.yal.ConcurrentLongIntCache;
+
+/**
+ * Same as {@link GameEvaluator#evaluateFiniteGame(IGameState)}, but for games whose states are encoded as
+ * longs. The search uses an explicit stack, so the depth of the game is only limited by memory, and the
+ * nim values are memoized in a {@link ConcurrentLongIntCache} of fixed size. The value of each state a
+ * search is waiting for is kept on the stack rather than looked up again, so that evicted entries only
+ * cost time.
+ *
+ * The subgames of a combined game can be evaluated in parallel, sharing the cache. Equal subgames
+ * cancel out and aren't evaluated.
+ */
+public class LongGameEvaluator {
+    private final ILongGame game;
+    private final ConcurrentLongIntCache cache;
+    private final Search search = new Search();
+
+    public LongGameEvaluator(ILongGame game) {
+        this(game, 1 << 20);
+    }
+
+    /**
+     * @param cacheCapacity the number of nim values to keep. States whose values were evicted are searched
+     *                      again, so this should be well above the number of states a search reaches, or the
+     *                      search can take exponential time.
+     */
+    public LongGameEvaluator(ILongGame game, int cacheCapacity) {
+        this.game = game;
+        this.cache = new ConcurrentLongIntCache(cacheCapacity);
+    }
+
+    /**
+     * Not safe to call from several threads at once; use {@link #evaluate(long[], ForkJoinPool)} for that.
+     * @return the nim value of the state
+     */
+    public int evaluate(long state) {
+        return search.evaluate(state);
+    }
+
+    /**
+     * @return the nim value of the sum of the games
+     */
+    public int evaluate(long[] subGames) {
+        int xor = 0;
+        for (long state : cancelPairs(subGames)) {
+            xor ^= search.evaluate(state);
+        }
+        return xor;
+    }
+
+    /**
+     * Evaluates the games in parallel.
+     * @return the nim value of the sum of the games
+     */
+    public int evaluate(long[] subGames, ForkJoinPool pool) {
+        long[] states = cancelPairs(subGames);
+        return states.length == 0 ? 0 : pool.invoke(new SubGameTask(states, 0, states.length));
+    }
+
+    /**
+     * Evaluates the subgames in parallel.
+     * @param encoder encodes each subgame as a state of the game
+     * @return the nim value of the game
+     */
+    public int evaluate(CombinedGameState state, ToLongFunction<IGameState> encoder, ForkJoinPool pool) {
+        IGameState[] subGames = state.getSubGames();
+        long[] states = new long[subGames.length];
+        for (int i = 0; i < states.length; i++) {
+            states[i] = encoder.applyAsLong(subGames[i]);
+        }
+        return evaluate(states, pool);
+    }
+
+    // The states that occur an odd number of times, since the nim values of the others cancel out
+    private static long[] cancelPairs(long[] states) {
+        long[] sorted = states.clone();
+        Arrays.sort(sorted);
+        int count = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            if (i + 1 < sorted.length && sorted[i] == sorted[i + 1]) {
+                i++;
+            } else {
+                sorted[count++] = sorted[i];
+            }
+        }
+        return Arrays.copyOf(sorted, count);
+    }
+
+    private class SubGameTask extends RecursiveTask<Integer> {
+        private final long[] states;
+        private final int from, to;
+
+        SubGameTask(long[] states, int from, int to) {
+            this.states = states;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Integer compute() {
+            if (to - from == 1) {
+                return new Search().evaluate(states[from]);
+            }
+            int mid = (from + to) >>> 1;
+            SubGameTask right = new SubGameTask(states, mid, to);
+            right.fork();
+            int left = new SubGameTask(states, from, mid).compute();
+            return left ^ right.join();
+        }
+    }
+
+    /**
+     * A depth first search with an explicit stack. Each level holds a state, its moves, the nim values of
+     * the states the moves lead to that are known so far, and the index of the next state to evaluate.
+     */
+    private class Search {
+        private long[] stack = new long[64];
+        private LongMoves[] moves = new LongMoves[64];
+        private int[][] values = new int[64][];
+        private int[] next = new int[64];
+        private int[] seen = new int[16];
+        private int stamp;
+
+        int evaluate(long root) {
+            int cached = cache.get(root);
+            if (cached >= 0) return cached;
+            int top = 0;
+            push(0, root);
+            while (true) {
+                LongMoves m = moves[top];
+                int[] v = values[top];
+                int i = next[top];
+                while (i < m.stateCount) {
+                    int value = cache.get(m.states[i]);
+                    if (value < 0) break;
+                    v[i++] = value;
+                }
+                next[top] = i;
+                if (i < m.stateCount) {
+                    push(++top, m.states[i]);
+                    continue;
+                }
+                int g = mex(m, v);
+                cache.put(stack[top], g);
+                if (top == 0) return g;
+                top--;
+                values[top][next[top]++] = g;
+            }
+        }
+
+        private void push(int level, long state) {
+            if (level == stack.length) {
+                int n = 2 * level;
+                stack = Arrays.copyOf(stack, n);
+                moves = Arrays.copyOf(moves, n);
+                values = Arrays.copyOf(values, n);
+                next = Arrays.copyOf(next, n);
+            }
+            if (moves[level] == null) {
+                moves[level] = new LongMoves();
+                values[level] = new int[4];
+            }
+            LongMoves m = moves[level];
+            m.clear();
+            game.nextStates(state, m);
+            if (values[level].length < m.stateCount) {
+                values[level] = new int[Math.max(m.stateCount, 2 * values[level].length)];
+            }
+            stack[level] = state;
+            next[level] = 0;
+        }
+
+        // The smallest value that isn't the xor of the values of any move
+        private int mex(LongMoves m, int[] v) {
+            if (seen.length <= m.moveCount) {
+                seen = new int[2 * m.moveCount + 1];
+                stamp = 0;
+            }
+            if (++stamp == 0) {
+                Arrays.fill(seen, 0);
+                stamp = 1;
+            }
+            for (int j = 0, i = 0; j < m.moveCount; j++) {
+                int xor = 0;
+                for (; i < m.ends[j]; i++) {
+                    xor ^= v[i];
+                }
+                if (xor <= m.moveCount) seen[xor] = stamp;
+            }
+            int g = 0;
+            while (seen[g] == stamp) g++;
+            return g;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package yarin.yal.gametheory.impartial;
+
+import java.util.Arrays;
+
+/**
+ * The moves from a state of an {@link ILongGame}, each leading to zero or more independent games,
+ * stored in flat arrays that are reused between states.
+ */
+public final class LongMoves {
+    long[] states = new long[4];
+    int[] ends = new int[4];
+    int stateCount, moveCount;
+
+    /**
+     * Adds a move that ends the game.
+     */
+    public void add() {
+        endMove();
+    }
+
+    public void add(long state) {
+        addState(state);
+        endMove();
+    }
+
+    public void add(long first, long second) {
+        addState(first);
+        addState(second);
+        endMove();
+    }
+
+    public void add(long[] states) {
+        for (long state : states) {
+            addState(state);
+        }
+        endMove();
+    }
+
+    public int size() {
+        return moveCount;
+    }
+
+    private void addState(long state) {
+        if (stateCount == states.length) {
+            states = Arrays.copyOf(states, 2 * stateCount);
+        }
+        states[stateCount++] = state;
+    }
+
+    private void endMove() {
+        if (moveCount == ends.length) {
+            ends = Arrays.copyOf(ends, 2 * moveCount);
+        }
+        ends[moveCount++] = stateCount;
+    }
+
+    void clear() {
+        stateCount = moveCount = 0;
+    }
+}
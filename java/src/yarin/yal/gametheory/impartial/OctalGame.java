@@ -0,0 +1,149 @@
+package yarin.yal.gametheory.impartial;
+
+import java.util.Arrays;
+
+/**
+ * An octal game played on heaps of tokens, such as Kayles (0.77) or Dawson's Kayles (0.07). Digit k of the
+ * code after the point tells what may be left after removing k tokens from a heap: 1 for nothing, 2 for one
+ * nonempty heap, 4 for two nonempty heaps, or any sum of these.
+ *
+ * The nim values of the heaps up to a size are computed directly, and can be searched for a period with the
+ * octal periodicity theorem: if g(n + p) = g(n) for all n0 <= n < 2 n0 + p + t, where t is the most tokens
+ * a move removes, then g(n + p) = g(n) for all n >= n0. Once a period is found, the value of any heap is
+ * found in O(1).
+ */
+public class OctalGame implements ILongGame {
+    private final String code;
+    private final int[] digits; // digits[k] for removing k tokens
+    private int[] values = new int[16];
+    private int count, maxValue;
+    private int period, preperiod;
+
+    public OctalGame(String code) {
+        if (!code.startsWith("0.")) {
+            throw new IllegalArgumentException("The code must start with 0.");
+        }
+        int t = code.length() - 2;
+        while (t > 0 && code.charAt(t + 1) == '0') t--;
+        if (t == 0) {
+            throw new IllegalArgumentException("The code has no moves");
+        }
+        digits = new int[t + 1];
+        for (int k = 1; k <= t; k++) {
+            char c = code.charAt(k + 1);
+            if (c < '0' || c > '7') {
+                throw new IllegalArgumentException("Invalid digit " + c);
+            }
+            digits[k] = c - '0';
+        }
+        this.code = code;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public void nextStates(long heap, LongMoves moves) {
+        for (int k = 1; k < digits.length && k <= heap; k++) {
+            long r = heap - k;
+            if ((digits[k] & 1) != 0 && r == 0) moves.add();
+            if ((digits[k] & 2) != 0 && r > 0) moves.add(r);
+            if ((digits[k] & 4) != 0) {
+                for (long a = 1; 2 * a <= r; a++) {
+                    moves.add(a, r - a);
+                }
+            }
+        }
+    }
+
+    /**
+     * Computes the nim values of all heaps smaller than n, in O(n^2) time if the game splits heaps.
+     */
+    public void computeValues(int n) {
+        if (n <= count) return;
+        if (n > values.length) {
+            values = Arrays.copyOf(values, Math.max(n, 2 * values.length));
+        }
+        boolean[] seen = new boolean[2];
+        for (int h = count; h < n; h++) {
+            int size = 2 * Integer.highestOneBit(Math.max(1, maxValue)) + 1;
+            if (seen.length < size) {
+                seen = new boolean[size];
+            } else {
+                Arrays.fill(seen, false);
+            }
+            for (int k = 1; k < digits.length && k <= h; k++) {
+                int r = h - k;
+                if ((digits[k] & 1) != 0 && r == 0) seen[0] = true;
+                if ((digits[k] & 2) != 0 && r > 0) seen[values[r]] = true;
+                if ((digits[k] & 4) != 0) {
+                    for (int a = 1; 2 * a <= r; a++) {
+                        seen[values[a] ^ values[r - a]] = true;
+                    }
+                }
+            }
+            int g = 0;
+            while (seen[g]) g++;
+            values[h] = g;
+            maxValue = Math.max(maxValue, g);
+        }
+        count = n;
+    }
+
+    /**
+     * Computes the nim values of all heaps smaller than maxHeap, and searches them for the shortest period
+     * that the octal periodicity theorem proves.
+     * @return true if a period was found
+     */
+    public boolean findPeriod(int maxHeap) {
+        if (period > 0) return true;
+        computeValues(maxHeap);
+        int t = digits.length - 1;
+        for (int p = 1; 2 * p + t <= count; p++) {
+            int n = count - p - 1;
+            while (n >= 0 && values[n] == values[n + p]) n--;
+            int n0 = n + 1;
+            // The theorem needs g(n + p) for all n < 2 n0 + p + t
+            if ((long) 2 * n0 + 2 * p + t <= count) {
+                period = p;
+                preperiod = n0;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return the period found by {@link #findPeriod(int)}, or 0
+     */
+    public int getPeriod() {
+        return period;
+    }
+
+    /**
+     * @return the first heap size from which the values are periodic, if a period was found
+     */
+    public int getPreperiod() {
+        return preperiod;
+    }
+
+    /**
+     * @return the nim value of a heap, computing more values if it isn't covered by a period
+     */
+    public int getValue(long heap) {
+        if (heap < 0) {
+            throw new IllegalArgumentException("Invalid heap size " + heap);
+        }
+        if (heap < count) {
+            return values[(int) heap];
+        }
+        if (period > 0) {
+            return values[(int) (preperiod + (heap - preperiod) % period)];
+        }
+        if (heap >= Integer.MAX_VALUE - 8) {
+            throw new IllegalStateException("No period found for heap size " + heap);
+        }
+        computeValues((int) heap + 1);
+        return values[(int) heap];
+    }
+}
@@ -6,8 +6,39 @@ import java.util.List;
 
 import yarin.yal.gametheory.impartial.CombinedGameState;
 import yarin.yal.gametheory.impartial.IGameState;
+import yarin.yal.gametheory.impartial.ILongGame;
+import yarin.yal.gametheory.impartial.LongMoves;
 
 public class TrebleCross implements IGameState {
+    /**
+     * The same game with the states encoded as n * 4 + m.
+     */
+    public static final ILongGame GAME = new ILongGame() {
+        public void nextStates(long state, LongMoves moves) {
+            int n = (int) (state >> 2), m = (int) (state & 3);
+            for (int i = 0; i < n; i++) {
+                if (i == 0 && m > 0)
+                    continue;
+                if (i == n - 1 && m == 2)
+                    continue;
+                if (i == 0 || i == n - 1) {
+                    if (n != 2)
+                        moves.add(TrebleCross.encode(n - 1, m + 1));
+                    continue;
+                }
+                int ma = m == 0 ? 1 : m, mb = m == 0 ? 1 : 2;
+                if ((i == 1 && ma == 2) || (n - i - 1 == 1 && mb == 2))
+                    continue;
+                moves.add(TrebleCross.encode(i, ma), TrebleCross.encode(n - i - 1, mb));
+            }
+        }
+    };
+
+    /**
+     * Treblecross is also the octal game 0.007, where a strip is a heap of size {@link #getHeapSize()}.
+     */
+    public static final String OCTAL_CODE = "0.007";
+
     private final int n, m;
 
     public TrebleCross(int n, int m) {
@@ -33,6 +64,27 @@ public class TrebleCross implements IGameState {
         return new CombinedGameState(states);
     }
 
+    public static long encode(int n, int m) {
+        return (long) n << 2 | m;
+    }
+
+    /**
+     * @return this strip as a state of {@link #GAME}
+     */
+    public long encode() {
+        return encode(n, m);
+    }
+
+    /**
+     * @return the heap size of this strip in {@link #OCTAL_CODE}, which is 0 for the strip of two cells
+     * without X, since it has no safe moves
+     */
+    public int getHeapSize() {
+        if (n == 2 && m == 0)
+            return 0;
+        return Math.max(0, n + 2 - 2 * m);
+    }
+
     public Collection<IGameState[]> nextStates() {
         List<IGameState[]> list = new ArrayList<IGameState[]>();
         for (int i = 0; i < n; i++) {
@@ -0,0 +1,102 @@
+package yarin.yal.graph;
+
+import java.util.Arrays;
+
+/**
+ * Solves the assignment problem with the Hungarian algorithm in O(n^2 m) for n rows and m >= n columns.
+ *
+ * Rows are added one at a time; each row is assigned by a Dijkstra-like search over the columns with
+ * reduced costs given by the row and column potentials, which are updated so that they stay
+ * non-negative. The costs are dense, since the algorithm reads every entry anyway.
+ */
+public class AssignmentProblem {
+    private final int[] assignment;
+    private final long cost;
+
+    /**
+     * Finds an assignment of each row to a distinct column with minimum total cost.
+     * @param cost the cost of each row and column, with at least as many columns as rows. The sums of costs
+     *             along paths of the search must fit in a long.
+     */
+    public AssignmentProblem(long[][] cost) {
+        int n = cost.length, m = n == 0 ? 0 : cost[0].length;
+        for (long[] row : cost) {
+            if (row.length != m) {
+                throw new IllegalArgumentException("All rows must have the same length");
+            }
+        }
+        if (n > m) {
+            throw new IllegalArgumentException("There must be at least as many columns as rows");
+        }
+
+        // Rows and columns are 1-based; column 0 holds the row being assigned
+        long[] u = new long[n + 1], v = new long[m + 1], minv = new long[m + 1];
+        int[] p = new int[m + 1], way = new int[m + 1];
+        boolean[] used = new boolean[m + 1];
+        for (int i = 1; i <= n; i++) {
+            p[0] = i;
+            int j0 = 0;
+            Arrays.fill(minv, Long.MAX_VALUE);
+            Arrays.fill(used, false);
+            do {
+                used[j0] = true;
+                int i0 = p[j0], j1 = 0;
+                long delta = Long.MAX_VALUE;
+                long[] row = cost[i0 - 1];
+                for (int j = 1; j <= m; j++) {
+                    if (!used[j]) {
+                        long cur = row[j - 1] - u[i0] - v[j];
+                        if (cur < minv[j]) {
+                            minv[j] = cur;
+                            way[j] = j0;
+                        }
+                        if (minv[j] < delta) {
+                            delta = minv[j];
+                            j1 = j;
+                        }
+                    }
+                }
+                for (int j = 0; j <= m; j++) {
+                    if (used[j]) {
+                        u[p[j]] += delta;
+                        v[j] -= delta;
+                    } else {
+                        minv[j] -= delta;
+                    }
+                }
+                j0 = j1;
+            } while (p[j0] != 0);
+
+            // Flip the alternating path back to column 0
+            do {
+                int j1 = way[j0];
+                p[j0] = p[j1];
+                j0 = j1;
+            } while (j0 != 0);
+        }
+
+        assignment = new int[n];
+        long total = 0;
+        for (int j = 1; j <= m; j++) {
+            if (p[j] != 0) {
+                assignment[p[j] - 1] = j - 1;
+                total += cost[p[j] - 1][j - 1];
+            }
+        }
+        this.cost = total;
+    }
+
+    /**
+     * @return the column assigned to each row
+     */
+    public int[] getAssignment() {
+        return assignment.clone();
+    }
+
+    /**
+     * @return the total cost of the assignment
+     */
+    public long getCost() {
+        return cost;
+    }
+}
@@ -1,5 +1,7 @@
 package yarin.yal.graph;
 
+import java.util.Arrays;
+
 public class BellmanFord {
 
   /**
@@ -38,4 +40,47 @@ public class BellmanFord {
 
     return dist;
   }
+
+  /**
+   * Finds the shortest path from the source to the other nodes in a directed CSR graph.
+   * Unweighted arcs have weight 1. The same special values as above are used.
+   * @throws IllegalArgumentException if the graph has long weights
+   */
+  public int[] shortestPaths(CsrGraph g, int source) {
+    if (g.hasLongWeights()) {
+      throw new IllegalArgumentException("The distances of a graph with long weights don't fit in an int");
+    }
+    int n = g.getNodeCount();
+    int[] offsets = g.getOffsets(), targets = g.getTargets(), weights = g.getIntWeights();
+    int[] dist = new int[n];
+    Arrays.fill(dist, Integer.MAX_VALUE);
+    dist[source] = 0;
+
+    boolean updated = false;
+    for (int i = 0; i < n || updated; i++) {
+      updated = false;
+      boolean cycles = i + 1 >= n;
+      for (int v = 0; v < n; v++) {
+        int srcDist = dist[v];
+        if (srcDist == Integer.MAX_VALUE) continue;
+        for (int j = offsets[v]; j < offsets[v + 1]; j++) {
+          int targetDist = dist[targets[j]];
+          if (srcDist == Integer.MIN_VALUE) {
+            if (targetDist > Integer.MIN_VALUE) {
+              dist[targets[j]] = Integer.MIN_VALUE;
+              updated = true;
+            }
+          } else {
+            int weight = weights == null ? 1 : weights[j];
+            if (srcDist + weight < targetDist) {
+              dist[targets[j]] = cycles ? Integer.MIN_VALUE : srcDist + weight;
+              updated = true;
+            }
+          }
+        }
+      }
+    }
+
+    return dist;
+  }
 }
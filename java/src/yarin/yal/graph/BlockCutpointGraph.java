@@ -1,6 +1,7 @@
 package yarin.yal.graph;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
 import java.util.Stack;
@@ -188,6 +189,77 @@ public class BlockCutpointGraph extends Graph {
         return algorithm.create(graph, map);
     }
 
+    /**
+     * Finds the blocks (biconnected components) and cut-vertices of an undirected CSR graph.
+     * This is a non-recursive variant that doesn't create any node or edge objects.
+     *
+     * @param graph the input graph.
+     * @param edgeBlock the block of each edge id will be stored here. Self-loops are not part of any block
+     *                  and get -1. Should contain the same number of elements as edges in graph.
+     * @param cutVertex if not null, true will be stored for each node that is a cut-vertex.
+     * @return the number of blocks.
+     */
+    public static int findBlocks(CsrGraph graph, int[] edgeBlock, boolean[] cutVertex) {
+        int n = graph.getNodeCount();
+        if (graph.isDirected() || edgeBlock.length != graph.getEdgeCount() ||
+                (cutVertex != null && cutVertex.length != n)) {
+            throw new IllegalArgumentException();
+        }
+        int[] offsets = graph.getOffsets(), targets = graph.getTargets(), edgeIds = graph.getEdgeIds();
+        int[] dfsNumber = new int[n], high = new int[n], parentEdge = new int[n], arcPos = new int[n];
+        int[] vertexStack = new int[n], edgeStack = new int[graph.getEdgeCount()];
+        Arrays.fill(edgeBlock, -1);
+        int label = 0, blocks = 0, esp = 0;
+
+        for (int root = 0; root < n; root++) {
+            if (dfsNumber[root] != 0) continue;
+            int sp = 0, rootChildren = 0;
+            vertexStack[sp++] = root;
+            dfsNumber[root] = high[root] = ++label;
+            parentEdge[root] = -1;
+            arcPos[root] = offsets[root];
+            while (sp > 0) {
+                int v = vertexStack[sp - 1];
+                if (arcPos[v] < offsets[v + 1]) {
+                    int arc = arcPos[v]++;
+                    int e = edgeIds[arc], w = targets[arc];
+                    if (e == parentEdge[v]) continue;
+                    if (dfsNumber[w] == 0) {
+                        edgeStack[esp++] = e;
+                        parentEdge[w] = e;
+                        dfsNumber[w] = high[w] = ++label;
+                        arcPos[w] = offsets[w];
+                        vertexStack[sp++] = w;
+                        if (v == root) rootChildren++;
+                    } else if (dfsNumber[w] < dfsNumber[v]) {
+                        edgeStack[esp++] = e;
+                        high[v] = Math.min(high[v], dfsNumber[w]);
+                    }
+                } else {
+                    sp--;
+                    if (sp == 0) break;
+                    int u = vertexStack[sp - 1];
+                    high[u] = Math.min(high[u], high[v]);
+                    if (high[v] >= dfsNumber[u]) {
+                        if (cutVertex != null && u != root) {
+                            cutVertex[u] = true;
+                        }
+                        int e;
+                        do {
+                            e = edgeStack[--esp];
+                            edgeBlock[e] = blocks;
+                        } while (e != parentEdge[v]);
+                        blocks++;
+                    }
+                }
+            }
+            if (cutVertex != null && rootChildren > 1) {
+                cutVertex[root] = true;
+            }
+        }
+        return blocks;
+    }
+
     public Collection<Node> getNodes() {
         return (Collection<Node>) super.getNodes();
     }
@@ -0,0 +1,113 @@
+package yarin.yal.graph;
+
+import yarin.yal.ConcurrentUnionFind;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Finds the connected components of an undirected graph given as an edge list, by splitting the edges
+ * across a ForkJoinPool where each task unions its edges into a shared {@link ConcurrentUnionFind}.
+ */
+public class ConnectedComponents {
+    private static final int THRESHOLD = 1 << 14;
+
+    /**
+     * @return for each node, the index of its component; components are numbered from 0
+     * in the order of their smallest node
+     */
+    public static int[] findComponents(int n, int[] from, int[] to, ForkJoinPool pool) {
+        if (from.length != to.length) {
+            throw new IllegalArgumentException("from and to must have the same length");
+        }
+        ConcurrentUnionFind uf = new ConcurrentUnionFind(n);
+        pool.invoke(new UnionTask(uf, from, to, 0, from.length));
+        int[] roots = new int[n];
+        pool.invoke(new FindTask(uf, roots, 0, n));
+        return label(roots);
+    }
+
+    /**
+     * Same as {@link #findComponents(int, int[], int[], ForkJoinPool)} for a CSR graph; arcs are treated as undirected.
+     */
+    public static int[] findComponents(CsrGraph g, ForkJoinPool pool) {
+        int n = g.getNodeCount();
+        int[] offsets = g.getOffsets(), targets = g.getTargets();
+        int[] from = new int[targets.length];
+        for (int u = 0; u < n; u++) {
+            for (int j = offsets[u]; j < offsets[u + 1]; j++) {
+                from[j] = u;
+            }
+        }
+        return findComponents(n, from, targets, pool);
+    }
+
+    private static int[] label(int[] roots) {
+        int n = roots.length;
+        int[] label = new int[n];
+        int count = 0;
+        // The root of a component isn't necessarily its smallest node, so label the roots in the order they're first seen
+        int[] rootLabel = new int[n];
+        Arrays.fill(rootLabel, -1);
+        for (int i = 0; i < n; i++) {
+            int r = roots[i];
+            if (rootLabel[r] < 0) {
+                rootLabel[r] = count++;
+            }
+            label[i] = rootLabel[r];
+        }
+        return label;
+    }
+
+    private static class UnionTask extends RecursiveAction {
+        private final ConcurrentUnionFind uf;
+        private final int[] from, to;
+        private final int start, end;
+
+        UnionTask(ConcurrentUnionFind uf, int[] from, int[] to, int start, int end) {
+            this.uf = uf;
+            this.from = from;
+            this.to = to;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        protected void compute() {
+            if (end - start <= THRESHOLD) {
+                for (int i = start; i < end; i++) {
+                    uf.unionSet(from[i], to[i]);
+                }
+            } else {
+                int mid = (start + end) >>> 1;
+                invokeAll(new UnionTask(uf, from, to, start, mid), new UnionTask(uf, from, to, mid, end));
+            }
+        }
+    }
+
+    private static class FindTask extends RecursiveAction {
+        private final ConcurrentUnionFind uf;
+        private final int[] roots;
+        private final int start, end;
+
+        FindTask(ConcurrentUnionFind uf, int[] roots, int start, int end) {
+            this.uf = uf;
+            this.roots = roots;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        protected void compute() {
+            if (end - start <= THRESHOLD) {
+                for (int i = start; i < end; i++) {
+                    roots[i] = uf.findSet(i);
+                }
+            } else {
+                int mid = (start + end) >>> 1;
+                invokeAll(new FindTask(uf, roots, start, mid), new FindTask(uf, roots, mid, end));
+            }
+        }
+    }
+}
@@ -1,108 +1,349 @@
 package yarin.yal.graph;
 
-import java.util.ArrayList;
-import java.util.List;
+import yarin.yal.DijkstraHelperLong;
 
+import java.util.Arrays;
+
+/**
+ * Min cost max flow. Edge i is stored as the arcs 2i (forward) and 2i+1 (backward) in flat arrays,
+ * with long capacities and costs.
+ *
+ * Three algorithms are provided, all starting from zero flow and returning {flow, cost}:
+ * {@link #maxFlowMinCost(int, int)} augments along Bellman-Ford shortest paths, O(flow * V * E);
+ * {@link #maxFlowMinCostDijkstra(int, int)} uses Dijkstra on reduced costs with Johnson potentials, O(flow * E log V);
+ * {@link #maxFlowMinCostCostScaling(int, int)} finds a max flow and then makes it min cost with
+ * Goldberg-Tarjan cost scaling, O(V^2 E log(V C)), which doesn't depend on the flow value.
+ */
 // Test at Kattis, https://open.kattis.com/problems/mincostmaxflow
 public class CostNetwork {
-    private class Edge {
-        private final int source, dest, capacity, cost;
-        private Edge other;
-        private int flow;
+    private int noNodes = 0, noEdges = 0;
+    private int[] head = new int[32]; // Target of each arc; the source of arc a is head[a ^ 1]
+    private long[] capacity = new long[32], residual = new long[32], cost = new long[32];
+
+    // Adjacency in CSR form, rebuilt when edges have been added
+    private int[] start, arcs;
+
+    /**
+     * @return the index of the edge
+     */
+    public int addEdge(int source, int dest, int capacity, int cost) {
+        return addEdge(source, dest, (long) capacity, (long) cost);
+    }
 
-        public Edge(int from, int to, int cost, int capacity) {
-            this.source = from;
-            this.dest = to;
-            this.capacity = capacity;
-            this.cost = cost;
+    /**
+     * @return the index of the edge
+     */
+    public int addEdge(int source, int dest, long capacity, long cost) {
+        if (source < 0 || dest < 0 || capacity < 0) {
+            throw new IllegalArgumentException();
+        }
+        noNodes = Math.max(noNodes, Math.max(source, dest) + 1);
+        int a = 2 * noEdges;
+        if (a == head.length) {
+            head = Arrays.copyOf(head, 2 * a);
+            this.capacity = Arrays.copyOf(this.capacity, 2 * a);
+            this.residual = Arrays.copyOf(this.residual, 2 * a);
+            this.cost = Arrays.copyOf(this.cost, 2 * a);
         }
+        head[a] = dest;
+        head[a + 1] = source;
+        this.capacity[a] = capacity;
+        this.cost[a] = cost;
+        this.cost[a + 1] = -cost;
+        start = null;
+        return noEdges++;
     }
 
-    private int noNodes = 0;
-    private final List<Edge> edges = new ArrayList<Edge>();
+    /**
+     * @return the flow on the edge in the last computed flow
+     */
+    public long getFlow(int edge) {
+        return residual[2 * edge + 1];
+    }
 
-    public void addEdge(int source, int dest, int capacity, int cost) {
-        if (source + 1 > noNodes) {
-            noNodes = source + 1;
+    private void prepare(int source, int sink) {
+        noNodes = Math.max(noNodes, Math.max(source, sink) + 1);
+        int m = 2 * noEdges;
+        if (start == null || start.length != noNodes + 1) {
+            start = new int[noNodes + 1];
+            for (int a = 0; a < m; a++) {
+                start[head[a ^ 1] + 1]++;
+            }
+            for (int i = 0; i < noNodes; i++) {
+                start[i + 1] += start[i];
+            }
+            arcs = new int[m];
+            int[] pos = Arrays.copyOf(start, noNodes);
+            for (int a = 0; a < m; a++) {
+                arcs[pos[head[a ^ 1]]++] = a;
+            }
         }
-        if (dest + 1 > noNodes) {
-            noNodes = dest + 1;
+        for (int a = 0; a < m; a += 2) {
+            residual[a] = capacity[a];
+            residual[a + 1] = 0;
         }
-        Edge e1 = new Edge(source, dest, cost, capacity);
-        Edge e2 = new Edge(dest, source, -cost, 0);
-        e1.other = e2;
-        e2.other = e1;
-        edges.add(e1);
-        edges.add(e2);
     }
 
-    private int bellmanFord(int source, Edge[] p) {
-        int[] d = new int[noNodes];
-        for (int i = 0; i < noNodes; i++) {
-            d[i] = Integer.MAX_VALUE;
+    private void push(int a, long f) {
+        residual[a] -= f;
+        residual[a ^ 1] += f;
+    }
+
+    private long[] result(int source) {
+        long flow = 0, totalCost = 0;
+        for (int a = 0; a < 2 * noEdges; a += 2) {
+            long f = residual[a + 1];
+            if (head[a + 1] == source) flow += f;
+            if (head[a] == source) flow -= f;
+            totalCost += f * cost[a];
         }
+        return new long[] { flow, totalCost };
+    }
+
+    /**
+     * @return the shortest distances from the source along arcs with residual capacity, with -1 in
+     * parent for the source and unreachable nodes
+     */
+    private long[] bellmanFord(int source, int[] parent) {
+        long[] d = new long[noNodes];
+        Arrays.fill(d, Long.MAX_VALUE);
+        Arrays.fill(parent, -1);
         d[source] = 0;
+        int m = 2 * noEdges;
         boolean change = true;
-        for (int m = 0; change && m < noNodes - 1; m++) {
+        for (int k = 0; change && k < noNodes; k++) {
             change = false;
-            for (Edge e : edges) {
-                if (e.capacity > e.flow && d[e.source] != Integer.MAX_VALUE && d[e.dest] > d[e.source] + e.cost) {
+            for (int a = 0; a < m; a++) {
+                int u = head[a ^ 1], v = head[a];
+                if (residual[a] > 0 && d[u] != Long.MAX_VALUE && d[v] > d[u] + cost[a]) {
                     change = true;
-                    d[e.dest] = d[e.source] + e.cost;
-                    p[e.dest] = e;
+                    d[v] = d[u] + cost[a];
+                    parent[v] = a;
                 }
             }
         }
-        for(Edge e : edges) {
-            if (e.capacity > e.flow && d[e.source] != Integer.MAX_VALUE && d[e.dest] > d[e.source] + e.cost) {
-                p[e.dest] = e;
-                return e.dest;
-            }
+        if (change) {
+            throw new IllegalStateException("The network has a negative cost cycle");
         }
-        return -1;
+        return d;
     }
 
-    private static void incrementFlow(int source, int sink, Edge[] p) {
-        int minCapacity = Integer.MAX_VALUE;
-        for (int u = sink; u != source; u = p[u].source) {
-            minCapacity = Math.min(minCapacity, p[u].capacity - p[u].flow);
+    private long augment(int source, int sink, int[] parent) {
+        long f = Long.MAX_VALUE;
+        for (int u = sink; u != source; u = head[parent[u] ^ 1]) {
+            f = Math.min(f, residual[parent[u]]);
         }
-
-//			string s = sink.ToString();
-        for (int u = sink; u != source; u = p[u].source) {
-//				s = p[u].Source + " -> " + s;
-            p[u].flow += minCapacity;
-            p[u].other.flow -= minCapacity;
+        for (int u = sink; u != source; u = head[parent[u] ^ 1]) {
+            push(parent[u], f);
         }
-//			s += ": Increase f with " + minCapacity;
-//			Console.WriteLine(s);
+        return f;
     }
 
     public long[] maxFlowMinCost(int source, int sink) {
+        prepare(source, sink);
+        int[] parent = new int[noNodes];
         while (true) {
-            Edge[] p = new Edge[noNodes];;
-            int u = bellmanFord(source, p);
-            if (u == -1) {
-                if (p[sink] == null) {
-                    break;
+            bellmanFord(source, parent);
+            if (parent[sink] < 0 || source == sink) {
+                break;
+            }
+            augment(source, sink, parent);
+        }
+        return result(source);
+    }
+
+    /**
+     * Successive shortest paths with Dijkstra. The costs are made non-negative by node potentials, which
+     * are initialized with Bellman-Ford if any edge has a negative cost.
+     * The network must not have negative cost cycles.
+     */
+    public long[] maxFlowMinCostDijkstra(int source, int sink) {
+        prepare(source, sink);
+        int n = noNodes;
+        long[] potential = new long[n];
+        int[] parent = new int[n];
+        for (int a = 0; a < 2 * noEdges; a += 2) {
+            if (cost[a] < 0 && capacity[a] > 0) {
+                long[] d = bellmanFord(source, parent);
+                for (int v = 0; v < n; v++) {
+                    potential[v] = d[v] == Long.MAX_VALUE ? 0 : d[v];
+                }
+                break;
+            }
+        }
+
+        DijkstraHelperLong dijkstra = new DijkstraHelperLong(n, Long.MAX_VALUE);
+        int[] done = new int[n];
+        while (source != sink) {
+            // Search until the sink is done; the reduced cost of an arc u->v is cost + potential[u] - potential[v]
+            dijkstra.reset();
+            dijkstra.add(source, 0);
+            int doneCount = 0;
+            for (int u = dijkstra.getNext(); u >= 0; u = dijkstra.getNext()) {
+                done[doneCount++] = u;
+                if (u == sink) break;
+                long du = dijkstra.getDistance(u) + potential[u];
+                for (int j = start[u]; j < start[u + 1]; j++) {
+                    int a = arcs[j], v = head[a];
+                    if (residual[a] > 0 && !dijkstra.isDone(v)) {
+                        long dv = du + cost[a] - potential[v];
+                        if (dv < dijkstra.getDistance(v)) {
+                            parent[v] = a;
+                            dijkstra.add(v, dv);
+                        }
+                    }
+                }
+            }
+            if (!dijkstra.isDone(sink)) {
+                break;
+            }
+            // Only the nodes done before the sink get exact distances; this keeps all reduced costs non-negative
+            long dSink = dijkstra.getDistance(sink);
+            for (int i = 0; i < doneCount; i++) {
+                int v = done[i];
+                potential[v] += dijkstra.getDistance(v) - dSink;
+            }
+            augment(source, sink, parent);
+        }
+        return result(source);
+    }
+
+    /**
+     * Finds a max flow with Dinic's algorithm and then cancels its cost with Goldberg-Tarjan cost scaling:
+     * the costs are multiplied by n + 1, and each phase turns an eps-optimal flow into an eps/ALPHA-optimal
+     * flow by saturating all arcs with negative reduced cost and pushing the resulting excesses back along
+     * admissible arcs, until eps is 1 and the flow is optimal. Negative cost cycles are allowed.
+     * The costs times n + 1 must fit in a long.
+     */
+    public long[] maxFlowMinCostCostScaling(int source, int sink) {
+        prepare(source, sink);
+        if (source != sink) {
+            dinic(source, sink);
+        }
+
+        int n = noNodes, m = 2 * noEdges;
+        long[] scaled = new long[m];
+        long eps = 0;
+        for (int a = 0; a < m; a++) {
+            scaled[a] = cost[a] * (n + 1);
+            eps = Math.max(eps, Math.abs(scaled[a]));
+        }
+        long[] price = new long[n], excess = new long[n];
+        int[] current = new int[n], queue = new int[n];
+        boolean[] active = new boolean[n];
+        final int ALPHA = 16;
+        while (eps > 1) {
+            eps = Math.max(1, eps / ALPHA);
+
+            // Saturate the arcs with negative reduced cost, making the flow 0-optimal but unbalanced
+            for (int a = 0; a < m; a++) {
+                if (residual[a] > 0 && scaled[a] + price[head[a ^ 1]] - price[head[a]] < 0) {
+                    long f = residual[a];
+                    excess[head[a ^ 1]] -= f;
+                    excess[head[a]] += f;
+                    push(a, f);
+                }
+            }
+
+            int qHead = 0, qSize = 0;
+            for (int v = 0; v < n; v++) {
+                current[v] = start[v];
+                if (excess[v] > 0) {
+                    active[v] = true;
+                    queue[(qHead + qSize++) % n] = v;
                 }
-                incrementFlow(source, sink, p);
             }
-            else {
-                throw new RuntimeException(); // Shouldn't happen
+            while (qSize > 0) {
+                int u = queue[qHead];
+                qHead = (qHead + 1) % n;
+                qSize--;
+                active[u] = false;
+                // Discharge u, relabelling when no admissible arc is left
+                while (excess[u] > 0) {
+                    if (current[u] == start[u + 1]) {
+                        long best = Long.MIN_VALUE;
+                        for (int j = start[u]; j < start[u + 1]; j++) {
+                            int a = arcs[j];
+                            if (residual[a] > 0) {
+                                best = Math.max(best, price[head[a]] - scaled[a]);
+                            }
+                        }
+                        price[u] = best - eps;
+                        current[u] = start[u];
+                    }
+                    int a = arcs[current[u]], v = head[a];
+                    if (residual[a] > 0 && scaled[a] + price[u] - price[v] < 0) {
+                        long f = Math.min(excess[u], residual[a]);
+                        push(a, f);
+                        excess[u] -= f;
+                        excess[v] += f;
+                        if (excess[v] > 0 && !active[v]) {
+                            active[v] = true;
+                            queue[(qHead + qSize++) % n] = v;
+                        }
+                    } else {
+                        current[u]++;
+                    }
+                }
             }
         }
+        return result(source);
+    }
 
-        long flow = 0, cost = 0;
-        for (Edge edge : edges) {
-            if (edge.source == source) {
-                flow += edge.flow;
+    private void dinic(int source, int sink) {
+        int n = noNodes;
+        int[] level = new int[n], queue = new int[n], current = new int[n], path = new int[n];
+        while (true) {
+            Arrays.fill(level, -1);
+            level[source] = 0;
+            int qh = 0, qt = 0;
+            queue[qt++] = source;
+            while (qh < qt) {
+                int u = queue[qh++];
+                for (int j = start[u]; j < start[u + 1]; j++) {
+                    int a = arcs[j], v = head[a];
+                    if (residual[a] > 0 && level[v] < 0) {
+                        level[v] = level[u] + 1;
+                        queue[qt++] = v;
+                    }
+                }
             }
+            if (level[sink] < 0) return;
+            System.arraycopy(start, 0, current, 0, n);
 
-            if (edge.capacity > 0) {
-                cost += (long) edge.cost * edge.flow;
+            // Find a blocking flow with an iterative DFS; path holds the arcs from the source to u
+            int depth = 0, u = source;
+            while (true) {
+                if (u == sink) {
+                    long f = Long.MAX_VALUE;
+                    for (int i = 0; i < depth; i++) {
+                        f = Math.min(f, residual[path[i]]);
+                    }
+                    for (int i = 0; i < depth; i++) {
+                        push(path[i], f);
+                    }
+                    depth = 0;
+                    u = source;
+                    continue;
+                }
+                boolean advanced = false;
+                for (; current[u] < start[u + 1]; current[u]++) {
+                    int a = arcs[current[u]], v = head[a];
+                    if (residual[a] > 0 && level[v] == level[u] + 1) {
+                        path[depth++] = a;
+                        u = v;
+                        advanced = true;
+                        break;
+                    }
+                }
+                if (!advanced) {
+                    if (u == source) break;
+                    // u can't reach the sink in this phase
+                    level[u] = -1;
+                    u = head[path[--depth] ^ 1];
+                    current[u]++;
+                }
             }
         }
-        return new long[] { flow, cost };
     }
 }
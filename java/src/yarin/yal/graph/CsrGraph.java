@@ -0,0 +1,357 @@
+package yarin.yal.graph;
+
+import java.util.Arrays;
+
+/**
+ * Immutable graph stored in compressed sparse row (CSR) form.
+ *
+ * <p>
+ * The outgoing arcs of node v are the indexes offsets[v] .. offsets[v+1]-1 into the targets array.
+ * An undirected edge is stored as two arcs, one in each direction, which share the same edge id.
+ * Weights are optional and stored either as int or long per arc. Unweighted arcs have weight 1.
+ * </p>
+ * <p>
+ * The arrays returned by the getters are the internal ones and must not be modified.
+ * </p>
+ */
+public class CsrGraph {
+    private final int n, edgeCount;
+    private final boolean directed;
+    private final int[] offsets;     // size n+1
+    private final int[] targets;     // arc -> destination node
+    private final int[] edgeIds;     // arc -> index of the edge it was created from
+    private final int[] intWeights;  // null if not int weighted
+    private final long[] longWeights; // null if not long weighted
+
+    private CsrGraph(int n, int edgeCount, boolean directed, int[] offsets, int[] targets, int[] edgeIds,
+                     int[] intWeights, long[] longWeights) {
+        this.n = n;
+        this.edgeCount = edgeCount;
+        this.directed = directed;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.edgeIds = edgeIds;
+        this.intWeights = intWeights;
+        this.longWeights = longWeights;
+    }
+
+    public int getNodeCount() {
+        return n;
+    }
+
+    /**
+     * @return the number of edges; an undirected edge is counted once
+     */
+    public int getEdgeCount() {
+        return edgeCount;
+    }
+
+    /**
+     * @return the number of arcs; an undirected edge is counted twice
+     */
+    public int getArcCount() {
+        return targets.length;
+    }
+
+    public boolean isDirected() {
+        return directed;
+    }
+
+    public int[] getOffsets() {
+        return offsets;
+    }
+
+    public int[] getTargets() {
+        return targets;
+    }
+
+    public int[] getEdgeIds() {
+        return edgeIds;
+    }
+
+    public int begin(int node) {
+        return offsets[node];
+    }
+
+    public int end(int node) {
+        return offsets[node + 1];
+    }
+
+    public int getDegree(int node) {
+        return offsets[node + 1] - offsets[node];
+    }
+
+    public int getTarget(int arc) {
+        return targets[arc];
+    }
+
+    public int getEdgeId(int arc) {
+        return edgeIds[arc];
+    }
+
+    public boolean isWeighted() {
+        return intWeights != null || longWeights != null;
+    }
+
+    public boolean hasLongWeights() {
+        return longWeights != null;
+    }
+
+    /**
+     * @throws IllegalStateException if the graph has long weights and the weight doesn't fit in an int
+     */
+    public int getWeight(int arc) {
+        if (intWeights != null) return intWeights[arc];
+        if (longWeights != null) {
+            long w = longWeights[arc];
+            if (w != (int) w) {
+                throw new IllegalStateException("Weight " + w + " of arc " + arc + " doesn't fit in an int");
+            }
+            return (int) w;
+        }
+        return 1;
+    }
+
+    public long getLongWeight(int arc) {
+        if (longWeights != null) return longWeights[arc];
+        if (intWeights != null) return intWeights[arc];
+        return 1;
+    }
+
+    /**
+     * @return the int weights per arc, or null if the graph doesn't have int weights
+     */
+    public int[] getIntWeights() {
+        return intWeights;
+    }
+
+    /**
+     * @return the long weights per arc, or null if the graph doesn't have long weights
+     */
+    public long[] getLongWeights() {
+        return longWeights;
+    }
+
+    /**
+     * Creates the graph with all arcs reversed. Edge ids and weights follow the arcs.
+     * For an undirected graph, the graph itself is returned.
+     */
+    public CsrGraph transpose() {
+        if (!directed) {
+            return this;
+        }
+        int m = targets.length;
+        int[] newOffsets = new int[n + 1];
+        for (int i = 0; i < m; i++) {
+            newOffsets[targets[i] + 1]++;
+        }
+        for (int i = 0; i < n; i++) {
+            newOffsets[i + 1] += newOffsets[i];
+        }
+        int[] pos = Arrays.copyOf(newOffsets, n);
+        int[] newTargets = new int[m], newEdgeIds = new int[m];
+        int[] newIntWeights = intWeights == null ? null : new int[m];
+        long[] newLongWeights = longWeights == null ? null : new long[m];
+        for (int v = 0; v < n; v++) {
+            for (int i = offsets[v]; i < offsets[v + 1]; i++) {
+                int p = pos[targets[i]]++;
+                newTargets[p] = v;
+                newEdgeIds[p] = edgeIds[i];
+                if (newIntWeights != null) newIntWeights[p] = intWeights[i];
+                if (newLongWeights != null) newLongWeights[p] = longWeights[i];
+            }
+        }
+        return new CsrGraph(n, edgeCount, true, newOffsets, newTargets, newEdgeIds, newIntWeights, newLongWeights);
+    }
+
+    /**
+     * Creates a CSR graph from an undirected graph. The edge ids are the order of the edges in {@link Graph#getEdges()}
+     * and the adjacency order of each node is preserved.
+     */
+    public static CsrGraph fromGraph(Graph graph) {
+        Builder builder = new Builder(graph.getNodeCount(), false);
+        for (Graph.Edge edge : graph.getEdges()) {
+            builder.addEdge(edge.getA().getIndex(), edge.getB().getIndex());
+        }
+        return builder.build();
+    }
+
+    /**
+     * Creates a CSR graph from a directed graph. The edge ids are the order of the edges in
+     * {@link DirectedGraph#getEdges()} and the adjacency order of each node is preserved.
+     * If any edge is a {@link DirectedGraph.WeightedEdge}, the graph will have int weights.
+     */
+    public static CsrGraph fromDirectedGraph(DirectedGraph graph) {
+        Builder builder = new Builder(graph.getNodeCount(), true);
+        for (DirectedGraph.Edge edge : graph.getEdges()) {
+            if (edge instanceof DirectedGraph.WeightedEdge) {
+                builder.addEdge(edge.getSrc().getIndex(), edge.getDest().getIndex(),
+                        ((DirectedGraph.WeightedEdge) edge).getWeight());
+            } else {
+                builder.addEdge(edge.getSrc().getIndex(), edge.getDest().getIndex());
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Creates a graph from an edge list. Edge i goes from from[i] to to[i].
+     * @param weights the weight of each edge, or null if unweighted
+     */
+    public static CsrGraph fromEdges(int n, int[] from, int[] to, int[] weights, boolean directed) {
+        if (from.length != to.length || (weights != null && weights.length != from.length)) {
+            throw new IllegalArgumentException();
+        }
+        return create(n, directed, false, from.length, from, to, weights, null);
+    }
+
+    /**
+     * Creates a graph from an edge list with long weights. Edge i goes from from[i] to to[i].
+     */
+    public static CsrGraph fromEdges(int n, int[] from, int[] to, long[] weights, boolean directed) {
+        if (from.length != to.length || weights.length != from.length) {
+            throw new IllegalArgumentException();
+        }
+        return create(n, directed, false, from.length, from, to, null, weights);
+    }
+
+    private static CsrGraph create(int n, boolean directed, boolean sorted, int m, int[] from, int[] to,
+                                   int[] intWeights, long[] longWeights) {
+        int arcs = directed ? m : 2 * m;
+        int[] offsets = new int[n + 1];
+        for (int i = 0; i < m; i++) {
+            if (from[i] < 0 || from[i] >= n || to[i] < 0 || to[i] >= n) {
+                throw new IllegalArgumentException("Edge " + i + " has an endpoint outside the graph");
+            }
+            offsets[from[i] + 1]++;
+            if (!directed) offsets[to[i] + 1]++;
+        }
+        for (int i = 0; i < n; i++) {
+            offsets[i + 1] += offsets[i];
+        }
+
+        // Arcs in the order they should be distributed; edge e gives arc 2e (and 2e+1 in the opposite direction)
+        int[] order = null;
+        if (sorted) {
+            // Counting sort on the target; the stable distribution on source below then gives sorted adjacency lists
+            int[] count = new int[n + 1];
+            for (int i = 0; i < m; i++) {
+                count[to[i] + 1]++;
+                if (!directed) count[from[i] + 1]++;
+            }
+            for (int i = 0; i < n; i++) {
+                count[i + 1] += count[i];
+            }
+            order = new int[arcs];
+            for (int i = 0; i < m; i++) {
+                order[count[to[i]]++] = directed ? i : 2 * i;
+                if (!directed) order[count[from[i]]++] = 2 * i + 1;
+            }
+        }
+
+        int[] pos = Arrays.copyOf(offsets, n);
+        int[] targets = new int[arcs], edgeIds = new int[arcs];
+        int[] arcIntWeights = intWeights == null ? null : new int[arcs];
+        long[] arcLongWeights = longWeights == null ? null : new long[arcs];
+        for (int k = 0; k < arcs; k++) {
+            int a = order == null ? k : order[k];
+            int e = directed ? a : a >> 1;
+            boolean reversed = !directed && (a & 1) == 1;
+            int src = reversed ? to[e] : from[e], dest = reversed ? from[e] : to[e];
+            int p = pos[src]++;
+            targets[p] = dest;
+            edgeIds[p] = e;
+            if (arcIntWeights != null) arcIntWeights[p] = intWeights[e];
+            if (arcLongWeights != null) arcLongWeights[p] = longWeights[e];
+        }
+        return new CsrGraph(n, m, directed, offsets, targets, edgeIds, arcIntWeights, arcLongWeights);
+    }
+
+    /**
+     * Collects edges and creates a {@link CsrGraph}.
+     * Unless {@link #sortAdjacency()} is called, the adjacency list of each node will be in insertion order.
+     */
+    public static class Builder {
+        private final int n;
+        private final boolean directed;
+        private boolean sorted;
+        private int m;
+        private int[] from = new int[16], to = new int[16];
+        private long[] weights;
+        private boolean longWeights;
+
+        public Builder(int n, boolean directed) {
+            this.n = n;
+            this.directed = directed;
+        }
+
+        /**
+         * The adjacency list of each node will be sorted by target node.
+         */
+        public Builder sortAdjacency() {
+            sorted = true;
+            return this;
+        }
+
+        public Builder addEdge(int a, int b) {
+            ensureCapacity();
+            if (weights != null) weights[m] = 1;
+            from[m] = a;
+            to[m++] = b;
+            return this;
+        }
+
+        public Builder addEdge(int a, int b, int weight) {
+            ensureWeights();
+            weights[m] = weight;
+            from[m] = a;
+            to[m++] = b;
+            return this;
+        }
+
+        public Builder addEdge(int a, int b, long weight) {
+            ensureWeights();
+            longWeights = true;
+            weights[m] = weight;
+            from[m] = a;
+            to[m++] = b;
+            return this;
+        }
+
+        public int getEdgeCount() {
+            return m;
+        }
+
+        private void ensureCapacity() {
+            if (m == from.length) {
+                from = Arrays.copyOf(from, m * 2);
+                to = Arrays.copyOf(to, m * 2);
+                if (weights != null) weights = Arrays.copyOf(weights, m * 2);
+            }
+        }
+
+        private void ensureWeights() {
+            ensureCapacity();
+            if (weights == null) {
+                weights = new long[from.length];
+                Arrays.fill(weights, 0, m, 1);
+            }
+        }
+
+        public CsrGraph build() {
+            int[] intWeights = null;
+            long[] arcLongWeights = null;
+            if (weights != null) {
+                if (longWeights) {
+                    arcLongWeights = Arrays.copyOf(weights, m);
+                } else {
+                    intWeights = new int[m];
+                    for (int i = 0; i < m; i++) {
+                        intWeights[i] = (int) weights[i];
+                    }
+                }
+            }
+            return create(n, directed, sorted, m, from, to, intWeights, arcLongWeights);
+        }
+    }
+}
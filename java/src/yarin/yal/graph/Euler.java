@@ -1,6 +1,7 @@
 package yarin.yal.graph;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 
@@ -16,6 +17,8 @@ public class Euler {
 
 	public Euler(int n) {
 		this.n = n;
+		this.degree = new int[n];
+		this.edgeCount = new int[n][n];
 	}
 
 	public void addEdge(int u, int v) {
@@ -66,4 +69,70 @@ public class Euler {
 		}
 		result.add(cur);
 	}
+
+	/**
+	 * Finds an euler path or cycle in an undirected CSR graph without using recursion.
+	 * The path will be the lexicographically first if the adjacency lists are sorted,
+	 * see {@link CsrGraph.Builder#sortAdjacency()}.
+	 *
+	 * @return the nodes in the path, or null if no euler path exists
+	 */
+	public static int[] findCycle(CsrGraph g) {
+		if (g.isDirected()) {
+			throw new IllegalArgumentException("The graph must be undirected");
+		}
+		int n = g.getNodeCount(), m = g.getEdgeCount();
+		int[] offsets = g.getOffsets(), targets = g.getTargets(), edgeIds = g.getEdgeIds();
+		int noOdd = 0, firstOdd = -1, firstNonZero = -1;
+		for (int i = 0; i < n; i++) {
+			int degree = offsets[i + 1] - offsets[i];
+			if (degree > 0 && firstNonZero < 0) {
+				firstNonZero = i;
+			}
+			if (degree % 2 == 1) {
+				noOdd++;
+				if (firstOdd < 0) {
+					firstOdd = i;
+				}
+			}
+		}
+		if (noOdd > 2) {
+			return null;
+		}
+		if (firstNonZero < 0) {
+			return new int[0];
+		}
+
+		boolean[] used = new boolean[m];
+		int[] arcPos = Arrays.copyOf(offsets, n);
+		int[] stack = new int[m + 1], result = new int[m + 1];
+		int sp = 0, count = 0;
+		stack[sp++] = noOdd > 0 ? firstOdd : firstNonZero;
+		while (sp > 0) {
+			int cur = stack[sp - 1];
+			int end = offsets[cur + 1];
+			while (arcPos[cur] < end && used[edgeIds[arcPos[cur]]]) {
+				arcPos[cur]++;
+			}
+			if (arcPos[cur] < end) {
+				int arc = arcPos[cur]++;
+				used[edgeIds[arc]] = true;
+				stack[sp++] = targets[arc];
+			} else {
+				result[count++] = cur;
+				sp--;
+			}
+		}
+		if (count != m + 1) {
+			// The graph is not connected
+			return null;
+		}
+
+		for (int i = 0, j = count - 1; i < j; i++, j--) {
+			int t = result[i];
+			result[i] = result[j];
+			result[j] = t;
+		}
+		return result;
+	}
 }
@@ -0,0 +1,154 @@
+package yarin.yal.graph;
+
+import yarin.yal.LazySegmentTreeLong;
+
+/**
+ * Heavy-light decomposition of a tree given by its parent array, with a long value on each node.
+ * Any path is split into O(log n) contiguous ranges of a {@link LazySegmentTreeLong}, so path sum, max
+ * and add take O(log^2 n) time. Subtrees are also contiguous ranges and take O(log n) time.
+ */
+public class HeavyLightDecomposition {
+    private final int[] parent, depth, head, pos, size;
+    private final LazySegmentTreeLong tree;
+
+    /**
+     * @param parent the parent of each node, and -1 for the root
+     * @param values the initial value of each node
+     */
+    public HeavyLightDecomposition(int[] parent, long[] values) {
+        int n = parent.length;
+        if (values.length != n) {
+            throw new IllegalArgumentException("parent and values must have the same length");
+        }
+        int[][] csr = LowestCommonAncestor.children(parent);
+        int[] offsets = csr[0], children = csr[1], bfsOrder = csr[3];
+        this.parent = parent.clone();
+        depth = new int[n];
+        head = new int[n];
+        pos = new int[n];
+        size = new int[n];
+
+        int[] heavy = new int[n];
+        for (int i = n - 1; i >= 0; i--) {
+            int v = bfsOrder[i];
+            size[v] = 1;
+            heavy[v] = -1;
+            for (int j = offsets[v]; j < offsets[v + 1]; j++) {
+                int c = children[j];
+                size[v] += size[c];
+                if (heavy[v] < 0 || size[c] > size[heavy[v]]) {
+                    heavy[v] = c;
+                }
+            }
+        }
+
+        // Preorder with the heavy child first, so that heavy paths and subtrees are contiguous
+        int[] stack = new int[n];
+        int sp = 0, count = 0;
+        int root = csr[2][0];
+        stack[sp++] = root;
+        head[root] = root;
+        long[] data = new long[n];
+        while (sp > 0) {
+            int v = stack[--sp];
+            pos[v] = count;
+            data[count++] = values[v];
+            for (int j = offsets[v]; j < offsets[v + 1]; j++) {
+                int c = children[j];
+                depth[c] = depth[v] + 1;
+                if (c != heavy[v]) {
+                    head[c] = c;
+                    stack[sp++] = c;
+                }
+            }
+            if (heavy[v] >= 0) {
+                head[heavy[v]] = head[v];
+                stack[sp++] = heavy[v];
+            }
+        }
+        tree = new LazySegmentTreeLong(data);
+    }
+
+    public int lca(int u, int v) {
+        while (head[u] != head[v]) {
+            if (depth[head[u]] < depth[head[v]]) {
+                v = parent[head[v]];
+            } else {
+                u = parent[head[u]];
+            }
+        }
+        return depth[u] < depth[v] ? u : v;
+    }
+
+    public long get(int v) {
+        return tree.get(pos[v]);
+    }
+
+    public void set(int v, long value) {
+        tree.set(pos[v], value);
+    }
+
+    /**
+     * @return the sum of the values of the nodes on the path between u and v, both included
+     */
+    public long pathSum(int u, int v) {
+        long res = 0;
+        while (head[u] != head[v]) {
+            if (depth[head[u]] < depth[head[v]]) {
+                int t = u;
+                u = v;
+                v = t;
+            }
+            res += tree.sum(pos[head[u]], pos[u] + 1);
+            u = parent[head[u]];
+        }
+        return res + tree.sum(Math.min(pos[u], pos[v]), Math.max(pos[u], pos[v]) + 1);
+    }
+
+    /**
+     * @return the maximum value of the nodes on the path between u and v, both included
+     */
+    public long pathMax(int u, int v) {
+        long res = Long.MIN_VALUE;
+        while (head[u] != head[v]) {
+            if (depth[head[u]] < depth[head[v]]) {
+                int t = u;
+                u = v;
+                v = t;
+            }
+            res = Math.max(res, tree.max(pos[head[u]], pos[u] + 1));
+            u = parent[head[u]];
+        }
+        return Math.max(res, tree.max(Math.min(pos[u], pos[v]), Math.max(pos[u], pos[v]) + 1));
+    }
+
+    /**
+     * Adds delta to the values of the nodes on the path between u and v, both included
+     */
+    public void pathAdd(int u, int v, long delta) {
+        while (head[u] != head[v]) {
+            if (depth[head[u]] < depth[head[v]]) {
+                int t = u;
+                u = v;
+                v = t;
+            }
+            tree.add(pos[head[u]], pos[u] + 1, delta);
+            u = parent[head[u]];
+        }
+        tree.add(Math.min(pos[u], pos[v]), Math.max(pos[u], pos[v]) + 1, delta);
+    }
+
+    /**
+     * @return the sum of the values in the subtree rooted at v
+     */
+    public long subtreeSum(int v) {
+        return tree.sum(pos[v], pos[v] + size[v]);
+    }
+
+    /**
+     * Adds delta to the values of all nodes in the subtree rooted at v
+     */
+    public void subtreeAdd(int v, long delta) {
+        tree.add(pos[v], pos[v] + size[v], delta);
+    }
+}
@@ -0,0 +1,231 @@
+package yarin.yal.graph;
+
+import java.util.Arrays;
+
+/**
+ * Maximum bipartite matching with the Hopcroft-Karp algorithm in O(E sqrt(V)).
+ *
+ * The edges are stored in CSR form over the left nodes. Each phase finds the shortest augmenting path
+ * length with a BFS from the free left nodes, and then augments along a maximal set of disjoint shortest
+ * paths with an iterative DFS, so that millions of nodes don't overflow the stack.
+ * A matching can be given to start from, e.g. the result for a slightly different graph.
+ */
+public class HopcroftKarp {
+    private static final int INF = Integer.MAX_VALUE;
+
+    private final int leftCount, rightCount;
+    private final int[] offsets, adj;
+    private final int[] matchLeft, matchRight;
+    private final int[] dist, it, stack, queue;
+
+    /**
+     * @param left the left node of each edge, in [0, leftCount)
+     * @param right the right node of each edge, in [0, rightCount)
+     */
+    public HopcroftKarp(int leftCount, int rightCount, int[] left, int[] right) {
+        if (left.length != right.length) {
+            throw new IllegalArgumentException("left and right must have the same length");
+        }
+        this.leftCount = leftCount;
+        this.rightCount = rightCount;
+        offsets = new int[leftCount + 1];
+        for (int i = 0; i < left.length; i++) {
+            if (left[i] < 0 || left[i] >= leftCount || right[i] < 0 || right[i] >= rightCount) {
+                throw new IllegalArgumentException("Invalid edge " + left[i] + " - " + right[i]);
+            }
+            offsets[left[i] + 1]++;
+        }
+        for (int i = 0; i < leftCount; i++) {
+            offsets[i + 1] += offsets[i];
+        }
+        adj = new int[left.length];
+        int[] fill = Arrays.copyOf(offsets, leftCount);
+        for (int i = 0; i < left.length; i++) {
+            adj[fill[left[i]]++] = right[i];
+        }
+        matchLeft = new int[leftCount];
+        matchRight = new int[rightCount];
+        dist = new int[leftCount];
+        it = new int[leftCount];
+        stack = new int[leftCount];
+        queue = new int[leftCount];
+    }
+
+    public int getLeftCount() {
+        return leftCount;
+    }
+
+    public int getRightCount() {
+        return rightCount;
+    }
+
+    /**
+     * Finds a maximum matching, starting with a greedy matching that visits the left nodes by increasing
+     * degree and picks the free neighbor with the fewest remaining unvisited neighbors, which leaves
+     * far fewer free nodes for the phases than taking the first free neighbor.
+     * @return the size of the matching
+     */
+    public int findMaximumMatching() {
+        Arrays.fill(matchLeft, -1);
+        Arrays.fill(matchRight, -1);
+        int[] degree = new int[rightCount];
+        for (int v : adj) {
+            degree[v]++;
+        }
+        int maxDegree = 0;
+        for (int u = 0; u < leftCount; u++) {
+            maxDegree = Math.max(maxDegree, offsets[u + 1] - offsets[u]);
+        }
+        int[] order = new int[leftCount], count = new int[maxDegree + 2];
+        for (int u = 0; u < leftCount; u++) {
+            count[offsets[u + 1] - offsets[u] + 1]++;
+        }
+        for (int d = 0; d <= maxDegree; d++) {
+            count[d + 1] += count[d];
+        }
+        for (int u = 0; u < leftCount; u++) {
+            order[count[offsets[u + 1] - offsets[u]]++] = u;
+        }
+        for (int u : order) {
+            int best = -1;
+            for (int j = offsets[u]; j < offsets[u + 1]; j++) {
+                int v = adj[j];
+                degree[v]--;
+                if (matchRight[v] < 0 && (best < 0 || degree[v] < degree[best])) {
+                    best = v;
+                }
+            }
+            if (best >= 0) {
+                matchLeft[u] = best;
+                matchRight[best] = u;
+            }
+        }
+        return augment();
+    }
+
+    /**
+     * Finds a maximum matching, starting with the given matching. Pairs that aren't edges of the graph are
+     * dropped, so the result for a slightly different graph can be given.
+     * @param initial the right node matched to each left node, or -1
+     * @return the size of the matching
+     */
+    public int findMaximumMatching(int[] initial) {
+        if (initial.length != leftCount) {
+            throw new IllegalArgumentException("The initial matching must have one entry per left node");
+        }
+        Arrays.fill(matchRight, -1);
+        for (int u = 0; u < leftCount; u++) {
+            int v = initial[u];
+            if (v < -1 || v >= rightCount || v >= 0 && matchRight[v] >= 0) {
+                throw new IllegalArgumentException("Invalid initial matching at left node " + u);
+            }
+            if (v >= 0 && !hasEdge(u, v)) {
+                v = -1;
+            }
+            matchLeft[u] = v;
+            if (v >= 0) matchRight[v] = u;
+        }
+        return augment();
+    }
+
+    private boolean hasEdge(int u, int v) {
+        for (int j = offsets[u]; j < offsets[u + 1]; j++) {
+            if (adj[j] == v) return true;
+        }
+        return false;
+    }
+
+    /**
+     * @return the right node matched to each left node, or -1
+     */
+    public int[] getMatchLeft() {
+        return matchLeft.clone();
+    }
+
+    /**
+     * @return the left node matched to each right node, or -1
+     */
+    public int[] getMatchRight() {
+        return matchRight.clone();
+    }
+
+    private int augment() {
+        while (bfs()) {
+            System.arraycopy(offsets, 0, it, 0, leftCount);
+            for (int u = 0; u < leftCount; u++) {
+                if (matchLeft[u] < 0) {
+                    dfs(u);
+                }
+            }
+        }
+        int size = 0;
+        for (int u = 0; u < leftCount; u++) {
+            if (matchLeft[u] >= 0) size++;
+        }
+        return size;
+    }
+
+    /**
+     * Computes the layers of the left nodes from the free left nodes, up to the first layer with an edge to a
+     * free right node.
+     * @return true if there is an augmenting path
+     */
+    private boolean bfs() {
+        int head = 0, tail = 0;
+        for (int u = 0; u < leftCount; u++) {
+            if (matchLeft[u] < 0) {
+                dist[u] = 0;
+                queue[tail++] = u;
+            } else {
+                dist[u] = INF;
+            }
+        }
+        int limit = INF;
+        while (head < tail) {
+            int u = queue[head++];
+            if (dist[u] >= limit) break;
+            for (int j = offsets[u]; j < offsets[u + 1]; j++) {
+                int w = matchRight[adj[j]];
+                if (w < 0) {
+                    limit = dist[u];
+                } else if (dist[w] == INF) {
+                    dist[w] = dist[u] + 1;
+                    queue[tail++] = w;
+                }
+            }
+        }
+        return limit != INF;
+    }
+
+    /**
+     * Searches for a shortest augmenting path from the free left node root along the layers and flips it.
+     * Nodes that lead nowhere are removed from the layers.
+     */
+    private void dfs(int root) {
+        int sp = 0;
+        stack[sp++] = root;
+        while (sp > 0) {
+            int u = stack[sp - 1];
+            if (it[u] == offsets[u + 1]) {
+                dist[u] = INF;
+                if (--sp > 0) it[stack[sp - 1]]++;
+                continue;
+            }
+            int w = matchRight[adj[it[u]]];
+            if (w < 0) {
+                // stack[i + 1] is the node matched to the right node at it[stack[i]]
+                for (int i = sp - 1; i >= 0; i--) {
+                    int x = stack[i], y = adj[it[x]];
+                    matchLeft[x] = y;
+                    matchRight[y] = x;
+                }
+                return;
+            }
+            if (dist[w] == dist[u] + 1) {
+                stack[sp++] = w;
+            } else {
+                it[u]++;
+            }
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package yarin.yal.graph;
+
+import java.util.Arrays;
+
+/**
+ * Lowest common ancestor queries in O(1) on a tree given by its parent array, after O(n log n) preprocessing.
+ *
+ * Uses a sparse table over the DFS preorder (the Euler tour without the returns to the parents):
+ * for nodes u != v with u visited before v, the LCA is the parent of the shallowest node visited in (u, v],
+ * which is also the parent with the smallest preorder number. The table therefore only needs to store
+ * preorder numbers of parents and take their minimum, in n log n ints.
+ */
+public class LowestCommonAncestor {
+    private final int[] order; // Nodes in preorder
+    private final int[] preorder; // Preorder number of each node
+    private final int[] depth;
+    private final int[][] table; // table[k][i] = min preorder of the parents of the nodes at [i, i + 2^k)
+
+    /**
+     * @param parent the parent of each node, and -1 for the root
+     */
+    public LowestCommonAncestor(int[] parent) {
+        int n = parent.length;
+        int[][] csr = children(parent);
+        int[] offsets = csr[0], children = csr[1];
+        int root = csr[2][0];
+
+        order = new int[n];
+        preorder = new int[n];
+        depth = new int[n];
+        int[] stack = new int[n];
+        int sp = 0, count = 0;
+        stack[sp++] = root;
+        while (sp > 0) {
+            int v = stack[--sp];
+            preorder[v] = count;
+            order[count++] = v;
+            for (int j = offsets[v + 1] - 1; j >= offsets[v]; j--) {
+                int c = children[j];
+                depth[c] = depth[v] + 1;
+                stack[sp++] = c;
+            }
+        }
+
+        int levels = 32 - Integer.numberOfLeadingZeros(Math.max(1, n));
+        table = new int[levels][];
+        table[0] = new int[n];
+        for (int i = 1; i < n; i++) {
+            table[0][i] = preorder[parent[order[i]]];
+        }
+        for (int k = 1; k < levels; k++) {
+            int half = 1 << (k - 1), len = n - (1 << k) + 1;
+            int[] prev = table[k - 1], cur = table[k] = new int[Math.max(0, len)];
+            for (int i = 0; i < len; i++) {
+                cur[i] = Math.min(prev[i], prev[i + half]);
+            }
+        }
+    }
+
+    /**
+     * Builds the children of each node in CSR form, verifying that the parent array is a tree.
+     * @return the offsets, the children, the root in an array of length 1, and the nodes in BFS order
+     */
+    static int[][] children(int[] parent) {
+        int n = parent.length, root = -1;
+        int[] offsets = new int[n + 1];
+        for (int v = 0; v < n; v++) {
+            if (parent[v] < 0) {
+                if (root >= 0) {
+                    throw new IllegalArgumentException("The tree has more than one root");
+                }
+                root = v;
+            } else if (parent[v] >= n) {
+                throw new IllegalArgumentException("Invalid parent " + parent[v]);
+            } else {
+                offsets[parent[v] + 1]++;
+            }
+        }
+        if (root < 0) {
+            throw new IllegalArgumentException("The tree has no root");
+        }
+        for (int v = 0; v < n; v++) {
+            offsets[v + 1] += offsets[v];
+        }
+        int[] children = new int[n - 1], fill = Arrays.copyOf(offsets, n);
+        for (int v = 0; v < n; v++) {
+            if (parent[v] >= 0) {
+                children[fill[parent[v]]++] = v;
+            }
+        }
+
+        // With n - 1 edges, all nodes are reachable from the root exactly when there is no cycle
+        int[] queue = new int[n];
+        int head = 0, tail = 0;
+        queue[tail++] = root;
+        while (head < tail) {
+            int v = queue[head++];
+            for (int j = offsets[v]; j < offsets[v + 1]; j++) {
+                queue[tail++] = children[j];
+            }
+        }
+        if (tail != n) {
+            throw new IllegalArgumentException("The parent array contains a cycle");
+        }
+        return new int[][]{offsets, children, {root}, queue};
+    }
+
+    public int size() {
+        return order.length;
+    }
+
+    public int getRoot() {
+        return order[0];
+    }
+
+    public int getDepth(int v) {
+        return depth[v];
+    }
+
+    public int lca(int u, int v) {
+        if (u == v) return u;
+        int a = preorder[u], b = preorder[v];
+        if (a > b) {
+            int t = a;
+            a = b;
+            b = t;
+        }
+        a++;
+        int k = 31 - Integer.numberOfLeadingZeros(b - a + 1);
+        return order[Math.min(table[k][a], table[k][b - (1 << k) + 1])];
+    }
+
+    /**
+     * @return the number of edges on the path between u and v
+     */
+    public int distance(int u, int v) {
+        return depth[u] + depth[v] - 2 * depth[lca(u, v)];
+    }
+
+    /**
+     * @return true if u is an ancestor of v (or u == v)
+     */
+    public boolean isAncestor(int u, int v) {
+        return lca(u, v) == u;
+    }
+
+    /**
+     * Answers a batch of LCA queries offline with Tarjan's algorithm in O((n + q) alpha(n)) time and
+     * O(n + q) memory, without building the sparse table.
+     * @param parent the parent of each node, and -1 for the root
+     * @return the LCA of us[i] and vs[i] for each i
+     */
+    public static int[] lca(int[] parent, int[] us, int[] vs) {
+        if (us.length != vs.length) {
+            throw new IllegalArgumentException("us and vs must have the same length");
+        }
+        int n = parent.length, q = us.length;
+        int[][] csr = children(parent);
+        int[] offsets = csr[0], children = csr[1];
+        int root = csr[2][0];
+
+        // Each query is listed at both of its nodes
+        int[] queryOffsets = new int[n + 1];
+        for (int i = 0; i < q; i++) {
+            queryOffsets[us[i] + 1]++;
+            queryOffsets[vs[i] + 1]++;
+        }
+        for (int v = 0; v < n; v++) {
+            queryOffsets[v + 1] += queryOffsets[v];
+        }
+        int[] queries = new int[2 * q], fill = Arrays.copyOf(queryOffsets, n);
+        for (int i = 0; i < q; i++) {
+            queries[fill[us[i]]++] = i;
+            queries[fill[vs[i]]++] = i;
+        }
+
+        int[] result = new int[q];
+        int[] set = new int[n], ancestor = new int[n];
+        boolean[] done = new boolean[n];
+        int[] stack = new int[n], next = new int[n];
+        int sp = 0;
+        stack[sp++] = root;
+        set[root] = ancestor[root] = root;
+        next[root] = offsets[root];
+        while (sp > 0) {
+            int v = stack[sp - 1];
+            if (next[v] < offsets[v + 1]) {
+                int c = children[next[v]++];
+                set[c] = ancestor[c] = c;
+                next[c] = offsets[c];
+                stack[sp++] = c;
+                continue;
+            }
+            done[v] = true;
+            for (int j = queryOffsets[v]; j < queryOffsets[v + 1]; j++) {
+                int i = queries[j];
+                int w = us[i] == v ? vs[i] : us[i];
+                if (done[w]) {
+                    result[i] = ancestor[find(set, w)];
+                }
+            }
+            sp--;
+            if (sp > 0) {
+                // Merge the finished subtree into its parent, which becomes the ancestor of the set
+                int p = stack[sp - 1];
+                int a = find(set, p), b = find(set, v);
+                set[b] = a;
+                ancestor[a] = p;
+            }
+        }
+        return result;
+    }
+
+    private static int find(int[] set, int v) {
+        while (set[v] != v) {
+            set[v] = set[set[v]];
+            v = set[v];
+        }
+        return v;
+    }
+}
@@ -1,127 +1,478 @@
 package yarin.yal.graph;
 
-import java.util.LinkedList;
-import java.util.Queue;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
 
 /**
  * Calculates maximum f in a directed graph
- * using the push-relabel algorithm with FIFO ordering
+ * using the push-relabel algorithm with highest-label selection
  * http://en.wikipedia.org/wiki/Push%E2%80%93relabel_maximum_flow_algorithm
  * http://community.topcoder.com/tc?module=Static&d1=tutorials&d2=maxflowPushRelabel
+ *
+ * The graph is stored as arrays of arcs grouped by node. Labels are periodically recomputed exactly by a
+ * BFS from the sink (global relabeling), and when no node is left with some label, all nodes above it
+ * are cut off from the sink (gap heuristic). The first phase stops when all active nodes are cut off,
+ * and the second phase returns their excess to the source so that the result is a flow.
+ *
+ * {@link #maxFlowParallel(int, int, ForkJoinPool)} discharges all active nodes in parallel rounds instead.
  */
 public class PushRelabelMaxFlow {
-  private int c[][], f[][], cf[][];
-  private int n;
-  private int h[], e[], noEdges[];
-  private int edges[][];
+  private static final int ALPHA = 6, BETA = 12;
+  private static final int PARALLEL_THRESHOLD = 256;
+
+  private final int n;
+  private int m; // Number of edges
+  private int eu[] = new int[16], ev[] = new int[16], ecap[] = new int[16];
+
+  // Arcs grouped by tail node; arc a goes to head[a] and has reverse arc rev[a]
+  private int start[], head[], rev[];
+  private long cap[], res[];
+  private long e[];
+  private int h[], cur[];
+
+  // Highest-label buckets: active nodes in singly linked lists, all nodes in doubly linked lists
+  private int activeHead[], activeNext[], allHead[], allNext[], allPrev[];
+  private int maxActive, maxAll;
+  private long work;
 
   public PushRelabelMaxFlow(int nodes) {
     n = nodes;
-    c = new int[n][n];
-    f = new int[n][n];
-    cf = new int[n][n];
-    h = new int[n];
-    e = new int[n];
   }
 
   public void addEdge(int u, int v, int capacity) {
-    c[u][v] += capacity;
-    edges = null;
+    if (capacity < 0) {
+      throw new IllegalArgumentException("Negative capacity");
+    }
+    if (m == eu.length) {
+      eu = Arrays.copyOf(eu, 2 * m);
+      ev = Arrays.copyOf(ev, 2 * m);
+      ecap = Arrays.copyOf(ecap, 2 * m);
+    }
+    eu[m] = u;
+    ev[m] = v;
+    ecap[m++] = capacity;
+    start = null;
   }
 
+  /**
+   * @return the net flow from u to v, which is the negation of the net flow from v to u
+   */
   public int getFlow(int u, int v) {
-    return f[u][v];
+    long f = 0;
+    if (start != null) {
+      for (int a = start[u]; a < start[u + 1]; a++) {
+        if (head[a] == v) f += cap[a] - res[a];
+      }
+    }
+    return (int) f;
   }
 
-  private void push(int u, int v) {
-    int delta = Math.min(e[u], cf[u][v]);
-    f[u][v] += delta;
-    f[v][u] = -f[u][v];
-    e[u] -= delta;
-    e[v] += delta;
-    cf[u][v] = c[u][v] - f[u][v];
-    cf[v][u] = c[v][u] - f[v][u];
+  private void setupArcs() {
+    start = new int[n + 1];
+    for (int i = 0; i < m; i++) {
+      start[eu[i] + 1]++;
+      start[ev[i] + 1]++;
+    }
+    for (int i = 0; i < n; i++) {
+      start[i + 1] += start[i];
+    }
+    int[] pos = Arrays.copyOf(start, n);
+    head = new int[2 * m];
+    rev = new int[2 * m];
+    cap = new long[2 * m];
+    res = new long[2 * m];
+    for (int i = 0; i < m; i++) {
+      int a = pos[eu[i]]++, b = pos[ev[i]]++;
+      head[a] = ev[i];
+      head[b] = eu[i];
+      rev[a] = b;
+      rev[b] = a;
+      cap[a] = ecap[i];
+    }
+  }
+
+  private void resetFlow() {
+    if (start == null) {
+      setupArcs();
+    }
+    System.arraycopy(cap, 0, res, 0, cap.length);
+  }
+
+  /**
+   * Resets the flow and saturates the arcs out of the source.
+   */
+  private void initialize(int source) {
+    resetFlow();
+    e = new long[n];
+    h = new int[n];
+    cur = new int[n];
+    for (int a = start[source]; a < start[source + 1]; a++) {
+      long f = res[a];
+      res[a] -= f;
+      res[rev[a]] += f;
+      e[head[a]] += f;
+      e[source] -= f;
+    }
+  }
+
+  /**
+   * Sets the labels to the exact distances to the sink in the residual graph, or n if the sink can't be reached.
+   */
+  private void computeLabels(int source, int sink) {
+    Arrays.fill(h, n);
+    int[] queue = new int[n];
+    int qh = 0, qt = 0;
+    h[sink] = 0;
+    queue[qt++] = sink;
+    while (qh < qt) {
+      int w = queue[qh++];
+      for (int a = start[w]; a < start[w + 1]; a++) {
+        int x = head[a];
+        if (h[x] == n && x != source && res[rev[a]] > 0) {
+          h[x] = h[w] + 1;
+          queue[qt++] = x;
+        }
+      }
+    }
+  }
+
+  private void globalRelabel(int source, int sink) {
+    computeLabels(source, sink);
+    Arrays.fill(activeHead, -1);
+    Arrays.fill(allHead, -1);
+    maxActive = maxAll = -1;
+    for (int v = 0; v < n; v++) {
+      cur[v] = start[v];
+      if (v == source || v == sink || h[v] >= n) continue;
+      addToAll(v);
+      if (e[v] > 0) addActive(v);
+    }
+    work = 0;
+  }
+
+  private void addActive(int v) {
+    activeNext[v] = activeHead[h[v]];
+    activeHead[h[v]] = v;
+    if (h[v] > maxActive) maxActive = h[v];
+  }
+
+  private void addToAll(int v) {
+    int x = allHead[h[v]];
+    allNext[v] = x;
+    allPrev[v] = -1;
+    if (x >= 0) allPrev[x] = v;
+    allHead[h[v]] = v;
+    if (h[v] > maxAll) maxAll = h[v];
+  }
+
+  private void removeFromAll(int v) {
+    if (allPrev[v] >= 0) allNext[allPrev[v]] = allNext[v];
+    else allHead[h[v]] = allNext[v];
+    if (allNext[v] >= 0) allPrev[allNext[v]] = allPrev[v];
   }
 
   public int maxFlow(int source, int sink) {
-    if (edges == null) {
-      setupEdges();
+    if (source == sink) {
+      resetFlow();
+      return 0;
+    }
+    initialize(source);
+    activeHead = new int[n + 1];
+    activeNext = new int[n];
+    allHead = new int[n + 1];
+    allNext = new int[n];
+    allPrev = new int[n];
+    globalRelabel(source, sink);
+    long threshold = (long) ALPHA * n + m;
+    while (maxActive >= 0) {
+      int u = activeHead[maxActive];
+      if (u < 0) {
+        maxActive--;
+        continue;
+      }
+      activeHead[maxActive] = activeNext[u];
+      discharge(u, sink);
+      if (work > threshold) {
+        globalRelabel(source, sink);
+      }
     }
+    returnExcess(source, sink);
+    return (int) e[sink];
+  }
 
-    Queue<Integer> q = new LinkedList<>();
-    boolean active[] = new boolean[n];
+  private void discharge(int u, int sink) {
+    while (true) {
+      int hu = h[u];
+      for (int a = cur[u]; a < start[u + 1]; a++) {
+        if (res[a] == 0) continue;
+        int v = head[a];
+        if (h[v] == hu - 1) {
+          long f = Math.min(e[u], res[a]);
+          res[a] -= f;
+          res[rev[a]] += f;
+          if (e[v] == 0 && v != sink) addActive(v);
+          e[v] += f;
+          e[u] -= f;
+          if (e[u] == 0) {
+            cur[u] = a;
+            return;
+          }
+        }
+      }
 
-    h[source] = n;
-    for (int i = 0; i < noEdges[source]; i++) {
-      int v = edges[source][i];
-      f[source][v] = c[source][v];
-      f[v][source] = -c[source][v];
-      e[v] = c[source][v];
-      e[source] -= c[source][v];
+      // Relabel, or cut off all nodes above a gap
+      work += BETA + start[u + 1] - start[u];
+      if (allHead[hu] == u && allNext[u] < 0) {
+        for (int g = hu; g <= maxAll; g++) {
+          for (int x = allHead[g]; x >= 0; x = allNext[x]) {
+            h[x] = n;
+          }
+          allHead[g] = -1;
+          activeHead[g] = -1;
+        }
+        maxAll = hu - 1;
+        maxActive = Math.min(maxActive, hu - 1);
+        return;
+      }
+      removeFromAll(u);
+      int min = n;
+      for (int a = start[u]; a < start[u + 1]; a++) {
+        if (res[a] > 0 && h[head[a]] < min) {
+          min = h[head[a]];
+        }
+      }
+      if (min + 1 >= n) {
+        h[u] = n;
+        return;
+      }
+      h[u] = min + 1;
+      cur[u] = start[u];
+      addToAll(u);
+    }
+  }
 
-      if (v != sink) {
-        q.add(v);
+  /**
+   * Second phase: pushes the excess of the nodes cut off from the sink back to the source, using labels
+   * that are distances to the source.
+   */
+  private void returnExcess(int source, int sink) {
+    int[] d = new int[n], queue = new int[n];
+    Arrays.fill(d, 2 * n);
+    int qh = 0, qt = 0;
+    d[source] = 0;
+    queue[qt++] = source;
+    while (qh < qt) {
+      int w = queue[qh++];
+      for (int a = start[w]; a < start[w + 1]; a++) {
+        int x = head[a];
+        if (d[x] == 2 * n && x != sink && res[rev[a]] > 0) {
+          d[x] = d[w] + 1;
+          queue[qt++] = x;
+        }
+      }
+    }
+
+    boolean[] active = new boolean[n];
+    qh = 0;
+    int size = 0;
+    for (int v = 0; v < n; v++) {
+      cur[v] = start[v];
+      if (v != source && v != sink && e[v] > 0) {
         active[v] = true;
+        queue[size++] = v;
       }
     }
-    for (int i = 0; i < n; i++) {
-      for (int j = 0; j < n; j++) {
-        cf[i][j] = c[i][j] - f[i][j];
-      }
-    }
-
-    while (q.size() > 0) {
-      int u = q.peek(), min = -1;
-//      System.out.println("Discharge " + u);
-      // Discharge u
-      for (int i = 0; i < noEdges[u] && e[u] > 0; i++) {
-        int v = edges[u][i];
-        if (cf[u][v] > 0) {
-          if (h[u] > h[v]) {
-//            System.out.println("Push " + u + " to " + v);
-            push(u, v);
-            if (!active[v] && v != source && v != sink) {
-              active[v] = true;
-              q.add(v);
-            }
-          } else if (min < 0 || h[v] < min) {
-            min = h[v];
+    while (size > 0) {
+      int u = queue[qh];
+      qh = (qh + 1) % n;
+      size--;
+      active[u] = false;
+      while (e[u] > 0) {
+        if (cur[u] == start[u + 1]) {
+          int min = 2 * n;
+          for (int a = start[u]; a < start[u + 1]; a++) {
+            int v = head[a];
+            if (res[a] > 0 && v != sink && d[v] < min) min = d[v];
           }
+          d[u] = min + 1;
+          cur[u] = start[u];
+        }
+        int a = cur[u], v = head[a];
+        if (res[a] > 0 && v != sink && d[u] == d[v] + 1) {
+          long f = Math.min(e[u], res[a]);
+          res[a] -= f;
+          res[rev[a]] += f;
+          e[u] -= f;
+          e[v] += f;
+          if (v != source && !active[v]) {
+            active[v] = true;
+            queue[(qh + size++) % n] = v;
+          }
+        } else {
+          cur[u]++;
         }
       }
-      if (e[u] != 0) {
-        // Relabel
-        if (min < 0) throw new RuntimeException();
-        h[u] = 1 + min;
-//        System.out.println("Relabel " + u + " to " + h[u]);
-      } else {
-        active[u] = false;
-        q.poll();
-      }
     }
+  }
+
+  /**
+   * Same as {@link #maxFlow(int, int)}, but the first phase runs in synchronous rounds where the tasks of the pool
+   * first push from all active nodes in parallel, and then relabel them in parallel, using the labels from the
+   * start of the round. An arc and its reverse can't both be admissible under the same labels, so each arc is only
+   * updated by one node per round, and only the excesses of the receiving nodes need to be updated atomically.
+   */
+  public int maxFlowParallel(int source, int sink, ForkJoinPool pool) {
+    if (source == sink) {
+      resetFlow();
+      return 0;
+    }
+    initialize(source);
+    computeLabels(source, sink);
+    Round round = new Round(source, sink);
+    int[] active = new int[n], nextActive = new int[n], mark = new int[n];
+    int count = 0;
+    for (int v = 0; v < n; v++) {
+      if (v != source && v != sink && e[v] > 0 && h[v] < n) active[count++] = v;
+    }
+    long relabels = 0;
+    for (int stamp = 1; count > 0; stamp++) {
+      round.received.set(0);
+      pool.invoke(round.new PushTask(active, 0, count));
+      pool.invoke(round.new RelabelTask(active, 0, count));
+      relabels += round.relabels.getAndSet(0);
+      for (int i = 0; i < count; i++) {
+        int u = active[i];
+        h[u] = round.newLabel[u];
+      }
 
-    return e[sink];
+      // The next active nodes are the ones that kept or received excess and can still reach the sink
+      if (relabels > n) {
+        computeLabels(source, sink);
+        relabels = 0;
+      }
+      int next = 0;
+      for (int i = 0; i < count; i++) {
+        int u = active[i];
+        if (e[u] > 0 && h[u] < n && mark[u] != stamp) {
+          mark[u] = stamp;
+          nextActive[next++] = u;
+        }
+      }
+      int received = round.received.get();
+      for (int i = 0; i < received; i++) {
+        int v = round.receivers[i];
+        e[v] += round.incoming.getAndSet(v, 0);
+        if (h[v] < n && mark[v] != stamp) {
+          mark[v] = stamp;
+          nextActive[next++] = v;
+        }
+      }
+      int[] t = active;
+      active = nextActive;
+      nextActive = t;
+      count = next;
+    }
+    e[sink] += round.incoming.getAndSet(sink, 0);
+    e[source] += round.incoming.getAndSet(source, 0);
+    returnExcess(source, sink);
+    return (int) e[sink];
   }
 
-  private void setupEdges() {
-    edges = new int[n][n];
-    noEdges = new int[n];
-    for (int i = 0; i < n; i++) {
-      int k = 0;
-      for (int j = 0; j < n; j++) {
-        if (c[i][j] != 0 || c[j][i] != 0)
-          edges[i][k++] = j;
+  private class Round {
+    private final int source, sink;
+    private final AtomicLongArray incoming = new AtomicLongArray(n);
+    private final int[] receivers = new int[n], newLabel = new int[n];
+    private final AtomicInteger received = new AtomicInteger();
+    private final AtomicLong relabels = new AtomicLong();
+
+    Round(int source, int sink) {
+      this.source = source;
+      this.sink = sink;
+    }
+
+    private class PushTask extends RecursiveAction {
+      private final int[] nodes;
+      private final int from, to;
+
+      PushTask(int[] nodes, int from, int to) {
+        this.nodes = nodes;
+        this.from = from;
+        this.to = to;
+      }
+
+      @Override
+      protected void compute() {
+        if (to - from > PARALLEL_THRESHOLD) {
+          int mid = (from + to) >>> 1;
+          invokeAll(new PushTask(nodes, from, mid), new PushTask(nodes, mid, to));
+          return;
+        }
+        for (int i = from; i < to; i++) {
+          int u = nodes[i], hu = h[u];
+          for (int a = start[u]; a < start[u + 1] && e[u] > 0; a++) {
+            // Check the label first; the residual of a non-admissible arc may be updated by another task
+            int v = head[a];
+            if (h[v] != hu - 1 || res[a] == 0) continue;
+            long f = Math.min(e[u], res[a]);
+            res[a] -= f;
+            res[rev[a]] += f;
+            e[u] -= f;
+            if (incoming.getAndAdd(v, f) == 0 && v != sink && v != source) {
+              receivers[received.getAndIncrement()] = v;
+            }
+          }
+        }
+      }
+    }
+
+    private class RelabelTask extends RecursiveAction {
+      private final int[] nodes;
+      private final int from, to;
+
+      RelabelTask(int[] nodes, int from, int to) {
+        this.nodes = nodes;
+        this.from = from;
+        this.to = to;
+      }
+
+      @Override
+      protected void compute() {
+        if (to - from > PARALLEL_THRESHOLD) {
+          int mid = (from + to) >>> 1;
+          invokeAll(new RelabelTask(nodes, from, mid), new RelabelTask(nodes, mid, to));
+          return;
+        }
+        long count = 0;
+        for (int i = from; i < to; i++) {
+          int u = nodes[i];
+          if (e[u] == 0) {
+            newLabel[u] = h[u];
+            continue;
+          }
+          // All admissible arcs were saturated, so u gets a higher label
+          int min = n;
+          for (int a = start[u]; a < start[u + 1]; a++) {
+            if (res[a] > 0 && h[head[a]] < min) min = h[head[a]];
+          }
+          newLabel[u] = Math.min(n, min + 1);
+          count++;
+        }
+        relabels.addAndGet(count);
       }
-      noEdges[i] = k;
     }
   }
 
   public void show() {
     for (int i = 0; i < n; i++) {
-      System.out.println("Node " + i + ": h = " + h[i] + ", e = " + e[i]);
-      for (int j = 0; j < n; j++) {
-        if (c[i][j] > 0) {
-          System.out.println("    -> node " + j + ": c = " + c[i][j] + ", f = " + f[i][j]);
+      System.out.println("Node " + i + ": h = " + (h == null ? 0 : h[i]) + ", e = " + (e == null ? 0 : e[i]));
+      if (start == null) continue;
+      for (int a = start[i]; a < start[i + 1]; a++) {
+        if (cap[a] > 0) {
+          System.out.println("    -> node " + head[a] + ": c = " + cap[a] + ", f = " + (cap[a] - res[a]));
         }
       }
     }
@@ -7,7 +7,8 @@ public class RootedTree {
     private final Node root;
     private final Node[] rootedTreeNodes;
     private final Node[] topologicalOrder; // root = topologicalOrder[0]
-    private Node[][] lcaPreprocess;
+    private final int[] parentIndexes;
+    private LowestCommonAncestor lca;
 
     public RootedTree(Graph.Node root) {
         if (root == null) {
@@ -48,6 +49,7 @@ public class RootedTree {
         }
 
         this.root = topologicalOrder[0];
+        this.parentIndexes = parent;
     }
 
     public Node getRoot() {
@@ -62,63 +64,26 @@ public class RootedTree {
         rootedTreeNodes[treeNode.getNode().getIndex()] = treeNode;
     }
 
-    private Node[][] preprocessLCA() {
-        int N = rootedTreeNodes.length, M = 0;
-        while ((1 << M) < N) {
-            M++;
-        }
-        Node[][] p = new Node[N][M];
-
-        for (int i = 0; i < N; i++) {
-            p[i][0] = rootedTreeNodes[i].getParent();
-        }
-
-        for (int j = 1; 1 << j < N; j++) {
-            for (int i = 0; i < N; i++) {
-                if (p[i][j - 1] != null) {
-                    p[i][j] = p[p[i][j - 1].getNode().getIndex()][j - 1];
-                }
-            }
-        }
-
-        return p;
+    /**
+     * @return the index of the parent of each node, and -1 for the root
+     */
+    public int[] getParentIndexes() {
+        return parentIndexes.clone();
     }
 
     public Node getLowestCommonAncestor(Node p, Node q) {
-        if (lcaPreprocess == null) {
-            lcaPreprocess = preprocessLCA();
-        }
-
-        if (p.getLevel() < q.getLevel()) {
-            Node tmp = p;
-            p = q;
-            q = tmp;
-        }
-
-        int log;
-        for (log = 1; 1 << log <= p.getLevel(); log++) ;
-        log--;
-
-        for (int i = log; i >= 0; i--) {
-            if (p.getLevel() - (1 << i) >= q.getLevel()) {
-                p = lcaPreprocess[p.getNode().getIndex()][i];
-            }
-        }
-
-        if (p == q) {
-            return p;
-        }
-
-        for (int i = log; i >= 0; i--) {
-            if (lcaPreprocess[p.getNode().getIndex()][i] != null &&
-                lcaPreprocess[p.getNode().getIndex()][i] != lcaPreprocess[q.getNode().getIndex()][i])
-            {
-                p = lcaPreprocess[p.getNode().getIndex()][i];
-                q = lcaPreprocess[q.getNode().getIndex()][i];
-            }
+        if (lca == null) {
+            lca = new LowestCommonAncestor(parentIndexes);
         }
+        return getNode(lca.lca(p.getNode().getIndex(), q.getNode().getIndex()));
+    }
 
-        return p.getParent();
+    /**
+     * Finds the lowest common ancestors of many pairs of nodes offline, see {@link LowestCommonAncestor#lca(int[], int[], int[])}.
+     * @return the index of the lowest common ancestor of the nodes with indexes p[i] and q[i]
+     */
+    public int[] getLowestCommonAncestors(int[] p, int[] q) {
+        return LowestCommonAncestor.lca(parentIndexes, p, q);
     }
 
     public class Node {
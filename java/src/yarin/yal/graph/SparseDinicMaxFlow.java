@@ -0,0 +1,249 @@
+package yarin.yal.graph;
+
+import java.util.Arrays;
+
+/**
+ * Maximum flow using Dinics algorithm on adjacency lists, for large sparse networks.
+ * Memory is O(V + E) instead of the O(V^2) of {@link DinicMaxFlow}, and capacities are longs.
+ *
+ * Each edge is stored as a pair of arcs; arc 2k is edge k and arc 2k+1 its reverse.
+ * Only the residual capacities are stored; the flow on edge k is the residual capacity of arc 2k+1.
+ *
+ * The flow is kept between calls, so after adding edges or increasing capacities, calling
+ * {@link #maxFlow(int, int)} again with the same source and sink only augments the existing flow.
+ */
+public class SparseDinicMaxFlow {
+
+  private final int n;
+  private int m; // Number of arcs
+  private int head[], next[], to[];
+  private long cap[];
+  private int lvl[], iter[], queue[], path[];
+  private int lastSource = -1, lastSink = -1;
+  private long totalFlow;
+
+  public SparseDinicMaxFlow(int nodes) {
+    this(nodes, 16);
+  }
+
+  public SparseDinicMaxFlow(int nodes, int expectedEdges) {
+    n = nodes;
+    head = new int[n];
+    Arrays.fill(head, -1);
+    next = new int[2 * expectedEdges];
+    to = new int[2 * expectedEdges];
+    cap = new long[2 * expectedEdges];
+    lvl = new int[n];
+    iter = new int[n];
+    queue = new int[n];
+    path = new int[n];
+  }
+
+  /**
+   * @return the index of the added edge
+   */
+  public int addEdge(int u, int v, long capacity) {
+    if (capacity < 0) {
+      throw new IllegalArgumentException("Negative capacity");
+    }
+    if (m + 2 > to.length) {
+      int size = Math.max(4, to.length * 2);
+      next = Arrays.copyOf(next, size);
+      to = Arrays.copyOf(to, size);
+      cap = Arrays.copyOf(cap, size);
+    }
+    addArc(u, v, capacity);
+    addArc(v, u, 0);
+    return m / 2 - 1;
+  }
+
+  private void addArc(int u, int v, long capacity) {
+    to[m] = v;
+    cap[m] = capacity;
+    next[m] = head[u];
+    head[u] = m++;
+  }
+
+  /**
+   * Increases the capacity of an edge. The next call to {@link #maxFlow(int, int)} with
+   * the same source and sink will continue from the current flow.
+   */
+  public void increaseCapacity(int edge, long delta) {
+    if (delta < 0) {
+      throw new IllegalArgumentException("Capacities can only be increased");
+    }
+    cap[2 * edge] += delta;
+  }
+
+  public int getEdgeCount() {
+    return m / 2;
+  }
+
+  public long getCapacity(int edge) {
+    return cap[2 * edge] + cap[2 * edge + 1];
+  }
+
+  public long getEdgeFlow(int edge) {
+    return cap[2 * edge + 1];
+  }
+
+  public int getEdgeSource(int edge) {
+    return to[2 * edge + 1];
+  }
+
+  public int getEdgeDest(int edge) {
+    return to[2 * edge];
+  }
+
+  /**
+   * @return the net flow from u to v, summed over all edges between them
+   */
+  public long getFlow(int u, int v) {
+    long flow = 0;
+    for (int e = head[u]; e >= 0; e = next[e]) {
+      if (to[e] != v) continue;
+      if ((e & 1) == 0) {
+        flow += cap[e ^ 1];
+      } else {
+        flow -= cap[e];
+      }
+    }
+    return flow;
+  }
+
+  /**
+   * Removes all flow from the network.
+   */
+  public void reset() {
+    for (int e = 0; e < m; e += 2) {
+      cap[e] += cap[e + 1];
+      cap[e + 1] = 0;
+    }
+    totalFlow = 0;
+    lastSource = lastSink = -1;
+  }
+
+  /**
+   * Finds the maximum flow from s to t. If the previous call had the same source and sink,
+   * the flow found then is augmented; otherwise the network is reset first.
+   *
+   * @return the total flow from s to t
+   */
+  public long maxFlow(int s, int t) {
+    if (s != lastSource || t != lastSink) {
+      reset();
+      lastSource = s;
+      lastSink = t;
+    }
+    if (s == t) {
+      return 0;
+    }
+    while (buildLevelGraph(s, t)) {
+      System.arraycopy(head, 0, iter, 0, n);
+      totalFlow += constructBlockingFlow(s, t);
+    }
+    return totalFlow;
+  }
+
+  private boolean buildLevelGraph(int s, int t) {
+    Arrays.fill(lvl, 0);
+    lvl[s] = 1;
+    int qh = 0, qt = 0;
+    queue[qt++] = s;
+    while (qh < qt) {
+      int u = queue[qh++];
+      for (int e = head[u]; e >= 0; e = next[e]) {
+        int v = to[e];
+        if (cap[e] > 0 && lvl[v] == 0) {
+          lvl[v] = lvl[u] + 1;
+          queue[qt++] = v;
+        }
+      }
+    }
+    return lvl[t] != 0;
+  }
+
+  private long constructBlockingFlow(int s, int t) {
+    long res = 0;
+    int depth = 0, u = s;
+    while (true) {
+      if (u == t) {
+        long flow = Long.MAX_VALUE;
+        for (int i = 0; i < depth; i++) {
+          flow = Math.min(flow, cap[path[i]]);
+        }
+        int bottleneck = -1;
+        for (int i = 0; i < depth; i++) {
+          int e = path[i];
+          cap[e] -= flow;
+          cap[e ^ 1] += flow;
+          if (cap[e] == 0 && bottleneck < 0) bottleneck = i;
+        }
+        res += flow;
+        // Continue from the tail of the first saturated arc
+        depth = bottleneck;
+        u = depth == 0 ? s : to[path[depth - 1]];
+        continue;
+      }
+
+      // Advance the current arc pointer past arcs that are not in the level graph
+      int e = iter[u];
+      while (e >= 0 && (cap[e] == 0 || lvl[to[e]] != lvl[u] + 1)) {
+        e = next[e];
+      }
+      iter[u] = e;
+      if (e >= 0) {
+        path[depth++] = e;
+        u = to[e];
+      } else {
+        // Dead end; remove u from the level graph and retreat
+        lvl[u] = 0;
+        if (depth == 0) break;
+        u = to[path[--depth] ^ 1];
+      }
+    }
+    return res;
+  }
+
+  /**
+   * Must be called after {@link #maxFlow(int, int)}.
+   *
+   * @return for each node, true if it's on the source side of a minimum cut
+   */
+  public boolean[] getMinCut() {
+    if (lastSource < 0) {
+      throw new IllegalStateException("No flow has been computed");
+    }
+    boolean[] reachable = new boolean[n];
+    int qh = 0, qt = 0;
+    queue[qt++] = lastSource;
+    reachable[lastSource] = true;
+    while (qh < qt) {
+      int u = queue[qh++];
+      for (int e = head[u]; e >= 0; e = next[e]) {
+        if (cap[e] > 0 && !reachable[to[e]]) {
+          reachable[to[e]] = true;
+          queue[qt++] = to[e];
+        }
+      }
+    }
+    return reachable;
+  }
+
+  /**
+   * Must be called after {@link #maxFlow(int, int)}.
+   *
+   * @return the indexes of the edges in a minimum cut; their capacities sum to the max flow
+   */
+  public int[] getMinCutEdges() {
+    boolean[] sourceSide = getMinCut();
+    int count = 0;
+    int[] edges = new int[m / 2];
+    for (int k = 0; k < m / 2; k++) {
+      if (sourceSide[getEdgeSource(k)] && !sourceSide[getEdgeDest(k)]) {
+        edges[count++] = k;
+      }
+    }
+    return Arrays.copyOf(edges, count);
+  }
+}
@@ -1,19 +1,29 @@
 package yarin.yal.graph;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Queue;
 import java.util.Stack;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Class with methods that finds all strongly connected components in graph.
  * Provides both a recursive and an iterative implementation.
  *
  * Uses Kosarajus algorithm (http://en.wikipedia.org/wiki/Kosaraju%27s_algorithm)
+ * for the object graphs, and Tarjan's algorithm or the parallel forward-backward algorithm
+ * for CSR graphs, returning component ids as int arrays.
  */
 public class StronglyConnectedComponents {
+    // Subproblems of the forward-backward algorithm at most this size, or this deep, are solved with Tarjan's algorithm
+    private static final int THRESHOLD = 1 << 14;
+    private static final int MAX_DEPTH = 64;
 
     /**
      * @param dg the input graph
@@ -110,6 +120,396 @@ public class StronglyConnectedComponents {
         return components;
     }
 
+    /**
+     * Finds the strong components of a directed CSR graph without recursion or per node objects.
+     * The representatives will be the same as in {@link #findComponentsRecursive(DirectedGraph)}
+     * if the CSR graph was created from the same DirectedGraph.
+     *
+     * @param g the input graph
+     * @return the index of the representative node in the strong component of each node
+     */
+    public int[] findComponents(CsrGraph g) {
+        int n = g.getNodeCount();
+        int[] offsets = g.getOffsets(), targets = g.getTargets();
+        int[] order = new int[n], arcPos = new int[n], dfsStack = new int[n];
+        boolean[] visited = new boolean[n];
+        int orderSize = 0;
+        for (int start = 0; start < n; start++) {
+            if (visited[start]) continue;
+            int sp = 0;
+            dfsStack[sp++] = start;
+            visited[start] = true;
+            arcPos[start] = offsets[start];
+            while (sp > 0) {
+                int cur = dfsStack[sp - 1];
+                if (arcPos[cur] < offsets[cur + 1]) {
+                    int next = targets[arcPos[cur]++];
+                    if (!visited[next]) {
+                        visited[next] = true;
+                        arcPos[next] = offsets[next];
+                        dfsStack[sp++] = next;
+                    }
+                } else {
+                    order[orderSize++] = cur;
+                    sp--;
+                }
+            }
+        }
+
+        CsrGraph rg = g.transpose();
+        int[] rOffsets = rg.getOffsets(), rTargets = rg.getTargets();
+        int[] components = new int[n];
+        Arrays.fill(components, -1);
+        for (int i = n - 1; i >= 0; i--) {
+            int rep = order[i];
+            if (components[rep] >= 0) continue;
+            int sp = 0;
+            dfsStack[sp++] = rep;
+            components[rep] = rep;
+            while (sp > 0) {
+                int cur = dfsStack[--sp];
+                for (int j = rOffsets[cur]; j < rOffsets[cur + 1]; j++) {
+                    int next = rTargets[j];
+                    if (components[next] < 0) {
+                        components[next] = rep;
+                        dfsStack[sp++] = next;
+                    }
+                }
+            }
+        }
+        return components;
+    }
+
+    /**
+     * Finds the strong components of a directed CSR graph with an iterative version of Tarjan's algorithm,
+     * in a single pass without building the transposed graph.
+     *
+     * @param g the input graph
+     * @return the component id of each node; the ids are 0, 1, ... in a topological order of the
+     * condensed graph, so all arcs between components go from a lower to a higher id
+     */
+    public int[] findComponentIds(CsrGraph g) {
+        int n = g.getNodeCount();
+        int[] nodes = new int[n];
+        for (int i = 0; i < n; i++) {
+            nodes[i] = i;
+        }
+        int[] index = new int[n], components = new int[n];
+        Arrays.fill(index, -1);
+        Arrays.fill(components, -1);
+        int count = tarjan(g.getOffsets(), g.getTargets(), nodes, null, 0, index, new int[n], new int[n], components);
+        // Tarjan's algorithm completes the components in reverse topological order
+        for (int i = 0; i < n; i++) {
+            components[i] = count - 1 - components[i];
+        }
+        return components;
+    }
+
+    /**
+     * Finds the strong components among the given nodes, following only arcs to nodes v with color[v] == c
+     * (all arcs if color is null). The components are numbered from 0 in the order they're completed.
+     * index and components must be -1 for the nodes; index, low and arcPos are scratch arrays over all nodes.
+     *
+     * @return the number of components
+     */
+    private static int tarjan(int[] offsets, int[] targets, int[] nodes, int[] color, int c,
+                              int[] index, int[] low, int[] arcPos, int[] components) {
+        int size = nodes.length;
+        int[] callStack = new int[size], stack = new int[size];
+        int counter = 0, count = 0, sp = 0;
+        for (int start : nodes) {
+            if (index[start] >= 0) continue;
+            int csp = 0;
+            callStack[csp++] = start;
+            index[start] = low[start] = counter++;
+            arcPos[start] = offsets[start];
+            stack[sp++] = start;
+            while (csp > 0) {
+                int v = callStack[csp - 1];
+                if (arcPos[v] < offsets[v + 1]) {
+                    int w = targets[arcPos[v]++];
+                    if (color != null && color[w] != c) continue;
+                    if (index[w] < 0) {
+                        index[w] = low[w] = counter++;
+                        arcPos[w] = offsets[w];
+                        stack[sp++] = w;
+                        callStack[csp++] = w;
+                    } else if (components[w] < 0 && index[w] < low[v]) {
+                        // w is still on the stack
+                        low[v] = index[w];
+                    }
+                } else {
+                    csp--;
+                    if (csp > 0) {
+                        int u = callStack[csp - 1];
+                        if (low[v] < low[u]) low[u] = low[v];
+                    }
+                    if (low[v] == index[v]) {
+                        int w;
+                        do {
+                            w = stack[--sp];
+                            components[w] = count;
+                        } while (w != v);
+                        count++;
+                    }
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Finds the strong components of a directed CSR graph in parallel with the forward-backward algorithm:
+     * the nodes that are both reachable from and can reach a random pivot form its component, and the
+     * nodes reachable only forwards, only backwards, or not at all form three independent subproblems.
+     * Nodes without incoming or outgoing arcs in their subproblem are first trimmed off as single components,
+     * and small subproblems are solved with Tarjan's algorithm.
+     *
+     * @param g the input graph
+     * @param pool the pool to run the subproblems in
+     * @return the component id of each node; the ids are 0, 1, ... in the order of the smallest node
+     * of each component
+     */
+    public int[] findComponentsParallel(CsrGraph g, ForkJoinPool pool) {
+        int n = g.getNodeCount();
+        int[] nodes = new int[n];
+        for (int i = 0; i < n; i++) {
+            nodes[i] = i;
+        }
+        ForwardBackward fb = new ForwardBackward(g);
+        pool.invoke(fb.new Task(nodes, fb.nextColor.getAndIncrement(), 0));
+
+        // Relabel the components, which got their ids in a nondeterministic order
+        int[] components = fb.components, label = new int[fb.nextComponent.get()];
+        Arrays.fill(label, -1);
+        int count = 0;
+        for (int i = 0; i < n; i++) {
+            int c = components[i];
+            if (label[c] < 0) {
+                label[c] = count++;
+            }
+            components[i] = label[c];
+        }
+        return components;
+    }
+
+    private static class ForwardBackward {
+        private final int[] offsets, targets, rOffsets, rTargets;
+        // The subproblem of each node, which is only changed by the task solving that subproblem;
+        // every subproblem gets a new color, so tasks can't mistake nodes of other subproblems for their own
+        private final int[] color;
+        private final int[] components, index, low, arcPos, inDegree, outDegree;
+        private final AtomicInteger nextColor = new AtomicInteger(), nextComponent = new AtomicInteger();
+
+        ForwardBackward(CsrGraph g) {
+            int n = g.getNodeCount();
+            CsrGraph rg = g.transpose();
+            offsets = g.getOffsets();
+            targets = g.getTargets();
+            rOffsets = rg.getOffsets();
+            rTargets = rg.getTargets();
+            color = new int[n];
+            components = new int[n];
+            index = new int[n];
+            low = new int[n];
+            arcPos = new int[n];
+            inDegree = new int[n];
+            outDegree = new int[n];
+            Arrays.fill(components, -1);
+            Arrays.fill(index, -1);
+        }
+
+        private class Task extends RecursiveAction {
+            private final int[] nodes;
+            private final int c, depth;
+
+            Task(int[] nodes, int c, int depth) {
+                this.nodes = nodes;
+                this.c = c;
+                this.depth = depth;
+                for (int v : nodes) {
+                    color[v] = c;
+                }
+            }
+
+            @Override
+            protected void compute() {
+                int[] remaining = trim();
+                if (remaining.length == 0) return;
+                if (remaining.length <= THRESHOLD || depth >= MAX_DEPTH) {
+                    int count = tarjan(offsets, targets, remaining, color, c, index, low, arcPos, components);
+                    int base = nextComponent.getAndAdd(count);
+                    for (int v : remaining) {
+                        components[v] += base;
+                    }
+                    return;
+                }
+
+                int pivot = remaining[ThreadLocalRandom.current().nextInt(remaining.length)];
+                int forward = nextColor.getAndIncrement(), backward = nextColor.getAndIncrement();
+                int[] queue = new int[remaining.length];
+                int head = 0, tail = 0;
+                queue[tail++] = pivot;
+                color[pivot] = forward;
+                while (head < tail) {
+                    int v = queue[head++];
+                    for (int j = offsets[v]; j < offsets[v + 1]; j++) {
+                        int w = targets[j];
+                        if (color[w] == c) {
+                            color[w] = forward;
+                            queue[tail++] = w;
+                        }
+                    }
+                }
+
+                // Nodes reached backwards are in the component of the pivot if they were reached forwards
+                int component = nextComponent.getAndIncrement();
+                head = tail = 0;
+                queue[tail++] = pivot;
+                color[pivot] = -1;
+                components[pivot] = component;
+                while (head < tail) {
+                    int v = queue[head++];
+                    for (int j = rOffsets[v]; j < rOffsets[v + 1]; j++) {
+                        int w = rTargets[j];
+                        if (color[w] == forward) {
+                            color[w] = -1;
+                            components[w] = component;
+                            queue[tail++] = w;
+                        } else if (color[w] == c) {
+                            color[w] = backward;
+                            queue[tail++] = w;
+                        }
+                    }
+                }
+
+                int forwardCount = 0, backwardCount = 0, restCount = 0;
+                for (int v : remaining) {
+                    if (color[v] == forward) forwardCount++;
+                    else if (color[v] == backward) backwardCount++;
+                    else if (color[v] == c) restCount++;
+                }
+                int[] forwardNodes = new int[forwardCount], backwardNodes = new int[backwardCount], restNodes = new int[restCount];
+                forwardCount = backwardCount = restCount = 0;
+                for (int v : remaining) {
+                    if (color[v] == forward) forwardNodes[forwardCount++] = v;
+                    else if (color[v] == backward) backwardNodes[backwardCount++] = v;
+                    else if (color[v] == c) restNodes[restCount++] = v;
+                }
+                List<Task> tasks = new ArrayList<>(3);
+                for (int[] sub : new int[][]{forwardNodes, backwardNodes, restNodes}) {
+                    if (sub.length > 0) {
+                        tasks.add(new Task(sub, nextColor.getAndIncrement(), depth + 1));
+                    }
+                }
+                invokeAll(tasks);
+            }
+
+            /**
+             * Repeatedly removes the nodes without incoming or outgoing arcs within the subproblem,
+             * each being a component of its own.
+             * @return the nodes that are left
+             */
+            private int[] trim() {
+                int[] queue = new int[nodes.length];
+                int head = 0, tail = 0;
+                for (int v : nodes) {
+                    int out = 0, in = 0;
+                    for (int j = offsets[v]; j < offsets[v + 1]; j++) {
+                        if (color[targets[j]] == c) out++;
+                    }
+                    for (int j = rOffsets[v]; j < rOffsets[v + 1]; j++) {
+                        if (color[rTargets[j]] == c) in++;
+                    }
+                    outDegree[v] = out;
+                    inDegree[v] = in;
+                }
+                for (int v : nodes) {
+                    if (inDegree[v] == 0 || outDegree[v] == 0) {
+                        color[v] = -1;
+                        queue[tail++] = v;
+                    }
+                }
+                while (head < tail) {
+                    int v = queue[head++];
+                    components[v] = nextComponent.getAndIncrement();
+                    for (int j = offsets[v]; j < offsets[v + 1]; j++) {
+                        int w = targets[j];
+                        if (color[w] == c && --inDegree[w] == 0) {
+                            color[w] = -1;
+                            queue[tail++] = w;
+                        }
+                    }
+                    for (int j = rOffsets[v]; j < rOffsets[v + 1]; j++) {
+                        int w = rTargets[j];
+                        if (color[w] == c && --outDegree[w] == 0) {
+                            color[w] = -1;
+                            queue[tail++] = w;
+                        }
+                    }
+                }
+                if (tail == 0) return nodes;
+                int[] remaining = new int[nodes.length - tail];
+                int k = 0;
+                for (int v : nodes) {
+                    if (color[v] == c) remaining[k++] = v;
+                }
+                return remaining;
+            }
+        }
+    }
+
+    /**
+     * Creates the condensed DAG of a CSR graph with one node per component, and one arc between
+     * two components if there are any arcs between their nodes.
+     *
+     * @param g the graph
+     * @param componentIds the component id of each node, numbered from 0
+     * @return the DAG, with the adjacency lists in the order the arcs are first found
+     */
+    public CsrGraph createCondensedGraph(CsrGraph g, int[] componentIds) {
+        int n = g.getNodeCount(), count = 0;
+        for (int i = 0; i < n; i++) {
+            count = Math.max(count, componentIds[i] + 1);
+        }
+        // Group the nodes by component so that duplicate arcs can be detected with one mark per component
+        int[] start = new int[count + 1];
+        for (int i = 0; i < n; i++) {
+            start[componentIds[i] + 1]++;
+        }
+        for (int i = 0; i < count; i++) {
+            start[i + 1] += start[i];
+        }
+        int[] byComponent = new int[n], fill = Arrays.copyOf(start, count);
+        for (int i = 0; i < n; i++) {
+            byComponent[fill[componentIds[i]]++] = i;
+        }
+
+        int[] offsets = g.getOffsets(), targets = g.getTargets();
+        int[] mark = new int[count];
+        Arrays.fill(mark, -1);
+        int[] from = new int[16], to = new int[16];
+        int m = 0;
+        for (int a = 0; a < count; a++) {
+            for (int k = start[a]; k < start[a + 1]; k++) {
+                int v = byComponent[k];
+                for (int j = offsets[v]; j < offsets[v + 1]; j++) {
+                    int b = componentIds[targets[j]];
+                    if (b != a && mark[b] != a) {
+                        mark[b] = a;
+                        if (m == from.length) {
+                            from = Arrays.copyOf(from, 2 * m);
+                            to = Arrays.copyOf(to, 2 * m);
+                        }
+                        from[m] = a;
+                        to[m++] = b;
+                    }
+                }
+            }
+        }
+        return CsrGraph.fromEdges(count, Arrays.copyOf(from, m), Arrays.copyOf(to, m), (int[]) null, true);
+    }
+
     /**
      * Create a DAG by joining all nodes in a strongly connected component into one node
      * The new graph will contain the same number of nodes, but the nodes that are not
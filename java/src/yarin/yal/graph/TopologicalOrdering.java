@@ -41,4 +41,40 @@ public class TopologicalOrdering {
         }
         return result;
     }
+
+    /**
+     * @param g A directed CSR graph
+     * @return an ordering of the node indexes, or null if the graph is not a DAG
+     */
+    public int[] findOrdering(CsrGraph g) {
+        int n = g.getNodeCount();
+        int[] offsets = g.getOffsets(), targets = g.getTargets();
+        int[] degree = new int[n];
+        for (int target : targets) {
+            degree[target]++;
+        }
+
+        // The result array doubles as the queue
+        int[] result = new int[n];
+        int head = 0, tail = 0;
+        for (int i = 0; i < n; i++) {
+            if (degree[i] == 0) {
+                result[tail++] = i;
+            }
+        }
+
+        while (head < tail) {
+            int cur = result[head++];
+            for (int j = offsets[cur]; j < offsets[cur + 1]; j++) {
+                if (--degree[targets[j]] == 0) {
+                    result[tail++] = targets[j];
+                }
+            }
+        }
+
+        if (tail < n) {
+            return null;
+        }
+        return result;
+    }
 }
@@ -0,0 +1,243 @@
+package yarin.yal.mathlib;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * LU decomposition with partial pivoting of a square matrix, PA = LU, computed once in O(n^3) and then
+ * used to solve any number of equations Ax = b in O(n^2) each.
+ *
+ * L (with an implicit unit diagonal) and U are stored together in a flat row-major array. With a pool,
+ * the rows below the pivot are updated in parallel in each elimination step, and the columns of the right
+ * hand side are solved in parallel.
+ */
+public class LUDecomposition {
+    private static final long PARALLEL_WORK = 1 << 16;
+
+    private final int n;
+    private final double[] lu;
+    private final int[] pivot;
+    private final int pivotSign;
+    private final boolean singular;
+    private final ForkJoinPool pool;
+
+    public LUDecomposition(Matrix matrix) {
+        this(matrix, null);
+    }
+
+    /**
+     * @param pool the pool to run in, or null to run in the calling thread
+     */
+    public LUDecomposition(Matrix matrix, ForkJoinPool pool) {
+        if (matrix.getRows() != matrix.getColumns())
+            throw new IllegalArgumentException("Matrix must be square.");
+        this.pool = pool;
+        n = matrix.getRows();
+        lu = matrix.getData().clone();
+        pivot = new int[n];
+        for (int i = 0; i < n; i++)
+            pivot[i] = i;
+        // Pivots this small relative to the largest element are rounding errors of what would be a 0
+        double largest = 0;
+        for (double v : lu)
+            largest = Math.max(largest, Math.abs(v));
+        double tolerance = n * largest * Math.ulp(1.0);
+        int sign = 1;
+        boolean smallPivot = false;
+        for (int k = 0; k < n; k++) {
+            int p = k;
+            for (int i = k + 1; i < n; i++)
+                if (Math.abs(lu[i * n + k]) > Math.abs(lu[p * n + k]))
+                    p = i;
+            if (p != k) {
+                for (int j = 0; j < n; j++) {
+                    double t = lu[p * n + j];
+                    lu[p * n + j] = lu[k * n + j];
+                    lu[k * n + j] = t;
+                }
+                int t = pivot[p];
+                pivot[p] = pivot[k];
+                pivot[k] = t;
+                sign = -sign;
+            }
+            if (Math.abs(lu[k * n + k]) <= tolerance) {
+                smallPivot = true;
+                if (lu[k * n + k] == 0)
+                    continue;
+            }
+            EliminationTask task = new EliminationTask(k, k + 1, n);
+            if (pool == null || (long) (n - k) * (n - k) < PARALLEL_WORK)
+                task.eliminate();
+            else
+                pool.invoke(task);
+        }
+        pivotSign = sign;
+        singular = smallPivot;
+    }
+
+    private class EliminationTask extends RecursiveAction {
+        private final int k, from, to;
+
+        EliminationTask(int k, int from, int to) {
+            this.k = k;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if ((long) (to - from) * (n - k) > PARALLEL_WORK) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new EliminationTask(k, from, mid), new EliminationTask(k, mid, to));
+            } else {
+                eliminate();
+            }
+        }
+
+        // Stores the multipliers in column k and subtracts the pivot row from rows from..to
+        void eliminate() {
+            int pk = k * n;
+            double p = lu[pk + k];
+            for (int i = from; i < to; i++) {
+                int ik = i * n;
+                double f = lu[ik + k] /= p;
+                if (f == 0) continue;
+                for (int j = k + 1; j < n; j++)
+                    lu[ik + j] -= f * lu[pk + j];
+            }
+        }
+    }
+
+    public int size() {
+        return n;
+    }
+
+    /**
+     * @return true if a pivot is 0 up to rounding errors, i.e. at most n times the machine epsilon times the
+     * largest element of the matrix
+     */
+    public boolean isSingular() {
+        return singular;
+    }
+
+    /**
+     * @return the determinant, or 0 if the matrix is singular
+     */
+    public double getDeterminant() {
+        if (singular)
+            return 0;
+        double det = pivotSign;
+        for (int i = 0; i < n; i++)
+            det *= lu[i * n + i];
+        return det;
+    }
+
+    /**
+     * @return the row of the original matrix at each row of L and U
+     */
+    public int[] getPivot() {
+        return pivot.clone();
+    }
+
+    /**
+     * @return x such that Ax = b
+     * @throws IllegalStateException if the matrix is singular
+     */
+    public double[] solve(double[] b) {
+        if (b.length != n)
+            throw new IllegalArgumentException("Wrong number of rows.");
+        checkNonSingular();
+        double[] x = new double[n];
+        for (int i = 0; i < n; i++)
+            x[i] = b[pivot[i]];
+        for (int i = 0; i < n; i++) {
+            double s = x[i];
+            int o = i * n;
+            for (int k = 0; k < i; k++)
+                s -= lu[o + k] * x[k];
+            x[i] = s;
+        }
+        for (int i = n - 1; i >= 0; i--) {
+            double s = x[i];
+            int o = i * n;
+            for (int k = i + 1; k < n; k++)
+                s -= lu[o + k] * x[k];
+            x[i] = s / lu[o + i];
+        }
+        return x;
+    }
+
+    /**
+     * @return X such that AX = B
+     * @throws IllegalStateException if the matrix is singular
+     */
+    public Matrix solve(Matrix b) {
+        if (b.getRows() != n)
+            throw new IllegalArgumentException("Wrong number of rows.");
+        checkNonSingular();
+        int m = b.getColumns();
+        double[] y = b.getData(), x = new double[n * m];
+        for (int i = 0; i < n; i++)
+            System.arraycopy(y, pivot[i] * m, x, i * m, m);
+        SubstitutionTask task = new SubstitutionTask(x, m, 0, m);
+        if (pool == null)
+            task.substitute();
+        else
+            pool.invoke(task);
+        return new Matrix(n, m, x);
+    }
+
+    private class SubstitutionTask extends RecursiveAction {
+        private final double[] x;
+        private final int m, from, to;
+
+        SubstitutionTask(double[] x, int m, int from, int to) {
+            this.x = x;
+            this.m = m;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from >= 16 && (long) (to - from) * n * n > PARALLEL_WORK) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new SubstitutionTask(x, m, from, mid), new SubstitutionTask(x, m, mid, to));
+            } else {
+                substitute();
+            }
+        }
+
+        // Forward and back substitution on columns from..to, with whole row operations in the inner loop
+        void substitute() {
+            for (int i = 0; i < n; i++) {
+                int oi = i * m;
+                for (int k = 0; k < i; k++) {
+                    double f = lu[i * n + k];
+                    if (f == 0) continue;
+                    int ok = k * m;
+                    for (int j = from; j < to; j++)
+                        x[oi + j] -= f * x[ok + j];
+                }
+            }
+            for (int i = n - 1; i >= 0; i--) {
+                int oi = i * m;
+                for (int k = i + 1; k < n; k++) {
+                    double f = lu[i * n + k];
+                    if (f == 0) continue;
+                    int ok = k * m;
+                    for (int j = from; j < to; j++)
+                        x[oi + j] -= f * x[ok + j];
+                }
+                double d = lu[i * n + i];
+                for (int j = from; j < to; j++)
+                    x[oi + j] /= d;
+            }
+        }
+    }
+
+    private void checkNonSingular() {
+        if (singular)
+            throw new IllegalStateException("Matrix is singular.");
+    }
+}
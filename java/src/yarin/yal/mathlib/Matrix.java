@@ -1,32 +1,55 @@
 package yarin.yal.mathlib;
 
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
 // The equation solver has been tested with https://open.kattis.com/problems/equationsolverplus
+// The elements are stored row-major in a flat array; see LUDecomposition and QRDecomposition for
+// solving many equations with the same left hand side
 public class Matrix {
-    private final double[][] m;
+    private final double[] a;
     private final int rows, columns;
 
+    // Block sizes for multiplication: a 128 x 256 block of b fits in L2
+    private static final int BLOCK_K = 128, BLOCK_J = 256;
+    private static final long PARALLEL_WORK = 1 << 18;
+
     public int getRows() { return rows; }
 
     public int getColumns() { return columns; }
 
-    public double get(int y, int x) { return m[y][x]; }
+    public double get(int y, int x) { return a[y * columns + x]; }
+
+    public void set(int y, int x, double value) { a[y * columns + x] = value; }
 
-    public void set(int y, int x, double value) { m[y][x] = value; }
+    /**
+     * @return the backing array, with the element at (y, x) at index y * columns + x
+     */
+    public double[] getData() { return a; }
 
     private static boolean almostZero(double v) {
         return Math.abs(v) < 1e-9;
     }
 
     public Matrix(int rows, int columns) {
-        this.m = new double[rows][columns];
-        this.rows = rows;
-        this.columns = columns;
+        this(rows, columns, new double[rows * columns]);
     }
 
     public Matrix(double[][] m) {
-        this.m = m.clone();
-        this.rows = m.length;
-        this.columns = m[0].length;
+        this(m.length, m[0].length);
+        for (int i = 0; i < rows; i++)
+            System.arraycopy(m[i], 0, a, i * columns, columns);
+    }
+
+    /**
+     * Creates a matrix backed by the given array in row-major order, without copying it.
+     */
+    public Matrix(int rows, int columns, double[] data) {
+        if (data.length != rows * columns)
+            throw new IllegalArgumentException("Wrong number of elements.");
+        this.a = data;
+        this.rows = rows;
+        this.columns = columns;
     }
 
     public static Matrix createIdentity(int size) {
@@ -39,21 +62,24 @@ public class Matrix {
     // Elementary row operations
 
     public void switchRows(int rowA, int rowB) {
+        int oa = rowA * columns, ob = rowB * columns;
         for (int i = 0; i < columns ; i++) {
-            double tmp = m[rowA][i];
-            m[rowA][i] = m[rowB][i];
-            m[rowB][i] = tmp;
+            double tmp = a[oa + i];
+            a[oa + i] = a[ob + i];
+            a[ob + i] = tmp;
         }
     }
 
     public void multiplyRow(int row, double factor) {
+        int o = row * columns;
         for (int i = 0; i < columns; i++)
-            m[row][i] *= factor;
+            a[o + i] *= factor;
     }
 
     public void addRow(int targetRow, int multRow, double factor) {
+        int ot = targetRow * columns, om = multRow * columns;
         for (int i = 0; i < columns; i++)
-            m[targetRow][i] += m[multRow][i]*factor;
+            a[ot + i] += a[om + i] * factor;
     }
 
     // Operators
@@ -67,77 +93,123 @@ public class Matrix {
     }
 
     public static Matrix mul(Matrix a, Matrix b) {
+        return mul(a, b, null);
+    }
+
+    /**
+     * Multiplies the matrices in cache-sized blocks, splitting the rows of the result into tasks in the pool.
+     * @param pool the pool to run in, or null to multiply in the calling thread
+     */
+    public static Matrix mul(Matrix a, Matrix b, ForkJoinPool pool) {
         if (a.columns != b.rows)
             throw new IllegalArgumentException();
 
         Matrix matrix = new Matrix(a.rows, b.columns);
-        for (int i = 0; i < a.rows; i++) {
-            for (int j = 0; j < b.columns; j++) {
-                double sum = 0.0;
-                for (int k = 0; k < a.columns; k++)
-                    sum += a.get(i,k) * b.get(k,j);
-                matrix.set(i,j,sum);
+        MultiplyTask task = new MultiplyTask(a, b, matrix, 0, a.rows);
+        if (pool == null)
+            task.multiply();
+        else
+            pool.invoke(task);
+        return matrix;
+    }
+
+    private static class MultiplyTask extends RecursiveAction {
+        private final Matrix a, b, c;
+        private final int from, to;
+
+        MultiplyTask(Matrix a, Matrix b, Matrix c, int from, int to) {
+            this.a = a;
+            this.b = b;
+            this.c = c;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from >= 16 && (long) (to - from) * a.columns * b.columns > PARALLEL_WORK) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new MultiplyTask(a, b, c, from, mid), new MultiplyTask(a, b, c, mid, to));
+            } else {
+                multiply();
+            }
+        }
+
+        // Rows from..to of c += a * b, in i-k-j order within each block so the inner loop is over rows of b and c
+        void multiply() {
+            int n = a.columns, m = b.columns;
+            double[] x = a.a, y = b.a, z = c.a;
+            for (int k0 = 0; k0 < n; k0 += BLOCK_K) {
+                int k1 = Math.min(n, k0 + BLOCK_K);
+                for (int j0 = 0; j0 < m; j0 += BLOCK_J) {
+                    int j1 = Math.min(m, j0 + BLOCK_J);
+                    for (int i = from; i < to; i++) {
+                        int ci = i * m;
+                        for (int k = k0; k < k1; k++) {
+                            double v = x[i * n + k];
+                            if (v == 0) continue;
+                            int bk = k * m;
+                            for (int j = j0; j < j1; j++)
+                                z[ci + j] += v * y[bk + j];
+                        }
+                    }
+                }
             }
         }
+    }
+
+    public static Matrix transform(Matrix a, UnaryTransformation func) {
+        Matrix matrix = new Matrix(a.rows, a.columns);
+        for (int i = 0; i < a.a.length; i++)
+            matrix.a[i] = func.transform(a.a[i]);
         return matrix;
     }
 
-    private static Matrix transform(Matrix a, UnaryTransformation func) {
+    public static Matrix transform(Matrix a, Matrix b, BinaryTransformation func) {
+        checkSameSize(a, b);
         Matrix matrix = new Matrix(a.rows, a.columns);
-        for (int i = 0; i < a.rows; i++)
-            for (int j = 0; j < a.columns; j++)
-                matrix.set(i,j,func.transform(a.get(i, j)));
+        for (int i = 0; i < a.a.length; i++)
+            matrix.a[i] = func.transform(a.a[i], b.a[i]);
         return matrix;
     }
 
-    private static Matrix transform(Matrix a, Matrix b, BinaryTransformation func) {
+    private static void checkSameSize(Matrix a, Matrix b) {
         if (a.rows != b.rows || a.columns != b.columns)
             throw new IllegalArgumentException();
-        Matrix matrix = new Matrix(a.rows, a.columns);
-        for (int i = 0; i < a.rows; i++)
-            for (int j = 0; j < a.columns; j++)
-                matrix.set(i,j,func.transform(a.get(i, j), b.get(i, j)));
-        return matrix;
     }
 
     public static Matrix add(Matrix a, Matrix b) {
-        return transform(a, b, new BinaryTransformation() {
-            public double transform(double x, double y) {
-                return x + y;
-            }
-        });
+        checkSameSize(a, b);
+        double[] x = a.a, y = b.a, z = new double[x.length];
+        for (int i = 0; i < z.length; i++)
+            z[i] = x[i] + y[i];
+        return new Matrix(a.rows, a.columns, z);
     }
 
     public static Matrix sub(Matrix a, Matrix b) {
-        return transform(a, b, new BinaryTransformation() {
-            public double transform(double x, double y) {
-                return x - y;
-            }
-        });
+        checkSameSize(a, b);
+        double[] x = a.a, y = b.a, z = new double[x.length];
+        for (int i = 0; i < z.length; i++)
+            z[i] = x[i] - y[i];
+        return new Matrix(a.rows, a.columns, z);
     }
 
     public static Matrix mul(Matrix a, final double b) {
-        return transform(a, new UnaryTransformation() {
-            public double transform(double x) {
-                return x * b;
-            }
-        });
+        double[] x = a.a, z = new double[x.length];
+        for (int i = 0; i < z.length; i++)
+            z[i] = x[i] * b;
+        return new Matrix(a.rows, a.columns, z);
     }
 
     public static Matrix add(Matrix a, final double b) {
-        return transform(a, new UnaryTransformation() {
-            public double transform(double x) {
-                return x + b;
-            }
-        });
+        double[] x = a.a, z = new double[x.length];
+        for (int i = 0; i < z.length; i++)
+            z[i] = x[i] + b;
+        return new Matrix(a.rows, a.columns, z);
     }
 
     public static Matrix sub(Matrix a, final double b) {
-        return transform(a, new UnaryTransformation() {
-            public double transform(double x) {
-                return x - b;
-            }
-        });
+        return add(a, -b);
     }
 
     // Algorithms
@@ -150,17 +222,17 @@ public class Matrix {
         for (int i = 0, j = 0; i < rows && j < columns; j++) {
             int maxi = i;
             for (int k = i + 1; k < rows; k++)
-                if (Math.abs(m[k][j]) > Math.abs(m[maxi][j]))
+                if (Math.abs(get(k, j)) > Math.abs(get(maxi, j)))
                     maxi = k;
 
-            if (!almostZero(m[maxi][j])) {
+            if (!almostZero(get(maxi, j))) {
                 int tmp = rowPivot[i];
                 rowPivot[i] = rowPivot[maxi];
                 rowPivot[maxi] = tmp;
                 switchRows(i, maxi);
-                multiplyRow(i, 1 / m[i][j]);
+                multiplyRow(i, 1 / get(i, j));
                 for (int u = i + 1; u < rows; u++)
-                    addRow(u, i, -m[u][j]);
+                    addRow(u, i, -get(u, j));
                 i++;
             }
         }
@@ -173,10 +245,10 @@ public class Matrix {
 
         for (int i = rows - 1; i >= 0; i--) {
             int j = 0;
-            while (j < columns - 1 && almostZero(m[i][j])) j++;
+            while (j < columns - 1 && almostZero(get(i, j))) j++;
             if (j < columns - 1) {
                 for (int k = 0; k < i; k++) {
-                    addRow(k, i, -m[k][j] / m[i][j]);
+                    addRow(k, i, -get(k, j) / get(i, j));
                 }
             }
         }
@@ -203,8 +275,8 @@ public class Matrix {
         for (int i = 0; i < sol.length; i++) {
             if (!Double.isNaN(sol[i])) {
                 for (int j = 0; j < rows; j++) {
-                    m[j][columns-1] -= m[j][i] * sol[i];
-                    m[j][i] = 0.0;
+                    a[j * columns + columns - 1] -= get(j, i) * sol[i];
+                    set(j, i, 0.0);
                 }
             }
         }
@@ -214,20 +286,20 @@ public class Matrix {
         int last = columns - 1;
         for (int i = rows - 1; i >= 0; i--) {
             int j = 0;
-            while (almostZero(m[i][j]) && j < last)
+            while (almostZero(get(i, j)) && j < last)
                 j++;
             if (j == last) {
-                if (almostZero(m[i][columns - 1]))
+                if (almostZero(get(i, columns - 1)))
                     continue;
                 return null;
             }
-            double v = m[i][columns - 1];
+            double v = get(i, columns - 1);
             boolean free = false;
             for (int k = j + 1; k < columns - 1; k++) {
-                if (!almostZero(m[i][k]) && Double.isNaN(sol[k]))
+                if (!almostZero(get(i, k)) && Double.isNaN(sol[k]))
                     free = true;
                 else
-                    v -= m[i][k] * (Double.isNaN(sol[k]) ? 0 : sol[k]);
+                    v -= get(i, k) * (Double.isNaN(sol[k]) ? 0 : sol[k]);
             }
             if (!free) {
                 if (!Double.isNaN(sol[j]) && !almostZero(sol[j] - v))
@@ -258,7 +330,7 @@ public class Matrix {
         for (int i = 0; i < rows; i++) {
             boolean nonEmpty = false;
             for (int j = 0; j < columns && !nonEmpty; j++) {
-                if (!almostZero(m[i][j]))
+                if (!almostZero(get(i, j)))
                     nonEmpty = true;
             }
             if (nonEmpty)
@@ -272,19 +344,19 @@ public class Matrix {
         for (int i = 0, j = 0; i < rows && j < columns; j++) {
             int maxi = i;
             for (int k = i + 1; k < rows; k++)
-                if (Math.abs(m[k][j]) > Math.abs(m[maxi][j]))
+                if (Math.abs(get(k, j)) > Math.abs(get(maxi, j)))
                     maxi = k;
 
-            if (almostZero(m[maxi][j]))
+            if (almostZero(get(maxi, j)))
                 return 0;
 
             if (i != maxi)
                 det = -det;
             switchRows(i, maxi);
-            det *= m[i][j];
-            multiplyRow(i, 1 / m[i][j]);
+            det *= get(i, j);
+            multiplyRow(i, 1 / get(i, j));
             for (int u = i + 1; u < rows; u++)
-                addRow(u, i, -m[u][j]);
+                addRow(u, i, -get(u, j));
             i++;
         }
         return det;
@@ -296,8 +368,7 @@ public class Matrix {
 
         Matrix subMatrix = new Matrix(r1-r0, c1-c0);
         for (int i = r0; i < r1; i++)
-            for (int j = c0; j < c1; j++)
-                subMatrix.set(i - r0, j - c0, m[i][j]);
+            System.arraycopy(a, i * columns + c0, subMatrix.a, (i - r0) * subMatrix.columns, c1 - c0);
         return subMatrix;
     }
 
@@ -307,37 +378,36 @@ public class Matrix {
 
         Matrix augmentedMatrix = new Matrix(rows, columns + matrix.columns);
         for (int i = 0; i < rows; i++) {
-            for (int j = 0; j < columns; j++)
-                augmentedMatrix.set(i,j, m[i][j]);
-            for (int j = 0; j < matrix.columns; j++)
-                augmentedMatrix.set(i, j + columns, matrix.get(i,j));
+            System.arraycopy(a, i * columns, augmentedMatrix.a, i * augmentedMatrix.columns, columns);
+            System.arraycopy(matrix.a, i * matrix.columns, augmentedMatrix.a, i * augmentedMatrix.columns + columns, matrix.columns);
         }
         return augmentedMatrix;
     }
 
+    /**
+     * @throws IllegalStateException if the matrix is singular
+     */
     public Matrix getInverse() {
+        return getInverse(null);
+    }
+
+    /**
+     * Inverts the matrix with an LU decomposition, running the elimination steps in the pool (or in the calling
+     * thread if it's null).
+     * @throws IllegalStateException if the matrix is singular
+     */
+    public Matrix getInverse(ForkJoinPool pool) {
         if (rows != columns)
             throw new IllegalArgumentException("Matrix must be square.");
-
-        // No check if inverse exists is done here
-        Matrix dirty = getAugmentedMatrix(createIdentity(rows));
-        dirty.gaussElimination();
-
-        for (int i = rows - 1; i >= 0; i--)
-            for (int j = 0; j < i; j++)
-                dirty.addRow(j, i, -dirty.get(j, i));
-
-        return dirty.getSubMatrix(0, rows, columns, dirty.columns);
+        return new LUDecomposition(this, pool).solve(createIdentity(rows));
     }
 
     public boolean equals(Matrix other) {
         if (rows != other.rows || columns != other.columns)
             return false;
-        for (int y = 0; y < rows; y++) {
-            for (int x = 0; x < columns; x++) {
-                if (!almostZero(m[y][x] - other.get(y,x)))
-                    return false;
-            }
+        for (int i = 0; i < a.length; i++) {
+            if (!almostZero(a[i] - other.a[i]))
+                return false;
         }
         return true;
     }
@@ -353,7 +423,7 @@ public class Matrix {
         for (int i = 0; i < rows; i++) {
             sb.append("[ ");
             for (int j = 0; j < columns; j++) {
-                sb.append(String.format("%7.3f", m[i][j]));
+                sb.append(String.format("%7.3f", get(i, j)));
                 sb.append(" ");
             }
             sb.append("]\n");
@@ -362,6 +432,6 @@ public class Matrix {
     }
 
     public Matrix clone() {
-        return getSubMatrix(0, rows, 0, columns);
+        return new Matrix(rows, columns, a.clone());
     }
 }
@@ -1,13 +1,18 @@
 package yarin.yal.mathlib;
 
+import java.util.Arrays;
+
 public class MatrixInt {
     private final int[][] m;
     private final int rows, columns, mod;
+    private final double inverse;
 
     public int getRows() { return rows; }
 
     public int getColumns() { return columns; }
 
+    public int getMod() { return mod; }
+
     public int get(int y, int x) { return m[y][x]; }
 
     public void set(int y, int x, int value) { m[y][x] = value; }
@@ -17,6 +22,7 @@ public class MatrixInt {
         this.rows = rows;
         this.columns = columns;
         this.mod = mod;
+        this.inverse = 1.0 / mod;
     }
 
     public MatrixInt(int[][] m, int mod) {
@@ -24,6 +30,7 @@ public class MatrixInt {
         this.rows = m.length;
         this.columns = m[0].length;
         this.mod = mod;
+        this.inverse = 1.0 / mod;
 
         fixAll();
     }
@@ -86,17 +93,92 @@ public class MatrixInt {
             throw new IllegalArgumentException();
 
         MatrixInt matrix = new MatrixInt(a.getRows(), b.getColumns(), a.mod);
-        for (int i = 0; i < a.getRows(); i++) {
-            for (int j = 0; j < b.getColumns(); j++) {
-                long sum = 0;
-                for (int k = 0; k < a.getColumns(); k++)
-                    sum += (long) a.get(i,k) * b.get(k,j);
-                matrix.set(i,j, (int) (sum % a.mod));
+        a.multiply(a.m, b.m, matrix.m, new long[b.getColumns()]);
+        return matrix;
+    }
+
+    /**
+     * Raises the matrix to the power e by repeated squaring, in O(n^3 log e). Only three n x n buffers are
+     * allocated, which are reused by all the multiplications.
+     */
+    public MatrixInt pow(long e) {
+        if (rows != columns)
+            throw new IllegalArgumentException("Matrix must be square.");
+        if (e < 0)
+            throw new IllegalArgumentException("Negative exponent.");
+
+        int[][] result = createIdentity(rows, mod).m, base = new int[rows][], tmp = new int[rows][columns];
+        for (int i = 0; i < rows; i++)
+            base[i] = m[i].clone();
+        long[] acc = new long[columns];
+        boolean identity = true;
+        for (; e > 0; e >>= 1) {
+            if ((e & 1) != 0) {
+                if (identity) {
+                    for (int i = 0; i < rows; i++)
+                        System.arraycopy(base[i], 0, result[i], 0, columns);
+                    identity = false;
+                } else {
+                    multiply(result, base, tmp, acc);
+                    int[][] t = result; result = tmp; tmp = t;
+                }
+            }
+            if (e > 1) {
+                multiply(base, base, tmp, acc);
+                int[][] t = base; base = tmp; tmp = t;
             }
         }
+        MatrixInt matrix = new MatrixInt(rows, columns, mod);
+        for (int i = 0; i < rows; i++)
+            System.arraycopy(result[i], 0, matrix.m[i], 0, columns);
         return matrix;
     }
 
+    /**
+     * z = x * y, where z must not be x or y and all entries are in [0, mod). The products are accumulated in
+     * longs in i-k-j order, so the inner loop runs along rows. The accumulators are only reduced when more
+     * products could overflow them, which for a mod below 2^26 and n below 2^11 means once per entry.
+     */
+    private void multiply(int[][] x, int[][] y, int[][] z, long[] acc) {
+        int inner = y.length, cols = acc.length;
+        long maxProduct = (long) (mod - 1) * (mod - 1);
+        // Products that can be added to a reduced accumulator without overflow
+        int chunk = maxProduct == 0 ? inner : (int) Math.min(inner, (Long.MAX_VALUE - mod) / maxProduct);
+        for (int i = 0; i < x.length; i++) {
+            Arrays.fill(acc, 0);
+            int[] xi = x[i];
+            for (int k0 = 0; k0 < inner; k0 += chunk) {
+                int k1 = Math.min(inner, k0 + chunk);
+                if (k0 > 0) {
+                    for (int j = 0; j < cols; j++)
+                        acc[j] = reduce(acc[j]);
+                }
+                for (int k = k0; k < k1; k++) {
+                    long v = xi[k];
+                    if (v == 0) continue;
+                    int[] yk = y[k];
+                    for (int j = 0; j < cols; j++)
+                        acc[j] += v * yk[j];
+                }
+            }
+            int[] zi = z[i];
+            for (int j = 0; j < cols; j++)
+                zi[j] = reduce(acc[j]);
+        }
+    }
+
+    /**
+     * Barrett reduction of a non-negative x, with the quotient estimated with the floating point inverse
+     * of mod. The estimate is off by at most one when x < 2^53 or mod >= 2^12, which holds for the sums in
+     * multiply: with a smaller mod, a row of products can't exceed 2^53.
+     */
+    private int reduce(long x) {
+        long r = x - (long) (x * inverse) * mod;
+        if (r < 0) r += mod;
+        else if (r >= mod) r -= mod;
+        return (int) r;
+    }
+
     private static MatrixInt transform(MatrixInt a, UnaryTransformation func) {
         MatrixInt matrix = new MatrixInt(a.rows, a.columns, a.mod);
         for (int i = 0; i < a.rows; i++)
@@ -142,7 +224,7 @@ public class MatrixInt {
     public static MatrixInt mul(final MatrixInt a, final int b) {
         return transform(a, new UnaryTransformation() {
             public int transform(int x) {
-                return (int) ((long) x * b) % a.mod;
+                return (int) (((long) x * b) % a.mod);
             }
         });
     }
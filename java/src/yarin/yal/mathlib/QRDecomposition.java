@@ -0,0 +1,121 @@
+package yarin.yal.mathlib;
+
+/**
+ * QR decomposition with Householder reflections of a matrix with at least as many rows as columns,
+ * computed once in O(m n^2) and then used to find the least squares solution of Ax = b in O(m n) each.
+ * This is more stable than LU for ill-conditioned systems, and also handles overdetermined ones.
+ *
+ * The reflection vectors and R are stored column by column, so that all inner loops run over contiguous
+ * memory.
+ */
+public class QRDecomposition {
+    private final int m, n;
+    private final double[] qr; // Column k at [k * m, (k + 1) * m)
+    private final double[] rDiagonal;
+
+    public QRDecomposition(Matrix matrix) {
+        m = matrix.getRows();
+        n = matrix.getColumns();
+        if (m < n)
+            throw new IllegalArgumentException("There must be at least as many rows as columns.");
+        double[] a = matrix.getData();
+        qr = new double[m * n];
+        for (int i = 0; i < m; i++)
+            for (int j = 0; j < n; j++)
+                qr[j * m + i] = a[i * n + j];
+        rDiagonal = new double[n];
+
+        for (int k = 0; k < n; k++) {
+            int ok = k * m;
+            double norm = 0;
+            for (int i = k; i < m; i++)
+                norm += qr[ok + i] * qr[ok + i];
+            norm = Math.sqrt(norm);
+            if (norm != 0) {
+                if (qr[ok + k] < 0)
+                    norm = -norm;
+                for (int i = k; i < m; i++)
+                    qr[ok + i] /= norm;
+                qr[ok + k] += 1;
+                // Apply the reflection to the remaining columns
+                for (int j = k + 1; j < n; j++) {
+                    int oj = j * m;
+                    double s = 0;
+                    for (int i = k; i < m; i++)
+                        s += qr[ok + i] * qr[oj + i];
+                    s = -s / qr[ok + k];
+                    for (int i = k; i < m; i++)
+                        qr[oj + i] += s * qr[ok + i];
+                }
+            }
+            rDiagonal[k] = -norm;
+        }
+    }
+
+    /**
+     * @return true if no diagonal element of R is 0 up to rounding errors, i.e. at most m times the machine
+     * epsilon times the largest one
+     */
+    public boolean isFullRank() {
+        double largest = 0;
+        for (double d : rDiagonal)
+            largest = Math.max(largest, Math.abs(d));
+        double tolerance = m * largest * Math.ulp(1.0);
+        for (double d : rDiagonal)
+            if (Math.abs(d) <= tolerance)
+                return false;
+        return true;
+    }
+
+    /**
+     * @return the x minimizing the 2-norm of Ax - b
+     * @throws IllegalStateException if the matrix isn't full rank
+     */
+    public double[] solve(double[] b) {
+        if (b.length != m)
+            throw new IllegalArgumentException("Wrong number of rows.");
+        if (!isFullRank())
+            throw new IllegalStateException("Matrix is rank deficient.");
+        double[] x = b.clone();
+        // x = Q^T b
+        for (int k = 0; k < n; k++) {
+            int ok = k * m;
+            double s = 0;
+            for (int i = k; i < m; i++)
+                s += qr[ok + i] * x[i];
+            s = -s / qr[ok + k];
+            for (int i = k; i < m; i++)
+                x[i] += s * qr[ok + i];
+        }
+        // Solve R x = Q^T b, subtracting each solved column of R from the rows above it
+        for (int k = n - 1; k >= 0; k--) {
+            x[k] /= rDiagonal[k];
+            int ok = k * m;
+            for (int i = 0; i < k; i++)
+                x[i] -= x[k] * qr[ok + i];
+        }
+        double[] result = new double[n];
+        System.arraycopy(x, 0, result, 0, n);
+        return result;
+    }
+
+    /**
+     * @return the X minimizing the Frobenius norm of AX - B
+     * @throws IllegalStateException if the matrix isn't full rank
+     */
+    public Matrix solve(Matrix b) {
+        if (b.getRows() != m)
+            throw new IllegalArgumentException("Wrong number of rows.");
+        int columns = b.getColumns();
+        Matrix result = new Matrix(n, columns);
+        double[] column = new double[m];
+        for (int j = 0; j < columns; j++) {
+            for (int i = 0; i < m; i++)
+                column[i] = b.get(i, j);
+            double[] x = solve(column);
+            for (int i = 0; i < n; i++)
+                result.set(i, j, x[i]);
+        }
+        return result;
+    }
+}
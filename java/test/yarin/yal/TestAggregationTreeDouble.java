@@ -0,0 +1,70 @@
+package yarin.yal;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Random;
+
+public class TestAggregationTreeDouble {
+
+    @Test
+    public void testMonoids() {
+        Random r = new Random(0);
+        for (int n = 1; n < 300; n += 37) {
+            double[] data = new double[n];
+            for (int i = 0; i < n; i++) {
+                data[i] = randomValue(r);
+            }
+            AggregationTreeDouble sumTree = new AggregationTreeDouble(data, AggregationTreeDouble.SUM);
+            AggregationTreeDouble minTree = new AggregationTreeDouble(data, AggregationTreeDouble.MIN);
+            AggregationTreeDouble maxTree = new AggregationTreeDouble(data, AggregationTreeDouble.MAX);
+
+            for (int i = 0; i < 5000; i++) {
+                int start = r.nextInt(n);
+                int stop = start + 1 + r.nextInt(n - start);
+
+                double sum = 0, min = Double.POSITIVE_INFINITY, max = Double.NEGATIVE_INFINITY;
+                for (int j = start; j < stop; j++) {
+                    sum += data[j];
+                    min = Math.min(min, data[j]);
+                    max = Math.max(max, data[j]);
+                }
+                // The values are multiples of 1/4, so the sums are exact in any order
+                Assert.assertEquals(sum, sumTree.query(start, stop), 0);
+                Assert.assertEquals(min, minTree.query(start, stop), 0);
+                Assert.assertEquals(max, maxTree.query(start, stop), 0);
+
+                int ix = r.nextInt(n);
+                double v = randomValue(r);
+                data[ix] = v;
+                sumTree.set(ix, v);
+                minTree.set(ix, v);
+                maxTree.set(ix, v);
+                Assert.assertEquals(v, maxTree.get(ix), 0);
+            }
+        }
+    }
+
+    private static double randomValue(Random r) {
+        return (r.nextInt(4001) - 3000) / 4.0;
+    }
+
+    @Test
+    public void testAllNegativeAndInfinite() {
+        // The identities of min and max are infinite, so that no finite value is mistaken for a best one
+        AggregationTreeDouble maxTree = new AggregationTreeDouble(new double[] { -3.5, -1e300, -2 }, AggregationTreeDouble.MAX);
+        Assert.assertEquals(-2, maxTree.query(0, 3), 0);
+        Assert.assertEquals(-1e300, maxTree.query(1, 2), 0);
+        maxTree.set(1, Double.NEGATIVE_INFINITY);
+        Assert.assertEquals(Double.NEGATIVE_INFINITY, maxTree.query(1, 2), 0);
+        AggregationTreeDouble minTree = new AggregationTreeDouble(3, Double.POSITIVE_INFINITY, AggregationTreeDouble.MIN);
+        Assert.assertEquals(Double.POSITIVE_INFINITY, minTree.query(0, 3), 0);
+        minTree.set(2, 1e300);
+        Assert.assertEquals(1e300, minTree.query(0, 3), 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testEmptyRange() {
+        new AggregationTreeDouble(10, 0, AggregationTreeDouble.SUM).query(3, 3);
+    }
+}
@@ -0,0 +1,62 @@
+package yarin.yal;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Random;
+
+public class TestAggregationTreeInt {
+
+    @Test
+    public void testMonoids() {
+        Random r = new Random(0);
+        for (int n = 1; n < 300; n += 37) {
+            int[] data = new int[n];
+            for (int i = 0; i < n; i++) {
+                data[i] = r.nextInt(2001) - 1000;
+            }
+            AggregationTreeInt sumTree = new AggregationTreeInt(data, AggregationTreeInt.SUM);
+            AggregationTreeInt minTree = new AggregationTreeInt(data, AggregationTreeInt.MIN);
+            AggregationTreeInt maxTree = new AggregationTreeInt(data, AggregationTreeInt.MAX);
+
+            for (int i = 0; i < 5000; i++) {
+                int start = r.nextInt(n);
+                int stop = start + 1 + r.nextInt(n - start);
+
+                int sum = 0, min = Integer.MAX_VALUE, max = Integer.MIN_VALUE;
+                for (int j = start; j < stop; j++) {
+                    sum += data[j];
+                    min = Math.min(min, data[j]);
+                    max = Math.max(max, data[j]);
+                }
+                Assert.assertEquals(sum, sumTree.query(start, stop));
+                Assert.assertEquals(min, minTree.query(start, stop));
+                Assert.assertEquals(max, maxTree.query(start, stop));
+
+                int ix = r.nextInt(n);
+                int v = r.nextInt(2001) - 1000;
+                data[ix] = v;
+                sumTree.set(ix, v);
+                minTree.set(ix, v);
+                maxTree.set(ix, v);
+                Assert.assertEquals(v, minTree.get(ix));
+            }
+        }
+    }
+
+    @Test
+    public void testDefaultValue() {
+        AggregationTreeInt minTree = new AggregationTreeInt(5, 7, AggregationTreeInt.MIN);
+        AggregationTreeInt sumTree = new AggregationTreeInt(5, 7, AggregationTreeInt.SUM);
+        Assert.assertEquals(7, minTree.query(0, 5));
+        Assert.assertEquals(35, sumTree.query(0, 5));
+        minTree.set(4, Integer.MIN_VALUE);
+        Assert.assertEquals(Integer.MIN_VALUE, minTree.query(3, 5));
+        Assert.assertEquals(7, minTree.query(0, 4));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testEmptyRange() {
+        new AggregationTreeInt(10, 0, AggregationTreeInt.SUM).query(3, 3);
+    }
+}
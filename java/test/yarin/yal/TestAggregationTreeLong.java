@@ -0,0 +1,111 @@
+package yarin.yal;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Random;
+
+public class TestAggregationTreeLong {
+
+    @Test
+    public void testMonoids() {
+        Random r = new Random(0);
+        int n = 1000;
+        long[] data = new long[n];
+        for (int i = 0; i < n; i++) {
+            data[i] = r.nextLong() >> 20;
+        }
+        AggregationTreeLong sumTree = new AggregationTreeLong(data, AggregationTreeLong.SUM);
+        AggregationTreeLong minTree = new AggregationTreeLong(data, AggregationTreeLong.MIN);
+        AggregationTreeLong maxTree = new AggregationTreeLong(data, AggregationTreeLong.MAX);
+
+        for (int i = 0; i < 20000; i++) {
+            int start = r.nextInt(n);
+            int stop = start + 1 + r.nextInt(Math.min(n - start, 100));
+
+            long sum = 0, min = Long.MAX_VALUE, max = Long.MIN_VALUE;
+            for (int j = start; j < stop; j++) {
+                sum += data[j];
+                min = Math.min(min, data[j]);
+                max = Math.max(max, data[j]);
+            }
+            Assert.assertEquals(sum, sumTree.query(start, stop));
+            Assert.assertEquals(min, minTree.query(start, stop));
+            Assert.assertEquals(max, maxTree.query(start, stop));
+
+            int ix = r.nextInt(n);
+            long v = r.nextLong() >> 20;
+            data[ix] = v;
+            sumTree.set(ix, v);
+            minTree.set(ix, v);
+            maxTree.set(ix, v);
+            Assert.assertEquals(v, sumTree.get(ix));
+        }
+    }
+
+    @Test
+    public void testNonCommutative() {
+        // Composition of affine functions x -> a*x + b mod P, packed as a*P + b
+        final long P = 1000003;
+        AggregationTreeLong.Monoid compose = new AggregationTreeLong.Monoid() {
+            public long identity() { return P; }
+            public long combine(long first, long second) {
+                long a1 = first / P, b1 = first % P, a2 = second / P, b2 = second % P;
+                // Apply first, then second
+                return (a2 * a1 % P) * P + (a2 * b1 + b2) % P;
+            }
+        };
+        Random r = new Random(0);
+        for (int n = 1; n < 70; n++) {
+            long[] data = new long[n];
+            for (int i = 0; i < n; i++) {
+                data[i] = (1 + r.nextInt((int) P - 1)) * P + r.nextInt((int) P);
+            }
+            AggregationTreeLong tree = new AggregationTreeLong(data, compose);
+            for (int start = 0; start < n; start++) {
+                long expected = compose.identity();
+                for (int stop = start + 1; stop <= n; stop++) {
+                    expected = compose.combine(expected, data[stop - 1]);
+                    Assert.assertEquals(expected, tree.query(start, stop));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testIntAndDouble() {
+        Random r = new Random(0);
+        int n = 500;
+        AggregationTreeInt intTree = new AggregationTreeInt(n, 1, AggregationTreeInt.SUM);
+        AggregationTreeDouble doubleTree = new AggregationTreeDouble(n, 0.5, AggregationTreeDouble.MAX);
+        int[] ints = new int[n];
+        double[] doubles = new double[n];
+        for (int i = 0; i < n; i++) {
+            ints[i] = 1;
+            doubles[i] = 0.5;
+        }
+        for (int i = 0; i < 10000; i++) {
+            int ix = r.nextInt(n);
+            ints[ix] = r.nextInt(1000) - 500;
+            doubles[ix] = r.nextDouble();
+            intTree.set(ix, ints[ix]);
+            doubleTree.set(ix, doubles[ix]);
+
+            int start = r.nextInt(n);
+            int stop = start + 1 + r.nextInt(n - start);
+            int sum = 0;
+            double max = Double.NEGATIVE_INFINITY;
+            for (int j = start; j < stop; j++) {
+                sum += ints[j];
+                max = Math.max(max, doubles[j]);
+            }
+            Assert.assertEquals(sum, intTree.query(start, stop));
+            Assert.assertEquals(max, doubleTree.query(start, stop), 0);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testEmptyRange() {
+        new AggregationTreeLong(10, 0, AggregationTreeLong.SUM).query(3, 3);
+    }
+}
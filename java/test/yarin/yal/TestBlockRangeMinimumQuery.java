@@ -0,0 +1,53 @@
+package yarin.yal;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+public class TestBlockRangeMinimumQuery {
+
+    @Test
+    public void testAllRanges() {
+        Random r = new Random(0);
+        for (int size = 1; size <= 200; size += 7) {
+            int[] a = new int[size];
+            for (int i = 0; i < size; i++) {
+                a[i] = r.nextInt(20) - 10;
+            }
+            for (boolean maximum : new boolean[] {false, true}) {
+                BlockRangeMinimumQuery rmq = new BlockRangeMinimumQuery(a, maximum, null);
+                for (int start = 0; start < size; start++) {
+                    for (int end = start + 1; end <= size; end++) {
+                        Assert.assertEquals(TestSparseTableRangeMinimumQuery.naive(a, start, end, maximum),
+                                rmq.query(start, end));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testLargeParallel() {
+        Random r = new Random(1);
+        int[] a = new int[1000003];
+        for (int i = 0; i < a.length; i++) {
+            a[i] = r.nextInt();
+        }
+        ForkJoinPool pool = new ForkJoinPool(4);
+        BlockRangeMinimumQuery block = new BlockRangeMinimumQuery(a, true, pool);
+        SparseTableRangeMinimumQuery sparse = new SparseTableRangeMinimumQuery(a, true);
+        int q = 200000;
+        int[] starts = new int[q], ends = new int[q];
+        for (int i = 0; i < q; i++) {
+            int x = r.nextInt(a.length), y = i % 2 == 0 ? x + r.nextInt(Math.min(100, a.length - x)) : r.nextInt(a.length);
+            starts[i] = Math.min(x, y);
+            ends[i] = Math.max(x, y) + 1;
+        }
+        int[] expected = new int[q], actual = new int[q];
+        sparse.query(starts, ends, expected);
+        block.query(starts, ends, actual, pool);
+        Assert.assertArrayEquals(expected, actual);
+    }
+}
@@ -0,0 +1,91 @@
+package yarin.yal;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class TestConcurrentLongIntCache {
+
+    private static int valueOf(long key) {
+        return (int) ((key * 31) >>> 40);
+    }
+
+    @Test
+    public void testSequential() {
+        ConcurrentLongIntCache cache = new ConcurrentLongIntCache(1000);
+        Assert.assertEquals(1024, cache.capacity());
+        for (long key = 0; key < 500; key++) {
+            cache.put(key * 1234567891L, valueOf(key));
+        }
+        int found = 0;
+        for (long key = 0; key < 500; key++) {
+            int v = cache.get(key * 1234567891L);
+            if (v >= 0) {
+                Assert.assertEquals(valueOf(key), v);
+                found++;
+            }
+        }
+        Assert.assertTrue(found > 490);
+        Assert.assertEquals(-1, cache.get(-5));
+        cache.clear();
+        Assert.assertEquals(-1, cache.get(0));
+    }
+
+    @Test
+    public void testOverwrite() {
+        ConcurrentLongIntCache cache = new ConcurrentLongIntCache(64);
+        cache.put(5, 1);
+        cache.put(5, 2);
+        Assert.assertEquals(2, cache.get(5));
+        cache.put(5, 2);
+        Assert.assertEquals(2, cache.get(5));
+        cache.put(5, 0);
+        Assert.assertEquals(0, cache.get(5));
+    }
+
+    @Test
+    public void testEviction() {
+        ConcurrentLongIntCache cache = new ConcurrentLongIntCache(16);
+        for (long key = 0; key < 10000; key++) {
+            cache.put(key, valueOf(key));
+        }
+        int found = 0;
+        for (long key = 0; key < 10000; key++) {
+            int v = cache.get(key);
+            if (v >= 0) {
+                Assert.assertEquals(valueOf(key), v);
+                found++;
+            }
+        }
+        Assert.assertTrue(found <= 16);
+    }
+
+    @Test
+    public void testConcurrent() throws InterruptedException {
+        final ConcurrentLongIntCache cache = new ConcurrentLongIntCache(256);
+        final AtomicInteger wrong = new AtomicInteger();
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            final int seed = t;
+            threads[t] = new Thread(() -> {
+                long x = seed;
+                for (int i = 0; i < 500000; i++) {
+                    x = x * 6364136223846793005L + 1442695040888963407L;
+                    long key = (x >>> 54);
+                    if ((i & 1) == 0) {
+                        cache.put(key, valueOf(key));
+                    } else {
+                        int v = cache.get(key);
+                        if (v >= 0 && v != valueOf(key)) wrong.incrementAndGet();
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        Assert.assertEquals(0, wrong.get());
+    }
+}
@@ -0,0 +1,73 @@
+package yarin.yal;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class TestConcurrentUnionFind {
+
+    @Test
+    public void testSequential() {
+        Random r = new Random(0);
+        int n = 2000;
+        UnionFind expected = new UnionFind(n);
+        ConcurrentUnionFind uf = new ConcurrentUnionFind(n);
+        for (int i = 0; i < 3000; i++) {
+            int a = r.nextInt(n), b = r.nextInt(n);
+            boolean different = expected.findSet(a) != expected.findSet(b);
+            expected.unionSet(a, b);
+            Assert.assertEquals(different, uf.unionSet(a, b));
+            int c = r.nextInt(n), d = r.nextInt(n);
+            Assert.assertEquals(expected.findSet(c) == expected.findSet(d), uf.sameSet(c, d));
+        }
+    }
+
+    @Test
+    public void testConcurrentUnions() throws InterruptedException {
+        Random r = new Random(0);
+        int n = 200000, m = 150000, threads = 4;
+        final int[] a = new int[m], b = new int[m];
+        UnionFind expected = new UnionFind(n);
+        int expectedMerges = 0;
+        for (int i = 0; i < m; i++) {
+            a[i] = r.nextInt(n);
+            b[i] = r.nextInt(n);
+            if (expected.findSet(a[i]) != expected.findSet(b[i])) {
+                expectedMerges++;
+            }
+            expected.unionSet(a[i], b[i]);
+        }
+
+        final ConcurrentUnionFind uf = new ConcurrentUnionFind(n);
+        final AtomicInteger merges = new AtomicInteger();
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            final int offset = t;
+            workers[t] = new Thread(new Runnable() {
+                public void run() {
+                    // Every thread processes all edges, in different orders
+                    for (int k = 0; k < m; k++) {
+                        int i = (int) ((k * 7919L + offset * 104729L) % m);
+                        if (uf.unionSet(a[i], b[i])) {
+                            merges.incrementAndGet();
+                        }
+                        uf.findSet(b[(i + 1) % m]);
+                    }
+                }
+            });
+            workers[t].start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        // Each successful union merges two sets, so the number of merges must be exact
+        Assert.assertEquals(expectedMerges, merges.get());
+        for (int i = 0; i < n; i++) {
+            int j = r.nextInt(n);
+            Assert.assertEquals(expected.findSet(i) == expected.findSet(j), uf.findSet(i) == uf.findSet(j));
+        }
+    }
+}
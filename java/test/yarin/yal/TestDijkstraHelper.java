@@ -1,6 +1,11 @@
 package yarin.yal;
 
+import org.junit.Assert;
 import org.junit.Test;
+import yarin.yal.graph.CsrGraph;
+import yarin.yal.graph.DirectedGraph;
+
+import java.util.Random;
 
 public class TestDijkstraHelper {
 
@@ -34,4 +39,63 @@ public class TestDijkstraHelper {
         }
     }
 
+    @Test
+    public void testPrimitiveHelpersRandom() {
+        Random rnd = new Random(0);
+        int n = 500, m = 3000;
+        DijkstraHelperInt dhInt = new DijkstraHelperInt(n, Integer.MAX_VALUE);
+        DijkstraHelperLong dhLong = new DijkstraHelperLong(n, Long.MAX_VALUE);
+        DijkstraHelperRadix dhRadix = new DijkstraHelperRadix(n, Long.MAX_VALUE);
+
+        for (int cases = 0; cases < 10; cases++) {
+            DirectedGraph dg = new DirectedGraph(n);
+            for (int i = 0; i < m; i++) {
+                dg.addEdge(rnd.nextInt(n), rnd.nextInt(n), rnd.nextInt(cases % 2 == 0 ? 10 : 1000000));
+            }
+            CsrGraph g = CsrGraph.fromDirectedGraph(dg);
+            int source = rnd.nextInt(n);
+
+            DijkstraHelper<Long> dh = new DijkstraHelper<>(n, Long.MAX_VALUE);
+            dh.add(source, 0L);
+            for (int cur = dh.getNext(); cur >= 0; cur = dh.getNext()) {
+                long curDist = dh.getDistance(cur);
+                for (DirectedGraph.Edge edge : dg.getNode(cur).getOutgoingEdges()) {
+                    dh.add(edge.getDest().getIndex(), curDist + ((DirectedGraph.WeightedEdge) edge).getWeight());
+                }
+            }
+
+            // The helpers are reused between the cases
+            dhInt.run(dg, source);
+            dhLong.run(g, source);
+            dhRadix.run(g, source);
+            for (int i = 0; i < n; i++) {
+                long expected = dh.getDistance(i);
+                Assert.assertEquals(expected == Long.MAX_VALUE ? Integer.MAX_VALUE : expected, dhInt.getDistance(i));
+                Assert.assertEquals(expected, dhLong.getDistance(i));
+                Assert.assertEquals(expected, dhRadix.getDistance(i));
+            }
+            dhRadix.run(dg, source);
+            for (int i = 0; i < n; i++) {
+                Assert.assertEquals((long) dh.getDistance(i), dhRadix.getDistance(i));
+            }
+        }
+    }
+
+    @Test
+    public void testPrimitiveHelperOrder() {
+        DijkstraHelperLong dh = new DijkstraHelperLong(5, -1);
+        dh.add(3, 10);
+        dh.add(1, 7);
+        dh.add(4, 7);
+        dh.add(3, 2);
+        dh.add(4, 9);
+        Assert.assertEquals(3, dh.getNext());
+        Assert.assertTrue(dh.isDone(3));
+        dh.add(3, 0);
+        Assert.assertEquals(2, dh.getDistance(3));
+        Assert.assertEquals(1, dh.getNext());
+        Assert.assertEquals(4, dh.getNext());
+        Assert.assertEquals(-1, dh.getNext());
+        Assert.assertEquals(-1, dh.getDistance(0));
+    }
 }
@@ -3,6 +3,7 @@ package yarin.yal;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.util.ArrayDeque;
 import java.util.Random;
 
 public class TestDynamicRangeMinimumQuery {
@@ -68,4 +69,70 @@ public class TestDynamicRangeMinimumQuery {
     }
   }
 
+  @Test
+  public void testMaximumAndComparator() {
+    Random random = new Random(1);
+    DynamicRangeMinimumQuery max = new DynamicRangeMinimumQuery(true);
+    // Smallest absolute value, ties broken by the actual value
+    DynamicRangeMinimumQuery abs = new DynamicRangeMinimumQuery(
+        (a, b) -> a * a != b * b ? Integer.compare(a * a, b * b) : Integer.compare(a, b));
+    DynamicRangeMinimumQueryLong longMin = new DynamicRangeMinimumQueryLong();
+    ArrayDeque<Integer> queue = new ArrayDeque<>();
+    Assert.assertEquals(Integer.MIN_VALUE, max.currentMin());
+    Assert.assertEquals(Long.MAX_VALUE, longMin.currentMin());
+    for (int step = 0; step < 100000; step++) {
+      if (queue.isEmpty() || random.nextInt(100) < 52 - queue.size() / 100) {
+        int v = random.nextInt(2001) - 1000;
+        queue.addLast(v);
+        max.enqueue(v);
+        abs.enqueue(v);
+        longMin.enqueue(v * 1000000007L);
+      } else {
+        int v = queue.removeFirst();
+        Assert.assertEquals(v, max.dequeue());
+        Assert.assertEquals(v, abs.dequeue());
+        Assert.assertEquals(v * 1000000007L, longMin.dequeue());
+      }
+      Assert.assertEquals(queue.size(), max.size());
+      if (queue.isEmpty()) continue;
+      int expectedMax = Integer.MIN_VALUE, expectedMin = Integer.MAX_VALUE, expectedAbs = queue.peekFirst();
+      for (int v : queue) {
+        expectedMax = Math.max(expectedMax, v);
+        expectedMin = Math.min(expectedMin, v);
+        if (Math.abs(v) < Math.abs(expectedAbs) || Math.abs(v) == Math.abs(expectedAbs) && v < expectedAbs) {
+          expectedAbs = v;
+        }
+      }
+      Assert.assertEquals(expectedMax, max.currentMin());
+      Assert.assertEquals(expectedAbs, abs.currentMin());
+      Assert.assertEquals(expectedMin * 1000000007L, longMin.currentMin());
+    }
+  }
+
+  @Test
+  public void testGetAll() {
+    DynamicRangeMinimumQuery mq = new DynamicRangeMinimumQuery();
+    for (int i = 0; i < 100; i++) {
+      mq.enqueue(i);
+      if (i % 3 == 0) mq.dequeue();
+    }
+    int[] all = mq.getAll();
+    Assert.assertEquals(66, all.length);
+    for (int i = 0; i < all.length; i++) {
+      Assert.assertEquals(34 + i, all[i]);
+    }
+    Assert.assertEquals(34, mq.currentMin());
+    mq.clear();
+    Assert.assertTrue(mq.isEmpty());
+    Assert.assertEquals(0, mq.getAll().length);
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testDequeueEmpty() {
+    DynamicRangeMinimumQuery mq = new DynamicRangeMinimumQuery();
+    mq.enqueue(1);
+    mq.dequeue();
+    mq.dequeue();
+  }
+
 }
@@ -3,13 +3,14 @@ package yarin.yal;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.util.Random;
+
 public class TestExpressionEvaluator {
 
     private final static double DELTA = 1e-9;
 
     @Test
     public void testEvaluator() {
-        // TODO: Unary minus in input is not allowed
         double d = ExpressionEvaluator.Evaluate("5+(9*(0-7))");
         Assert.assertEquals(-58.0, d, 1e-6);
 
@@ -25,4 +26,67 @@ public class TestExpressionEvaluator {
         d = ExpressionEvaluator.Evaluate("1^2*3+4");
         Assert.assertEquals(d, 7.0, 1e-6);
     }
+
+    @Test
+    public void testUnaryMinusAndPrecedence() {
+        Assert.assertEquals(-58.0, ExpressionEvaluator.Evaluate("5+9*-7"), DELTA);
+        Assert.assertEquals(-4.0, ExpressionEvaluator.Evaluate("-2^2"), DELTA);
+        Assert.assertEquals(0.5, ExpressionEvaluator.Evaluate("2^-1"), DELTA);
+        Assert.assertEquals(512.0, ExpressionEvaluator.Evaluate("2^3^2"), DELTA);
+        Assert.assertEquals(2.0, ExpressionEvaluator.Evaluate("8/2/2"), DELTA);
+        Assert.assertEquals(-4.0, ExpressionEvaluator.Evaluate("1-2-3"), DELTA);
+        Assert.assertEquals(3.0, ExpressionEvaluator.Evaluate(" --3 "), DELTA);
+        Assert.assertEquals(1500.0, ExpressionEvaluator.Evaluate("1.5e3"), DELTA);
+        Assert.assertEquals(4.0, ExpressionEvaluator.Evaluate("MAX(2, sqrt(16))"), DELTA);
+    }
+
+    @Test
+    public void testVariables() {
+        ExpressionEvaluator.Expression e = new ExpressionEvaluator().compile("x * x + 2 * x * y - sin(y) / 2", "x", "y");
+        Assert.assertArrayEquals(new String[] { "x", "y" }, e.getVariables());
+        for (double x = -2; x <= 2; x += 0.5) {
+            for (double y = -1; y <= 1; y += 0.25) {
+                Assert.assertEquals(x * x + 2 * x * y - Math.sin(y) / 2, e.evaluate(x, y), DELTA);
+            }
+        }
+    }
+
+    @Test
+    public void testCustomFunctions() {
+        ExpressionEvaluator evaluator = new ExpressionEvaluator()
+                .addFunction("sq", x -> x * x)
+                .addFunction("hypot", Math::hypot);
+        ExpressionEvaluator.Expression e = evaluator.compile("hypot(sq(a), 4) + sq(3)", "a");
+        Assert.assertEquals(5.0 + 9.0, e.evaluate(Math.sqrt(3)), DELTA);
+    }
+
+    @Test
+    public void testBatch() {
+        Random random = new Random(0);
+        ExpressionEvaluator.Expression e = new ExpressionEvaluator().compile("-a^2 + max(a, b) * (b - 1) / 3 + cos(b)", "a", "b");
+        int n = 1000;
+        double[] a = new double[n], b = new double[n], result = new double[n];
+        for (int i = 0; i < n; i++) {
+            a[i] = random.nextDouble() * 4 - 2;
+            b[i] = random.nextDouble() * 4 - 2;
+        }
+        e.evaluate(new double[][] { a, b }, result);
+        for (int i = 0; i < n; i++) {
+            Assert.assertEquals(e.evaluate(a[i], b[i]), result[i], DELTA);
+            Assert.assertEquals(-a[i] * a[i] + Math.max(a[i], b[i]) * (b[i] - 1) / 3 + Math.cos(b[i]), result[i], DELTA);
+        }
+    }
+
+    @Test
+    public void testErrors() {
+        ExpressionEvaluator evaluator = new ExpressionEvaluator();
+        for (String expr : new String[] { "", "1+", "(1", "1)", "foo(1)", "x", "max(1)", "2 3", "." }) {
+            try {
+                evaluator.compile(expr);
+                Assert.fail(expr);
+            } catch (IllegalArgumentException e) {
+                // Expected
+            }
+        }
+    }
 }
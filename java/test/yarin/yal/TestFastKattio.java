@@ -0,0 +1,166 @@
+package yarin.yal;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+public class TestFastKattio {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static FastKattio input(String s) {
+        return new FastKattio(new ByteArrayInputStream(s.getBytes(StandardCharsets.UTF_8)), new ByteArrayOutputStream());
+    }
+
+    @Test
+    public void simpleTokens() {
+        FastKattio io = input("  3 -17\n\n+5 hello\tw\u00f6rld 9223372036854775807 -9223372036854775808\r\n2.5 -1e3 .25 ");
+        Assert.assertEquals(3, io.getInt());
+        Assert.assertEquals(-17, io.getInt());
+        Assert.assertEquals(5, io.getInt());
+        Assert.assertEquals("hello", io.getWord());
+        Assert.assertEquals("w\u00f6rld", io.getWord());
+        Assert.assertEquals(Long.MAX_VALUE, io.getLong());
+        Assert.assertEquals(Long.MIN_VALUE, io.getLong());
+        Assert.assertEquals(2.5, io.getDouble(), 0);
+        Assert.assertEquals(-1000, io.getDouble(), 0);
+        Assert.assertEquals(0.25, io.getDouble(), 0);
+        Assert.assertFalse(io.hasMoreTokens());
+        Assert.assertNull(io.getWord());
+    }
+
+    @Test(expected = NumberFormatException.class)
+    public void intOverflow() {
+        input("2147483648").getInt();
+    }
+
+    @Test(expected = NumberFormatException.class)
+    public void notANumber() {
+        input("12a").getInt();
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void endOfInput() {
+        FastKattio io = input("1 ");
+        io.getInt();
+        io.getInt();
+    }
+
+    @Test
+    public void doublesMatchParseDouble() {
+        Random random = new Random(0);
+        StringBuilder sb = new StringBuilder();
+        String[] tokens = new String[5000];
+        for (int i = 0; i < tokens.length; i++) {
+            switch (i % 5) {
+                case 0: tokens[i] = Double.toString(random.nextDouble()); break;
+                case 1: tokens[i] = Double.toString((random.nextDouble() - 0.5) * Math.pow(10, random.nextInt(40) - 20)); break;
+                case 2: tokens[i] = String.format(Locale.ROOT, "%.6f", random.nextGaussian() * 1000); break;
+                case 3: tokens[i] = Long.toString(random.nextLong()) + "." + random.nextInt(1000); break;
+                default: tokens[i] = random.nextInt(100) + "e" + (random.nextInt(700) - 350); break;
+            }
+            sb.append(tokens[i]).append(i % 7 == 0 ? '\n' : ' ');
+        }
+        FastKattio io = input(sb.toString());
+        for (String token : tokens) {
+            Assert.assertEquals(token, Double.parseDouble(token), io.getDouble(), 0);
+        }
+    }
+
+    @Test
+    public void bulkReadAcrossBuffers() throws IOException {
+        Random random = new Random(0);
+        int n = 200000;
+        int[] ints = new int[n];
+        long[] longs = new long[n];
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < n; i++) {
+            ints[i] = random.nextInt();
+            sb.append(ints[i]).append(' ');
+        }
+        for (int i = 0; i < n; i++) {
+            longs[i] = random.nextLong();
+            sb.append(longs[i]).append('\n');
+        }
+        byte[] bytes = sb.toString().getBytes(StandardCharsets.US_ASCII);
+
+        Path file = folder.newFile().toPath();
+        Files.write(file, bytes);
+        FastKattio[] readers = {
+            new FastKattio(new ByteArrayInputStream(bytes), new ByteArrayOutputStream()),
+            FastKattio.map(file, new ByteArrayOutputStream())
+        };
+        for (FastKattio io : readers) {
+            int[] readInts = new int[n];
+            long[] readLongs = new long[n + 2];
+            io.readInts(readInts);
+            io.readLongs(readLongs, 2, n);
+            Assert.assertArrayEquals(ints, readInts);
+            for (int i = 0; i < n; i++) {
+                Assert.assertEquals(longs[i], readLongs[i + 2]);
+            }
+            Assert.assertFalse(io.hasMoreTokens());
+            io.close();
+        }
+    }
+
+    @Test
+    public void printDecimals() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        FastKattio io = new FastKattio(new ByteArrayInputStream(new byte[0]), bytes);
+        double[] values = {0.5, -0.004, -0.0, 123.456, 1e-7};
+        int[] decimals = {0, 2, 18, 19, 25};
+        StringBuilder expected = new StringBuilder();
+        for (double v : values) {
+            for (int d : decimals) {
+                io.print(v, d).println();
+                expected.append(String.format(Locale.ROOT, "%." + d + "f", v)).append('\n');
+            }
+        }
+        io.flush();
+        Assert.assertEquals(expected.toString(), new String(bytes.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void output() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        FastKattio io = new FastKattio(new ByteArrayInputStream(new byte[0]), bytes);
+        io.print(0).print(' ').print(-42).print(' ').println(Long.MIN_VALUE);
+        io.println(Integer.MAX_VALUE);
+        io.print(new int[]{1, 2, 3, 4}, 1, 4, ',').println();
+        io.print(3.14159, 2).print(' ').print(-0.001, 2).print(' ').print(2.5, 0).print(' ').print(-7.25, 3).println();
+        io.print(1e30, 1).println();
+        io.println("r\u00e4ksm\u00f6rg\u00e5s");
+        io.flush();
+        String expected = "0 -42 -9223372036854775808\n2147483647\n2,3,4\n3.14 -0.00 3 -7.250\n" +
+            String.format(Locale.ROOT, "%.1f", 1e30) + "\nr\u00e4ksm\u00f6rg\u00e5s\n";
+        Assert.assertEquals(expected, new String(bytes.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void largeOutput() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        FastKattio io = new FastKattio(new ByteArrayInputStream(new byte[0]), bytes);
+        StringBuilder expected = new StringBuilder();
+        Random random = new Random(0);
+        for (int i = 0; i < 100000; i++) {
+            long v = random.nextLong();
+            io.println(v);
+            expected.append(v).append('\n');
+        }
+        io.flush();
+        Assert.assertEquals(expected.toString(), new String(bytes.toByteArray(), StandardCharsets.US_ASCII));
+    }
+}
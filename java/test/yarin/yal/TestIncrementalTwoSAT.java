@@ -0,0 +1,109 @@
+package yarin.yal;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Random;
+
+public class TestIncrementalTwoSAT {
+
+    private static boolean isTrue(boolean[] assignment, int literal) {
+        return assignment[literal >> 1] == ((literal & 1) == 0);
+    }
+
+    private static boolean satisfies(boolean[] assignment, int[] a, int[] b, int clauses, int[] assumptions) {
+        for (int i = 0; i < clauses; i++) {
+            if (!isTrue(assignment, a[i]) && !isTrue(assignment, b[i])) return false;
+        }
+        for (int literal : assumptions) {
+            if (!isTrue(assignment, literal)) return false;
+        }
+        return true;
+    }
+
+    private static boolean bruteForce(int n, int[] a, int[] b, int clauses, int[] assumptions) {
+        boolean[] assignment = new boolean[n];
+        for (int mask = 0; mask < 1 << n; mask++) {
+            for (int v = 0; v < n; v++) {
+                assignment[v] = (mask >> v & 1) == 1;
+            }
+            if (satisfies(assignment, a, b, clauses, assumptions)) return true;
+        }
+        return false;
+    }
+
+    @Test
+    public void testRandomIncremental() {
+        Random r = new Random(0);
+        for (int iter = 0; iter < 300; iter++) {
+            int n = 1 + r.nextInt(10), maxClauses = 3 * n;
+            int[] a = new int[maxClauses], b = new int[maxClauses];
+            IncrementalTwoSAT sat = new IncrementalTwoSAT(n);
+            boolean satisfiable = true;
+            while (sat.getClauseCount() < maxClauses) {
+                // Add one or a few clauses between each solve
+                int batch = r.nextInt(4) == 0 ? 3 : 1;
+                for (int j = 0; j < batch && sat.getClauseCount() < maxClauses; j++) {
+                    int k = sat.getClauseCount();
+                    a[k] = r.nextInt(2 * n);
+                    b[k] = r.nextInt(2 * n);
+                    sat.addClause(a[k], b[k]);
+                }
+                int[] assumptions = new int[r.nextInt(3)];
+                for (int j = 0; j < assumptions.length; j++) {
+                    assumptions[j] = r.nextInt(2 * n);
+                }
+                int clauses = sat.getClauseCount();
+
+                boolean[] result = sat.solve(assumptions);
+                Assert.assertEquals(bruteForce(n, a, b, clauses, assumptions), result != null);
+                if (result != null) {
+                    Assert.assertTrue(satisfies(result, a, b, clauses, assumptions));
+                }
+
+                // The assumptions must not stick
+                result = sat.solve();
+                boolean expected = bruteForce(n, a, b, clauses, new int[0]);
+                Assert.assertEquals(expected, result != null);
+                if (result != null) {
+                    Assert.assertTrue(satisfies(result, a, b, clauses, new int[0]));
+                }
+                Assert.assertTrue(satisfiable || !expected);
+                satisfiable = expected;
+            }
+        }
+    }
+
+    @Test
+    public void testLongImplicationChain() {
+        // x0 -> x1 -> ... -> x(n-1), then many solves assuming x0 or not x(n-1) plus a few new clauses
+        int n = 200000;
+        IncrementalTwoSAT sat = new IncrementalTwoSAT(n);
+        for (int i = 0; i + 1 < n; i++) {
+            sat.addClause(i, true, i + 1, false);
+        }
+        Assert.assertNotNull(sat.solve());
+
+        boolean[] result = sat.solve(IncrementalTwoSAT.literal(0, false));
+        for (int i = 0; i < n; i++) {
+            Assert.assertTrue(result[i]);
+        }
+        result = sat.solve(IncrementalTwoSAT.literal(n - 1, true));
+        for (int i = 0; i < n; i++) {
+            Assert.assertFalse(result[i]);
+        }
+        Assert.assertNull(sat.solve(IncrementalTwoSAT.literal(0, false), IncrementalTwoSAT.literal(n - 1, true)));
+
+        // Forcing the middle variable true forces everything after it
+        sat.addClause(n / 2, false, n / 2, false);
+        result = sat.solve();
+        Assert.assertTrue(result[n / 2]);
+        Assert.assertTrue(result[n - 1]);
+        Assert.assertNull(sat.solve(IncrementalTwoSAT.literal(n - 1, true)));
+        Assert.assertNotNull(sat.solve(IncrementalTwoSAT.literal(0, true)));
+
+        sat.addClause(n - 1, true, n - 1, true);
+        Assert.assertNull(sat.solve());
+        Assert.assertNull(sat.solve(IncrementalTwoSAT.literal(0, true)));
+    }
+}
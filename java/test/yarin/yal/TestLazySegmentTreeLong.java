@@ -0,0 +1,68 @@
+package yarin.yal;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Random;
+
+public class TestLazySegmentTreeLong {
+
+    @Test
+    public void testRandomOperations() {
+        Random r = new Random(0);
+        for (int n = 1; n <= 130; n += 13) {
+            long[] data = new long[n];
+            for (int i = 0; i < n; i++) {
+                data[i] = r.nextInt(2001) - 1000;
+            }
+            LazySegmentTreeLong tree = new LazySegmentTreeLong(data);
+
+            for (int i = 0; i < 5000; i++) {
+                int start = r.nextInt(n);
+                int stop = start + 1 + r.nextInt(n - start);
+                long v = r.nextInt(2001) - 1000;
+                switch (r.nextInt(6)) {
+                    case 0:
+                        tree.add(start, stop, v);
+                        for (int j = start; j < stop; j++) data[j] += v;
+                        break;
+                    case 1:
+                        tree.assign(start, stop, v);
+                        for (int j = start; j < stop; j++) data[j] = v;
+                        break;
+                    case 2:
+                        tree.set(start, v);
+                        data[start] = v;
+                        break;
+                    default:
+                        long sum = 0, min = Long.MAX_VALUE, max = Long.MIN_VALUE;
+                        for (int j = start; j < stop; j++) {
+                            sum += data[j];
+                            min = Math.min(min, data[j]);
+                            max = Math.max(max, data[j]);
+                        }
+                        Assert.assertEquals(sum, tree.sum(start, stop));
+                        Assert.assertEquals(min, tree.min(start, stop));
+                        Assert.assertEquals(max, tree.max(start, stop));
+                        Assert.assertEquals(data[start], tree.get(start));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testLarge() {
+        int n = 1 << 17;
+        LazySegmentTreeLong tree = new LazySegmentTreeLong(n);
+        tree.assign(0, n, 1000000000L);
+        tree.add(1, n - 1, 1000000000L);
+        Assert.assertEquals(2000000000L * n - 2000000000L, tree.sum(0, n));
+        Assert.assertEquals(1000000000L, tree.min(0, n));
+        Assert.assertEquals(2000000000L, tree.max(5, 6));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testOutOfRange() {
+        new LazySegmentTreeLong(10).add(5, 11, 1);
+    }
+}
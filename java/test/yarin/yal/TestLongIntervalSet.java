@@ -0,0 +1,148 @@
+package yarin.yal;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Random;
+
+public class TestLongIntervalSet {
+
+    private static final int MAX = 2000;
+
+    private static void assertSameSet(boolean[] covered, LongIntervalSet set) {
+        StringBuilder sb = new StringBuilder();
+        int x = 0;
+        while (x < MAX) {
+            if (!covered[x]) {
+                x++;
+                continue;
+            }
+            int start = x;
+            while (x < MAX && covered[x]) x++;
+            if (sb.length() > 0)
+                sb.append(' ');
+            sb.append('[').append(start).append(", ").append(x).append(']');
+        }
+        Assert.assertEquals(sb.toString(), set.toString());
+    }
+
+    @Test
+    public void testMerging() {
+        LongIntervalSet set = LongIntervalSet.of(new long[]{30, 10, 20, 5}, new long[]{35, 15, 25, 5});
+        Assert.assertEquals("[10, 15] [20, 25] [30, 35]", set.toString());
+        set = set.add(13, 32);
+        Assert.assertEquals("[10, 35]", set.toString());
+        set = set.addAll(new long[]{35, 0, Long.MIN_VALUE}, new long[]{40, 10, -5});
+        Assert.assertEquals("[-9223372036854775808, -5] [0, 40]", set.toString());
+        Assert.assertSame(LongIntervalSet.empty(), LongIntervalSet.of(new long[]{3}, new long[]{3}));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidInterval() {
+        LongIntervalSet.of(new long[]{5}, new long[]{4});
+    }
+
+    @Test
+    public void testRandom() {
+        Random r = new Random(0);
+        for (int iter = 0; iter < 200; iter++) {
+            boolean[] covered = new boolean[MAX];
+            LongIntervalSet set = LongIntervalSet.empty();
+            for (int batch = 0; batch < 10; batch++) {
+                int k = r.nextInt(8) + 1;
+                long[] starts = new long[k], ends = new long[k];
+                for (int i = 0; i < k; i++) {
+                    starts[i] = r.nextInt(MAX - 100);
+                    ends[i] = starts[i] + r.nextInt(60);
+                    for (long x = starts[i]; x < ends[i]; x++) {
+                        covered[(int) x] = true;
+                    }
+                }
+                set = set.addAll(starts, ends);
+                assertSameSet(covered, set);
+
+                for (int q = 0; q < 20; q++) {
+                    int p = r.nextInt(MAX);
+                    int i = set.findContaining(p);
+                    Assert.assertEquals(covered[p], i >= 0);
+                    if (i >= 0) {
+                        Assert.assertTrue(set.getStart(i) <= p && p < set.getEnd(i));
+                    }
+
+                    int start = r.nextInt(MAX - 100), end = start + r.nextInt(100);
+                    int count = 0;
+                    for (int j = 0; j < set.getCount(); j++) {
+                        if (set.getStart(j) < end && set.getEnd(j) > start && start < end) {
+                            Assert.assertTrue(j >= set.firstOverlapping(start, end));
+                            count++;
+                        }
+                    }
+                    Assert.assertEquals(count, set.endOverlapping(start, end) - set.firstOverlapping(start, end));
+                    Assert.assertEquals(count > 0, set.findOverlappingInterval(start, end) >= 0);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testBatchContaining() {
+        Random r = new Random(0);
+        long[] starts = new long[1000], ends = new long[1000];
+        for (int i = 0; i < starts.length; i++) {
+            starts[i] = r.nextInt(1000000);
+            ends[i] = starts[i] + r.nextInt(500);
+        }
+        LongIntervalSet set = LongIntervalSet.of(starts, ends);
+        for (boolean sorted : new boolean[]{false, true}) {
+            long[] points = new long[5000];
+            for (int i = 0; i < points.length; i++) {
+                points[i] = r.nextInt(1001000) - 500;
+            }
+            if (sorted) {
+                java.util.Arrays.sort(points);
+            }
+            int[] result = new int[points.length];
+            set.findContaining(points, result);
+            for (int i = 0; i < points.length; i++) {
+                Assert.assertEquals(set.findContaining(points[i]), result[i]);
+            }
+        }
+    }
+
+    @Test
+    public void testConcurrentWriters() throws InterruptedException {
+        final int threads = 4, batches = 200, batchSize = 10;
+        final ConcurrentLongIntervalSet intervals = new ConcurrentLongIntervalSet();
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            final int offset = t;
+            workers[t] = new Thread(new Runnable() {
+                public void run() {
+                    // Thread t adds the unit intervals [x, x + 1) with x = t (mod threads), with gaps between them
+                    for (int b = 0; b < batches; b++) {
+                        long[] starts = new long[batchSize], ends = new long[batchSize];
+                        for (int i = 0; i < batchSize; i++) {
+                            starts[i] = 2L * ((long) (b * batchSize + i) * threads + offset);
+                            ends[i] = starts[i] + 1;
+                        }
+                        LongIntervalSet version = intervals.addAll(starts, ends);
+                        Assert.assertTrue(version.contains(starts[0]));
+                        LongIntervalSet snapshot = intervals.snapshot();
+                        Assert.assertTrue(snapshot.getCount() >= version.getCount());
+                    }
+                }
+            });
+            workers[t].start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        LongIntervalSet set = intervals.snapshot();
+        Assert.assertEquals(threads * batches * batchSize, set.getCount());
+        for (int i = 0; i < set.getCount(); i++) {
+            Assert.assertEquals(2L * i, set.getStart(i));
+            Assert.assertTrue(intervals.contains(2L * i));
+            Assert.assertFalse(intervals.contains(2L * i + 1));
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package yarin.yal;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+public class TestLongOrderStatisticSet {
+
+    private static void assertSameSet(java.util.TreeSet<Long> expected, LongOrderStatisticSet set) {
+        Assert.assertEquals(expected.size(), set.size());
+        long[] keys = set.toArray();
+        int i = 0;
+        for (long key : expected) {
+            Assert.assertEquals(key, keys[i++]);
+        }
+    }
+
+    @Test
+    public void testRandomOperations() {
+        Random r = new Random(0);
+        java.util.TreeSet<Long> expected = new java.util.TreeSet<>();
+        LongOrderStatisticSet set = new LongOrderStatisticSet();
+        for (int i = 0; i < 100000; i++) {
+            long key = r.nextInt(2000) - 1000;
+            switch (r.nextInt(4)) {
+                case 0:
+                case 1:
+                    Assert.assertEquals(expected.add(key), set.add(key));
+                    break;
+                case 2:
+                    Assert.assertEquals(expected.remove(key), set.remove(key));
+                    break;
+                default:
+                    Assert.assertEquals(expected.contains(key), set.contains(key));
+                    Assert.assertEquals(expected.headSet(key).size(), set.rank(key));
+                    if (!expected.isEmpty()) {
+                        int k = r.nextInt(expected.size());
+                        Assert.assertEquals((long) expected.headSet(set.select(k)).size(), k);
+                        Assert.assertEquals((long) expected.first(), set.min());
+                        Assert.assertEquals((long) expected.last(), set.max());
+                    }
+            }
+            Assert.assertEquals(expected.size(), set.size());
+        }
+        assertSameSet(expected, set);
+    }
+
+    @Test
+    public void testFromSorted() {
+        Random r = new Random(0);
+        for (int n = 0; n < 1000; n += 37) {
+            long[] keys = new long[n];
+            long k = Long.MIN_VALUE;
+            for (int i = 0; i < n; i++) {
+                k += 1 + r.nextInt(1000);
+                keys[i] = k;
+            }
+            LongOrderStatisticSet set = LongOrderStatisticSet.fromSorted(keys);
+            Assert.assertEquals(n, set.size());
+            Assert.assertArrayEquals(keys, set.toArray());
+            for (int i = 0; i < n; i++) {
+                Assert.assertEquals(keys[i], set.select(i));
+                Assert.assertEquals(i, set.rank(keys[i]));
+            }
+            // Still works as a normal set
+            set.add(Long.MAX_VALUE);
+            Assert.assertEquals(Long.MAX_VALUE, set.max());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testFromUnsorted() {
+        LongOrderStatisticSet.fromSorted(new long[]{1, 3, 3});
+    }
+
+    @Test
+    public void testSplitAndJoin() {
+        Random r = new Random(0);
+        java.util.TreeSet<Long> expected = new java.util.TreeSet<>();
+        LongOrderStatisticSet set = new LongOrderStatisticSet();
+        for (int i = 0; i < 5000; i++) {
+            long key = r.nextInt(100000);
+            expected.add(key);
+            set.add(key);
+        }
+        for (int round = 0; round < 200; round++) {
+            long pivot = r.nextInt(100000);
+            LongOrderStatisticSet high = set.split(pivot);
+            assertSameSet(new java.util.TreeSet<>(expected.headSet(pivot)), set);
+            assertSameSet(new java.util.TreeSet<>(expected.tailSet(pivot)), high);
+
+            // Modify both halves independently, then join them again
+            long low = pivot - 1 - r.nextInt(10), hi = pivot + r.nextInt(10);
+            if (low >= 0) {
+                expected.add(low);
+                set.add(low);
+            }
+            expected.add(hi);
+            high.add(hi);
+            set.join(high);
+            Assert.assertTrue(high.isEmpty());
+            Assert.assertEquals(expected.size(), set.size());
+        }
+        assertSameSet(expected, set);
+    }
+
+    @Test
+    public void testJoinSeparateSets() {
+        LongOrderStatisticSet a = LongOrderStatisticSet.fromSorted(new long[]{1, 2, 3});
+        LongOrderStatisticSet b = LongOrderStatisticSet.fromSorted(new long[]{10, 20});
+        a.join(b);
+        Assert.assertArrayEquals(new long[]{1, 2, 3, 10, 20}, a.toArray());
+        Assert.assertEquals(0, b.size());
+        try {
+            a.join(LongOrderStatisticSet.fromSorted(new long[]{5}));
+            Assert.fail();
+        } catch (IllegalArgumentException e) {
+            // Expected
+        }
+    }
+
+    @Test
+    public void testCursor() {
+        LongOrderStatisticSet set = new LongOrderStatisticSet();
+        for (long k = 0; k < 1000; k += 10) {
+            set.add(k);
+        }
+        LongOrderStatisticSet.Cursor c = set.cursor();
+        for (long start : new long[]{-5, 0, 15, 990, 991}) {
+            c.seek(start);
+            List<Long> seen = new ArrayList<>();
+            while (c.hasNext()) {
+                seen.add(c.next());
+            }
+            long first = (start + 9) / 10 * 10;
+            if (start < 0) first = 0;
+            Assert.assertEquals(first >= 1000 ? 0 : (1000 - first) / 10, seen.size());
+            if (!seen.isEmpty()) Assert.assertEquals(first, (long) seen.get(0));
+        }
+        c.seek(0);
+        set.add(5);
+        try {
+            c.hasNext();
+            Assert.fail();
+        } catch (IllegalStateException e) {
+            // Expected
+        }
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void testEmptyMin() {
+        new LongOrderStatisticSet().min();
+    }
+
+    @Test
+    public void testLargeSorted() {
+        // Sorted insertion must not degenerate
+        LongOrderStatisticSet set = new LongOrderStatisticSet();
+        int n = 1000000;
+        for (int i = 0; i < n; i++) {
+            set.add(i);
+        }
+        Assert.assertEquals(n, set.size());
+        Assert.assertEquals(123456, set.select(123456));
+        for (int i = 0; i < n; i += 2) {
+            set.remove(i);
+        }
+        Assert.assertEquals(n / 2, set.size());
+        Assert.assertEquals(1, set.min());
+        Assert.assertEquals(2 * 1000 + 1, set.select(1000));
+    }
+}
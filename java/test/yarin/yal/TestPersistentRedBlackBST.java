@@ -0,0 +1,142 @@
+package yarin.yal;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.TreeMap;
+
+public class TestPersistentRedBlackBST {
+
+    private static void assertSameMap(TreeMap<Integer, Integer> expected, PersistentRedBlackBST<Integer, Integer> tree) {
+        Assert.assertEquals(expected.size(), tree.size());
+        Assert.assertEquals(expected.isEmpty(), tree.isEmpty());
+        List<Integer> keys = new ArrayList<>();
+        for (int key : tree.keys()) {
+            keys.add(key);
+        }
+        Assert.assertEquals(new ArrayList<>(expected.keySet()), keys);
+        for (Map.Entry<Integer, Integer> e : expected.entrySet()) {
+            Assert.assertEquals(e.getValue(), tree.get(e.getKey()));
+        }
+        // A left-leaning red-black tree has height at most 2 lg(n + 1)
+        Assert.assertTrue(tree.height() <= 2 * (32 - Integer.numberOfLeadingZeros(tree.size() + 1)));
+    }
+
+    @Test
+    public void testRandomOperations() {
+        Random r = new Random(0);
+        TreeMap<Integer, Integer> expected = new TreeMap<>();
+        PersistentRedBlackBST<Integer, Integer> tree = PersistentRedBlackBST.empty();
+        for (int i = 0; i < 100000; i++) {
+            int key = r.nextInt(2000) - 1000;
+            switch (r.nextInt(5)) {
+                case 0:
+                case 1:
+                    expected.put(key, i);
+                    tree = tree.put(key, i);
+                    break;
+                case 2:
+                    expected.remove(key);
+                    tree = tree.delete(key);
+                    break;
+                case 3:
+                    if (!expected.isEmpty()) {
+                        if (r.nextBoolean()) {
+                            expected.pollFirstEntry();
+                            tree = tree.deleteMin();
+                        } else {
+                            expected.pollLastEntry();
+                            tree = tree.deleteMax();
+                        }
+                    }
+                    break;
+                default:
+                    Assert.assertEquals(expected.containsKey(key), tree.contains(key));
+                    Assert.assertEquals(expected.headMap(key).size(), tree.rank(key));
+                    Assert.assertEquals(expected.floorKey(key), tree.floor(key));
+                    Assert.assertEquals(expected.ceilingKey(key), tree.ceiling(key));
+                    int hi = key + r.nextInt(200);
+                    Assert.assertEquals(expected.subMap(key, true, hi, true).size(), tree.size(key, hi));
+                    List<Integer> range = new ArrayList<>();
+                    for (int k : tree.keys(key, hi)) {
+                        range.add(k);
+                    }
+                    Assert.assertEquals(new ArrayList<>(expected.subMap(key, true, hi, true).keySet()), range);
+                    if (!expected.isEmpty()) {
+                        int k = r.nextInt(expected.size());
+                        Assert.assertEquals(expected.keySet().toArray()[k], tree.select(k));
+                        Assert.assertEquals(expected.firstKey(), tree.min());
+                        Assert.assertEquals(expected.lastKey(), tree.max());
+                    }
+                    break;
+            }
+        }
+        assertSameMap(expected, tree);
+    }
+
+    @Test
+    public void testSnapshotsAreUnchanged() {
+        Random r = new Random(0);
+        TreeMap<Integer, Integer> expected = new TreeMap<>();
+        PersistentRedBlackBST<Integer, Integer> tree = PersistentRedBlackBST.empty();
+        List<TreeMap<Integer, Integer>> expectedVersions = new ArrayList<>();
+        List<PersistentRedBlackBST<Integer, Integer>> versions = new ArrayList<>();
+        for (int i = 0; i < 20000; i++) {
+            int key = r.nextInt(500);
+            if (r.nextInt(3) == 0) {
+                expected.remove(key);
+                tree = tree.delete(key);
+            } else {
+                expected.put(key, i);
+                tree = tree.put(key, i);
+            }
+            if (i % 100 == 0) {
+                expectedVersions.add(new TreeMap<>(expected));
+                versions.add(tree);
+            }
+        }
+        for (int i = 0; i < versions.size(); i++) {
+            assertSameMap(expectedVersions.get(i), versions.get(i));
+        }
+    }
+
+    @Test
+    public void testSorted() {
+        TreeMap<Integer, Integer> expected = new TreeMap<>();
+        PersistentRedBlackBST<Integer, Integer> tree = PersistentRedBlackBST.empty();
+        for (int i = 0; i < 10000; i++) {
+            expected.put(i, -i);
+            tree = tree.put(i, -i);
+        }
+        assertSameMap(expected, tree);
+        for (int i = 0; i < 10000; i += 2) {
+            expected.remove(i);
+            tree = tree.delete(i);
+        }
+        assertSameMap(expected, tree);
+    }
+
+    @Test
+    public void testEmpty() {
+        PersistentRedBlackBST<Integer, Integer> tree = PersistentRedBlackBST.empty();
+        Assert.assertTrue(tree.isEmpty());
+        Assert.assertNull(tree.min());
+        Assert.assertNull(tree.floor(1));
+        Assert.assertNull(tree.select(0));
+        Assert.assertSame(tree, tree.delete(1));
+        PersistentRedBlackBST<Integer, Integer> one = tree.put(1, 1);
+        Assert.assertTrue(tree.isEmpty());
+        Assert.assertTrue(one.delete(1).isEmpty());
+        try {
+            tree.deleteMin();
+            Assert.fail();
+        } catch (NoSuchElementException e) {
+            // expected
+        }
+    }
+}
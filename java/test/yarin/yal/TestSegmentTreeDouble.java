@@ -0,0 +1,63 @@
+package yarin.yal;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Random;
+
+public class TestSegmentTreeDouble {
+
+    @Test
+    public void testMinAndMax() {
+        Random r = new Random(0);
+        for (int n = 1; n < 300; n += 37) {
+            double[] data = new double[n];
+            for (int i = 0; i < n; i++) {
+                data[i] = randomValue(r);
+            }
+            SegmentTreeDouble minTree = new SegmentTreeDouble(data, false);
+            SegmentTreeDouble maxTree = new SegmentTreeDouble(data, true);
+
+            for (int i = 0; i < 5000; i++) {
+                int start = r.nextInt(n);
+                int stop = start + 1 + r.nextInt(n - start);
+
+                int expectedMin = start, expectedMax = start;
+                for (int j = start; j < stop; j++) {
+                    if (data[j] < data[expectedMin]) expectedMin = j;
+                    if (data[j] > data[expectedMax]) expectedMax = j;
+                }
+                Assert.assertEquals(expectedMin, minTree.query(start, stop));
+                Assert.assertEquals(expectedMax, maxTree.query(start, stop));
+
+                int ix = r.nextInt(n);
+                double v = randomValue(r);
+                data[ix] = v;
+                minTree.set(ix, v);
+                maxTree.set(ix, v);
+                Assert.assertEquals(v, minTree.get(ix), 0);
+            }
+        }
+    }
+
+    // Negative values with many ties, and sometimes an infinity
+    private static double randomValue(Random r) {
+        switch (r.nextInt(20)) {
+            case 0: return Double.NEGATIVE_INFINITY;
+            case 1: return Double.POSITIVE_INFINITY;
+            default: return (r.nextInt(50) - 40) / 4.0;
+        }
+    }
+
+    @Test
+    public void testAllNegative() {
+        // The best of an all negative range must not be mistaken for the default value of 0
+        SegmentTreeDouble maxTree = new SegmentTreeDouble(new double[] { -3.5, -1.25, -2, -1.25 }, true);
+        Assert.assertEquals(1, maxTree.query(0, 4));
+        Assert.assertEquals(3, maxTree.query(2, 4));
+        SegmentTreeDouble minTree = new SegmentTreeDouble(3, false);
+        minTree.set(2, -0.5);
+        Assert.assertEquals(0, minTree.query(0, 2));
+        Assert.assertEquals(2, minTree.query(0, 3));
+    }
+}
@@ -0,0 +1,58 @@
+package yarin.yal;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Random;
+
+public class TestSegmentTreeInt {
+
+    @Test
+    public void testMinAndMax() {
+        Random r = new Random(0);
+        for (int n = 1; n < 300; n += 37) {
+            int[] data = new int[n];
+            for (int i = 0; i < n; i++) {
+                data[i] = r.nextInt(50) - 25;
+            }
+            SegmentTreeInt minTree = new SegmentTreeInt(data, false);
+            SegmentTreeInt maxTree = new SegmentTreeInt(data, true);
+
+            for (int i = 0; i < 5000; i++) {
+                int start = r.nextInt(n);
+                int stop = start + 1 + r.nextInt(n - start);
+
+                int expectedMin = start, expectedMax = start;
+                for (int j = start; j < stop; j++) {
+                    if (data[j] < data[expectedMin]) expectedMin = j;
+                    if (data[j] > data[expectedMax]) expectedMax = j;
+                }
+                Assert.assertEquals(expectedMin, minTree.query(start, stop));
+                Assert.assertEquals(expectedMax, maxTree.query(start, stop));
+
+                int ix = r.nextInt(n);
+                int v = r.nextInt(50) - 25;
+                data[ix] = v;
+                minTree.set(ix, v);
+                maxTree.set(ix, v);
+                Assert.assertEquals(v, minTree.get(ix));
+            }
+        }
+    }
+
+    @Test
+    public void testExtremeValues() {
+        int[] data = { 0, Integer.MAX_VALUE, Integer.MIN_VALUE, Integer.MIN_VALUE, Integer.MAX_VALUE };
+        SegmentTreeInt minTree = new SegmentTreeInt(data, false);
+        SegmentTreeInt maxTree = new SegmentTreeInt(data, true);
+        Assert.assertEquals(2, minTree.query(0, 5));
+        Assert.assertEquals(1, maxTree.query(0, 5));
+        Assert.assertEquals(3, minTree.query(3, 5));
+        Assert.assertEquals(0, maxTree.query(0, 1));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testEmptyRange() {
+        new SegmentTreeInt(10, false).query(3, 3);
+    }
+}
@@ -0,0 +1,73 @@
+package yarin.yal;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Random;
+
+public class TestSegmentTreeLong {
+
+    @Test
+    public void testMinAndMax() {
+        Random r = new Random(0);
+        for (int n = 1; n < 300; n += 37) {
+            long[] data = new long[n];
+            for (int i = 0; i < n; i++) {
+                data[i] = r.nextInt(50);
+            }
+            SegmentTreeLong minTree = new SegmentTreeLong(data, false);
+            SegmentTreeLong maxTree = new SegmentTreeLong(data, true);
+
+            for (int i = 0; i < 5000; i++) {
+                int start = r.nextInt(n);
+                int stop = start + 1 + r.nextInt(n - start);
+
+                int expectedMin = start, expectedMax = start;
+                for (int j = start; j < stop; j++) {
+                    if (data[j] < data[expectedMin]) expectedMin = j;
+                    if (data[j] > data[expectedMax]) expectedMax = j;
+                }
+                Assert.assertEquals(expectedMin, minTree.query(start, stop));
+                Assert.assertEquals(expectedMax, maxTree.query(start, stop));
+
+                int ix = r.nextInt(n);
+                long v = r.nextInt(50);
+                data[ix] = v;
+                minTree.set(ix, v);
+                maxTree.set(ix, v);
+                Assert.assertEquals(v, minTree.get(ix));
+            }
+        }
+    }
+
+    @Test
+    public void testIntAndDouble() {
+        Random r = new Random(0);
+        int n = 1000;
+        int[] ints = new int[n];
+        double[] doubles = new double[n];
+        for (int i = 0; i < n; i++) {
+            ints[i] = r.nextInt(100);
+            doubles[i] = r.nextInt(100) / 4.0;
+        }
+        SegmentTreeInt intTree = new SegmentTreeInt(ints, false);
+        SegmentTreeDouble doubleTree = new SegmentTreeDouble(doubles, true);
+        for (int i = 0; i < 10000; i++) {
+            int start = r.nextInt(n);
+            int stop = start + 1 + r.nextInt(Math.min(n - start, 100));
+            int expectedMin = start, expectedMax = start;
+            for (int j = start; j < stop; j++) {
+                if (ints[j] < ints[expectedMin]) expectedMin = j;
+                if (doubles[j] > doubles[expectedMax]) expectedMax = j;
+            }
+            Assert.assertEquals(expectedMin, intTree.query(start, stop));
+            Assert.assertEquals(expectedMax, doubleTree.query(start, stop));
+
+            int ix = r.nextInt(n);
+            ints[ix] = r.nextInt(100);
+            doubles[ix] = r.nextInt(100) / 4.0;
+            intTree.set(ix, ints[ix]);
+            doubleTree.set(ix, doubles[ix]);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package yarin.yal;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Random;
+
+public class TestSlidingWindowMinimum {
+
+    @Test
+    public void testSimple() {
+        SlidingWindowMinimum swm = new SlidingWindowMinimum(new int[] {1, 3}, false);
+        long[] values = {5, 3, 4, 6, 7, 1, 2};
+        long[] expected3 = {5, 3, 3, 3, 4, 1, 1};
+        for (int i = 0; i < values.length; i++) {
+            swm.add(values[i]);
+            Assert.assertEquals(values[i], swm.get(0));
+            Assert.assertEquals(expected3[i], swm.get(1));
+        }
+        Assert.assertEquals(values.length, swm.getCount());
+    }
+
+    @Test
+    public void testRandom() {
+        Random r = new Random(0);
+        int[] widths = {1, 2, 7, 16, 50, 33, 64};
+        for (int mode = 0; mode < 3; mode++) {
+            SlidingWindowMinimum swm = mode == 2
+                    ? new SlidingWindowMinimum(widths, (a, b) -> Long.compare(a % 10, b % 10))
+                    : new SlidingWindowMinimum(widths, mode == 1);
+            long[] values = new long[5000];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = r.nextInt(100);
+            }
+            long[][] result = new long[widths.length][values.length];
+            swm.addAll(values, result, 0);
+            for (int w = 0; w < widths.length; w++) {
+                for (int i = 0; i < values.length; i++) {
+                    long best = values[i];
+                    for (int j = Math.max(0, i - widths[w] + 1); j <= i; j++) {
+                        if (mode == 0 && values[j] < best || mode == 1 && values[j] > best
+                                || mode == 2 && values[j] % 10 < best % 10) {
+                            best = values[j];
+                        }
+                    }
+                    if (mode == 2) {
+                        Assert.assertEquals(best % 10, result[w][i] % 10);
+                    } else {
+                        Assert.assertEquals(best, result[w][i]);
+                    }
+                }
+                Assert.assertEquals(result[w][values.length - 1], swm.get(w));
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidWidth() {
+        new SlidingWindowMinimum(new int[] {3, 0}, false);
+    }
+}
@@ -0,0 +1,69 @@
+package yarin.yal;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+public class TestSparseTableRangeMinimumQuery {
+
+    static int naive(int[] a, int start, int end, boolean maximum) {
+        int v = a[start];
+        for (int i = start + 1; i < end; i++) {
+            v = maximum ? Math.max(v, a[i]) : Math.min(v, a[i]);
+        }
+        return v;
+    }
+
+    @Test
+    public void testAllRanges() {
+        Random r = new Random(0);
+        for (int size = 1; size <= 100; size++) {
+            int[] a = new int[size];
+            for (int i = 0; i < size; i++) {
+                a[i] = r.nextInt(50) - 25;
+            }
+            for (boolean maximum : new boolean[] {false, true}) {
+                SparseTableRangeMinimumQuery rmq = new SparseTableRangeMinimumQuery(a, maximum);
+                for (int start = 0; start < size; start++) {
+                    for (int end = start + 1; end <= size; end++) {
+                        Assert.assertEquals(naive(a, start, end, maximum), rmq.query(start, end));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testBatch() {
+        Random r = new Random(1);
+        int[] a = new int[10000];
+        for (int i = 0; i < a.length; i++) {
+            a[i] = r.nextInt();
+        }
+        int q = 100000;
+        int[] starts = new int[q], ends = new int[q];
+        for (int i = 0; i < q; i++) {
+            int x = r.nextInt(a.length), y = r.nextInt(a.length);
+            starts[i] = Math.min(x, y);
+            ends[i] = Math.max(x, y) + 1;
+        }
+        SparseTableRangeMinimumQuery rmq = new SparseTableRangeMinimumQuery(a);
+        int[] sequential = new int[q], parallel = new int[q];
+        rmq.query(starts, ends, sequential);
+        rmq.query(starts, ends, parallel, new ForkJoinPool(4));
+        for (int i = 0; i < q; i++) {
+            Assert.assertEquals(rmq.query(starts[i], ends[i]), sequential[i]);
+        }
+        Assert.assertArrayEquals(sequential, parallel);
+        for (int i = 0; i < 100; i++) {
+            Assert.assertEquals(naive(a, starts[i], ends[i], false), sequential[i]);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testEmptyRange() {
+        new SparseTableRangeMinimumQuery(new int[] {1, 2, 3}).query(1, 1);
+    }
+}
@@ -3,7 +3,9 @@ package yarin.yal;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.util.Arrays;
 import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
 
 public class TestSuffixArray {
 
@@ -53,4 +55,100 @@ public class TestSuffixArray {
     System.out.println(t1);
     System.out.println(t2);
   }
+
+  @Test
+  public void saisBananaTest() {
+    SuffixArraySAIS sais = new SuffixArraySAIS("banana");
+    Assert.assertArrayEquals(new int[]{5, 3, 1, 0, 4, 2}, sais.buildSuffixArray());
+    Assert.assertArrayEquals(new int[]{0, 1, 3, 0, 0, 2}, sais.buildLongestCommonPrefix());
+
+    Assert.assertArrayEquals(new int[0], new SuffixArraySAIS("").buildSuffixArray());
+    Assert.assertArrayEquals(new int[]{0}, new SuffixArraySAIS("x").buildSuffixArray());
+  }
+
+  @Test
+  public void saisRandomTest() {
+    Random random = new Random(0);
+    for (int cases = 0; cases < 200; cases++) {
+      int n = 1 + random.nextInt(cases < 100 ? 20 : 5000), alphabet = 1 + random.nextInt(cases % 3 == 0 ? 2 : 26);
+      StringBuilder sb = new StringBuilder();
+      for (int i = 0; i < n; i++) {
+        sb.append((char) ('a' + random.nextInt(alphabet)));
+      }
+      SuffixArrayBuilder expected = new SuffixArrayBuilder(sb.toString());
+      SuffixArraySAIS sais = new SuffixArraySAIS(sb.toString());
+      Assert.assertArrayEquals(expected.buildSuffixArray(), sais.buildSuffixArray());
+      Assert.assertArrayEquals(expected.buildLongestCommonPrefix(), sais.buildLongestCommonPrefix());
+    }
+  }
+
+  @Test
+  public void saisIntTest() {
+    Random random = new Random(0);
+    for (int cases = 0; cases < 50; cases++) {
+      int n = 1 + random.nextInt(2000);
+      int[] s = new int[n];
+      for (int i = 0; i < n; i++) {
+        // Either a huge alphabet or a few widely spread values
+        s[i] = cases % 2 == 0 ? random.nextInt() : (random.nextInt(3) - 1) * 1000000000;
+      }
+      // SuffixArrayBuilderInt can't be used as reference since its comparison overflows on these values
+      Integer[] expected = new Integer[n];
+      for (int i = 0; i < n; i++) {
+        expected[i] = i;
+      }
+      Arrays.sort(expected, (a, b) -> {
+        while (a < s.length && b < s.length && s[a] == s[b]) {
+          a++;
+          b++;
+        }
+        if (a == s.length || b == s.length) return b - a;
+        return Integer.compare(s[a], s[b]);
+      });
+      int[] sa = new SuffixArraySAIS(s).buildSuffixArray();
+      for (int i = 0; i < n; i++) {
+        Assert.assertEquals((int) expected[i], sa[i]);
+      }
+    }
+
+    int[] small = new int[3000];
+    for (int i = 0; i < small.length; i++) {
+      small[i] = random.nextInt(50);
+    }
+    SuffixArrayBuilderInt expected = new SuffixArrayBuilderInt(small);
+    SuffixArraySAIS sais = new SuffixArraySAIS(small);
+    Assert.assertArrayEquals(expected.buildSuffixArray(), sais.buildSuffixArray());
+    Assert.assertArrayEquals(expected.buildLongestCommonPrefix(), sais.buildLongestCommonPrefix());
+  }
+
+  @Test
+  public void saisParallelTest() {
+    Random random = new Random(0);
+    ForkJoinPool pool = new ForkJoinPool(4);
+    String[] inputs = new String[4];
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < 300000; i++) {
+      sb.append((char) ('a' + random.nextInt(4)));
+    }
+    inputs[0] = sb.toString();
+    inputs[1] = sb.substring(0, 1000);
+    sb.setLength(0);
+    for (int i = 0; i < 200000; i++) {
+      sb.append(i % 7 == 0 ? 'b' : 'a');
+    }
+    inputs[2] = sb.toString();
+    inputs[3] = "mississippi";
+
+    for (String input : inputs) {
+      SuffixArraySAIS sais = new SuffixArraySAIS(input);
+      int[] sa = sais.buildSuffixArray();
+      long saisMemory = sais.getPeakMemoryBytes();
+      Assert.assertArrayEquals(sa, sais.buildSuffixArrayParallel(pool));
+      Assert.assertTrue(saisMemory > 0 && sais.getPeakMemoryBytes() > 0);
+      if (input.length() > 1000) {
+        Assert.assertArrayEquals(new SuffixArray(input).buildSuffixArray(), sa);
+      }
+    }
+    pool.shutdown();
+  }
 }
@@ -0,0 +1,154 @@
+package yarin.yal;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+public class TestSuffixArrayIndex {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private static String randomString(Random random, int n, int alphabet) {
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < n; i++) {
+      sb.append((char) ('a' + random.nextInt(alphabet)));
+    }
+    return sb.toString();
+  }
+
+  @Test
+  public void bananaTest() throws IOException {
+    Path file = folder.newFile().toPath();
+    SuffixArrayIndex.write(file, "banana", SuffixArrayIndex.LcpEncoding.INT);
+    try (SuffixArrayIndex index = SuffixArrayIndex.open(file)) {
+      Assert.assertEquals(6, index.length());
+      Assert.assertEquals("nan", index.substring(2, 5));
+      Assert.assertEquals(3, index.count("a"));
+      Assert.assertEquals(2, index.count("ana"));
+      Assert.assertEquals(0, index.count("nab"));
+      Assert.assertEquals(6, index.count(""));
+      Assert.assertArrayEquals(new int[]{1, 3}, index.locate("ana"));
+      Assert.assertArrayEquals(new int[]{0}, index.locate("banana"));
+      Assert.assertArrayEquals(new int[0], index.locate("bananas"));
+    }
+  }
+
+  @Test
+  public void emptyTest() throws IOException {
+    Path file = folder.newFile().toPath();
+    SuffixArrayIndex.write(file, "", SuffixArrayIndex.LcpEncoding.VARINT);
+    try (SuffixArrayIndex index = SuffixArrayIndex.open(file)) {
+      Assert.assertEquals(0, index.length());
+      Assert.assertEquals(0, index.count("a"));
+    }
+  }
+
+  @Test
+  public void encodingsTest() throws IOException {
+    Random random = new Random(0);
+    // Long repeats give LCP values that don't fit in a byte or a single varint byte
+    String part = randomString(random, 400, 3);
+    String text = part + randomString(random, 3000, 2) + part + part + randomString(random, 1000, 26);
+    SuffixArraySAIS sais = new SuffixArraySAIS(text);
+    int[] sa = sais.buildSuffixArray();
+    int[] lcp = sais.buildLongestCommonPrefix();
+
+    for (SuffixArrayIndex.LcpEncoding encoding : SuffixArrayIndex.LcpEncoding.values()) {
+      Path file = folder.newFile().toPath();
+      SuffixArrayIndex.write(file, text, sa, lcp, encoding);
+      try (SuffixArrayIndex index = SuffixArrayIndex.open(file)) {
+        Assert.assertEquals(encoding, index.getLcpEncoding());
+        for (int i = 0; i < text.length(); i++) {
+          Assert.assertEquals(text.charAt(i), index.charAt(i));
+          Assert.assertEquals(sa[i], index.getSuffix(i));
+          Assert.assertEquals(lcp[i], index.getLcp(i));
+        }
+        // Random access
+        for (int i = 0; i < 1000; i++) {
+          int rank = random.nextInt(text.length());
+          Assert.assertEquals(lcp[rank], index.getLcp(rank));
+        }
+      }
+    }
+  }
+
+  @Test
+  public void countRandomTest() throws IOException {
+    Random random = new Random(0);
+    String text = randomString(random, 20000, 4);
+    Path file = folder.newFile().toPath();
+    SuffixArrayIndex.write(file, text, SuffixArrayIndex.LcpEncoding.BYTE);
+    try (SuffixArrayIndex index = SuffixArrayIndex.open(file)) {
+      for (int i = 0; i < 200; i++) {
+        String pattern = randomString(random, 1 + random.nextInt(8), 4);
+        List<Integer> expected = new ArrayList<>();
+        for (int p = text.indexOf(pattern); p >= 0; p = text.indexOf(pattern, p + 1)) {
+          expected.add(p);
+        }
+        Assert.assertEquals(expected.size(), index.count(pattern));
+        int[] located = index.locate(pattern);
+        Assert.assertEquals(expected.size(), located.length);
+        for (int j = 0; j < located.length; j++) {
+          Assert.assertEquals((int) expected.get(j), located[j]);
+        }
+      }
+    }
+  }
+
+  @Test
+  public void longestCommonSubstringTest() throws IOException {
+    Random random = new Random(0);
+    LongestCommonSubstring lcs = new LongestCommonSubstring();
+    for (int cases = 0; cases < 20; cases++) {
+      String s = randomString(random, 50 + cases * 20, 4), t = randomString(random, 60 + cases * 10, 4);
+      Path file = folder.newFile().toPath();
+      SuffixArrayIndex.write(file, s + '\0' + t, SuffixArrayIndex.LcpEncoding.VARINT);
+      try (SuffixArrayIndex index = SuffixArrayIndex.open(file)) {
+        LongestCommonSubstring.Match expected = lcs.find(s, t);
+        LongestCommonSubstring.Match match = lcs.find(index, s.length());
+        Assert.assertEquals(expected.length, match.length);
+        Assert.assertEquals(s.substring(match.ofs[0], match.ofs[0] + match.length), match.substring);
+        Assert.assertEquals(t.substring(match.ofs[1], match.ofs[1] + match.length), match.substring);
+      }
+    }
+  }
+
+  @Test
+  public void longestCommonSubstringManyTest() throws IOException {
+    Random random = new Random(1);
+    LongestCommonSubstring lcs = new LongestCommonSubstring();
+    List<String> strings = new ArrayList<>();
+    for (int i = 0; i < 5; i++) {
+      strings.add(randomString(random, 200, 3));
+    }
+    StringBuilder sb = new StringBuilder();
+    int[] start = new int[strings.size()];
+    char sentinel = (char) 256;
+    for (int i = 0; i < strings.size(); i++) {
+      start[i] = sb.length();
+      sb.append(strings.get(i)).append(sentinel++);
+    }
+    Path file = folder.newFile().toPath();
+    SuffixArrayIndex.write(file, sb.toString(), SuffixArrayIndex.LcpEncoding.BYTE);
+    try (SuffixArrayIndex index = SuffixArrayIndex.open(file)) {
+      for (int k = 2; k <= strings.size(); k++) {
+        List<LongestCommonSubstring.Match> expected = lcs.find(strings, k, Integer.MAX_VALUE, true);
+        List<LongestCommonSubstring.Match> matches = lcs.find(index, start, k, Integer.MAX_VALUE, true);
+        Assert.assertEquals(expected.size(), matches.size());
+        for (int i = 0; i < expected.size(); i++) {
+          Assert.assertEquals(expected.get(i).substring, matches.get(i).substring);
+          Assert.assertTrue(Arrays.equals(expected.get(i).ofs, matches.get(i).ofs));
+        }
+      }
+    }
+  }
+}
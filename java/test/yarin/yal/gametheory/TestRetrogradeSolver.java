@@ -0,0 +1,112 @@
+package yarin.yal.gametheory;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import yarin.yal.graph.DirectedGraph;
+
+public class TestRetrogradeSolver {
+
+  @Test
+  public void subtractionGame() {
+    // Take 1-3 from a pile, the player who can't move loses
+    int n = 100000;
+    RetrogradeSolver.MoveGenerator take = (s, moves) -> {
+      int count = 0;
+      for (int k = 1; k <= 3 && k <= s; k++) moves[count++] = s - k;
+      return count;
+    };
+    RetrogradeSolver.MoveGenerator untake = (s, moves) -> {
+      int count = 0;
+      for (int k = 1; k <= 3 && s + k < n; k++) moves[count++] = s + k;
+      return count;
+    };
+    RetrogradeSolver[] solvers = {
+        new RetrogradeSolver(n, 3, take),
+        new RetrogradeSolver(n, 3, take, untake, Result.Lose),
+        new RetrogradeSolver(n, 3, take, untake, Result.Lose)
+    };
+    solvers[0].solve();
+    solvers[1].solve();
+    solvers[2].solve(new ForkJoinPool(4));
+    for (RetrogradeSolver solver : solvers) {
+      for (int s = 0; s < n; s++) {
+        // The winner always takes the pile to the next multiple of 4
+        Assert.assertEquals(s % 4 == 0 ? Result.Lose : Result.Win, solver.getResult(s));
+        Assert.assertEquals(s % 4 == 0 ? s / 2 : s / 4 * 2 + 1, solver.getDistance(s));
+      }
+      Assert.assertEquals(n / 4, solver.getCount(Result.Lose));
+      Assert.assertEquals(0, solver.getCount(Result.Draw));
+      Assert.assertEquals(n / 2, solver.getLevelSizes().length);
+    }
+  }
+
+  @Test
+  public void randomGraphs() {
+    Random r = new Random(0);
+    for (int cases = 0; cases < 50; cases++) {
+      int n = 1 + r.nextInt(2000), edges = r.nextInt(3 * n);
+      int[][] adj = new int[n][0];
+      DirectedGraph g = new DirectedGraph(n);
+      for (int i = 0; i < edges; i++) {
+        int a = r.nextInt(n), b = r.nextInt(n);
+        g.addEdge(a, b);
+        adj[a] = Arrays.copyOf(adj[a], adj[a].length + 1);
+        adj[a][adj[a].length - 1] = b;
+      }
+      int maxMoves = 0;
+      for (int[] a : adj) maxMoves = Math.max(maxMoves, a.length);
+      RetrogradeSolver.MoveGenerator moves = (s, out) -> {
+        System.arraycopy(adj[s], 0, out, 0, adj[s].length);
+        return adj[s].length;
+      };
+      Result noMoves = cases % 3 == 0 ? Result.Win : Result.Lose;
+      // A state with moves only to states with moves, so that GameEvaluator hasn't queued it already
+      int preset = -1;
+      for (int s = 0; s < n && preset < 0; s++) {
+        boolean ok = adj[s].length > 0;
+        for (int t : adj[s]) ok &= adj[t].length > 0;
+        if (ok) preset = s;
+      }
+
+      GameEvaluator ge = new GameEvaluator(g, noMoves);
+      RetrogradeSolver sequential = new RetrogradeSolver(n, maxMoves, moves, null, noMoves);
+      RetrogradeSolver parallel = new RetrogradeSolver(n, maxMoves, moves, null, noMoves);
+      if (preset >= 0) {
+        ge.setResult(preset, Result.Lose);
+        sequential.setResult(preset, Result.Lose);
+        parallel.setResult(preset, Result.Lose);
+      }
+      sequential.solve();
+      parallel.solve(new ForkJoinPool(3));
+      for (int s = 0; s < n; s++) {
+        Result expected = ge.evaluate(s);
+        Assert.assertEquals(expected, sequential.getResult(s));
+        Assert.assertEquals(expected, parallel.getResult(s));
+        Assert.assertEquals(sequential.getDistance(s), parallel.getDistance(s));
+        int d = sequential.getDistance(s);
+        if (expected == Result.Draw || s == preset || adj[s].length == 0) continue;
+        // A Win moves to a Lose one closer to the end, and every move of a Lose is to a Win
+        int best = -1;
+        for (int t : adj[s]) {
+          if (expected == Result.Win && sequential.getResult(t) == Result.Lose) {
+            best = best < 0 ? sequential.getDistance(t) : Math.min(best, sequential.getDistance(t));
+          } else if (expected == Result.Lose) {
+            Assert.assertEquals(Result.Win, sequential.getResult(t));
+            best = Math.max(best, sequential.getDistance(t));
+          }
+        }
+        Assert.assertEquals(best + 1, d);
+      }
+    }
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void notSolved() {
+    new RetrogradeSolver(1, 0, (s, moves) -> 0).getResult(0);
+  }
+}
@@ -0,0 +1,89 @@
+package yarin.yal.gametheory.impartial;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.ForkJoinPool;
+
+import yarin.yal.gametheory.impartial.examples.TrebleCross;
+
+public class TestLongGameEvaluator {
+    @Test
+    public void testTrebleCross() {
+        GameEvaluator ge = new GameEvaluator();
+        LongGameEvaluator lge = new LongGameEvaluator(TrebleCross.GAME);
+        OctalGame octal = new OctalGame(TrebleCross.OCTAL_CODE);
+        for (int n = 0; n < 120; n++) {
+            for (int m = 0; m <= 2; m++) {
+                if (n == 1 && m == 2) continue;
+                TrebleCross t = new TrebleCross(n, m);
+                int expected = ge.evaluateFiniteGame(t);
+                Assert.assertEquals(expected, lge.evaluate(TrebleCross.encode(n, m)));
+                Assert.assertEquals(expected, octal.getValue(t.getHeapSize()));
+            }
+        }
+    }
+
+    @Test
+    public void testCombinedGame() {
+        String[] input = {
+            "X..............................X..........X............X.X..X..X.......................",
+            "....................................................X.................................................................",
+        };
+        GameEvaluator ge = new GameEvaluator();
+        LongGameEvaluator lge = new LongGameEvaluator(TrebleCross.GAME, 4096);
+        LongGameEvaluator octal = new LongGameEvaluator(new OctalGame(TrebleCross.OCTAL_CODE), 4096);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        for (String s : input) {
+            for (int i = 0; i < s.length(); i++) {
+                String t = s.substring(0, i) + "X" + s.substring(i + 1);
+                if (s.charAt(i) == 'X' || t.contains("XX") || t.contains("X.X")) continue;
+                CombinedGameState game = TrebleCross.createGames(t);
+                int expected = ge.evaluateFiniteGame(game);
+                Assert.assertEquals(expected, lge.evaluate(game, g -> ((TrebleCross) g).encode(), pool));
+                Assert.assertEquals(expected, octal.evaluate(game, g -> ((TrebleCross) g).getHeapSize(), pool));
+            }
+        }
+    }
+
+    @Test
+    public void testDeepGame() {
+        // Take one or two tokens; far deeper than the recursive evaluator can go
+        ILongGame subtraction = new ILongGame() {
+            public void nextStates(long state, LongMoves moves) {
+                for (int k = 1; k <= 2 && k <= state; k++) moves.add(state - k);
+            }
+        };
+        LongGameEvaluator lge = new LongGameEvaluator(subtraction, 1024);
+        Assert.assertEquals(1000000 % 3, lge.evaluate(1000000));
+        Assert.assertEquals(0, lge.evaluate(new long[] {7, 7, 3, 5, 5}));
+        Assert.assertEquals(1 ^ 2, lge.evaluate(new long[] {4, 5, 3}, new ForkJoinPool(2)));
+    }
+
+    @Test
+    public void testOctalPeriods() {
+        // Kayles has period 12 from heap 71 and Dawson's Kayles period 34 from heap 53
+        OctalGame kayles = new OctalGame("0.77");
+        Assert.assertTrue(kayles.findPeriod(1000));
+        Assert.assertEquals(12, kayles.getPeriod());
+        Assert.assertEquals(71, kayles.getPreperiod());
+        OctalGame dawson = new OctalGame("0.07");
+        Assert.assertTrue(dawson.findPeriod(1000));
+        Assert.assertEquals(34, dawson.getPeriod());
+        Assert.assertEquals(53, dawson.getPreperiod());
+
+        LongGameEvaluator lge = new LongGameEvaluator(dawson);
+        for (int n = 0; n < 300; n++) {
+            Assert.assertEquals(lge.evaluate(n), dawson.getValue(n));
+        }
+        Assert.assertEquals(dawson.getValue(53 + 34 * 1000000000L + 5), dawson.getValue(58));
+
+        // Treblecross isn't known to be periodic
+        Assert.assertFalse(new OctalGame(TrebleCross.OCTAL_CODE).findPeriod(500));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidCode() {
+        new OctalGame("0.08");
+    }
+}
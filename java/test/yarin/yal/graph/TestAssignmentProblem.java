@@ -0,0 +1,68 @@
+package yarin.yal.graph;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Random;
+
+public class TestAssignmentProblem {
+
+    @Test
+    public void small() {
+        long[][] cost = {
+                {4, 1, 3},
+                {2, 0, 5},
+                {3, 2, 2}};
+        AssignmentProblem ap = new AssignmentProblem(cost);
+        Assert.assertEquals(5, ap.getCost());
+        Assert.assertArrayEquals(new int[]{1, 0, 2}, ap.getAssignment());
+    }
+
+    @Test
+    public void empty() {
+        Assert.assertEquals(0, new AssignmentProblem(new long[0][]).getCost());
+    }
+
+    @Test
+    public void randomAgainstBruteForce() {
+        Random r = new Random(0);
+        for (int cases = 0; cases < 300; cases++) {
+            int n = 1 + r.nextInt(6), m = n + r.nextInt(3);
+            long[][] cost = new long[n][m];
+            for (int i = 0; i < n; i++) {
+                for (int j = 0; j < m; j++) {
+                    cost[i][j] = r.nextInt(2000) - 1000 + (cases % 2 == 0 ? 0 : (long) r.nextInt(1000) << 40);
+                }
+            }
+            AssignmentProblem ap = new AssignmentProblem(cost);
+            int[] assignment = ap.getAssignment();
+            long total = 0;
+            boolean[] used = new boolean[m];
+            for (int i = 0; i < n; i++) {
+                Assert.assertFalse(used[assignment[i]]);
+                used[assignment[i]] = true;
+                total += cost[i][assignment[i]];
+            }
+            Assert.assertEquals(total, ap.getCost());
+            Assert.assertEquals(bruteForce(cost, 0, new boolean[m]), total);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void moreRowsThanColumns() {
+        new AssignmentProblem(new long[3][2]);
+    }
+
+    private static long bruteForce(long[][] cost, int row, boolean[] used) {
+        if (row == cost.length) return 0;
+        long best = Long.MAX_VALUE;
+        for (int j = 0; j < used.length; j++) {
+            if (!used[j]) {
+                used[j] = true;
+                best = Math.min(best, cost[row][j] + bruteForce(cost, row + 1, used));
+                used[j] = false;
+            }
+        }
+        return best;
+    }
+}
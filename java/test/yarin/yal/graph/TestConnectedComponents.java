@@ -0,0 +1,57 @@
+package yarin.yal.graph;
+
+import org.junit.Assert;
+import org.junit.Test;
+import yarin.yal.UnionFind;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+public class TestConnectedComponents {
+
+    @Test
+    public void simpleGraph() {
+        int[] from = {0, 5, 2, 6};
+        int[] to = {3, 3, 4, 6};
+        int[] labels = ConnectedComponents.findComponents(7, from, to, ForkJoinPool.commonPool());
+        Assert.assertArrayEquals(new int[]{0, 1, 2, 0, 2, 0, 3}, labels);
+    }
+
+    @Test
+    public void testRandom() {
+        Random r = new Random(0);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        for (int cases = 0; cases < 5; cases++) {
+            int n = 100000, m = 60000 + cases * 20000;
+            int[] from = new int[m], to = new int[m];
+            UnionFind uf = new UnionFind(n);
+            for (int i = 0; i < m; i++) {
+                from[i] = r.nextInt(n);
+                to[i] = r.nextInt(n);
+                uf.unionSet(from[i], to[i]);
+            }
+            int[] labels = ConnectedComponents.findComponents(n, from, to, pool);
+
+            int[] expectedLabel = new int[n];
+            int count = 0;
+            for (int i = 0; i < n; i++) {
+                expectedLabel[i] = -1;
+            }
+            for (int i = 0; i < n; i++) {
+                int root = uf.findSet(i);
+                if (expectedLabel[root] < 0) {
+                    expectedLabel[root] = count++;
+                }
+                Assert.assertEquals(expectedLabel[root], labels[i]);
+            }
+        }
+        pool.shutdown();
+    }
+
+    @Test
+    public void testCsrGraph() {
+        CsrGraph g = CsrGraph.fromEdges(6, new int[]{1, 4, 2}, new int[]{2, 5, 1}, (int[]) null, true);
+        int[] labels = ConnectedComponents.findComponents(g, ForkJoinPool.commonPool());
+        Assert.assertArrayEquals(new int[]{0, 1, 1, 2, 3, 3}, labels);
+    }
+}
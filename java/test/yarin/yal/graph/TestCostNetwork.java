@@ -69,10 +69,88 @@ public class TestCostNetwork {
 
             Assert.assertEquals(maxFlow, expectedMaxFlow);
             Assert.assertEquals(minCost, expectedMinCost);
+            Assert.assertArrayEquals(ans, cn.maxFlowMinCostDijkstra(source, sink));
+            Assert.assertArrayEquals(ans, cn.maxFlowMinCostCostScaling(source, sink));
 
             casesTested++;
         }
 
         Assert.assertTrue(casesTested >= 10);
     }
+
+    private static void assertValidFlow(CostNetwork network, int n, int[] src, int[] dest, int[] cap, int[] cost,
+                                        int source, int sink, long[] expected) {
+        long[] balance = new long[n];
+        long totalCost = 0;
+        for (int i = 0; i < src.length; i++) {
+            long f = network.getFlow(i);
+            Assert.assertTrue(f >= 0 && f <= cap[i]);
+            balance[src[i]] -= f;
+            balance[dest[i]] += f;
+            totalCost += f * cost[i];
+        }
+        for (int v = 0; v < n; v++) {
+            if (v != source && v != sink) {
+                Assert.assertEquals(0, balance[v]);
+            }
+        }
+        Assert.assertEquals(expected[0], balance[sink]);
+        Assert.assertEquals(expected[1], totalCost);
+    }
+
+    @Test
+    public void testAlgorithmsAgree() {
+        Random r = new Random(0);
+        for (int iter = 0; iter < 300; iter++) {
+            int n = 2 + r.nextInt(15), m = r.nextInt(60);
+            boolean negative = iter % 3 == 0;
+            int[] src = new int[m], dest = new int[m], cap = new int[m], cost = new int[m];
+            CostNetwork network = new CostNetwork();
+            for (int i = 0; i < m; i++) {
+                do {
+                    src[i] = r.nextInt(n);
+                    dest[i] = r.nextInt(n);
+                } while (negative && src[i] == dest[i]);
+                if (negative && src[i] > dest[i]) {
+                    // Edges only go to higher nodes, so negative costs can't form cycles
+                    int t = src[i];
+                    src[i] = dest[i];
+                    dest[i] = t;
+                }
+                cap[i] = r.nextInt(20);
+                cost[i] = negative ? r.nextInt(41) - 20 : r.nextInt(30);
+                Assert.assertEquals(i, network.addEdge(src[i], dest[i], cap[i], cost[i]));
+            }
+            int source = 0, sink = n - 1;
+            long[] expected = network.maxFlowMinCost(source, sink);
+            assertValidFlow(network, n, src, dest, cap, cost, source, sink, expected);
+            Assert.assertArrayEquals(expected, network.maxFlowMinCostDijkstra(source, sink));
+            assertValidFlow(network, n, src, dest, cap, cost, source, sink, expected);
+            Assert.assertArrayEquals(expected, network.maxFlowMinCostCostScaling(source, sink));
+            assertValidFlow(network, n, src, dest, cap, cost, source, sink, expected);
+        }
+    }
+
+    @Test
+    public void testCostScalingNegativeCycle() {
+        // The cycle 1 -> 2 -> 1 has negative cost and is filled even though it carries no flow to the sink
+        CostNetwork network = new CostNetwork();
+        network.addEdge(0, 1, 5, 1);
+        network.addEdge(1, 3, 5, 1);
+        network.addEdge(1, 2, 3, -4);
+        network.addEdge(2, 1, 3, 1);
+        Assert.assertArrayEquals(new long[]{5, 10 - 9}, network.maxFlowMinCostCostScaling(0, 3));
+    }
+
+    @Test
+    public void testLongCapacities() {
+        CostNetwork network = new CostNetwork();
+        long big = 1L << 40;
+        network.addEdge(0, 1, big, 3L);
+        network.addEdge(1, 2, big, 1L << 20);
+        network.addEdge(0, 2, 5, 1L << 30);
+        long[] expected = {big + 5, big * (3 + (1L << 20)) + 5 * (1L << 30)};
+        Assert.assertArrayEquals(expected, network.maxFlowMinCostDijkstra(0, 2));
+        Assert.assertArrayEquals(expected, network.maxFlowMinCostCostScaling(0, 2));
+    }
 }
@@ -0,0 +1,208 @@
+package yarin.yal.graph;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.Scanner;
+
+public class TestCsrGraph {
+
+    @Test
+    public void testBuilder() {
+        CsrGraph g = new CsrGraph.Builder(4, true)
+                .addEdge(2, 1, 5)
+                .addEdge(0, 3)
+                .addEdge(2, 0, 7)
+                .build();
+
+        Assert.assertEquals(3, g.getEdgeCount());
+        Assert.assertEquals(3, g.getArcCount());
+        Assert.assertTrue(g.isWeighted());
+        Assert.assertFalse(g.hasLongWeights());
+        Assert.assertEquals(2, g.getDegree(2));
+        Assert.assertEquals(1, g.getTarget(g.begin(2)));
+        Assert.assertEquals(5, g.getWeight(g.begin(2)));
+        Assert.assertEquals(0, g.getTarget(g.begin(2) + 1));
+        Assert.assertEquals(2, g.getEdgeId(g.begin(2) + 1));
+        Assert.assertEquals(1, g.getWeight(g.begin(0)));
+
+        CsrGraph t = g.transpose();
+        Assert.assertEquals(1, t.getDegree(0));
+        Assert.assertEquals(2, t.getTarget(t.begin(0)));
+        Assert.assertEquals(7, t.getWeight(t.begin(0)));
+        Assert.assertEquals(0, t.getDegree(2));
+    }
+
+    @Test
+    public void testUndirectedSorted() {
+        CsrGraph g = new CsrGraph.Builder(4, false)
+                .sortAdjacency()
+                .addEdge(0, 3)
+                .addEdge(2, 0)
+                .addEdge(0, 1, 10000000000L)
+                .build();
+
+        Assert.assertEquals(3, g.getEdgeCount());
+        Assert.assertEquals(6, g.getArcCount());
+        Assert.assertTrue(g.hasLongWeights());
+        Assert.assertEquals(3, g.getDegree(0));
+        Assert.assertEquals(1, g.getTarget(g.begin(0)));
+        Assert.assertEquals(2, g.getTarget(g.begin(0) + 1));
+        Assert.assertEquals(3, g.getTarget(g.begin(0) + 2));
+        Assert.assertEquals(10000000000L, g.getLongWeight(g.begin(1)));
+        Assert.assertEquals(2, g.getEdgeId(g.begin(1)));
+        try {
+            g.getWeight(g.begin(1));
+            Assert.fail();
+        } catch (IllegalStateException e) {
+            // Expected
+        }
+        try {
+            new BellmanFord().shortestPaths(g, 0);
+            Assert.fail();
+        } catch (IllegalArgumentException e) {
+            // Expected
+        }
+    }
+
+    @Test
+    public void testStronglyConnectedComponentsRandom() {
+        Random rnd = new Random(0);
+        int n = 1000, m = 1500;
+
+        StronglyConnectedComponents algo = new StronglyConnectedComponents();
+        for (int cases = 0; cases < 10; cases++) {
+            DirectedGraph dg = new DirectedGraph(n);
+            for (int i = 0; i < m; i++) {
+                dg.addEdge(rnd.nextInt(n), rnd.nextInt(n));
+            }
+            DirectedGraph.Node[] expected = algo.findComponentsRecursive(dg);
+            int[] map = algo.findComponents(CsrGraph.fromDirectedGraph(dg));
+            for (int i = 0; i < n; i++) {
+                Assert.assertEquals(expected[i].getIndex(), map[i]);
+            }
+        }
+    }
+
+    @Test
+    public void testStronglyConnectedComponentsLarge() {
+        // A long path would overflow the stack in the recursive version
+        int n = 1000000;
+        int[] from = new int[n], to = new int[n];
+        for (int i = 0; i < n; i++) {
+            from[i] = i;
+            to[i] = (i + 1) % n;
+        }
+        int[] map = new StronglyConnectedComponents().findComponents(CsrGraph.fromEdges(n, from, to, (int[]) null, true));
+        for (int i = 0; i < n; i++) {
+            Assert.assertEquals(map[0], map[i]);
+        }
+    }
+
+    @Test
+    public void testTopologicalOrdering() {
+        Random rnd = new Random(0);
+        int n = 1000, m = 3000;
+        CsrGraph.Builder builder = new CsrGraph.Builder(n, true);
+        for (int i = 0; i < m; i++) {
+            int a = rnd.nextInt(n), b = rnd.nextInt(n);
+            if (a != b) {
+                builder.addEdge(Math.min(a, b), Math.max(a, b));
+            }
+        }
+        CsrGraph g = builder.build();
+        int[] order = new TopologicalOrdering().findOrdering(g);
+        int[] pos = new int[n];
+        for (int i = 0; i < n; i++) {
+            pos[order[i]] = i;
+        }
+        for (int v = 0; v < n; v++) {
+            for (int j = g.begin(v); j < g.end(v); j++) {
+                Assert.assertTrue(pos[v] < pos[g.getTarget(j)]);
+            }
+        }
+
+        Assert.assertNull(new TopologicalOrdering().findOrdering(
+                new CsrGraph.Builder(3, true).addEdge(0, 1).addEdge(1, 2).addEdge(2, 1).build()));
+    }
+
+    @Test
+    public void testBellmanFord() {
+        Random rnd = new Random(0);
+        int n = 100, m = 300;
+        for (int cases = 0; cases < 20; cases++) {
+            DirectedGraph dg = new DirectedGraph(n);
+            for (int i = 0; i < m; i++) {
+                dg.addEdge(rnd.nextInt(n), rnd.nextInt(n), rnd.nextInt(100) - (cases % 2 == 0 ? 0 : 3));
+            }
+            int[] expected = new BellmanFord().shortestPaths(dg, dg.getNode(0));
+            int[] dist = new BellmanFord().shortestPaths(CsrGraph.fromDirectedGraph(dg), 0);
+            Assert.assertArrayEquals(expected, dist);
+        }
+    }
+
+    @Test
+    public void testEuler() {
+        int[][] edges = {{0, 1}, {1, 2}, {2, 0}, {0, 3}, {3, 4}, {4, 0}, {2, 3}};
+        Euler euler = new Euler(5);
+        CsrGraph.Builder builder = new CsrGraph.Builder(5, false).sortAdjacency();
+        for (int[] edge : edges) {
+            euler.addEdge(edge[0], edge[1]);
+            builder.addEdge(edge[0], edge[1]);
+        }
+        int[] path = Euler.findCycle(builder.build());
+        Assert.assertEquals(edges.length + 1, path.length);
+        int i = 0;
+        for (int node : euler.findCycle()) {
+            Assert.assertEquals(node, path[i++]);
+        }
+
+        Assert.assertNull(Euler.findCycle(new CsrGraph.Builder(4, false).addEdge(0, 1).addEdge(2, 3).build()));
+    }
+
+    @Test
+    public void testFindBlocks() {
+        InputStream inputStream = TestCsrGraph.class.getResourceAsStream("blockcutpointgraph.in");
+        Scanner scanner = new Scanner(inputStream);
+
+        int n = scanner.nextInt(), m = scanner.nextInt();
+        BlockCutpointInputGraph g = new BlockCutpointInputGraph(n);
+        for (int i = 0; i < m; i++) {
+            int a = scanner.nextInt(), b = scanner.nextInt();
+            g.addEdge(g.new BlockCutpointSourceEdge(g.getNode(a), g.getNode(b)));
+        }
+        BlockCutpointGraph h = BlockCutpointGraph.create(g, new BlockCutpointGraph.Node[n]);
+
+        int[] edgeBlock = new int[m];
+        boolean[] cutVertex = new boolean[n];
+        int blocks = BlockCutpointGraph.findBlocks(CsrGraph.fromGraph(g), edgeBlock, cutVertex);
+
+        int expectedBlocks = 0;
+        boolean[] expectedCutVertex = new boolean[n];
+        for (BlockCutpointGraph.Node node : h.getNodes()) {
+            if (node instanceof BlockCutpointGraph.BlockNode) {
+                expectedBlocks++;
+            } else {
+                expectedCutVertex[((BlockCutpointGraph.CutVertexNode) node).getCutVertexMap()] = true;
+            }
+        }
+        Assert.assertEquals(expectedBlocks, blocks);
+        Assert.assertArrayEquals(expectedCutVertex, cutVertex);
+
+        // Edges in the same block according to the object graph must be in the same block here as well
+        int[] blockMap = new int[h.getNodeCount()];
+        Arrays.fill(blockMap, -1);
+        int i = 0;
+        for (BlockCutpointInputGraph.BlockCutpointSourceEdge edge : g.getEdges()) {
+            int expected = edge.getBlock().getIndex();
+            if (blockMap[expected] < 0) {
+                blockMap[expected] = edgeBlock[i];
+            }
+            Assert.assertEquals(blockMap[expected], edgeBlock[i]);
+            i++;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package yarin.yal.graph;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Random;
+
+public class TestHeavyLightDecomposition {
+
+    private static int[] path(int[] parent, int[] depth, int u, int v) {
+        int[] nodes = new int[parent.length];
+        int count = 0;
+        while (u != v) {
+            if (depth[u] >= depth[v]) {
+                nodes[count++] = u;
+                u = parent[u];
+            } else {
+                nodes[count++] = v;
+                v = parent[v];
+            }
+        }
+        nodes[count++] = u;
+        return java.util.Arrays.copyOf(nodes, count);
+    }
+
+    @Test
+    public void testRandomTrees() {
+        Random r = new Random(0);
+        for (int iter = 0; iter < 40; iter++) {
+            int n = 1 + r.nextInt(200);
+            int[] parent = TestLowestCommonAncestor.randomTree(r, n, iter % 2 == 0);
+            LowestCommonAncestor lca = new LowestCommonAncestor(parent);
+            int[] depth = new int[n];
+            long[] values = new long[n];
+            for (int v = 0; v < n; v++) {
+                depth[v] = lca.getDepth(v);
+                values[v] = r.nextInt(2001) - 1000;
+            }
+            HeavyLightDecomposition hld = new HeavyLightDecomposition(parent, values);
+            for (int op = 0; op < 500; op++) {
+                int u = r.nextInt(n), v = r.nextInt(n);
+                int[] nodes = path(parent, depth, u, v);
+                switch (r.nextInt(5)) {
+                    case 0:
+                        long value = r.nextInt(2001) - 1000;
+                        values[u] = value;
+                        hld.set(u, value);
+                        break;
+                    case 1:
+                        long delta = r.nextInt(21) - 10;
+                        for (int x : nodes) {
+                            values[x] += delta;
+                        }
+                        hld.pathAdd(u, v, delta);
+                        break;
+                    case 2:
+                        delta = r.nextInt(21) - 10;
+                        long sum = 0;
+                        for (int x = 0; x < n; x++) {
+                            if (lca.isAncestor(u, x)) {
+                                values[x] += delta;
+                                sum += values[x];
+                            }
+                        }
+                        hld.subtreeAdd(u, delta);
+                        Assert.assertEquals(sum, hld.subtreeSum(u));
+                        break;
+                    default:
+                        long expectedSum = 0, expectedMax = Long.MIN_VALUE;
+                        for (int x : nodes) {
+                            expectedSum += values[x];
+                            expectedMax = Math.max(expectedMax, values[x]);
+                        }
+                        Assert.assertEquals(expectedSum, hld.pathSum(u, v));
+                        Assert.assertEquals(expectedMax, hld.pathMax(u, v));
+                        Assert.assertEquals(lca.lca(u, v), hld.lca(u, v));
+                        Assert.assertEquals(values[v], hld.get(v));
+                        break;
+                }
+            }
+        }
+    }
+}
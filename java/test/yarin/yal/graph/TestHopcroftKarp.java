@@ -0,0 +1,114 @@
+package yarin.yal.graph;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+public class TestHopcroftKarp {
+
+    @Test
+    public void small() {
+        HopcroftKarp hk = new HopcroftKarp(3, 3, new int[]{0, 0, 1, 2}, new int[]{0, 1, 0, 0});
+        Assert.assertEquals(2, hk.findMaximumMatching());
+        int[] match = hk.getMatchLeft();
+        Assert.assertEquals(1, match[0]);
+        Assert.assertNotEquals(0, hk.getMatchRight()[0]);
+    }
+
+    @Test
+    public void empty() {
+        HopcroftKarp hk = new HopcroftKarp(4, 0, new int[0], new int[0]);
+        Assert.assertEquals(0, hk.findMaximumMatching());
+        Assert.assertArrayEquals(new int[]{-1, -1, -1, -1}, hk.getMatchLeft());
+    }
+
+    @Test
+    public void randomAgainstBipartiteMatching() {
+        Random r = new Random(0);
+        for (int cases = 0; cases < 200; cases++) {
+            int a = 1 + r.nextInt(30), b = 1 + r.nextInt(30), m = r.nextInt(3 * (a + b));
+            int[] left = new int[m], right = new int[m];
+            List<BipartiteMatching.Edge> edges = new ArrayList<>();
+            for (int i = 0; i < m; i++) {
+                left[i] = r.nextInt(a);
+                right[i] = r.nextInt(b);
+                edges.add(new BipartiteMatching.Edge(left[i], right[i]));
+            }
+            int expected = BipartiteMatching.findMaximumMatching(edges).size();
+            HopcroftKarp hk = new HopcroftKarp(a, b, left, right);
+            Assert.assertEquals(expected, hk.findMaximumMatching());
+            checkMatching(hk, left, right, expected);
+
+            // Warm start from a matching of a subset of the edges
+            int k = r.nextInt(m + 1);
+            HopcroftKarp partial = new HopcroftKarp(a, b, Arrays.copyOf(left, k), Arrays.copyOf(right, k));
+            partial.findMaximumMatching();
+            Assert.assertEquals(expected, hk.findMaximumMatching(partial.getMatchLeft()));
+            checkMatching(hk, left, right, expected);
+        }
+    }
+
+    @Test
+    public void longAugmentingPath() {
+        // Left i is matched to right i + 1, and the only augmenting path goes through all nodes
+        int n = 300000;
+        int[] left = new int[2 * n - 1], right = new int[2 * n - 1], initial = new int[n];
+        for (int i = 0; i < n; i++) {
+            left[2 * i] = i;
+            right[2 * i] = i;
+            if (i + 1 < n) {
+                left[2 * i + 1] = i;
+                right[2 * i + 1] = i + 1;
+            }
+            initial[i] = i + 1 < n ? i + 1 : -1;
+        }
+        HopcroftKarp hk = new HopcroftKarp(n, n, left, right);
+        Assert.assertEquals(n, hk.findMaximumMatching(initial));
+        int[] match = hk.getMatchLeft();
+        for (int i = 0; i < n; i++) {
+            Assert.assertEquals(i, match[i]);
+        }
+    }
+
+    @Test
+    public void initialMatchingWithRemovedEdge() {
+        // The starting matching pairs left 0 with right 1, an edge the graph doesn't have any more
+        int[] left = {0, 1}, right = {0, 0};
+        HopcroftKarp hk = new HopcroftKarp(2, 2, left, right);
+        Assert.assertEquals(1, hk.findMaximumMatching(new int[]{1, 0}));
+        Assert.assertArrayEquals(new int[]{-1, 0}, hk.getMatchLeft());
+        checkMatching(hk, left, right, 1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void initialMatchingBelowMinusOne() {
+        HopcroftKarp hk = new HopcroftKarp(2, 2, new int[]{0, 1}, new int[]{0, 0});
+        hk.findMaximumMatching(new int[]{-2, 0});
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidInitialMatching() {
+        HopcroftKarp hk = new HopcroftKarp(2, 2, new int[]{0, 1}, new int[]{0, 0});
+        hk.findMaximumMatching(new int[]{0, 0});
+    }
+
+    private static void checkMatching(HopcroftKarp hk, int[] left, int[] right, int size) {
+        int[] matchLeft = hk.getMatchLeft(), matchRight = hk.getMatchRight();
+        int count = 0;
+        for (int u = 0; u < matchLeft.length; u++) {
+            if (matchLeft[u] < 0) continue;
+            count++;
+            Assert.assertEquals(u, matchRight[matchLeft[u]]);
+            boolean edge = false;
+            for (int i = 0; i < left.length; i++) {
+                edge |= left[i] == u && right[i] == matchLeft[u];
+            }
+            Assert.assertTrue(edge);
+        }
+        Assert.assertEquals(size, count);
+    }
+}
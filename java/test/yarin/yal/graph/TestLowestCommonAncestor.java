@@ -0,0 +1,89 @@
+package yarin.yal.graph;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Random;
+
+public class TestLowestCommonAncestor {
+
+    // A random tree where the nodes are relabeled so that parents don't always have smaller indexes
+    static int[] randomTree(Random r, int n, boolean deep) {
+        int[] perm = new int[n];
+        for (int i = 0; i < n; i++) {
+            int j = r.nextInt(i + 1);
+            perm[i] = perm[j];
+            perm[j] = i;
+        }
+        int[] parent = new int[n];
+        parent[perm[0]] = -1;
+        for (int i = 1; i < n; i++) {
+            int p = deep ? Math.max(0, i - 1 - r.nextInt(3)) : r.nextInt(i);
+            parent[perm[i]] = perm[p];
+        }
+        return parent;
+    }
+
+    private static int naiveLca(int[] parent, int u, int v) {
+        boolean[] seen = new boolean[parent.length];
+        for (int x = u; x >= 0; x = parent[x]) {
+            seen[x] = true;
+        }
+        int x = v;
+        while (!seen[x]) {
+            x = parent[x];
+        }
+        return x;
+    }
+
+    @Test
+    public void testRandomTrees() {
+        Random r = new Random(0);
+        for (int iter = 0; iter < 50; iter++) {
+            int n = 1 + r.nextInt(300);
+            int[] parent = randomTree(r, n, iter % 2 == 0);
+            LowestCommonAncestor lca = new LowestCommonAncestor(parent);
+            int q = 500;
+            int[] us = new int[q], vs = new int[q];
+            for (int i = 0; i < q; i++) {
+                us[i] = r.nextInt(n);
+                vs[i] = i % 10 == 0 ? us[i] : r.nextInt(n);
+            }
+            int[] offline = LowestCommonAncestor.lca(parent, us, vs);
+            for (int i = 0; i < q; i++) {
+                int expected = naiveLca(parent, us[i], vs[i]);
+                Assert.assertEquals(expected, lca.lca(us[i], vs[i]));
+                Assert.assertEquals(expected, offline[i]);
+                Assert.assertEquals(lca.getDepth(us[i]) + lca.getDepth(vs[i]) - 2 * lca.getDepth(expected), lca.distance(us[i], vs[i]));
+            }
+        }
+    }
+
+    @Test
+    public void testPath() {
+        // A path deep enough to overflow the stack of a recursive DFS
+        int n = 1000000;
+        int[] parent = new int[n];
+        for (int i = 0; i < n; i++) {
+            parent[i] = i - 1;
+        }
+        LowestCommonAncestor lca = new LowestCommonAncestor(parent);
+        Assert.assertEquals(0, lca.getRoot());
+        Assert.assertEquals(12345, lca.lca(12345, 999999));
+        Assert.assertEquals(12345, lca.lca(999999, 12345));
+        Assert.assertTrue(lca.isAncestor(5, 6));
+        Assert.assertFalse(lca.isAncestor(6, 5));
+        int[] offline = LowestCommonAncestor.lca(parent, new int[]{12345, 999999}, new int[]{999999, 0});
+        Assert.assertArrayEquals(new int[]{12345, 0}, offline);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testTwoRoots() {
+        new LowestCommonAncestor(new int[]{-1, 0, -1});
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testCycle() {
+        new LowestCommonAncestor(new int[]{-1, 2, 1});
+    }
+}
@@ -3,6 +3,9 @@ package yarin.yal.graph;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
 public class TestMaxFlow {
 
   @Test
@@ -39,6 +42,19 @@ public class TestMaxFlow {
     Assert.assertEquals(0, maxFlow.maxFlow(1, 0));
   }
 
+  @Test
+  public void sourceIsSink() {
+    PushRelabelMaxFlow maxFlow = new PushRelabelMaxFlow(3);
+    maxFlow.addEdge(0, 1, 5);
+    maxFlow.addEdge(1, 2, 5);
+    Assert.assertEquals(5, maxFlow.maxFlow(0, 2));
+    Assert.assertEquals(0, maxFlow.maxFlow(0, 0));
+    Assert.assertEquals(0, maxFlow.getFlow(0, 1));
+    ForkJoinPool pool = new ForkJoinPool(2);
+    Assert.assertEquals(0, maxFlow.maxFlowParallel(0, 0, pool));
+    pool.shutdown();
+  }
+
   @Test
   public void multiEdges() {
     PushRelabelMaxFlow maxFlow = new PushRelabelMaxFlow(3);
@@ -63,4 +79,60 @@ public class TestMaxFlow {
     Assert.assertEquals(2, maxFlow.getFlow(2, 1));
     Assert.assertEquals(-2, maxFlow.getFlow(1, 2));
   }
+
+  @Test
+  public void repeatedMaxFlow() {
+    PushRelabelMaxFlow maxFlow = new PushRelabelMaxFlow(3);
+    maxFlow.addEdge(0, 1, 4);
+    maxFlow.addEdge(1, 2, 3);
+    Assert.assertEquals(3, maxFlow.maxFlow(0, 2));
+    Assert.assertEquals(3, maxFlow.maxFlow(0, 2));
+    maxFlow.addEdge(0, 2, 5);
+    Assert.assertEquals(8, maxFlow.maxFlow(0, 2));
+    Assert.assertEquals(3, maxFlow.getFlow(1, 2));
+  }
+
+  @Test
+  public void randomAgainstDinic() {
+    Random r = new Random(0);
+    ForkJoinPool pool = new ForkJoinPool(4);
+    for (int cases = 0; cases < 300; cases++) {
+      int n = 2 + r.nextInt(cases < 280 ? 40 : 2000), edges = r.nextInt(8 * n);
+      DinicMaxFlow g = new DinicMaxFlow(n);
+      PushRelabelMaxFlow h = new PushRelabelMaxFlow(n);
+      int[] src = new int[edges], dest = new int[edges];
+      for (int i = 0; i < edges; i++) {
+        src[i] = r.nextInt(n);
+        dest[i] = r.nextInt(n);
+        int cap = r.nextInt(100);
+        g.addEdge(src[i], dest[i], cap);
+        h.addEdge(src[i], dest[i], cap);
+      }
+      int source = r.nextInt(n), sink = (source + 1 + r.nextInt(n - 1)) % n;
+      int expected = g.maxFlow(source, sink);
+      Assert.assertEquals(expected, h.maxFlow(source, sink));
+      checkFlow(h, n, src, dest, source, sink, expected);
+      Assert.assertEquals(expected, h.maxFlowParallel(source, sink, pool));
+      checkFlow(h, n, src, dest, source, sink, expected);
+    }
+    pool.shutdown();
+  }
+
+  private static void checkFlow(PushRelabelMaxFlow h, int n, int[] src, int[] dest, int source, int sink, int flow) {
+    long[] balance = new long[n];
+    boolean[][] seen = new boolean[n][n];
+    for (int i = 0; i < src.length; i++) {
+      int u = src[i], v = dest[i];
+      if (u == v || seen[u][v]) continue;
+      seen[u][v] = seen[v][u] = true;
+      int f = h.getFlow(u, v);
+      Assert.assertEquals(-f, h.getFlow(v, u));
+      balance[u] -= f;
+      balance[v] += f;
+    }
+    for (int v = 0; v < n; v++) {
+      long expected = v == sink ? flow : v == source ? -flow : 0;
+      Assert.assertEquals(expected, balance[v]);
+    }
+  }
 }
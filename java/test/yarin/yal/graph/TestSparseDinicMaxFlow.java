@@ -0,0 +1,174 @@
+package yarin.yal.graph;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.InputStream;
+import java.util.Random;
+import java.util.Scanner;
+
+public class TestSparseDinicMaxFlow {
+
+  @Test
+  public void simpleGraph() {
+    SparseDinicMaxFlow g = new SparseDinicMaxFlow(7);
+    g.addEdge(0, 1, 5);
+    g.addEdge(0, 2, 10);
+    g.addEdge(0, 4, 4);
+    g.addEdge(1, 3, 1);
+    g.addEdge(1, 6, 3);
+    g.addEdge(2, 3, 7);
+    g.addEdge(3, 6, 5);
+    g.addEdge(2, 4, 3);
+    g.addEdge(2, 5, 7);
+    g.addEdge(4, 5, 6);
+    g.addEdge(5, 6, 4);
+
+    Assert.assertEquals(12, g.maxFlow(0, 6));
+  }
+
+  @Test
+  public void bidirectionalEdges() {
+    SparseDinicMaxFlow g = new SparseDinicMaxFlow(4);
+    g.addEdge(0, 1, 2);
+    g.addEdge(0, 2, 3);
+    g.addEdge(1, 2, 3);
+    g.addEdge(2, 1, 3);
+    g.addEdge(1, 3, 4);
+    g.addEdge(2, 3, 1);
+    Assert.assertEquals(5, g.maxFlow(0, 3));
+    Assert.assertEquals(2, g.getFlow(2, 1));
+    Assert.assertEquals(-2, g.getFlow(1, 2));
+  }
+
+  @Test
+  public void largeCapacities() {
+    SparseDinicMaxFlow g = new SparseDinicMaxFlow(3);
+    g.addEdge(0, 1, 1L << 40);
+    g.addEdge(0, 1, 1L << 40);
+    g.addEdge(1, 2, Long.MAX_VALUE);
+    Assert.assertEquals(1L << 41, g.maxFlow(0, 2));
+  }
+
+  @Test
+  public void testRandom() {
+    Random r = new Random(0);
+
+    for (int cases = 0; cases < 500; cases++) {
+      int n = 50, edges = 300;
+
+      SparseDinicMaxFlow g = new SparseDinicMaxFlow(n);
+      DinicMaxFlow h = new DinicMaxFlow(n);
+      long[] capacity = new long[edges];
+      int m = 0;
+
+      for (int i = 0; i < edges; i++) {
+        int x = r.nextInt(n);
+        int y = r.nextInt(n);
+        int cap = 1 + r.nextInt(99);
+        if (x != y) {
+          g.addEdge(x, y, cap);
+          h.addEdge(x, y, cap);
+          capacity[m++] = cap;
+        }
+      }
+
+      int src = 0, sink = 0;
+      while (src == sink) {
+        src = r.nextInt(n);
+        sink = r.nextInt(n);
+      }
+
+      long flow = g.maxFlow(src, sink);
+      Assert.assertEquals(h.maxFlow(src, sink), flow);
+
+      // The min cut must have the same capacity as the flow
+      long cut = 0;
+      for (int edge : g.getMinCutEdges()) {
+        cut += capacity[edge];
+        Assert.assertEquals(capacity[edge], g.getEdgeFlow(edge));
+      }
+      Assert.assertEquals(flow, cut);
+      boolean[] sourceSide = g.getMinCut();
+      Assert.assertTrue(sourceSide[src]);
+      Assert.assertFalse(sourceSide[sink]);
+    }
+  }
+
+  @Test
+  public void testIncremental() {
+    Random r = new Random(1);
+
+    for (int cases = 0; cases < 100; cases++) {
+      int n = 40, edges = 200;
+      int[] x = new int[edges], y = new int[edges];
+      long[] capacity = new long[edges];
+      SparseDinicMaxFlow g = new SparseDinicMaxFlow(n);
+      for (int i = 0; i < edges; i++) {
+        x[i] = r.nextInt(n);
+        y[i] = r.nextInt(n);
+        capacity[i] = r.nextInt(20);
+        g.addEdge(x[i], y[i], capacity[i]);
+      }
+      g.maxFlow(0, n - 1);
+
+      for (int round = 0; round < 5; round++) {
+        for (int i = 0; i < 10; i++) {
+          int edge = r.nextInt(edges);
+          int delta = r.nextInt(20);
+          capacity[edge] += delta;
+          g.increaseCapacity(edge, delta);
+        }
+        long flow = g.maxFlow(0, n - 1);
+
+        SparseDinicMaxFlow h = new SparseDinicMaxFlow(n);
+        for (int i = 0; i < edges; i++) {
+          h.addEdge(x[i], y[i], capacity[i]);
+        }
+        Assert.assertEquals(h.maxFlow(0, n - 1), flow);
+      }
+    }
+  }
+
+  @Test
+  public void testLargeSparse() {
+    // A grid with 100k nodes would need 10^10 matrix entries in DinicMaxFlow
+    int side = 316, n = side * side;
+    Random r = new Random(0);
+    SparseDinicMaxFlow g = new SparseDinicMaxFlow(n + 2, 4 * n);
+    int source = n, sink = n + 1;
+    for (int i = 0; i < side; i++) {
+      for (int j = 0; j < side; j++) {
+        int v = i * side + j;
+        if (j + 1 < side) g.addEdge(v, v + 1, 1 + r.nextInt(10));
+        if (i + 1 < side) g.addEdge(v, v + side, 1 + r.nextInt(10));
+      }
+      g.addEdge(source, i * side, Long.MAX_VALUE / 4);
+      g.addEdge(i * side + side - 1, sink, Long.MAX_VALUE / 4);
+    }
+    long flow = g.maxFlow(source, sink);
+    Assert.assertTrue(flow > 0);
+    Assert.assertFalse(g.getMinCut()[sink]);
+  }
+
+  @Test
+  public void testNetwork1() {
+    InputStream inputStream = TestSparseDinicMaxFlow.class.getResourceAsStream("network1.in");
+    InputStream answerStream = TestSparseDinicMaxFlow.class.getResourceAsStream("network1.ans");
+
+    Scanner inputScanner = new Scanner(inputStream);
+    Scanner answerScanner = new Scanner(answerStream);
+
+    while (true) {
+      int n = inputScanner.nextInt(), m = inputScanner.nextInt(), source = inputScanner.nextInt(), sink = inputScanner.nextInt();
+      if (n == 0) {
+        break;
+      }
+      SparseDinicMaxFlow g = new SparseDinicMaxFlow(n);
+      for (int i = 0; i < m; i++) {
+        g.addEdge(inputScanner.nextInt(), inputScanner.nextInt(), inputScanner.nextInt());
+      }
+      Assert.assertEquals(answerScanner.nextInt(), g.maxFlow(source, sink));
+    }
+  }
+}
@@ -3,7 +3,9 @@ package yarin.yal.graph;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.util.Arrays;
 import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
 
 public class TestStronglyConnectedComponents {
 
@@ -111,4 +113,143 @@ public class TestStronglyConnectedComponents {
         Assert.assertEquals(dag.getNodeOutEdges().get(4).get(0).getDest().getIndex(), 6);
         Assert.assertEquals(dag.getNodeOutEdges().get(6).get(0).getDest().getIndex(), 0);
     }
+
+    // Checks that two component labelings define the same partition of the nodes
+    private static void assertSamePartition(int[] expected, int[] actual) {
+        int n = expected.length;
+        int[] map = new int[n], reverse = new int[n];
+        Arrays.fill(map, -1);
+        Arrays.fill(reverse, -1);
+        for (int i = 0; i < n; i++) {
+            if (map[expected[i]] < 0 && reverse[actual[i]] < 0) {
+                map[expected[i]] = actual[i];
+                reverse[actual[i]] = expected[i];
+            }
+            Assert.assertEquals(map[expected[i]], actual[i]);
+            Assert.assertEquals(reverse[actual[i]], expected[i]);
+        }
+    }
+
+    // Random graph made of cycles through groups of nodes, with extra random arcs mostly going forward
+    private static CsrGraph randomCsrGraph(Random rnd, int n, int groups, int extra) {
+        int[] perm = new int[n];
+        for (int i = 0; i < n; i++) {
+            int j = rnd.nextInt(i + 1);
+            perm[i] = perm[j];
+            perm[j] = i;
+        }
+        CsrGraph.Builder builder = new CsrGraph.Builder(n, true);
+        int groupSize = Math.max(1, n / groups);
+        for (int start = 0; start < n; start += groupSize) {
+            int end = Math.min(n, start + groupSize);
+            for (int i = start; i + 1 < end; i++) {
+                builder.addEdge(perm[i], perm[i + 1]);
+            }
+            if (rnd.nextBoolean()) {
+                builder.addEdge(perm[end - 1], perm[start]);
+            }
+        }
+        for (int i = 0; i < extra; i++) {
+            int a = rnd.nextInt(n), b = rnd.nextInt(n);
+            if (rnd.nextInt(20) != 0 && a > b) {
+                int t = a;
+                a = b;
+                b = t;
+            }
+            builder.addEdge(perm[a], perm[b]);
+        }
+        return builder.build();
+    }
+
+    private static void checkCondensedGraph(CsrGraph g, int[] ids, CsrGraph dag) {
+        int count = 0;
+        for (int id : ids) {
+            count = Math.max(count, id + 1);
+        }
+        Assert.assertEquals(count, dag.getNodeCount());
+        boolean[][] expected = new boolean[count][count];
+        for (int v = 0; v < g.getNodeCount(); v++) {
+            for (int j = g.begin(v); j < g.end(v); j++) {
+                int a = ids[v], b = ids[g.getTarget(j)];
+                if (a != b) expected[a][b] = true;
+            }
+        }
+        int arcs = 0;
+        for (int a = 0; a < count; a++) {
+            for (int j = dag.begin(a); j < dag.end(a); j++) {
+                Assert.assertTrue(expected[a][dag.getTarget(j)]);
+                expected[a][dag.getTarget(j)] = false;
+                arcs++;
+            }
+        }
+        for (boolean[] row : expected) {
+            for (boolean missing : row) {
+                Assert.assertFalse(missing);
+            }
+        }
+        Assert.assertEquals(dag.getArcCount(), arcs);
+    }
+
+    @Test
+    public void testComponentIdsRandom() {
+        Random rnd = new Random(0);
+        StronglyConnectedComponents algo = new StronglyConnectedComponents();
+        ForkJoinPool pool = new ForkJoinPool(4);
+        for (int cases = 0; cases < 30; cases++) {
+            int n = 1 + rnd.nextInt(600);
+            CsrGraph g = randomCsrGraph(rnd, n, 1 + rnd.nextInt(20), rnd.nextInt(2 * n));
+            int[] expected = algo.findComponents(g);
+            int[] ids = algo.findComponentIds(g);
+            assertSamePartition(expected, ids);
+            assertSamePartition(expected, algo.findComponentsParallel(g, pool));
+
+            // The ids are a topological order of the components
+            for (int v = 0; v < n; v++) {
+                for (int j = g.begin(v); j < g.end(v); j++) {
+                    Assert.assertTrue(ids[v] <= ids[g.getTarget(j)]);
+                }
+            }
+            if (n <= 300) {
+                checkCondensedGraph(g, ids, algo.createCondensedGraph(g, ids));
+            }
+        }
+        pool.shutdown();
+    }
+
+    @Test
+    public void testComponentIdsLarge() {
+        // Large enough for the forward-backward algorithm to split the graph before using Tarjan's algorithm
+        Random rnd = new Random(0);
+        StronglyConnectedComponents algo = new StronglyConnectedComponents();
+        ForkJoinPool pool = new ForkJoinPool(4);
+        for (int groups : new int[]{1, 10, 5000}) {
+            int n = 300000;
+            CsrGraph g = randomCsrGraph(rnd, n, groups, n / 2);
+            int[] expected = algo.findComponents(g);
+            assertSamePartition(expected, algo.findComponentIds(g));
+            int[] parallel = algo.findComponentsParallel(g, pool);
+            assertSamePartition(expected, parallel);
+            Assert.assertEquals(0, parallel[0]);
+        }
+        pool.shutdown();
+    }
+
+    @Test
+    public void testComponentIdsPath() {
+        // A path deep enough to overflow the stack of a recursive DFS
+        int n = 1000000;
+        int[] from = new int[n - 1], to = new int[n - 1];
+        for (int i = 0; i + 1 < n; i++) {
+            from[i] = i;
+            to[i] = i + 1;
+        }
+        CsrGraph g = CsrGraph.fromEdges(n, from, to, (int[]) null, true);
+        StronglyConnectedComponents algo = new StronglyConnectedComponents();
+        int[] ids = algo.findComponentIds(g);
+        for (int i = 0; i < n; i++) {
+            Assert.assertEquals(i, ids[i]);
+        }
+        CsrGraph dag = algo.createCondensedGraph(g, ids);
+        Assert.assertEquals(n - 1, dag.getArcCount());
+    }
 }
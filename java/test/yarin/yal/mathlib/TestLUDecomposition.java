@@ -0,0 +1,73 @@
+package yarin.yal.mathlib;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+public class TestLUDecomposition {
+
+    @Test
+    public void testSolve() {
+        Matrix a = new Matrix(new double[][] { { 2, 1, -1 }, { -3, -1, 2 }, { -2, 1, 2 } });
+        LUDecomposition lu = new LUDecomposition(a);
+        Assert.assertFalse(lu.isSingular());
+        Assert.assertEquals(a.getDeterminant(), lu.getDeterminant(), 1e-9);
+
+        double[] x = lu.solve(new double[] { 8, -11, -3 });
+        Assert.assertArrayEquals(new double[] { 2, 3, -1 }, x, 1e-9);
+        // The decomposition is reused for another right hand side
+        x = lu.solve(new double[] { 2, -3, -2 });
+        Assert.assertArrayEquals(new double[] { 1, 0, 0 }, x, 1e-9);
+    }
+
+    @Test
+    public void testRandomSystems() {
+        Random random = new Random(0);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        for (int n : new int[] { 1, 2, 10, 400 }) {
+            Matrix a = TestMatrix.randomMatrix(random, n, n), b = TestMatrix.randomMatrix(random, n, 20);
+            for (LUDecomposition lu : new LUDecomposition[] { new LUDecomposition(a), new LUDecomposition(a, pool) }) {
+                Matrix x = lu.solve(b);
+                Assert.assertEquals(b, Matrix.mul(a, x));
+                double[] column = new double[n];
+                for (int i = 0; i < n; i++)
+                    column[i] = b.get(i, 3);
+                double[] y = lu.solve(column);
+                for (int i = 0; i < n; i++)
+                    Assert.assertEquals(x.get(i, 3), y[i], 1e-9);
+            }
+        }
+        pool.shutdown();
+    }
+
+    @Test
+    public void testSingular() {
+        Matrix a = new Matrix(new double[][] { { 1, 2, 3 }, { 2, 4, 6 }, { 1, 0, 1 } });
+        LUDecomposition lu = new LUDecomposition(a);
+        Assert.assertTrue(lu.isSingular());
+        Assert.assertEquals(0, lu.getDeterminant(), 1e-9);
+        try {
+            lu.solve(new double[] { 1, 2, 3 });
+            Assert.fail();
+        } catch (IllegalStateException e) {
+            // Expected
+        }
+    }
+
+    @Test
+    public void testNumericallySingular() {
+        // Rounding leaves a pivot of about 1e-16 instead of 0
+        Matrix a = new Matrix(new double[][] { { 1, 2, 3 }, { 4, 5, 6 }, { 7, 8, 9 } });
+        LUDecomposition lu = new LUDecomposition(a);
+        Assert.assertTrue(lu.isSingular());
+        Assert.assertEquals(a.getDeterminant(), lu.getDeterminant(), 0);
+        try {
+            a.getInverse();
+            Assert.fail();
+        } catch (IllegalStateException e) {
+            // Expected
+        }
+    }
+}
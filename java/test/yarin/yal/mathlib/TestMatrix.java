@@ -4,6 +4,7 @@ import org.junit.Assert;
 import org.junit.Test;
 
 import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
 
 public class TestMatrix {
 
@@ -274,4 +275,61 @@ public class TestMatrix {
         Assert.assertEquals(4.0, c.get(1,1), DELTA);
         Assert.assertEquals(1.0, c.get(1,2), DELTA);
     }
+
+    @Test
+    public void testBlockedMultiplication() {
+        Random random = new Random(0);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        int[][] sizes = { { 1, 1, 1 }, { 3, 300, 2 }, { 130, 129, 270 }, { 257, 300, 65 } };
+        for (int[] size : sizes) {
+            Matrix a = randomMatrix(random, size[0], size[1]), b = randomMatrix(random, size[1], size[2]);
+            Matrix expected = new Matrix(size[0], size[2]);
+            for (int i = 0; i < size[0]; i++) {
+                for (int j = 0; j < size[2]; j++) {
+                    double sum = 0;
+                    for (int k = 0; k < size[1]; k++)
+                        sum += a.get(i, k) * b.get(k, j);
+                    expected.set(i, j, sum);
+                }
+            }
+            Assert.assertEquals(expected, Matrix.mul(a, b));
+            Assert.assertEquals(expected, Matrix.mul(a, b, pool));
+        }
+        pool.shutdown();
+    }
+
+    @Test
+    public void testElementwiseOperations() {
+        Matrix a = new Matrix(2, 2, new double[] { 1, 2, 3, 4 });
+        Matrix b = new Matrix(new double[][] { { 4, 3 }, { 2, 1 } });
+        Assert.assertEquals(new Matrix(2, 2, new double[] { 5, 5, 5, 5 }), Matrix.add(a, b));
+        Assert.assertEquals(new Matrix(2, 2, new double[] { -3, -1, 1, 3 }), Matrix.sub(a, b));
+        Assert.assertEquals(new Matrix(2, 2, new double[] { 2, 4, 6, 8 }), Matrix.mul(a, 2));
+        Assert.assertEquals(new Matrix(2, 2, new double[] { 1.5, 2.5, 3.5, 4.5 }), Matrix.add(a, 0.5));
+        Assert.assertEquals(new Matrix(2, 2, new double[] { 0, 1, 2, 3 }), Matrix.sub(a, 1));
+
+        // The matrix is backed by the array
+        a.getData()[3] = 7;
+        Assert.assertEquals(7, a.get(1, 1), DELTA);
+    }
+
+    @Test
+    public void testRandomInverse() {
+        Random random = new Random(0);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        for (int n : new int[] { 1, 5, 300 }) {
+            Matrix a = randomMatrix(random, n, n);
+            Assert.assertEquals(Matrix.createIdentity(n), Matrix.mul(a, a.getInverse()));
+            Assert.assertEquals(Matrix.createIdentity(n), Matrix.mul(a, a.getInverse(pool)));
+        }
+        pool.shutdown();
+    }
+
+    static Matrix randomMatrix(Random random, int rows, int columns) {
+        Matrix m = new Matrix(rows, columns);
+        for (int i = 0; i < rows; i++)
+            for (int j = 0; j < columns; j++)
+                m.set(i, j, random.nextDouble() * 2 - 1);
+        return m;
+    }
 }
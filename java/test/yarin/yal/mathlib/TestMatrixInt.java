@@ -77,4 +77,66 @@ public class TestMatrixInt {
                 Assert.assertEquals(expectedRes[i], res[i]);
         }
     }
+
+    @Test
+    public void testMulLargeModulus() {
+        Random r = new Random(0);
+        for (int mod : new int[] { 2, 1000003, 2147483647 }) {
+            int n = 1 + r.nextInt(40);
+            MatrixInt a = randomMatrix(r, n, n, mod), b = randomMatrix(r, n, n, mod);
+            Assert.assertEquals(naiveMul(a, b), MatrixInt.mul(a, b));
+        }
+    }
+
+    @Test
+    public void testPow() {
+        Random r = new Random(0);
+        for (int mod : new int[] { 1, 7, 1000000007, 2147483647 }) {
+            MatrixInt a = randomMatrix(r, 5, 5, mod), expected = MatrixInt.createIdentity(5, mod);
+            for (int e = 0; e < 20; e++) {
+                Assert.assertEquals(expected, a.pow(e));
+                expected = naiveMul(expected, a);
+            }
+        }
+    }
+
+    @Test
+    public void testFibonacciPow() {
+        int mod = 1000000007;
+        MatrixInt q = new MatrixInt(new int[][] { { 1, 1 }, { 1, 0 } }, mod);
+        for (long n : new long[] { 1, 2, 90, 1000000000000000000L, Long.MAX_VALUE }) {
+            Assert.assertEquals(fibonacci(n, mod)[0], q.pow(n).get(0, 1));
+        }
+    }
+
+    // {F(n), F(n + 1)} mod p by fast doubling
+    private static long[] fibonacci(long n, long p) {
+        if (n == 0) return new long[] { 0, 1 };
+        long[] h = fibonacci(n / 2, p);
+        long a = h[0], b = h[1];
+        long c = a * ((2 * b - a + p) % p) % p, d = (a * a + b * b) % p;
+        return n % 2 == 0 ? new long[] { c, d } : new long[] { d, (c + d) % p };
+    }
+
+    private static MatrixInt randomMatrix(Random r, int rows, int columns, int mod) {
+        MatrixInt m = new MatrixInt(rows, columns, mod);
+        for (int y = 0; y < rows; y++)
+            for (int x = 0; x < columns; x++)
+                m.set(y, x, r.nextInt(mod));
+        return m;
+    }
+
+    private static MatrixInt naiveMul(MatrixInt a, MatrixInt b) {
+        int mod = a.getMod();
+        MatrixInt c = new MatrixInt(a.getRows(), b.getColumns(), mod);
+        for (int i = 0; i < a.getRows(); i++) {
+            for (int j = 0; j < b.getColumns(); j++) {
+                long sum = 0;
+                for (int k = 0; k < a.getColumns(); k++)
+                    sum = (sum + (long) a.get(i, k) * b.get(k, j)) % mod;
+                c.set(i, j, (int) sum);
+            }
+        }
+        return c;
+    }
 }
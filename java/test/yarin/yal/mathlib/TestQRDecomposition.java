@@ -0,0 +1,62 @@
+package yarin.yal.mathlib;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Random;
+
+public class TestQRDecomposition {
+
+    @Test
+    public void testSquareSystem() {
+        Matrix a = new Matrix(new double[][] { { 2, 1, -1 }, { -3, -1, 2 }, { -2, 1, 2 } });
+        QRDecomposition qr = new QRDecomposition(a);
+        Assert.assertTrue(qr.isFullRank());
+        Assert.assertArrayEquals(new double[] { 2, 3, -1 }, qr.solve(new double[] { 8, -11, -3 }), 1e-9);
+    }
+
+    @Test
+    public void testLeastSquaresLine() {
+        // Fit y = c0 + c1 x to four points; the least squares line is y = 1.3 + 1.8x
+        double[] xs = { 0, 1, 2, 3 }, ys = { 1.5, 2.5, 5.5, 6.5 };
+        Matrix a = new Matrix(4, 2);
+        for (int i = 0; i < 4; i++) {
+            a.set(i, 0, 1);
+            a.set(i, 1, xs[i]);
+        }
+        double[] c = new QRDecomposition(a).solve(ys);
+        Assert.assertEquals(1.3, c[0], 1e-9);
+        Assert.assertEquals(1.8, c[1], 1e-9);
+    }
+
+    @Test
+    public void testRandomOverdetermined() {
+        Random random = new Random(0);
+        for (int n : new int[] { 1, 5, 50 }) {
+            // b is in the column space of a, so the least squares solution is exact
+            Matrix a = TestMatrix.randomMatrix(random, 2 * n, n), x = TestMatrix.randomMatrix(random, n, 3);
+            Matrix b = Matrix.mul(a, x);
+            Assert.assertEquals(x, new QRDecomposition(a).solve(b));
+        }
+    }
+
+    @Test
+    public void testRankDeficient() {
+        Matrix a = new Matrix(new double[][] { { 1, 2 }, { 2, 4 }, { 3, 6 } });
+        QRDecomposition qr = new QRDecomposition(a);
+        Assert.assertFalse(qr.isFullRank());
+    }
+
+    @Test
+    public void testNumericallyRankDeficient() {
+        Matrix a = new Matrix(new double[][] { { 1, 2, 3 }, { 4, 5, 6 }, { 7, 8, 9 }, { 10, 11, 12 } });
+        QRDecomposition qr = new QRDecomposition(a);
+        Assert.assertFalse(qr.isFullRank());
+        try {
+            qr.solve(new double[] { 1, 2, 3, 4 });
+            Assert.fail();
+        } catch (IllegalStateException e) {
+            // Expected
+        }
+    }
+}